@@ -0,0 +1,34 @@
+package de.bernd_michaely.common.resources.itest.resourceholders;
+
+import de.bernd_michaely.common.resources.EnumStringMap;
+import de.bernd_michaely.common.resources.EnumType;
+import de.bernd_michaely.common.resources.EnumTypes;
+import de.bernd_michaely.common.resources.GenericResources;
+import de.bernd_michaely.common.resources.ResourceHolder;
+import de.bernd_michaely.common.resources.StringResources;
+
+@StringResources(
+	modulename = "de.bernd_michaely.common.resources.itest.resources",
+	packagename = ".strings",
+	basename = "string")
+public class TestGeneratedInjector
+	extends ResourceHolder
+{
+	public enum Choice
+	{
+		YES, NO
+	}
+
+	@GenericResources
+	public static class NestedResources
+	{
+		public String labelValid1;
+		public EnumStringMap<Choice> choices;
+	}
+
+	public String labelValid1;
+	@EnumType(Choice.class)
+	public EnumStringMap<Choice> choices;
+	@EnumTypes(enumType = Choice.class, fieldNames = "choices")
+	public NestedResources nested;
+}
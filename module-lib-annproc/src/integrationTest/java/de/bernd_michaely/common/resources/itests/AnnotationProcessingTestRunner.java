@@ -161,6 +161,30 @@ public class AnnotationProcessingTestRunner<T>
 	 */
 	public AnnotationProcessingTestRunner<T> compile(Class<? extends T> classCompilerInput)
 		throws IOException
+	{
+		final Path pathTempDir = createTempDir();
+		try
+		{
+			return compile(classCompilerInput, pathTempDir);
+		}
+		finally
+		{
+			cleanUpTempDir(pathTempDir);
+		}
+	}
+
+	/**
+	 * Compiles the given test class using the annotation processor into the
+	 * given directory, which is retained to inspect the generated files.
+	 *
+	 * @param classCompilerInput the class to be tested
+	 * @param outputDirectory    the directory of the class files and generated
+	 *                           resources
+	 * @return this instance
+	 * @throws IOException
+	 */
+	public AnnotationProcessingTestRunner<T> compile(Class<? extends T> classCompilerInput,
+		Path outputDirectory) throws IOException
 	{
 		LOGGER.log(INFO, "Running annotation processor test with compiler input class »" +
 			classCompilerInput.getName() + "« and classpath »" + this.classPath + "«");
@@ -178,24 +202,16 @@ public class AnnotationProcessingTestRunner<T>
 			final Path testClassPath = getPathTestClass(classCompilerInput);
 			final var classToCompile = fileManager.getJavaFileObjects(testClassPath);
 			LOGGER.log(INFO, "Class to compile : »" + testClassPath + "«");
-			final Path pathTempDir = createTempDir();
-			try
-			{
-				final var compilerOptions = List.of(
-					"-AshowCheckedResourceKeys=false",
-					"-AwarnOnlyMissingResources=false",
-					"-classpath", this.classPath,
-					"-d", pathTempDir.toString(),
-					"-implicit:none",
-					"-processor", this.classAnnotationProcessor.getName()
-				);
-				compiler.getTask(null, fileManager, diagnosticCollector,
-					compilerOptions, null, classToCompile).call();
-			}
-			finally
-			{
-				cleanUpTempDir(pathTempDir);
-			}
+			final var compilerOptions = List.of(
+				"-AshowCheckedResourceKeys=false",
+				"-AwarnOnlyMissingResources=false",
+				"-classpath", this.classPath,
+				"-d", outputDirectory.toString(),
+				"-implicit:none",
+				"-processor", this.classAnnotationProcessor.getName()
+			);
+			compiler.getTask(null, fileManager, diagnosticCollector,
+				compilerOptions, null, classToCompile).call();
 		}
 		return this;
 	}
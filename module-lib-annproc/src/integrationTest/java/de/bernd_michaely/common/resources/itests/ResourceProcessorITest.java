@@ -4,17 +4,27 @@ package de.bernd_michaely.common.resources.itests;
 import de.bernd_michaely.common.resources.BinaryResources;
 import de.bernd_michaely.common.resources.GenericResources;
 import de.bernd_michaely.common.resources.ResourceHolder;
+import de.bernd_michaely.common.resources.ResourceHolderInjector;
+import de.bernd_michaely.common.resources.ResourceInjector;
 import de.bernd_michaely.common.resources.StringResources;
 import de.bernd_michaely.common.resources.annproc.ResourceProcessor;
 import de.bernd_michaely.common.resources.itest.resourceholders.*;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
 import javax.tools.Diagnostic;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static de.bernd_michaely.common.resources.ErrorCodes.*;
 import static javax.tools.Diagnostic.Kind.*;
@@ -219,4 +229,111 @@ public class ResourceProcessorITest
 	{
 		testRunner1.compile(TestProcessingSuccessful.class).checkExpectedDiagnostics();
 	}
+
+	@Test
+	public void testGeneratedInjector() throws IOException
+	{
+		// the generated injector is compiled in the same task and must not cause diagnostics:
+		testRunner1.compile(TestGeneratedInjector.class).checkExpectedDiagnostics();
+	}
+
+	@Test
+	public void testGeneratedInjectorOutput(@TempDir Path outputDirectory) throws Exception
+	{
+		testRunner1.compile(TestGeneratedInjector.class, outputDirectory).checkExpectedDiagnostics();
+		final String injectorClassName = TestGeneratedInjector.class.getName() + "$$Injector";
+		assertTrue(Files.isRegularFile(outputDirectory.resolve(
+			injectorClassName.replace('.', '/') + ".class")), "missing generated injector");
+		final Path services = outputDirectory.resolve(
+			"META-INF/services/" + ResourceHolderInjector.class.getName());
+		assertTrue(Files.readAllLines(services).contains(injectorClassName),
+			"missing service provider entry");
+		try (var classLoader = new CompiledClassLoader(outputDirectory,
+			TestGeneratedInjector.class.getPackageName()))
+		{
+			// the freshly compiled class, not the one of the resourceholders module:
+			final Class<? extends ResourceHolder> type = classLoader
+				.loadClass(TestGeneratedInjector.class.getName()).asSubclass(ResourceHolder.class);
+			assertNotSame(TestGeneratedInjector.class, type);
+			final List<Class<?>> serviceProviderTypes = ServiceLoader
+				.load(ResourceHolderInjector.class, classLoader).stream()
+				.<Class<?>>map(provider -> provider.get().getType()).toList();
+			assertTrue(serviceProviderTypes.contains(type), "generated injector is not a service provider");
+			final ResourceHolder expected = new ResourceInjector()
+				.withGeneratedInjectors(false).injectResourcesInto(type);
+			assertEquals("String resource 1", type.getField("labelValid1").get(expected));
+			assertEqualFields(expected, new ResourceInjector().injectResourcesInto(type));
+			final ResourceHolder actual = type.getConstructor().newInstance();
+			new ResourceInjector().injectResourcesInto(actual);
+			assertEqualFields(expected, actual);
+		}
+	}
+
+	/**
+	 * Compares the public instance fields of two objects of the same class,
+	 * descending into nested resource objects.
+	 */
+	private static void assertEqualFields(Object expected, Object actual) throws IllegalAccessException
+	{
+		assertSame(expected.getClass(), actual.getClass());
+		for (Field field : expected.getClass().getFields())
+		{
+			if (!Modifier.isStatic(field.getModifiers()))
+			{
+				final Object expectedValue = field.get(expected);
+				final Object actualValue = field.get(actual);
+				assertNotNull(expectedValue, field.getName());
+				if (expectedValue instanceof String || expectedValue instanceof Map)
+				{
+					assertEquals(expectedValue, actualValue, field.getName());
+				}
+				else
+				{
+					assertNotNull(actualValue, field.getName());
+					assertEqualFields(expectedValue, actualValue);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Class loader for the output of the annotation processing test, which
+	 * loads the classes of the given package itself instead of delegating to
+	 * its parent, which defines them in the resourceholders module already.
+	 */
+	private static final class CompiledClassLoader extends URLClassLoader
+	{
+		private final String packagePrefix;
+
+		private CompiledClassLoader(Path outputDirectory, String packageName) throws IOException
+		{
+			super(new URL[]
+			{
+				outputDirectory.toUri().toURL()
+			}, ResourceProcessorITest.class.getClassLoader());
+			this.packagePrefix = packageName + '.';
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+		{
+			if (!name.startsWith(packagePrefix))
+			{
+				return super.loadClass(name, resolve);
+			}
+			synchronized (getClassLoadingLock(name))
+			{
+				Class<?> loadedClass = findLoadedClass(name);
+				if (loadedClass == null)
+				{
+					loadedClass = findClass(name);
+				}
+				if (resolve)
+				{
+					resolveClass(loadedClass);
+				}
+				return loadedClass;
+			}
+		}
+	}
 }
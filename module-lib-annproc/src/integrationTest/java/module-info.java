@@ -27,4 +27,5 @@ module de.bernd_michaely.common.resources.itests
 	requires org.junit.jupiter.api;
 //	requires org.checkerframework.checker.qual;
 	exports de.bernd_michaely.common.resources.itests;
+	uses de.bernd_michaely.common.resources.ResourceHolderInjector;
 }
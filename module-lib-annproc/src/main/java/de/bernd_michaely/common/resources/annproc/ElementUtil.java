@@ -26,6 +26,7 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 
 import static de.bernd_michaely.common.resources.ErrorCodes.*;
+import static de.bernd_michaely.common.resources.SharedConstants.TYPE_NAME_BYTE_ARRAY;
 import static javax.lang.model.element.ElementKind.FIELD;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PUBLIC;
@@ -92,9 +93,23 @@ class ElementUtil
 		return !element.getModifiers().contains(FINAL);
 	}
 
+	/**
+	 * Checks, whether a field is not final. A final OptionalBinaryObject field
+	 * is accepted, because the injector updates the existing instance.
+	 *
+	 * @param element the field to check
+	 * @return true, if the field is not final or a final OptionalBinaryObject
+	 */
 	boolean checkFieldNotFinal(VariableElement element)
 	{
-		return checkPredicate(ElementUtil::isFieldNotFinal, element, ERR_FIELD_FINAL);
+		return checkPredicate(field -> isFieldNotFinal(field) || isOptionalBinaryObject(field),
+			element, ERR_FIELD_FINAL);
+	}
+
+	boolean isOptionalBinaryObject(VariableElement element)
+	{
+		return TYPE_NAME_BYTE_ARRAY.equals(
+			processingEnvironment.getTypeUtils().erasure(element.asType()).toString());
 	}
 
 	boolean isResourceHolder(Element element)
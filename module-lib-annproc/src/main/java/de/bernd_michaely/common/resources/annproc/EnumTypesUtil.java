@@ -15,6 +15,7 @@
  */
 package de.bernd_michaely.common.resources.annproc;
 
+import de.bernd_michaely.common.resources.EnumType;
 import de.bernd_michaely.common.resources.EnumTypes;
 import de.bernd_michaely.common.resources.EnumTypesContainer;
 import java.util.ArrayList;
@@ -35,6 +36,7 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeMirror;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -95,6 +97,35 @@ class EnumTypesUtil
 		}
 	}
 
+	/**
+	 * Returns the enum type given by an {@link EnumType} annotation of a field.
+	 *
+	 * @param field the annotated field
+	 * @return the enum type or null, if the field is not annotated
+	 */
+	@Nullable
+	TypeElement getEnumType(VariableElement field)
+	{
+		for (AnnotationMirror annotationMirror : field.getAnnotationMirrors())
+		{
+			final Element annotationType = annotationMirror.getAnnotationType().asElement();
+			if (annotationType instanceof TypeElement typeElement &&
+				typeElement.getQualifiedName().contentEquals(EnumType.class.getCanonicalName()))
+			{
+				for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+					: annotationMirror.getElementValues().entrySet())
+				{
+					if (entry.getValue().getValue() instanceof DeclaredType declaredType &&
+						declaredType.asElement() instanceof TypeElement enumType)
+					{
+						return enumType;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
 	Map<@Nullable String, TypeElement> getMapEnumTypes(
 		@Nullable VariableElement fieldRef, BiConsumer<EnumTypes, String> onDuplicateFieldName)
 	{
@@ -130,7 +161,7 @@ class EnumTypesUtil
 							@SuppressWarnings("unchecked")
 							final List<? extends AnnotationValue> listFieldNames =
 								(List<? extends AnnotationValue>) annotationValueObject;
-							listFieldNames.forEach(fieldName -> fieldNames.add(fieldName.toString()));
+							listFieldNames.forEach(fieldName -> fieldNames.add(String.valueOf(fieldName.getValue())));
 						}
 						else
 						{
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources.annproc;
+
+import de.bernd_michaely.common.resources.InjectionContext;
+import de.bernd_michaely.common.resources.ResourceHolder;
+import de.bernd_michaely.common.resources.ResourceHolderInjector;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import static de.bernd_michaely.common.resources.SharedConstants.*;
+import static javax.lang.model.element.Modifier.ABSTRACT;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Generator of the source code of a {@link ResourceHolderInjector} for a
+ * single ResourceHolder class. The generated class is named by appending
+ * {@link de.bernd_michaely.common.resources.SharedConstants#SUFFIX_GENERATED_INJECTOR}
+ * to the binary name of the ResourceHolder class and assigns all fields
+ * including the fields of nested {@link de.bernd_michaely.common.resources.GenericResources}
+ * types with plain Java code. The resource keys and binary paths are resolved
+ * at compile time in the same way as by runtime injection.
+ * <p>
+ * If a field or nested type cannot be handled by generated code, the
+ * generator is {@link #invalidate() invalidated} and no injector is written,
+ * so the ResourceHolder falls back to runtime injection.
+ * </p>
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+class InjectorGenerator
+{
+	private static final String VAR_RESOURCE_HOLDER = "r";
+	private static final String VAR_CONTEXT = "c";
+	private static final String VAR_NESTED = "n";
+	private static final String INDENT = "\t\t";
+	private final ProcessingEnvironment processingEnvironment;
+	private final TypeElement resourceHolder;
+	private final String binaryPathPrefix;
+	private final StringBuilder body = new StringBuilder();
+	private final Deque<String> targets = new ArrayDeque<>();
+	private int nestedCount;
+	private boolean valid = true;
+
+	private InjectorGenerator(ProcessingEnvironment processingEnvironment,
+		TypeElement resourceHolder, String binaryPathPrefix)
+	{
+		this.processingEnvironment = processingEnvironment;
+		this.resourceHolder = resourceHolder;
+		this.binaryPathPrefix = binaryPathPrefix;
+		this.targets.push(VAR_RESOURCE_HOLDER);
+	}
+
+	/**
+	 * Creates a generator for the given ResourceHolder class.
+	 *
+	 * @param processingEnvironment the processing environment
+	 * @param resourceHolder        the ResourceHolder class
+	 * @param binaryPathPrefix      the absolute path prefix of binary resources
+	 * @return a new generator or null, if no injector can be generated for the
+	 *         given class, e.g. because it is abstract, generic or does not
+	 *         directly extend ResourceHolder
+	 */
+	static @Nullable
+	InjectorGenerator create(ProcessingEnvironment processingEnvironment,
+		TypeElement resourceHolder, String binaryPathPrefix)
+	{
+		final TypeElement typeResourceHolder = processingEnvironment.getElementUtils()
+			.getTypeElement(ResourceHolder.class.getCanonicalName());
+		final boolean isSupported = typeResourceHolder != null &&
+			isAccessible(resourceHolder) &&
+			!resourceHolder.getModifiers().contains(ABSTRACT) &&
+			resourceHolder.getTypeParameters().isEmpty() &&
+			processingEnvironment.getTypeUtils().isSameType(
+				resourceHolder.getSuperclass(), typeResourceHolder.asType());
+		return isSupported ?
+			new InjectorGenerator(processingEnvironment, resourceHolder, binaryPathPrefix) : null;
+	}
+
+	/**
+	 * Checks, whether a type can be referenced by its canonical name from
+	 * another package, that is, the type and all its enclosing types are public
+	 * and member types are static.
+	 *
+	 * @param typeElement the type to check
+	 * @return true, if the type is accessible
+	 */
+	private static boolean isAccessible(TypeElement typeElement)
+	{
+		final NestingKind nestingKind = typeElement.getNestingKind();
+		if (!typeElement.getModifiers().contains(PUBLIC))
+		{
+			return false;
+		}
+		else if (nestingKind == NestingKind.TOP_LEVEL)
+		{
+			return true;
+		}
+		else if (nestingKind == NestingKind.MEMBER &&
+			(typeElement.getKind() != ElementKind.CLASS || typeElement.getModifiers().contains(STATIC)))
+		{
+			final Element enclosingElement = typeElement.getEnclosingElement();
+			return enclosingElement instanceof TypeElement enclosingType && isAccessible(enclosingType);
+		}
+		else
+		{
+			return false;
+		}
+	}
+
+	private static boolean hasPublicNoArgConstructor(TypeElement typeElement)
+	{
+		return typeElement.getEnclosedElements().stream()
+			.filter(element -> element.getKind() == ElementKind.CONSTRUCTOR)
+			.map(element -> (ExecutableElement) element)
+			.anyMatch(constructor -> constructor.getParameters().isEmpty() &&
+				constructor.getModifiers().contains(PUBLIC));
+	}
+
+	private String literal(String value)
+	{
+		return processingEnvironment.getElementUtils().getConstantExpression(value);
+	}
+
+	private String getTarget(VariableElement field)
+	{
+		final String target = field.getModifiers().contains(STATIC) ?
+			((TypeElement) field.getEnclosingElement()).getQualifiedName().toString() :
+			targets.element();
+		return target + "." + field.getSimpleName();
+	}
+
+	private void addStatement(String statement)
+	{
+		body.append(INDENT).append(statement).append(";\n");
+	}
+
+	/**
+	 * Invalidates this generator, so no injector will be written.
+	 */
+	void invalidate()
+	{
+		valid = false;
+	}
+
+	boolean isValid()
+	{
+		return valid;
+	}
+
+	/**
+	 * Adds the injection of a String field.
+	 *
+	 * @param field       the field
+	 * @param resourceKey the fully resolved resource key
+	 */
+	void addString(VariableElement field, String resourceKey)
+	{
+		addStatement(getTarget(field) + " = " + VAR_CONTEXT + ".getString(" + literal(resourceKey) + ")");
+	}
+
+	/**
+	 * Adds the injection of an OptionalBinaryObject field.
+	 *
+	 * @param field       the field
+	 * @param resourceKey the fully resolved resource key
+	 * @param fileExt     the file extension
+	 */
+	void addBinary(VariableElement field, String resourceKey, String fileExt)
+	{
+		final String target = getTarget(field);
+		final String expression = VAR_CONTEXT + ".getBinary(" + target + ", " +
+			literal(binaryPathPrefix + resourceKey + fileExt) + ")";
+		addStatement(field.getModifiers().contains(FINAL) ? expression : (target + " = " + expression));
+	}
+
+	/**
+	 * Adds the injection of a BinaryResourceStream, BinaryResourceChannel,
+	 * BinaryResourceBuffer or BinaryResourceRange field.
+	 *
+	 * @param field       the field
+	 * @param resourceKey the fully resolved resource key
+	 * @param fileExt     the file extension
+	 * @param methodName  the name of the InjectionContext method returning the
+	 *                    handle
+	 */
+	void addBinaryHandle(VariableElement field, String resourceKey, String fileExt, String methodName)
+	{
+		final String target = getTarget(field);
+		addStatement(target + " = " + VAR_CONTEXT + "." + methodName + "(" + target + ", " +
+			literal(binaryPathPrefix + resourceKey + fileExt) + ")");
+	}
+
+	/**
+	 * Adds the injection of a DecodedBinaryObject field. Type arguments, which
+	 * are not accessible non-generic classes, are left to runtime injection.
+	 *
+	 * @param field       the field
+	 * @param resourceKey the fully resolved resource key
+	 * @param fileExt     the file extension
+	 */
+	void addDecoded(VariableElement field, String resourceKey, String fileExt)
+	{
+		final List<? extends TypeMirror> typeArguments =
+			(field.asType() instanceof DeclaredType declaredType) ?
+			declaredType.getTypeArguments() : List.of();
+		final TypeMirror typeArgument = typeArguments.isEmpty() ? null : typeArguments.get(0);
+		if (typeArgument instanceof DeclaredType decodedType &&
+			decodedType.getTypeArguments().isEmpty() &&
+			isAccessible((TypeElement) decodedType.asElement()))
+		{
+			final String target = getTarget(field);
+			addStatement(target + " = " + VAR_CONTEXT + ".getDecoded(" + target + ", " +
+				literal(binaryPathPrefix + resourceKey + fileExt) + ", " +
+				((TypeElement) decodedType.asElement()).getQualifiedName() + ".class)");
+		}
+		else
+		{
+			invalidate();
+		}
+	}
+
+	private @Nullable
+	List<String> getEnumConstantNames(@Nullable TypeElement enumType)
+	{
+		if (enumType == null || enumType.getKind() != ElementKind.ENUM || !isAccessible(enumType))
+		{
+			return null;
+		}
+		return enumType.getEnclosedElements().stream()
+			.filter(element -> element.getKind() == ElementKind.ENUM_CONSTANT)
+			.map(element -> element.getSimpleName().toString())
+			.collect(Collectors.toList());
+	}
+
+	private void addEnumMap(VariableElement field, @Nullable TypeElement enumType,
+		String methodName, String prefix, String postfix)
+	{
+		final List<String> enumConstantNames = getEnumConstantNames(enumType);
+		if (enumType == null)
+		{
+			// not injected at runtime either
+		}
+		else if (enumConstantNames == null)
+		{
+			invalidate();
+		}
+		else
+		{
+			final String arguments = enumConstantNames.stream()
+				.map(name -> ",\n" + INDENT + "\t" + literal(prefix + name + postfix))
+				.collect(Collectors.joining());
+			addStatement(getTarget(field) + " = " + VAR_CONTEXT + "." + methodName + "(" +
+				enumType.getQualifiedName() + ".class" + arguments + ")");
+		}
+	}
+
+	/**
+	 * Adds the injection of an EnumStringMap field.
+	 *
+	 * @param field       the field
+	 * @param enumType    the enum type of the map or null, if unknown
+	 * @param resourceKey the fully resolved resource key
+	 */
+	void addEnumStringMap(VariableElement field, @Nullable TypeElement enumType, String resourceKey)
+	{
+		addEnumMap(field, enumType, "getEnumStringMap", resourceKey + SEPARATOR_ENUM_KEY, "");
+	}
+
+	/**
+	 * Adds the injection of an EnumByteArrayMap field.
+	 *
+	 * @param field       the field
+	 * @param enumType    the enum type of the map or null, if unknown
+	 * @param resourceKey the fully resolved resource key
+	 * @param fileExt     the file extension
+	 */
+	void addEnumByteArrayMap(VariableElement field, @Nullable TypeElement enumType,
+		String resourceKey, String fileExt)
+	{
+		addEnumMap(field, enumType, "getEnumByteArrayMap",
+			binaryPathPrefix + resourceKey + SEPARATOR_ENUM_FILE, fileExt);
+	}
+
+	/**
+	 * Adds the instantiation of a nested GenericResources type. The following
+	 * fields are assigned to the new instance until {@link #exitNested()} is
+	 * called.
+	 *
+	 * @param field    the field referencing the nested type
+	 * @param nestedType the nested type
+	 */
+	void enterNested(VariableElement field, TypeElement nestedType)
+	{
+		final TypeMirror superclass = nestedType.getSuperclass();
+		final boolean isObjectSubclass = superclass.getKind() == TypeKind.DECLARED &&
+			((TypeElement) ((DeclaredType) superclass).asElement())
+				.getQualifiedName().contentEquals(Object.class.getName());
+		if (!isAccessible(nestedType) || nestedType.getKind() != ElementKind.CLASS ||
+			nestedType.getModifiers().contains(ABSTRACT) ||
+			!isObjectSubclass || !hasPublicNoArgConstructor(nestedType))
+		{
+			invalidate();
+		}
+		final String variable = VAR_NESTED + (++nestedCount);
+		final String diamond = nestedType.getTypeParameters().isEmpty() ? "" : "<>";
+		addStatement("final var " + variable + " = " + getTarget(field) +
+			" = new " + nestedType.getQualifiedName() + diamond + "()");
+		targets.push(variable);
+	}
+
+	/**
+	 * Returns to the enclosing type after {@link #enterNested}.
+	 */
+	void exitNested()
+	{
+		targets.pop();
+	}
+
+	/**
+	 * Returns the binary name of the generated class.
+	 *
+	 * @return the binary name of the generated class
+	 */
+	String getInjectorClassName()
+	{
+		return processingEnvironment.getElementUtils().getBinaryName(resourceHolder) +
+			SUFFIX_GENERATED_INJECTOR;
+	}
+
+	/**
+	 * Writes the source file of the generated injector.
+	 *
+	 * @param filer the filer to create the source file
+	 * @throws IOException on error creating the source file
+	 */
+	void write(Filer filer) throws IOException
+	{
+		final String packageName = processingEnvironment.getElementUtils()
+			.getPackageOf(resourceHolder).getQualifiedName().toString();
+		final String injectorClassName = getInjectorClassName();
+		final String simpleName = packageName.isEmpty() ? injectorClassName :
+			injectorClassName.substring(packageName.length() + 1);
+		final String type = resourceHolder.getQualifiedName().toString();
+		final StringBuilder source = new StringBuilder();
+		source.append("// Generated by ").append(ResourceProcessor.class.getName())
+			.append(" – do not edit.\n");
+		if (!packageName.isEmpty())
+		{
+			source.append("package ").append(packageName).append(";\n");
+		}
+		source.append("\n");
+		source.append("public final class ").append(simpleName).append("\n");
+		source.append("\timplements ").append(ResourceHolderInjector.class.getName())
+			.append("<").append(type).append(">\n");
+		source.append("{\n");
+		source.append("\t@Override\n");
+		source.append("\tpublic Class<").append(type).append("> getType()\n");
+		source.append("\t{\n");
+		source.append(INDENT).append("return ").append(type).append(".class;\n");
+		source.append("\t}\n\n");
+		source.append("\t@Override\n");
+		source.append("\tpublic ").append(type).append(" newInstance()\n");
+		source.append("\t{\n");
+		source.append(INDENT).append("return ").append(hasPublicNoArgConstructor(resourceHolder) ?
+			("new " + type + "()") : "null").append(";\n");
+		source.append("\t}\n\n");
+		source.append("\t@Override\n");
+		source.append("\t@SuppressWarnings(\"unchecked\")\n");
+		source.append("\tpublic void inject(").append(type).append(" ").append(VAR_RESOURCE_HOLDER)
+			.append(", ").append(InjectionContext.class.getName()).append(" ").append(VAR_CONTEXT)
+			.append(")\n");
+		source.append("\t{\n");
+		source.append(body);
+		source.append("\t}\n");
+		source.append("}\n");
+		try (Writer writer = filer.createSourceFile(injectorClassName, resourceHolder).openWriter())
+		{
+			writer.write(source.toString());
+		}
+	}
+}
@@ -15,21 +15,29 @@
  */
 package de.bernd_michaely.common.resources.annproc;
 
+import de.bernd_michaely.common.resources.BinaryManifestWriter;
 import de.bernd_michaely.common.resources.BinaryResources;
+import de.bernd_michaely.common.resources.ContentEncoding;
 import de.bernd_michaely.common.resources.EnumTypes;
 import de.bernd_michaely.common.resources.ErrorCodes;
 import de.bernd_michaely.common.resources.FileExt;
 import de.bernd_michaely.common.resources.GenericResources;
 import de.bernd_michaely.common.resources.IsResourceHolder;
+import de.bernd_michaely.common.resources.ResourceHolderInjector;
 import de.bernd_michaely.common.resources.ResourceKey;
+import de.bernd_michaely.common.resources.ResourcePackWriter;
 import de.bernd_michaely.common.resources.ResourceParameters;
 import de.bernd_michaely.common.resources.StringResources;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import javax.annotation.processing.AbstractProcessor;
@@ -39,7 +47,6 @@ import javax.annotation.processing.SupportedAnnotationTypes;
 import javax.annotation.processing.SupportedOptions;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
-import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
@@ -71,7 +78,27 @@ import static javax.lang.model.element.ElementKind.FIELD;
  * <td>if true, report missing resources as warnings only (by default report
  * missing resources as errors)</td>
  * </tr>
+ * <tr>
+ * <td>packBinaryResources</td><td>boolean</td><td>false</td>
+ * <td>if true, additionally pack the binary resources of each package into a
+ * single resource pack file, from which they are read at runtime with one
+ * resource lookup, if enabled by {@code ResourceInjector.withResourcePacks};
+ * packs are not checked for staleness and must be rebuilt whenever the
+ * resources change</td>
+ * </tr>
+ * <tr>
+ * <td>precompressBinaryResources</td><td>boolean</td><td>false</td>
+ * <td>if true, additionally store gzip and deflate variants of the binary
+ * resources and a manifest of their sizes and SHA-256 digests for each
+ * package, so that they can be served without compression at runtime</td>
+ * </tr>
  * </table>
+ * <p>
+ * Additionally, for each suitable ResourceHolder class a
+ * {@link ResourceHolderInjector} is generated, which is registered as a
+ * service provider in {@code META-INF/services} and injects the resources
+ * without reflection.
+ * </p>
  *
  * @author Bernd Michaely (info@bernd-michaely.de)
  */
@@ -79,7 +106,8 @@ import static javax.lang.model.element.ElementKind.FIELD;
 @SupportedSourceVersion(SourceVersion.RELEASE_17)
 @SupportedOptions(
 	{
-		"showCheckedResourceKeys", "warnOnlyMissingResources"
+		"showCheckedResourceKeys", "warnOnlyMissingResources", "packBinaryResources",
+		"precompressBinaryResources"
 	})
 public class ResourceProcessor extends AbstractProcessor
 {
@@ -87,6 +115,8 @@ public class ResourceProcessor extends AbstractProcessor
 	// annotation processor option names:
 	private static final String A_SHOW_CHECKED_RESOURCE_KEYS = "showCheckedResourceKeys";
 	private static final String A_WARN_ONLY_MISSING_RESOURCES = "warnOnlyMissingResources";
+	private static final String A_PACK_BINARY_RESOURCES = "packBinaryResources";
+	private static final String A_PRECOMPRESS_BINARY_RESOURCES = "precompressBinaryResources";
 	private static final String FORMAT_ERROR_NUMBER = "%d";
 	/**
 	 * Error code format string. The format string contains a »%d« argument which
@@ -106,6 +136,14 @@ public class ResourceProcessor extends AbstractProcessor
 	private @MonotonicNonNull DiagnosticReporter diagnostics;
 	private @MonotonicNonNull ElementUtil elementUtil;
 	private @MonotonicNonNull ResourceParameters resourceParameters;
+	private final Set<String> generatedInjectors = new TreeSet<>();
+	private boolean packBinaryResources;
+	private boolean precompressBinaryResources;
+	private boolean isPackingResourceHolder;
+	private boolean isPrecompressingResourceHolder;
+	private final Map<String, ResourcePackWriter> resourcePacks = new TreeMap<>();
+	private final Map<String, BinaryManifestWriter> binaryManifests = new TreeMap<>();
+	private final Set<String> writtenVariants = new TreeSet<>();
 
 	static
 	{
@@ -134,10 +172,16 @@ public class ResourceProcessor extends AbstractProcessor
 					processingEnv.getOptions().get(A_SHOW_CHECKED_RESOURCE_KEYS));
 				final boolean warnOnlyMissingResources = Boolean.parseBoolean(
 					processingEnv.getOptions().get(A_WARN_ONLY_MISSING_RESOURCES));
+				packBinaryResources = Boolean.parseBoolean(
+					processingEnv.getOptions().get(A_PACK_BINARY_RESOURCES));
+				precompressBinaryResources = Boolean.parseBoolean(
+					processingEnv.getOptions().get(A_PRECOMPRESS_BINARY_RESOURCES));
 				if (beVerbose)
 				{
 					System.out.println("[-A] SHOW_CHECKED_RESOURCE_KEYS  : " + showCheckedResourceKeys);
 					System.out.println("[-A] WARN_ONLY_MISSING_RESOURCES : " + warnOnlyMissingResources);
+					System.out.println("[-A] PACK_BINARY_RESOURCES       : " + packBinaryResources);
+					System.out.println("[-A] PRECOMPRESS_BINARY_RESOURCES: " + precompressBinaryResources);
 				}
 				diagnostics = new DiagnosticReporter(processingEnv,
 					showCheckedResourceKeys, warnOnlyMissingResources);
@@ -171,17 +215,173 @@ public class ResourceProcessor extends AbstractProcessor
 				{
 					getDiagnostics().trace("Check ResourceHolder class", typeElement);
 					getElementUtil().checkElementPublic(typeElement);
+					final BinaryResources binaryResources = typeElement.getAnnotation(BinaryResources.class);
 					resourceParameters = new ResourceParameters(
-						typeElement.getAnnotation(StringResources.class),
-						typeElement.getAnnotation(BinaryResources.class),
+						typeElement.getAnnotation(StringResources.class), binaryResources,
 						processingEnv.getElementUtils().getPackageOf(typeElement)
 							.getQualifiedName().toString());
-					handleResourceHolder(typeElement, null, null);
+					// resources of other modules can not be processed into the compiled module:
+					final boolean isLocal = binaryResources != null && binaryResources.modulename().isBlank();
+					isPackingResourceHolder = packBinaryResources && isLocal;
+					isPrecompressingResourceHolder = precompressBinaryResources && isLocal;
+					final InjectorGenerator injectorGenerator = InjectorGenerator.create(processingEnv,
+						typeElement, getResourceParameters().getBinaryPathPrefix());
+					handleResourceHolder(typeElement, null, null, injectorGenerator);
+					if (injectorGenerator != null)
+					{
+						writeInjector(typeElement, injectorGenerator);
+					}
 				});
+			if (roundEnv.processingOver())
+			{
+				writeInjectorServices();
+				writeResourcePacks();
+				writeBinaryManifests();
+			}
 		}
 		return true;
 	}
 
+	private void writeInjector(TypeElement resourceHolder, InjectorGenerator injectorGenerator)
+	{
+		final String injectorClassName = injectorGenerator.getInjectorClassName();
+		if (injectorGenerator.isValid() && generatedInjectors.add(injectorClassName))
+		{
+			getDiagnostics().trace("Generate injector", injectorClassName);
+			try
+			{
+				injectorGenerator.write(processingEnv.getFiler());
+			}
+			catch (IOException ex)
+			{
+				generatedInjectors.remove(injectorClassName);
+				getDiagnostics().reportError(ERR_UNKNOWN, ex.toString(), resourceHolder);
+			}
+		}
+	}
+
+	private void writeInjectorServices()
+	{
+		if (!generatedInjectors.isEmpty())
+		{
+			try
+			{
+				final FileObject fileObject = processingEnv.getFiler().createResource(
+					StandardLocation.CLASS_OUTPUT, "",
+					"META-INF/services/" + ResourceHolderInjector.class.getName());
+				try (Writer writer = fileObject.openWriter())
+				{
+					for (String injectorClassName : generatedInjectors)
+					{
+						writer.write(injectorClassName);
+						writer.write('\n');
+					}
+				}
+			}
+			catch (IOException ex)
+			{
+				getDiagnostics().reportError(ERR_UNKNOWN, ex.toString(), null);
+			}
+		}
+	}
+
+	private void writeResourcePacks()
+	{
+		resourcePacks.forEach((packageName, resourcePackWriter) ->
+		{
+			getDiagnostics().trace("Write resource pack with " + resourcePackWriter.size() + " entries",
+				packageName + '/' + FILE_NAME_RESOURCE_PACK);
+			try
+			{
+				final FileObject fileObject = processingEnv.getFiler().createResource(
+					StandardLocation.CLASS_OUTPUT, packageName, FILE_NAME_RESOURCE_PACK);
+				try (OutputStream outputStream = fileObject.openOutputStream())
+				{
+					resourcePackWriter.write(outputStream);
+				}
+			}
+			catch (IOException ex)
+			{
+				getDiagnostics().reportError(ERR_UNKNOWN, ex.toString(), null);
+			}
+		});
+		resourcePacks.clear();
+	}
+
+	private void writeBinaryManifests()
+	{
+		binaryManifests.forEach((packageName, binaryManifestWriter) ->
+		{
+			getDiagnostics().trace("Write manifest with " + binaryManifestWriter.size() + " entries",
+				packageName + '/' + FILE_NAME_BINARY_MANIFEST);
+			try
+			{
+				final FileObject fileObject = processingEnv.getFiler().createResource(
+					StandardLocation.CLASS_OUTPUT, packageName, FILE_NAME_BINARY_MANIFEST);
+				try (OutputStream outputStream = fileObject.openOutputStream())
+				{
+					binaryManifestWriter.write(outputStream);
+				}
+			}
+			catch (IOException ex)
+			{
+				getDiagnostics().reportError(ERR_UNKNOWN, ex.toString(), null);
+			}
+		});
+		binaryManifests.clear();
+	}
+
+	/**
+	 * Adds a binary resource to the resource pack and the manifest of its
+	 * package and writes its precompressed variants, as far as enabled for the
+	 * current ResourceHolder.
+	 *
+	 * @param fileName the file name of the resource
+	 * @return true, if the resource exists
+	 */
+	private boolean processBinaryResource(String fileName)
+	{
+		final String packageName = getResourceParameters().getBinaryResourcePackageName();
+		try
+		{
+			final FileObject resourceFile = processingEnv.getFiler().getResource(
+				StandardLocation.CLASS_PATH, packageName, fileName);
+			final byte[] data;
+			try (InputStream inputStream = resourceFile.openInputStream())
+			{
+				data = inputStream.readAllBytes();
+			}
+			if (isPackingResourceHolder)
+			{
+				resourcePacks.computeIfAbsent(packageName, key -> new ResourcePackWriter())
+					.add(fileName, data);
+			}
+			if (isPrecompressingResourceHolder)
+			{
+				final Map<ContentEncoding, byte[]> variants = binaryManifests
+					.computeIfAbsent(packageName, key -> new BinaryManifestWriter()).add(fileName, data);
+				for (Map.Entry<ContentEncoding, byte[]> variant : variants.entrySet())
+				{
+					final String variantName = fileName + variant.getKey().getFileExtension();
+					if (writtenVariants.add(packageName + '/' + variantName))
+					{
+						final FileObject fileObject = processingEnv.getFiler().createResource(
+							StandardLocation.CLASS_OUTPUT, packageName, variantName);
+						try (OutputStream outputStream = fileObject.openOutputStream())
+						{
+							outputStream.write(variant.getValue());
+						}
+					}
+				}
+			}
+			return true;
+		}
+		catch (IOException ex)
+		{
+			return false;
+		}
+	}
+
 	private DiagnosticReporter getDiagnostics()
 	{
 		if (diagnostics == null)
@@ -221,18 +421,46 @@ public class ResourceProcessor extends AbstractProcessor
 			annotation.value() : field.getSimpleName().toString();
 		final String prefix = (keyPrefix != null) ?
 			keyPrefix + strResourceKey : strResourceKey;
-		return getElementUtil().isResourceHolder(field) ? (prefix + SEPARATOR_KEY_NESTED) : prefix;
+		return isGenericResource(field) ? (prefix + SEPARATOR_KEY_NESTED) : prefix;
+	}
+
+	private @Nullable
+	TypeElement getGenericResourceType(VariableElement field)
+	{
+		if (field.asType() instanceof DeclaredType declaredType &&
+			processingEnv.getTypeUtils().asElement(declaredType) instanceof TypeElement typeElement &&
+			typeElement.getAnnotation(GenericResources.class) != null)
+		{
+			return typeElement;
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+	private boolean isGenericResource(VariableElement field)
+	{
+		return getGenericResourceType(field) != null;
+	}
+
+	private String getFileExtension(VariableElement field)
+	{
+		final FileExt fileExt = field.getAnnotation(FileExt.class);
+		return (fileExt != null) ? fileExt.value() : getResourceParameters().getDefaultExtension();
 	}
 
 	private void handleResourceHolder(TypeElement resourceHolder,
-		@Nullable String prefix, @Nullable VariableElement fieldRef)
+		@Nullable String prefix, @Nullable VariableElement fieldRef,
+		@Nullable InjectorGenerator injectorGenerator)
 	{
 		final BiConsumer<EnumTypes, String> onDuplicateFieldName = (enumTypes, fieldName) ->
 			getDiagnostics().reportError(ErrorCodes.ERR_ENUM_TYPES_DUPLICATE_FIELD_NAMES,
 				String.format(ErrorCodes.ERR_ENUM_TYPES_DUPLICATE_FIELD_NAMES.getErrorMessage(), enumTypes, fieldName),
 				resourceHolder);
+		final var enumTypesUtil = new EnumTypesUtil(processingEnv, getDiagnostics());
 		final Map<@Nullable String, TypeElement> mapEnumTypes =
-			new EnumTypesUtil(processingEnv, getDiagnostics()).getMapEnumTypes(fieldRef, onDuplicateFieldName);
+			enumTypesUtil.getMapEnumTypes(fieldRef, onDuplicateFieldName);
 		resourceHolder.getEnclosedElements().stream()
 			.filter(element -> element.getKind().equals(FIELD))
 			.map(element -> (VariableElement) element)
@@ -245,45 +473,115 @@ public class ResourceProcessor extends AbstractProcessor
 				final TypeMirror fieldRawType = processingEnv.getTypeUtils().erasure(field.asType());
 				switch (fieldRawType.toString())
 				{
-					case TYPE_NAME_STRING -> checkStringResource(resourceKey, field);
-					case TYPE_NAME_BYTE_ARRAY -> checkBinaryResource(resourceKey, field);
+					case TYPE_NAME_STRING ->
+					{
+						checkStringResource(resourceKey, field);
+						if (injectorGenerator != null)
+						{
+							injectorGenerator.addString(field, resourceKey);
+						}
+					}
+					case TYPE_NAME_BYTE_ARRAY ->
+					{
+						checkBinaryResource(resourceKey, field);
+						if (injectorGenerator != null)
+						{
+							injectorGenerator.addBinary(field, resourceKey, getFileExtension(field));
+						}
+					}
+					case TYPE_NAME_BINARY_STREAM, TYPE_NAME_BINARY_CHANNEL, TYPE_NAME_BINARY_BUFFER,
+						TYPE_NAME_BINARY_RANGE ->
+					{
+						checkBinaryResource(resourceKey, field);
+						if (injectorGenerator != null)
+						{
+							final String methodName = switch (fieldRawType.toString())
+							{
+								case TYPE_NAME_BINARY_STREAM ->
+									"getBinaryStream";
+								case TYPE_NAME_BINARY_CHANNEL ->
+									"getBinaryChannel";
+								case TYPE_NAME_BINARY_RANGE ->
+									"getBinaryRange";
+								default ->
+									"getBinaryBuffer";
+							};
+							injectorGenerator.addBinaryHandle(field, resourceKey, getFileExtension(field),
+								methodName);
+						}
+					}
+					case TYPE_NAME_DECODED_BINARY_OBJECT ->
+					{
+						checkBinaryResource(resourceKey, field);
+						if (injectorGenerator != null)
+						{
+							injectorGenerator.addDecoded(field, resourceKey, getFileExtension(field));
+						}
+					}
 					case TYPE_NAME_ENUM_STRING_MAP ->
+					{
 						handleFieldEnumStrings(resourceKey, field, mapEnumTypes);
+						if (injectorGenerator != null)
+						{
+							injectorGenerator.addEnumStringMap(field,
+								getEnumType(enumTypesUtil, field, mapEnumTypes), resourceKey);
+						}
+					}
 					case TYPE_NAME_ENUM_BYTE_ARRAY_MAP ->
-						handleFieldEnumByteArrays(resourceKey, field, mapEnumTypes);
-					default ->
 					{
-						// check custom types recursively
-						final boolean isGenericResource;
-						final Element typeElement;
-						final TypeMirror typeMirror = field.asType();
-						if (typeMirror instanceof DeclaredType declaredType)
+						handleFieldEnumByteArrays(resourceKey, field, mapEnumTypes);
+						if (isPackingResourceHolder || isPrecompressingResourceHolder)
 						{
-							getDiagnostics().trace("Check custom type", declaredType);
-							typeElement = processingEnv.getTypeUtils().asElement(declaredType);
-							isGenericResource = typeElement != null &&
-								typeElement.getAnnotation(GenericResources.class) != null;
+							processEnumBinaryResources(resourceKey, field,
+								getEnumType(enumTypesUtil, field, mapEnumTypes));
 						}
-						else
+						if (injectorGenerator != null)
 						{
-							isGenericResource = false;
-							typeElement = null;
+							injectorGenerator.addEnumByteArrayMap(field,
+								getEnumType(enumTypesUtil, field, mapEnumTypes),
+								resourceKey, getFileExtension(field));
 						}
-						if (isGenericResource && typeElement != null)
+					}
+					default ->
+					{
+						// check custom types recursively
+						final TypeElement typeElement = getGenericResourceType(field);
+						if (typeElement != null)
 						{
-							handleResourceHolder((TypeElement) typeElement, resourceKey, field);
+							getDiagnostics().trace("Check custom type", typeElement);
+							if (injectorGenerator != null)
+							{
+								injectorGenerator.enterNested(field, typeElement);
+							}
+							handleResourceHolder(typeElement, resourceKey, field, injectorGenerator);
+							if (injectorGenerator != null)
+							{
+								injectorGenerator.exitNested();
+							}
 						}
 						else
 						{
 							final String msg = String.format(
 								ERR_INVALID_FIELD_TYPE.getErrorMessage(), field, resourceHolder);
 							getDiagnostics().reportError(ERR_INVALID_FIELD_TYPE, msg, field);
+							if (injectorGenerator != null)
+							{
+								injectorGenerator.invalidate();
+							}
 						}
 					}
 				}
 			});
 	}
 
+	private static @Nullable
+	TypeElement getEnumType(EnumTypesUtil enumTypesUtil, VariableElement field,
+		Map<@Nullable String, TypeElement> mapEnumTypes)
+	{
+		final TypeElement enumType = enumTypesUtil.getEnumType(field);
+		return (enumType != null) ? enumType : mapEnumTypes.get(field.getSimpleName().toString());
+	}
+
 	@Deprecated
 	private void checkEnumMap(VariableElement field, String idField)
 	{
@@ -349,9 +647,7 @@ public class ResourceProcessor extends AbstractProcessor
 	{
 		if (getResourceParameters().hasBinaryResources())
 		{
-			final FileExt fileExt = field.getAnnotation(FileExt.class);
-			final String ext = (fileExt != null) ? fileExt.value() : getResourceParameters().getDefaultExtension();
-			final String fileName = resourceKey + ext;
+			final String fileName = resourceKey + getFileExtension(field);
 			final String fileNameFull = getResourceParameters().getBinaryResourcePackageName() + '/' + fileName;
 			getDiagnostics().trace("Check binary resource", fileNameFull);
 			try
@@ -359,6 +655,11 @@ public class ResourceProcessor extends AbstractProcessor
 				processingEnv.getFiler().getResource(StandardLocation.CLASS_PATH,
 					getResourceParameters().getBinaryResourcePackageName(), fileName);
 				getDiagnostics().trace("Found binary resource", fileNameFull);
+				if ((isPackingResourceHolder || isPrecompressingResourceHolder) &&
+					!processBinaryResource(fileName))
+				{
+					getDiagnostics().trace("Binary resource not processed", fileNameFull);
+				}
 			}
 			catch (IOException ex)
 			{
@@ -374,6 +675,24 @@ public class ResourceProcessor extends AbstractProcessor
 		}
 	}
 
+	/**
+	 * Processes the existing binary resources of an enum byte array map like
+	 * other binary resources. Missing resources are not reported, as enum byte
+	 * array maps may be sparse.
+	 */
+	private void processEnumBinaryResources(String resourceKey, VariableElement field,
+		@Nullable TypeElement enumType)
+	{
+		if (enumType != null && getResourceParameters().hasBinaryResources())
+		{
+			enumType.getEnclosedElements().stream()
+				.filter(element -> ElementKind.ENUM_CONSTANT.equals(element.getKind()))
+				.map(element -> resourceKey + SEPARATOR_ENUM_FILE + element.getSimpleName() +
+					getFileExtension(field))
+				.forEach(this::processBinaryResource);
+		}
+	}
+
 	private void handleFieldEnumStrings(String resourceKey, VariableElement field,
 		Map<@Nullable String, TypeElement> mapEnumTypes)
 	{
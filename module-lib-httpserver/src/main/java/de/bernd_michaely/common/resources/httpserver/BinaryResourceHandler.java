@@ -0,0 +1,261 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources.httpserver;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import de.bernd_michaely.common.resources.BinaryResourceBuffer;
+import de.bernd_michaely.common.resources.ResourceHolder;
+import de.bernd_michaely.common.resources.ResourceInjector;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * HttpHandler serving the binary resources declared by registered
+ * {@link ResourceHolder} types, e.g. icons for internal tools:
+ * <pre>
+ * final var handler = new BinaryResourceHandler().register(MyResources.class);
+ * final HttpServer server = HttpServer.create(new InetSocketAddress(8080), 0);
+ * server.createContext("/resources", handler);
+ * server.start();
+ * </pre>
+ * A resource is served at the context path followed by its absolute path
+ * within its module, e.g.
+ * {@code /resources/com/example/icons/open.png}.
+ * <p>
+ * Resources are loaded, hashed and compressed once on registration:
+ * </p>
+ * <ul>
+ * <li>Responses carry a strong ETag derived from the SHA-256 digest of the
+ * content. Conditional requests with a matching {@code If-None-Match} header
+ * are answered with {@code 304 Not Modified}.</li>
+ * <li>Clients accepting gzip get a precompressed variant, if the resource is
+ * compressible, with an ETag of its own.</li>
+ * <li>If the resources were precompressed at build time (see
+ * {@link de.bernd_michaely.common.resources.ContentEncoding}), the recorded
+ * digests and gzip variants are used, so that registration requires neither
+ * hashing nor compression.</li>
+ * <li>The data is shared with holders injected with the same resources and
+ * written to the response without intermediate copies.</li>
+ * </ul>
+ * Only {@code GET} and {@code HEAD} requests are supported. Instances are
+ * thread safe.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class BinaryResourceHandler implements HttpHandler
+{
+	private static final Logger LOGGER = System.getLogger(BinaryResourceHandler.class.getName());
+	private static final String GZIP = "gzip";
+	private final ResourceInjector resourceInjector;
+	private final Map<String, StaticResource> resources = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new handler loading the resources with a default
+	 * {@link ResourceInjector}.
+	 */
+	public BinaryResourceHandler()
+	{
+		this(new ResourceInjector());
+	}
+
+	/**
+	 * Creates a new handler loading the resources with the given
+	 * ResourceInjector, e.g. to map large resources with
+	 * {@link de.bernd_michaely.common.resources.BinaryLoading#MAPPED}.
+	 *
+	 * @param resourceInjector the ResourceInjector to load the resources
+	 * @throws NullPointerException if resourceInjector is null
+	 */
+	public BinaryResourceHandler(ResourceInjector resourceInjector)
+	{
+		this.resourceInjector = Objects.requireNonNull(resourceInjector, "resourceInjector is null");
+	}
+
+	/**
+	 * Registers the binary resources declared by the given ResourceHolder type
+	 * and its nested types. The resources are loaded, hashed and compressed
+	 * immediately. Registering a type again reloads its resources.
+	 *
+	 * @param resourceHolderClass the ResourceHolder type
+	 * @return this handler
+	 * @throws NullPointerException if resourceHolderClass is null
+	 */
+	public BinaryResourceHandler register(Class<? extends ResourceHolder> resourceHolderClass)
+	{
+		Objects.requireNonNull(resourceHolderClass, "resourceHolderClass is null");
+		final Map<String, BinaryResourceBuffer> binaryResources =
+			resourceInjector.getBinaryResources(resourceHolderClass);
+		binaryResources.forEach((binaryPath, content) ->
+			resources.put(binaryPath, new StaticResource(binaryPath, content)));
+		LOGGER.log(Level.DEBUG, "Registered {0} binary resources of »{1}«",
+			binaryResources.size(), resourceHolderClass.getName());
+		return this;
+	}
+
+	/**
+	 * Returns the paths of all registered resources.
+	 *
+	 * @return an unmodifiable view of the registered resource paths
+	 */
+	public Set<String> getResourcePaths()
+	{
+		return Set.copyOf(resources.keySet());
+	}
+
+	@Override
+	public void handle(HttpExchange exchange) throws IOException
+	{
+		try (exchange)
+		{
+			final String method = exchange.getRequestMethod();
+			final boolean isHead = "HEAD".equals(method);
+			final Headers responseHeaders = exchange.getResponseHeaders();
+			if (!isHead && !"GET".equals(method))
+			{
+				responseHeaders.set("Allow", "GET, HEAD");
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			final StaticResource resource = resources.get(getBinaryPath(exchange));
+			if (resource == null)
+			{
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			final Headers requestHeaders = exchange.getRequestHeaders();
+			final BinaryResourceBuffer gzipContent = resource.getGzipContent();
+			final boolean isGzip = gzipContent != null &&
+				acceptsGzip(requestHeaders.get("Accept-Encoding"));
+			final String etag = isGzip ? resource.getGzipEtag() : resource.getEtag();
+			responseHeaders.set("ETag", etag);
+			if (gzipContent != null)
+			{
+				responseHeaders.set("Vary", "Accept-Encoding");
+			}
+			if (matchesAny(etag, requestHeaders.get("If-None-Match")))
+			{
+				exchange.sendResponseHeaders(304, -1);
+				return;
+			}
+			responseHeaders.set("Content-Type", resource.getContentType());
+			if (isGzip)
+			{
+				responseHeaders.set("Content-Encoding", GZIP);
+			}
+			if (isHead)
+			{
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+			final BinaryResourceBuffer body = (gzipContent != null && isGzip) ?
+				gzipContent : resource.getContent();
+			final long length = body.size();
+			// a length of zero would select chunked encoding:
+			exchange.sendResponseHeaders(200, (length > 0) ? length : -1);
+			if (length > 0)
+			{
+				try (OutputStream outputStream = exchange.getResponseBody())
+				{
+					body.transferTo(outputStream);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the path of the requested resource relative to the context path.
+	 */
+	private static String getBinaryPath(HttpExchange exchange)
+	{
+		final String contextPath = exchange.getHttpContext().getPath();
+		final String requestPath = exchange.getRequestURI().getPath();
+		final String binaryPath = requestPath.startsWith(contextPath) ?
+			requestPath.substring(contextPath.length()) : requestPath;
+		return binaryPath.startsWith("/") ? binaryPath : "/" + binaryPath;
+	}
+
+	/**
+	 * Returns true, if the given Accept-Encoding header values accept gzip.
+	 */
+	static boolean acceptsGzip(@Nullable Iterable<String> acceptEncodings)
+	{
+		boolean isAccepted = false;
+		if (acceptEncodings != null)
+		{
+			for (String acceptEncoding : acceptEncodings)
+			{
+				for (String coding : acceptEncoding.split(","))
+				{
+					final String[] params = coding.split(";");
+					final String name = params[0].trim();
+					if (name.equalsIgnoreCase(GZIP) || name.equalsIgnoreCase("x-gzip") || name.equals("*"))
+					{
+						boolean isZeroQuality = false;
+						for (int i = 1; i < params.length; i++)
+						{
+							final String param = params[i].trim();
+							if (param.startsWith("q=") || param.startsWith("Q="))
+							{
+								isZeroQuality = param.substring(2).trim().matches("0(\\.0*)?");
+							}
+						}
+						if (isZeroQuality && !name.equals("*"))
+						{
+							// an explicit refusal of gzip overrides a wildcard:
+							return false;
+						}
+						isAccepted |= !isZeroQuality;
+					}
+				}
+			}
+		}
+		return isAccepted;
+	}
+
+	/**
+	 * Returns true, if the given If-None-Match header values match the given
+	 * ETag. As specified for If-None-Match, weak ETags are compared by their
+	 * opaque tag.
+	 */
+	static boolean matchesAny(String etag, @Nullable Iterable<String> ifNoneMatches)
+	{
+		if (ifNoneMatches != null)
+		{
+			for (String ifNoneMatch : ifNoneMatches)
+			{
+				for (String tag : ifNoneMatch.split(","))
+				{
+					final String trimmed = tag.trim();
+					final String opaqueTag = trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed;
+					if (opaqueTag.equals("*") || opaqueTag.equals(etag))
+					{
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources.httpserver;
+
+import de.bernd_michaely.common.resources.BinaryResourceBuffer;
+import de.bernd_michaely.common.resources.ContentEncoding;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A binary resource prepared for serving: its content type, a strong ETag
+ * derived from the SHA-256 digest of the content and, if it pays off, a gzip
+ * variant. If the resource was precompressed at build time, the recorded
+ * digest and gzip variant are used, otherwise the content is hashed and
+ * compressed once on creation. Instances are immutable.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class StaticResource
+{
+	/**
+	 * Minimum size of resources to be compressed in bytes. Smaller resources
+	 * hardly gain from compression.
+	 */
+	static final int MIN_COMPRESSION_SIZE = 256;
+	private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+	private final BinaryResourceBuffer content;
+	private final String contentType;
+	private final String etag;
+	private final @Nullable BinaryResourceBuffer gzipContent;
+	private final String gzipEtag;
+
+	/**
+	 * Creates a new instance. The content is hashed and compressed
+	 * immediately.
+	 *
+	 * @param binaryPath the absolute path of the resource, used to determine
+	 *                   the content type
+	 * @param content    the content of the resource
+	 */
+	StaticResource(String binaryPath, BinaryResourceBuffer content)
+	{
+		this.content = content;
+		final String guessedContentType = URLConnection.getFileNameMap().getContentTypeFor(binaryPath);
+		this.contentType = (guessedContentType != null) ? guessedContentType : DEFAULT_CONTENT_TYPE;
+		final Optional<String> contentHash = content.getContentHash();
+		final String hash = contentHash.orElseGet(() -> sha256(content.getByteBuffer()));
+		this.etag = "\"" + hash + "\"";
+		this.gzipEtag = "\"" + hash + "-gzip\"";
+		if (contentHash.isPresent())
+		{
+			// precompressed at build time, if it pays off:
+			this.gzipContent = content.getEncodedBuffer(ContentEncoding.GZIP).orElse(null);
+		}
+		else
+		{
+			final byte[] compressed = (content.size() >= MIN_COMPRESSION_SIZE) ? gzip(content) : null;
+			this.gzipContent = (compressed != null && compressed.length < content.size()) ?
+				() -> ByteBuffer.wrap(compressed).asReadOnlyBuffer() : null;
+		}
+	}
+
+	private static String sha256(ByteBuffer data)
+	{
+		try
+		{
+			final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+			messageDigest.update(data);
+			return HexFormat.of().formatHex(messageDigest.digest());
+		}
+		catch (NoSuchAlgorithmException ex)
+		{
+			// every Java platform implementation supports SHA-256:
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static byte[] gzip(BinaryResourceBuffer content)
+	{
+		final var outputStream = new ByteArrayOutputStream(content.size() / 2);
+		try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream))
+		{
+			content.transferTo(gzipOutputStream);
+		}
+		catch (IOException ex)
+		{
+			// not thrown by in-memory streams:
+			throw new UncheckedIOException(ex);
+		}
+		return outputStream.toByteArray();
+	}
+
+	BinaryResourceBuffer getContent()
+	{
+		return content;
+	}
+
+	String getContentType()
+	{
+		return contentType;
+	}
+
+	/**
+	 * Returns the strong ETag of the identity representation.
+	 *
+	 * @return the quoted ETag
+	 */
+	String getEtag()
+	{
+		return etag;
+	}
+
+	/**
+	 * Returns the gzip compressed content.
+	 *
+	 * @return the compressed content or null, if there is no gzip variant,
+	 *         because the resource is small or incompressible
+	 */
+	@Nullable
+	BinaryResourceBuffer getGzipContent()
+	{
+		return gzipContent;
+	}
+
+	/**
+	 * Returns the strong ETag of the gzip representation, which differs from
+	 * the ETag of the identity representation.
+	 *
+	 * @return the quoted ETag
+	 */
+	String getGzipEtag()
+	{
+		return gzipEtag;
+	}
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources.httpserver;
+
+import com.sun.net.httpserver.HttpServer;
+import de.bernd_michaely.common.resources.BinaryResourceBuffer;
+import de.bernd_michaely.common.resources.BinaryResources;
+import de.bernd_michaely.common.resources.ContentEncoding;
+import de.bernd_michaely.common.resources.FileExt;
+import de.bernd_michaely.common.resources.OptionalBinaryObject;
+import de.bernd_michaely.common.resources.ResourceHolder;
+import de.bernd_michaely.common.resources.ResourceInjector;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class BinaryResourceHandler serving on the loopback
+ * interface.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class BinaryResourceHandlerTest
+{
+	private static final String CONTEXT_PATH = "/resources";
+	private static final String RESOURCE_PATH =
+		"/" + BinaryResourceHandlerTest.class.getPackageName().replace('.', '/') + "/web/";
+	private static HttpServer server;
+	private static HttpClient client;
+
+	@BinaryResources(packagename = ".web", defaultExtension = ".bin")
+	public static class WebResources extends ResourceHolder
+	{
+		@FileExt(".svg")
+		public OptionalBinaryObject icon;
+		public OptionalBinaryObject data;
+		public OptionalBinaryObject missing;
+	}
+
+	@BeforeAll
+	public static void setUpClass() throws IOException
+	{
+		final var handler = new BinaryResourceHandler().register(WebResources.class);
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext(CONTEXT_PATH, handler);
+		server.start();
+		client = HttpClient.newHttpClient();
+	}
+
+	@AfterAll
+	public static void tearDownClass()
+	{
+		server.stop(0);
+	}
+
+	private static HttpResponse<byte[]> send(String method, String fileName, String... headers)
+		throws IOException, InterruptedException
+	{
+		final URI uri = URI.create("http://localhost:" + server.getAddress().getPort() +
+			CONTEXT_PATH + RESOURCE_PATH + fileName);
+		final var builder = HttpRequest.newBuilder(uri)
+			.method(method, HttpRequest.BodyPublishers.noBody());
+		if (headers.length > 0)
+		{
+			builder.headers(headers);
+		}
+		// the client does not retry other methods on stale pooled connections:
+		final boolean isRetried = method.equals("GET") || method.equals("HEAD");
+		return (isRetried ? client : HttpClient.newHttpClient())
+			.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+	}
+
+	private static byte[] readResource(String fileName) throws IOException
+	{
+		try (InputStream inputStream = BinaryResourceHandlerTest.class.getResourceAsStream(
+			"web/" + fileName))
+		{
+			assertNotNull(inputStream);
+			return inputStream.readAllBytes();
+		}
+	}
+
+	@Test
+	public void testResourcePaths()
+	{
+		final var handler = new BinaryResourceHandler(new ResourceInjector()).register(WebResources.class);
+		assertEquals(Set.of(RESOURCE_PATH + "icon.svg", RESOURCE_PATH + "data.bin"),
+			handler.getResourcePaths());
+	}
+
+	@Test
+	public void testGet() throws IOException, InterruptedException
+	{
+		final HttpResponse<byte[]> response = send("GET", "data.bin");
+		assertEquals(200, response.statusCode());
+		assertArrayEquals(readResource("data.bin"), response.body());
+		assertEquals("application/octet-stream",
+			response.headers().firstValue("Content-Type").orElseThrow());
+		final String etag = response.headers().firstValue("ETag").orElseThrow();
+		assertTrue(etag.matches("\"[0-9a-f]{64}\""), etag);
+	}
+
+	@Test
+	public void testNotModified() throws IOException, InterruptedException
+	{
+		final String etag = send("GET", "icon.svg").headers().firstValue("ETag").orElseThrow();
+		final HttpResponse<byte[]> response = send("GET", "icon.svg", "If-None-Match", etag);
+		assertEquals(304, response.statusCode());
+		assertEquals(0, response.body().length);
+		assertEquals(304, send("GET", "icon.svg", "If-None-Match", "\"other\", W/" + etag).statusCode());
+		assertEquals(200, send("GET", "icon.svg", "If-None-Match", "\"other\"").statusCode());
+	}
+
+	@Test
+	public void testGzip() throws IOException, InterruptedException
+	{
+		final byte[] content = readResource("icon.svg");
+		final HttpResponse<byte[]> response = send("GET", "icon.svg", "Accept-Encoding", "gzip");
+		assertEquals(200, response.statusCode());
+		assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+		assertEquals("Accept-Encoding", response.headers().firstValue("Vary").orElseThrow());
+		assertTrue(response.body().length < content.length);
+		try (var inputStream = new GZIPInputStream(new ByteArrayInputStream(response.body())))
+		{
+			assertArrayEquals(content, inputStream.readAllBytes());
+		}
+		final String gzipEtag = response.headers().firstValue("ETag").orElseThrow();
+		final String etag = send("GET", "icon.svg").headers().firstValue("ETag").orElseThrow();
+		assertNotEquals(etag, gzipEtag);
+		assertEquals(304, send("GET", "icon.svg",
+			"Accept-Encoding", "gzip", "If-None-Match", gzipEtag).statusCode());
+		assertEquals(200, send("GET", "icon.svg", "If-None-Match", gzipEtag).statusCode());
+	}
+
+	@Test
+	public void testNoGzipForSmallResources() throws IOException, InterruptedException
+	{
+		final HttpResponse<byte[]> response = send("GET", "data.bin", "Accept-Encoding", "gzip");
+		assertEquals(200, response.statusCode());
+		assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+		assertArrayEquals(readResource("data.bin"), response.body());
+	}
+
+	@Test
+	public void testHead() throws IOException, InterruptedException
+	{
+		final HttpResponse<byte[]> response = send("HEAD", "icon.svg");
+		assertEquals(200, response.statusCode());
+		assertEquals(0, response.body().length);
+		assertTrue(response.headers().firstValue("ETag").isPresent());
+	}
+
+	@Test
+	public void testErrors() throws IOException, InterruptedException
+	{
+		assertEquals(404, send("GET", "missing.bin").statusCode());
+		assertEquals(404, send("GET", "unknown.svg").statusCode());
+		final HttpResponse<byte[]> response = send("POST", "icon.svg");
+		assertEquals(405, response.statusCode());
+		assertEquals("GET, HEAD", response.headers().firstValue("Allow").orElseThrow());
+	}
+
+	@Test
+	public void testAcceptsGzip()
+	{
+		assertFalse(BinaryResourceHandler.acceptsGzip(null));
+		assertTrue(BinaryResourceHandler.acceptsGzip(List.of("gzip")));
+		assertTrue(BinaryResourceHandler.acceptsGzip(List.of("br, gzip;q=0.8")));
+		assertTrue(BinaryResourceHandler.acceptsGzip(List.of("*")));
+		assertFalse(BinaryResourceHandler.acceptsGzip(List.of("br, deflate")));
+		assertFalse(BinaryResourceHandler.acceptsGzip(List.of("gzip;q=0")));
+		assertFalse(BinaryResourceHandler.acceptsGzip(List.of("*, gzip;q=0.0")));
+	}
+
+	@Test
+	public void testPrecompressedResource()
+	{
+		final BinaryResourceBuffer gzipContent = () -> ByteBuffer.allocate(10);
+		final BinaryResourceBuffer content = new BinaryResourceBuffer()
+		{
+			@Override
+			public ByteBuffer getByteBuffer()
+			{
+				return ByteBuffer.allocate(1000);
+			}
+
+			@Override
+			public Optional<BinaryResourceBuffer> getEncodedBuffer(ContentEncoding contentEncoding)
+			{
+				return Optional.of(gzipContent).filter(buffer -> contentEncoding == ContentEncoding.GZIP);
+			}
+
+			@Override
+			public Optional<String> getContentHash()
+			{
+				return Optional.of("0123abcd");
+			}
+		};
+		final var resource = new StaticResource("/x/data.bin", content);
+		assertEquals("\"0123abcd\"", resource.getEtag());
+		assertSame(gzipContent, resource.getGzipContent(), "build time variants must be used");
+	}
+}
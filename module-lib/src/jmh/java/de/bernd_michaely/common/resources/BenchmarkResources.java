@@ -0,0 +1,173 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+/**
+ * ResourceHolder types used by the benchmarks. The main holder mimics the
+ * structure of a typical application window resource holder: a number of
+ * plain strings, a nested {@link GenericResources} type with enum maps and a
+ * binary resource.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class BenchmarkResources
+{
+	public enum Colors
+	{
+		RED, ORANGE, YELLOW, GREEN, BLUE, PURPLE
+	}
+
+	@GenericResources
+	public static class ActionResources<E extends Enum<E>>
+	{
+		public EnumStringMap<E> menuTitles;
+		public EnumStringMap<E> buttonTitles;
+		public EnumStringMap<E> buttonTooltips;
+		public EnumByteArrayMap<E> buttonIcons;
+	}
+
+	@StringResources(packagename = ".bench.strings", basename = "bench")
+	@BinaryResources(packagename = ".bench.binary", defaultExtension = ".bin")
+	public static class MainResources extends ResourceHolder
+	{
+		public String label00;
+		public String label01;
+		public String label02;
+		public String label03;
+		public String label04;
+		public String label05;
+		public String label06;
+		public String label07;
+		public String label08;
+		public String label09;
+		public String label10;
+		public String label11;
+		public String label12;
+		public String label13;
+		public String label14;
+		public String label15;
+		public String label16;
+		public String label17;
+		public String label18;
+		public String label19;
+		public String label20;
+		public String label21;
+		public String label22;
+		public String label23;
+
+		@EnumTypes(enumType = Colors.class, fieldNames =
+		{
+			"menuTitles", "buttonTitles", "buttonTooltips", "buttonIcons"
+		})
+		public ActionResources<Colors> colors;
+
+		public final OptionalBinaryObject logo = new OptionalBinaryObject();
+	}
+
+	/**
+	 * ResourceHolder resembling a partially translated locale: the resource
+	 * bundle contains only the labels with even numbers.
+	 */
+	@StringResources(packagename = ".bench.strings", basename = "partial")
+	public static class PartialResources extends ResourceHolder
+	{
+		public String label00;
+		public String label01;
+		public String label02;
+		public String label03;
+		public String label04;
+		public String label05;
+		public String label06;
+		public String label07;
+		public String label08;
+		public String label09;
+		public String label10;
+		public String label11;
+		public String label12;
+		public String label13;
+		public String label14;
+		public String label15;
+		public String label16;
+		public String label17;
+		public String label18;
+		public String label19;
+		public String label20;
+		public String label21;
+		public String label22;
+		public String label23;
+	}
+
+	@GenericResources
+	public static class LeafResources
+	{
+		public String label00;
+		public String label01;
+		public String label02;
+		public String label03;
+		public String label04;
+		public String label05;
+		public String label06;
+		public String label07;
+		public String label08;
+		public String label09;
+		public String label10;
+		public String label11;
+		public String label12;
+		public String label13;
+		public String label14;
+		public String label15;
+		public String label16;
+		public String label17;
+		public String label18;
+		public String label19;
+		public String label20;
+		public String label21;
+		public String label22;
+		public String label23;
+		@EnumType(Colors.class)
+		public EnumStringMap<Colors> colors;
+	}
+
+	@GenericResources
+	public static class BranchResources
+	{
+		public LeafResources leaf0;
+		public LeafResources leaf1;
+		public LeafResources leaf2;
+		public LeafResources leaf3;
+		public LeafResources leaf4;
+		public LeafResources leaf5;
+		public LeafResources leaf6;
+		public LeafResources leaf7;
+	}
+
+	/**
+	 * ResourceHolder with a large graph of nested types: 8 branches of 8 leaves
+	 * of 30 string resources each.
+	 */
+	@StringResources(packagename = ".bench.strings", basename = "deep")
+	public static class DeepResources extends ResourceHolder
+	{
+		public BranchResources branch0;
+		public BranchResources branch1;
+		public BranchResources branch2;
+		public BranchResources branch3;
+		public BranchResources branch4;
+		public BranchResources branch5;
+		public BranchResources branch6;
+		public BranchResources branch7;
+	}
+}
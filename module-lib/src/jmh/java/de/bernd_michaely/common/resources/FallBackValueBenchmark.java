@@ -0,0 +1,67 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark for the calculation of fallback values of missing String
+ * resources using the keys of {@code FallBackValueUtilTest}.
+ * {@link #calculate()} runs the scanner for each call, {@link #memoized()}
+ * uses the shared memo table as done by the ResourceInjector.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FallBackValueBenchmark
+{
+	@Param(
+		{
+			"titleMainWindow", "titleMain1Window234___with_HTML5___content", "___main_____window",
+			"mainWindow.menu.titleButton", "test-key"
+		})
+	private String key;
+	// non final to prevent constant folding:
+	private String enumKey = "mainWindow.menu.mapColors.RED";
+
+	@Benchmark
+	public String calculate()
+	{
+		return FallBackValueUtil.calculateFallBackValue(key, false, Locale.ROOT);
+	}
+
+	@Benchmark
+	public String calculateEnum()
+	{
+		return FallBackValueUtil.calculateFallBackValue(enumKey, true, Locale.ROOT);
+	}
+
+	@Benchmark
+	public String memoized()
+	{
+		return FallBackValueUtil.getFallBackValue(Locale.ROOT, key, false);
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.BenchmarkResources.DeepResources;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark of the injection of a large graph of nested types by fork/join
+ * tasks. A parallelism of 0 denotes serial injection.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ForkJoinInjectionBenchmark
+{
+	@Param(
+		{
+			"0", "1", "2", "4", "8"
+	})
+	public int parallelism;
+	private ResourceInjector resourceInjector;
+	private @Nullable ForkJoinPool pool;
+
+	@Setup
+	public void setUp()
+	{
+		pool = (parallelism > 0) ? new ForkJoinPool(parallelism) : null;
+		resourceInjector = new ResourceInjector(Locale.ENGLISH).withForkJoinInjection(pool);
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		if (pool != null)
+		{
+			pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public DeepResources inject()
+	{
+		return resourceInjector.injectResourcesInto(DeepResources.class);
+	}
+}
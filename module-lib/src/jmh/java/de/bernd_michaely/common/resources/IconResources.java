@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+/**
+ * Icon heavy ResourceHolder used by the {@link ResourcePackBenchmark}, with
+ * {@value #ICON_COUNT} icons in enum byte array maps. The icons are not part
+ * of the benchmark sources, but generated by the benchmark.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+@BinaryResources(packagename = ".bench.icons", defaultExtension = ".png")
+public class IconResources extends ResourceHolder
+{
+	/**
+	 * The number of icons.
+	 */
+	static final int ICON_COUNT = 8 * 32;
+	/**
+	 * The names of the icon fields.
+	 */
+	static final String[] FIELD_NAMES =
+	{
+		"fileIcons", "editIcons", "viewIcons", "toolIcons",
+		"navigationIcons", "mediaIcons", "statusIcons", "symbolIcons"
+	};
+
+	public enum Icon
+	{
+		I00, I01, I02, I03, I04, I05, I06, I07, I08, I09, I10, I11, I12, I13, I14, I15,
+		I16, I17, I18, I19, I20, I21, I22, I23, I24, I25, I26, I27, I28, I29, I30, I31
+	}
+
+	@EnumType(Icon.class)
+	public EnumByteArrayMap<Icon> fileIcons;
+	@EnumType(Icon.class)
+	public EnumByteArrayMap<Icon> editIcons;
+	@EnumType(Icon.class)
+	public EnumByteArrayMap<Icon> viewIcons;
+	@EnumType(Icon.class)
+	public EnumByteArrayMap<Icon> toolIcons;
+	@EnumType(Icon.class)
+	public EnumByteArrayMap<Icon> navigationIcons;
+	@EnumType(Icon.class)
+	public EnumByteArrayMap<Icon> mediaIcons;
+	@EnumType(Icon.class)
+	public EnumByteArrayMap<Icon> statusIcons;
+	@EnumType(Icon.class)
+	public EnumByteArrayMap<Icon> symbolIcons;
+}
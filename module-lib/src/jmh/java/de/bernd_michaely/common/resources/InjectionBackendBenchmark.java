@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.BenchmarkResources.MainResources;
+import de.bernd_michaely.common.resources.InjectionPlan.FieldPlan;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark comparing the {@link InjectionBackend}s. {@link #inject()}
+ * measures a complete injection including resource loading, while
+ * {@link #writeFields()} isolates the field writes of the top level
+ * ResourceHolder for the fields supported by
+ * {@link InjectionBackend#HIDDEN_CLASSES hidden class injectors}.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InjectionBackendBenchmark
+{
+	@Param(
+		{
+			"REFLECTION", "METHOD_HANDLES", "HIDDEN_CLASSES"
+	})
+	public InjectionBackend injectionBackend;
+	private ResourceInjector resourceInjector;
+	private @Nullable HiddenInjector hiddenInjector;
+	private FieldAccessor[] fieldAccessors;
+	private Object[] values;
+	private final MainResources mainResources = new MainResources();
+
+	@Setup
+	public void setUp() throws ReflectiveOperationException
+	{
+		resourceInjector = new ResourceInjector(Locale.ENGLISH).withInjectionBackend(injectionBackend);
+		final MainResources injected = resourceInjector.injectResourcesInto(MainResources.class);
+		final HiddenInjector injector = InjectionPlan.get(MainResources.class).getHiddenInjector();
+		if (injector == null)
+		{
+			throw new IllegalStateException("No hidden class injector for " + MainResources.class);
+		}
+		hiddenInjector = (injectionBackend == InjectionBackend.HIDDEN_CLASSES) ? injector : null;
+		final List<FieldPlan> fieldPlans = injector.getInjectedFieldPlans();
+		fieldAccessors = new FieldAccessor[fieldPlans.size()];
+		values = new Object[fieldPlans.size()];
+		for (int i = 0; i < fieldAccessors.length; i++)
+		{
+			fieldAccessors[i] = fieldPlans.get(i).getAccessor(injectionBackend);
+			values[i] = fieldAccessors[i].get(injected);
+		}
+	}
+
+	@Benchmark
+	public MainResources inject()
+	{
+		return resourceInjector.injectResourcesInto(MainResources.class);
+	}
+
+	@Benchmark
+	public MainResources writeFields() throws ReflectiveOperationException
+	{
+		if (hiddenInjector != null)
+		{
+			hiddenInjector.inject(mainResources, values);
+		}
+		else
+		{
+			for (int i = 0; i < fieldAccessors.length; i++)
+			{
+				fieldAccessors[i].set(mainResources, values[i]);
+			}
+		}
+		return mainResources;
+	}
+}
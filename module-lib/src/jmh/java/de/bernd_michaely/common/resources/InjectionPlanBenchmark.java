@@ -0,0 +1,62 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.BenchmarkResources.MainResources;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark for repeated resource injection into the same ResourceHolder
+ * class. {@link #injectUncachedPlan()} discards the cached
+ * {@link InjectionPlan} before each injection and thus resembles the former
+ * behaviour of analyzing the ResourceHolder class reflectively on each call.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InjectionPlanBenchmark
+{
+	private final ResourceInjector resourceInjector = new ResourceInjector(Locale.ENGLISH);
+
+	@Setup
+	public void setUp()
+	{
+		resourceInjector.injectResourcesInto(MainResources.class);
+	}
+
+	@Benchmark
+	public MainResources injectCachedPlan()
+	{
+		return resourceInjector.injectResourcesInto(MainResources.class);
+	}
+
+	@Benchmark
+	public MainResources injectUncachedPlan()
+	{
+		InjectionPlan.invalidate(MainResources.class);
+		return resourceInjector.injectResourcesInto(MainResources.class);
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark comparing heap copies of binary resources with memory mapped
+ * files, as used by {@link BinaryLoading#MAPPED}. The {@code …FirstByte}
+ * benchmarks measure the time to first byte, the {@code …AllPages}
+ * benchmarks the time to touch every page of the resource. The file is held
+ * in the page cache after the first iteration, so the results show the costs
+ * of copying versus mapping, not of disk access. After each iteration, the
+ * resident set size of the process (on Linux) and the used heap are printed,
+ * while the result of the last invocation is still referenced.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappedResourceBenchmark
+{
+	private static final int PAGE_SIZE = 4096;
+	@Param(
+		{
+			"1", "100"
+	})
+	public int sizeMiB;
+	private Path file;
+	private Object retained;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException
+	{
+		final byte[] data = new byte[sizeMiB * 1024 * 1024];
+		new Random(42).nextBytes(data);
+		file = Files.createTempFile(MappedResourceBenchmark.class.getSimpleName(), ".bin");
+		file.toFile().deleteOnExit();
+		Files.write(file, data);
+	}
+
+	@TearDown(Level.Iteration)
+	public void printMemoryUsage() throws IOException
+	{
+		final Runtime runtime = Runtime.getRuntime();
+		final Path status = Path.of("/proc/self/status");
+		final String rss = Files.isReadable(status) ? Files.readAllLines(status).stream()
+			.filter(line -> line.startsWith("VmRSS:")).map(line -> line.substring(6).trim())
+			.findFirst().orElse("n/a") : "n/a";
+		System.out.printf("%n[sizeMiB=%d] RSS: %s, used heap: %d kB%n", sizeMiB, rss,
+			(runtime.totalMemory() - runtime.freeMemory()) / 1024);
+	}
+
+	private byte[] copy() throws IOException
+	{
+		try (InputStream inputStream = Files.newInputStream(file))
+		{
+			final byte[] data = inputStream.readAllBytes();
+			retained = data;
+			return data;
+		}
+	}
+
+	private ByteBuffer map() throws IOException
+	{
+		final ByteBuffer buffer = MappedResources.getInstance().map(file);
+		retained = buffer;
+		return buffer;
+	}
+
+	@Benchmark
+	public byte copyFirstByte() throws IOException
+	{
+		return copy()[0];
+	}
+
+	@Benchmark
+	public byte mapFirstByte() throws IOException
+	{
+		return map().get(0);
+	}
+
+	@Benchmark
+	public int copyAllPages() throws IOException
+	{
+		final byte[] data = copy();
+		int sum = 0;
+		for (int i = 0; i < data.length; i += PAGE_SIZE)
+		{
+			sum += data[i];
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int mapAllPages() throws IOException
+	{
+		final ByteBuffer buffer = map();
+		int sum = 0;
+		for (int i = 0; i < buffer.capacity(); i += PAGE_SIZE)
+		{
+			sum += buffer.get(i);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.BenchmarkResources.PartialResources;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark for string injection into a ResourceHolder, where 50% of the keys
+ * are missing in the resource bundle, as it is typical for partially
+ * translated locales. Logging of the missing keys is disabled, so the
+ * benchmark measures the costs of the lookup and fallback path only.
+ * {@link #lookupMissingKeysByException()} resembles the former lookup, which
+ * relied on a {@link MissingResourceException} for each missing key.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MissingKeyBenchmark
+{
+	// keep a strong reference to the configured logger:
+	private final Logger logger = Logger.getLogger(ResourceInjector.class.getName());
+	private final ResourceInjector resourceInjector = new ResourceInjector(Locale.ENGLISH);
+	private final String[] keys = new String[24];
+	private ResourceBundle bundle;
+
+	@Setup
+	public void setUp()
+	{
+		logger.setLevel(Level.OFF);
+		for (int i = 0; i < keys.length; i++)
+		{
+			keys[i] = String.format("label%02d", i);
+		}
+		bundle = ResourceBundle.getBundle(InjectionPlan.get(PartialResources.class)
+			.getResourceLocation().getBundleBaseName(), Locale.ENGLISH);
+		resourceInjector.injectResourcesInto(PartialResources.class);
+	}
+
+	@Benchmark
+	public PartialResources injectPartialResources()
+	{
+		return resourceInjector.injectResourcesInto(PartialResources.class);
+	}
+
+	@Benchmark
+	public int lookupMissingKeysByException()
+	{
+		int found = 0;
+		for (String key : keys)
+		{
+			try
+			{
+				found += bundle.getString(key).length();
+			}
+			catch (MissingResourceException ex)
+			{
+				found--;
+			}
+		}
+		return found;
+	}
+
+	@Benchmark
+	public int lookupMissingKeysByContainsKey()
+	{
+		int found = 0;
+		for (String key : keys)
+		{
+			if (bundle.containsKey(key))
+			{
+				found += bundle.getString(key).length();
+			}
+			else
+			{
+				found--;
+			}
+		}
+		return found;
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark reading {@value #READ_SIZE} bytes at random offsets of a large
+ * binary resource, comparing {@link BinaryResourceRange} reads of a regular
+ * file and of a jar entry with reading the whole resource, as
+ * {@link OptionalBinaryObject} does. The file is held in the page cache after
+ * the first iteration, so the results show the costs of the access paths,
+ * not of disk access.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RangeReadBenchmark
+{
+	private static final int READ_SIZE = 4096;
+	private static final int OFFSET_COUNT = 1024;
+	private static final String ENTRY_NAME = "model.bin";
+	@Param(
+		{
+			"1", "64"
+	})
+	public int sizeMiB;
+	private Path directory;
+	private Path file;
+	private Path jarFile;
+	private URLClassLoader classLoader;
+	private BinaryResourceRange fileRange;
+	private BinaryResourceRange jarRange;
+	private final long[] offsets = new long[OFFSET_COUNT];
+	private final ByteBuffer buffer = ByteBuffer.allocate(READ_SIZE);
+	private int index;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException
+	{
+		final int size = sizeMiB * 1024 * 1024;
+		final Random random = new Random(42);
+		final byte[] data = new byte[size];
+		random.nextBytes(data);
+		for (int i = 0; i < OFFSET_COUNT; i++)
+		{
+			offsets[i] = random.nextInt(size - READ_SIZE);
+		}
+		directory = Files.createTempDirectory(RangeReadBenchmark.class.getSimpleName());
+		file = Files.write(directory.resolve(ENTRY_NAME), data);
+		jarFile = directory.resolve("model.jar");
+		try (OutputStream outputStream = Files.newOutputStream(jarFile);
+			JarOutputStream jarOutputStream = new JarOutputStream(outputStream))
+		{
+			jarOutputStream.putNextEntry(new ZipEntry(ENTRY_NAME));
+			jarOutputStream.write(data);
+			jarOutputStream.closeEntry();
+		}
+		classLoader = new URLClassLoader(new URL[]
+		{
+			jarFile.toUri().toURL()
+		}, null);
+		final Module module = RangeReadBenchmark.class.getModule();
+		fileRange = new ModuleResourceRange(new ModuleResourceHandle(module, "/" + ENTRY_NAME, file));
+		jarRange = new ModuleResourceRange(
+			new ModuleResourceHandle(classLoader.getUnnamedModule(), "/" + ENTRY_NAME, null));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException
+	{
+		classLoader.close();
+		Files.delete(jarFile);
+		Files.delete(file);
+		Files.delete(directory);
+	}
+
+	private long nextOffset()
+	{
+		index = (index + 1) % OFFSET_COUNT;
+		return offsets[index];
+	}
+
+	@Benchmark
+	public byte readAllBytes() throws IOException
+	{
+		try (InputStream inputStream = Files.newInputStream(file))
+		{
+			final byte[] data = inputStream.readAllBytes();
+			buffer.clear().put(data, (int) nextOffset(), READ_SIZE);
+			return buffer.get(0);
+		}
+	}
+
+	@Benchmark
+	public byte fileRangeRead() throws IOException
+	{
+		fileRange.read(nextOffset(), buffer.clear());
+		return buffer.get(0);
+	}
+
+	@Benchmark
+	public byte fileSliceRead() throws IOException
+	{
+		fileRange.slice(nextOffset(), READ_SIZE).read(0, buffer.clear());
+		return buffer.get(0);
+	}
+
+	@Benchmark
+	public byte jarRangeRead() throws IOException
+	{
+		jarRange.read(nextOffset(), buffer.clear());
+		return buffer.get(0);
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.IconResources.Icon;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark comparing the injection of the {@value IconResources#ICON_COUNT}
+ * icons of {@link IconResources} from separate files with the injection from
+ * a {@link ResourcePack}. The icons of 1 to 4 KiB with random (i.e.
+ * incompressible) content are stored deflated in a jar file, as a build
+ * would package them. With a pack, the jar contains both the separate files
+ * and the pack, as generated by the annotation processor. The holder type is
+ * loaded from the jar file by its own class loader, so that its resources are
+ * looked up in the jar file. The binary resource caches are invalidated
+ * before each injection to measure the loading of the resources.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResourcePackBenchmark
+{
+	@Param(
+		{
+			"false", "true"
+	})
+	public boolean packed;
+	private Path jarFile;
+	private URLClassLoader classLoader;
+	private Class<? extends ResourceHolder> resourceHolderClass;
+	private ResourceInjector resourceInjector;
+
+	/**
+	 * Class loader defining the ResourceHolder type itself instead of
+	 * delegating to its parent.
+	 */
+	private static class HolderClassLoader extends URLClassLoader
+	{
+		private HolderClassLoader(URL url, ClassLoader parent)
+		{
+			super(new URL[]
+			{
+				url
+			}, parent);
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+		{
+			if (name.equals(IconResources.class.getName()))
+			{
+				synchronized (getClassLoadingLock(name))
+				{
+					final Class<?> loadedClass = findLoadedClass(name);
+					return (loadedClass != null) ? loadedClass : findClass(name);
+				}
+			}
+			return super.loadClass(name, resolve);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, ClassNotFoundException
+	{
+		final String classFileName = IconResources.class.getName().replace('.', '/') + ".class";
+		final String prefix = ResourceLocation.of(IconResources.class).getBinaryPathPrefix().substring(1);
+		final var random = new Random(42);
+		final var resourcePackWriter = new ResourcePackWriter();
+		resourceInjector = new ResourceInjector(Locale.ROOT).withResourcePacks(packed);
+		jarFile = Files.createTempFile(ResourcePackBenchmark.class.getSimpleName(), ".jar");
+		jarFile.toFile().deleteOnExit();
+		try (JarOutputStream jarOutputStream = new JarOutputStream(Files.newOutputStream(jarFile)))
+		{
+			jarOutputStream.putNextEntry(new JarEntry(classFileName));
+			try (InputStream inputStream = IconResources.class.getResourceAsStream("/" + classFileName))
+			{
+				inputStream.transferTo(jarOutputStream);
+			}
+			for (String fieldName : IconResources.FIELD_NAMES)
+			{
+				for (Icon icon : Icon.values())
+				{
+					final String fileName = fieldName + SharedConstants.SEPARATOR_ENUM_FILE + icon + ".png";
+					final byte[] data = new byte[1024 + random.nextInt(3 * 1024 + 1)];
+					random.nextBytes(data);
+					jarOutputStream.putNextEntry(new JarEntry(prefix + fileName));
+					jarOutputStream.write(data);
+					resourcePackWriter.add(fileName, data);
+				}
+			}
+			if (packed)
+			{
+				jarOutputStream.putNextEntry(new JarEntry(prefix + SharedConstants.FILE_NAME_RESOURCE_PACK));
+				resourcePackWriter.write(jarOutputStream);
+			}
+		}
+		classLoader = new HolderClassLoader(jarFile.toUri().toURL(),
+			ResourcePackBenchmark.class.getClassLoader());
+		resourceHolderClass = classLoader.loadClass(IconResources.class.getName())
+			.asSubclass(ResourceHolder.class);
+		final ResourceHolder resourceHolder = inject();
+		final long packedResourceReads = InjectionStatistics.getPackedResourceReads();
+		inject();
+		final long expected = packed ? IconResources.ICON_COUNT : 0;
+		if (resourceHolder.getClass().getClassLoader() != classLoader ||
+			InjectionStatistics.getPackedResourceReads() - packedResourceReads != expected)
+		{
+			throw new IllegalStateException("Icons not loaded from " + (packed ? "pack" : "files"));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException
+	{
+		classLoader.close();
+		Files.deleteIfExists(jarFile);
+	}
+
+	@Benchmark
+	public ResourceHolder inject()
+	{
+		ResourceCaches.invalidateBinaryResources();
+		return resourceInjector.injectResourcesInto(resourceHolderClass);
+	}
+}
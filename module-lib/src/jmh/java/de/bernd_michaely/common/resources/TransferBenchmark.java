@@ -0,0 +1,172 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark serving {@value #ICON_COUNT} small icons through a local socket
+ * pair, comparing the byte array path, i.e. a defensive copy written to the
+ * socket stream, with the {@code transferTo} methods of the binary resource
+ * types. A background thread drains the receiving socket. Results are given
+ * per icon.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransferBenchmark
+{
+	private static final int ICON_COUNT = 2000;
+	@Param(
+		{
+			"1024", "8192"
+	})
+	public int iconSize;
+	private final OptionalBinaryObject[] heapIcons = new OptionalBinaryObject[ICON_COUNT];
+	private final BinaryResourceBuffer[] bufferIcons = new BinaryResourceBuffer[ICON_COUNT];
+	private final BinaryResourceChannel[] fileIcons = new BinaryResourceChannel[ICON_COUNT];
+	private Path directory;
+	private ServerSocketChannel server;
+	private SocketChannel sender;
+	private SocketChannel receiver;
+	private OutputStream senderStream;
+	private Thread drain;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException
+	{
+		final Random random = new Random(42);
+		directory = Files.createTempDirectory(TransferBenchmark.class.getSimpleName());
+		final Module module = TransferBenchmark.class.getModule();
+		for (int i = 0; i < ICON_COUNT; i++)
+		{
+			final byte[] data = new byte[iconSize];
+			random.nextBytes(data);
+			final Path file = Files.write(directory.resolve("icon" + i + ".bin"), data);
+			heapIcons[i] = new OptionalBinaryObject(data);
+			bufferIcons[i] = new SharedBinaryBuffer(data);
+			fileIcons[i] = new ModuleResourceHandle(module, "/icon" + i + ".bin", file);
+		}
+		server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		sender = SocketChannel.open(server.getLocalAddress());
+		receiver = server.accept();
+		senderStream = Channels.newOutputStream(sender);
+		drain = new Thread(() ->
+		{
+			final ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+			try
+			{
+				while (receiver.read(buffer.clear()) >= 0)
+				{
+				}
+			}
+			catch (IOException ex)
+			{
+				// socket closed on tear down
+			}
+		}, "drain");
+		drain.setDaemon(true);
+		drain.start();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException, InterruptedException
+	{
+		sender.close();
+		drain.join();
+		receiver.close();
+		server.close();
+		for (int i = 0; i < ICON_COUNT; i++)
+		{
+			Files.delete(directory.resolve("icon" + i + ".bin"));
+		}
+		Files.delete(directory);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ICON_COUNT)
+	public long copyToStream() throws IOException
+	{
+		long count = 0;
+		for (OptionalBinaryObject icon : heapIcons)
+		{
+			final byte[] data = icon.get().clone();
+			senderStream.write(data);
+			count += data.length;
+		}
+		return count;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ICON_COUNT)
+	public long heapTransferTo() throws IOException
+	{
+		long count = 0;
+		for (OptionalBinaryObject icon : heapIcons)
+		{
+			count += icon.transferTo(sender);
+		}
+		return count;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ICON_COUNT)
+	public long bufferTransferTo() throws IOException
+	{
+		long count = 0;
+		for (BinaryResourceBuffer icon : bufferIcons)
+		{
+			count += icon.transferTo(sender);
+		}
+		return count;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ICON_COUNT)
+	public long fileTransferTo() throws IOException
+	{
+		long count = 0;
+		for (BinaryResourceChannel icon : fileIcons)
+		{
+			count += icon.transferTo(sender);
+		}
+		return count;
+	}
+}
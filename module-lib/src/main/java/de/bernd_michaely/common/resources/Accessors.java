@@ -0,0 +1,222 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Factory for the field accessors and instance factories of the
+ * {@link InjectionBackend}s.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class Accessors
+{
+	private static final Logger LOGGER = System.getLogger(Accessors.class.getName());
+	private static final Module LIBRARY_MODULE = Accessors.class.getModule();
+	private static final MethodType TYPE_GETTER = methodType(Object.class, Object.class);
+	private static final MethodType TYPE_SETTER = methodType(void.class, Object.class, Object.class);
+	private static final MethodType TYPE_CONSTRUCTOR = methodType(Object.class);
+
+	private Accessors()
+	{
+	}
+
+	/**
+	 * Returns the lookup of the library module for the given type. Unlike the
+	 * {@link MethodHandles#publicLookup() public lookup}, it can access
+	 * packages exported to the library module only. Readability of the module
+	 * of the type is added, as reflection does implicitly.
+	 *
+	 * @param type the type to access
+	 * @return the lookup of the library module
+	 */
+	private static MethodHandles.Lookup getLookup(Class<?> type)
+	{
+		LIBRARY_MODULE.addReads(type.getModule());
+		return MethodHandles.lookup();
+	}
+
+	/**
+	 * Field accessor using core reflection.
+	 */
+	private static final class ReflectiveFieldAccessor implements FieldAccessor
+	{
+		private final Field field;
+
+		private ReflectiveFieldAccessor(Field field)
+		{
+			this.field = field;
+		}
+
+		@Override
+		public @Nullable
+		Object get(Object object) throws IllegalAccessException
+		{
+			return field.get(object);
+		}
+
+		@Override
+		public void set(Object object, @Nullable Object value) throws IllegalAccessException
+		{
+			field.set(object, value);
+		}
+	}
+
+	/**
+	 * Field accessor using getter and setter MethodHandles. The handles are
+	 * adapted to a generic type, so they can be invoked exactly.
+	 */
+	private static final class MethodHandleFieldAccessor implements FieldAccessor
+	{
+		private final String fieldName;
+		private final MethodHandle getter;
+		private final @Nullable MethodHandle setter;
+
+		private MethodHandleFieldAccessor(Field field) throws IllegalAccessException
+		{
+			final MethodHandles.Lookup lookup = getLookup(field.getDeclaringClass());
+			this.fieldName = field.getName();
+			this.getter = lookup.unreflectGetter(field).asType(TYPE_GETTER);
+			this.setter = Modifier.isFinal(field.getModifiers()) ? null :
+				lookup.unreflectSetter(field).asType(TYPE_SETTER);
+		}
+
+		@Override
+		public @Nullable
+		Object get(Object object) throws ReflectiveOperationException
+		{
+			try
+			{
+				return (Object) getter.invokeExact(object);
+			}
+			catch (ClassCastException ex)
+			{
+				throw new IllegalArgumentException(ex);
+			}
+			catch (RuntimeException | Error ex)
+			{
+				throw ex;
+			}
+			catch (Throwable ex)
+			{
+				throw new ReflectiveOperationException(ex);
+			}
+		}
+
+		@Override
+		public void set(Object object, @Nullable Object value) throws ReflectiveOperationException
+		{
+			if (setter == null)
+			{
+				throw new IllegalAccessException("Field »" + fieldName + "« is final");
+			}
+			try
+			{
+				setter.invokeExact(object, value);
+			}
+			catch (ClassCastException ex)
+			{
+				throw new IllegalArgumentException(ex);
+			}
+			catch (RuntimeException | Error ex)
+			{
+				throw ex;
+			}
+			catch (Throwable ex)
+			{
+				throw new ReflectiveOperationException(ex);
+			}
+		}
+	}
+
+	/**
+	 * Creates a field accessor for the given backend.
+	 *
+	 * @param field   the field to access
+	 * @param backend the injection backend
+	 * @return a new field accessor
+	 */
+	static FieldAccessor createFieldAccessor(Field field, InjectionBackend backend)
+	{
+		if (backend != InjectionBackend.REFLECTION)
+		{
+			try
+			{
+				return new MethodHandleFieldAccessor(field);
+			}
+			catch (IllegalAccessException ex)
+			{
+				LOGGER.log(Level.DEBUG, "Using reflection for field »{0}« : {1}", field, ex);
+			}
+		}
+		return new ReflectiveFieldAccessor(field);
+	}
+
+	/**
+	 * Creates an instance factory for the given backend.
+	 *
+	 * @param type    the type to instantiate
+	 * @param backend the injection backend
+	 * @return a new instance factory
+	 * @throws NoSuchMethodException if the type has no no-arg constructor
+	 */
+	static InstanceFactory createInstanceFactory(Class<?> type, InjectionBackend backend)
+		throws NoSuchMethodException
+	{
+		if (backend != InjectionBackend.REFLECTION)
+		{
+			try
+			{
+				final MethodHandle constructor = getLookup(type)
+					.findConstructor(type, methodType(void.class)).asType(TYPE_CONSTRUCTOR);
+				return () ->
+				{
+					try
+					{
+						return (Object) constructor.invokeExact();
+					}
+					catch (Error ex)
+					{
+						throw ex;
+					}
+					catch (Throwable ex)
+					{
+						// wrapped like Constructor.newInstance does:
+						throw new InvocationTargetException(ex);
+					}
+				};
+			}
+			catch (IllegalAccessException ex)
+			{
+				LOGGER.log(Level.DEBUG, "Using reflection for constructor of »{0}« : {1}", type, ex);
+			}
+		}
+		final Constructor<?> constructor = type.getDeclaredConstructor();
+		return constructor::newInstance;
+	}
+}
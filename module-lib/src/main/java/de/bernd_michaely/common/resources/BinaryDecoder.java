@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Service provider interface for decoders of binary resources, which are
+ * injected into {@link DecodedBinaryObject} fields. Decoders are looked up by
+ * their {@link #getType() type} first among the decoders given to
+ * {@link ResourceInjector#withDecoder(BinaryDecoder)}, then among the service
+ * providers of this interface. A decoder for
+ * {@code java.awt.image.BufferedImage} based on {@code javax.imageio.ImageIO}
+ * is built in, if the {@code java.desktop} module is present.
+ * <p>
+ * Decoded objects are shared by all holders injected with resources of
+ * identical content, so they must be immutable or treated as such.
+ * Implementations must be thread safe.
+ * </p>
+ *
+ * @param <T> the type of the decoded objects
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public interface BinaryDecoder<T>
+{
+	/**
+	 * Returns the type of the decoded objects.
+	 *
+	 * @return the type of the decoded objects
+	 */
+	Class<T> getType();
+
+	/**
+	 * Decodes a binary resource.
+	 *
+	 * @param data a read-only view of the resource content
+	 * @return the decoded object or null, if the data can not be decoded
+	 * @throws IOException if the data is invalid
+	 */
+	@Nullable
+	T decode(ByteBuffer data) throws IOException;
+
+	/**
+	 * Returns the weight of a decoded object in bytes, i.e. an estimate of its
+	 * memory usage, which is used to bound the
+	 * {@link ResourceCaches#setDecodedCacheMaxWeight(long) decoded object cache}.
+	 * The default is the size of the encoded data.
+	 *
+	 * @param value    the decoded object
+	 * @param dataSize the size of the encoded data
+	 * @return the weight in bytes
+	 */
+	default long getWeight(T value, int dataSize)
+	{
+		return dataSize;
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Registry of the {@link BinaryDecoder}s available to all ResourceInjector
+ * instances, i.e. the built-in decoders and the service providers, which are
+ * looked up once.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class BinaryDecoders
+{
+	private static final Logger LOGGER = System.getLogger(BinaryDecoders.class.getName());
+	private static final String MODULE_NAME_DESKTOP = "java.desktop";
+	private static @MonotonicNonNull Map<Class<?>, BinaryDecoder<?>> decoders;
+
+	private BinaryDecoders()
+	{
+	}
+
+	private static boolean isDesktopReadable()
+	{
+		return ModuleLayer.boot().findModule(MODULE_NAME_DESKTOP)
+			.filter(BinaryDecoders.class.getModule()::canRead).isPresent();
+	}
+
+	private static synchronized Map<Class<?>, BinaryDecoder<?>> getDecoders()
+	{
+		if (decoders == null)
+		{
+			final Map<Class<?>, BinaryDecoder<?>> map = new HashMap<>();
+			if (isDesktopReadable())
+			{
+				final var imageDecoder = new ImageDecoder();
+				map.put(imageDecoder.getType(), imageDecoder);
+			}
+			try
+			{
+				// service providers replace built-in decoders:
+				for (BinaryDecoder<?> decoder : ServiceLoader.load(BinaryDecoder.class))
+				{
+					map.put(decoder.getType(), decoder);
+				}
+			}
+			catch (ServiceConfigurationError ex)
+			{
+				LOGGER.log(Level.WARNING, "Error loading BinaryDecoders", ex);
+			}
+			decoders = unmodifiableMap(map);
+		}
+		return decoders;
+	}
+
+	/**
+	 * Returns the built-in or service provider decoder for the given type.
+	 *
+	 * @param type the type of the decoded objects
+	 * @return the decoder or null, if there is none
+	 */
+	static @Nullable
+	BinaryDecoder<?> get(Class<?> type)
+	{
+		return getDecoders().get(type);
+	}
+}
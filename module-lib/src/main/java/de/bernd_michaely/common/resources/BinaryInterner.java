@@ -0,0 +1,151 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interning of binary resource data by content hash. Payloads with identical
+ * content, e.g. the same placeholder icon stored under different names,
+ * resolve to one shared instance. Interned payloads are referenced weakly, so
+ * they are held in memory only as long as they are in use elsewhere, e.g. by
+ * the {@link BinaryResourceCache} or a {@link BinaryResourceBuffer}. Interned
+ * payloads are exposed only by read-only views or copies, never as arrays,
+ * which may be modified.
+ * <p>
+ * Payloads are identified by their SHA-256 digest and length. To be safe
+ * against hash collisions, the content of a payload is compared with the
+ * interned payload before it is shared. Each interned payload remembers the
+ * resource it was first loaded from, so that reloading the same resource is
+ * not reported as a duplicate.
+ * </p>
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class BinaryInterner
+{
+	private static final BinaryInterner INSTANCE = new BinaryInterner();
+	private final Map<ContentHash, Entry> entries = new HashMap<>();
+	private final ReferenceQueue<byte[]> queue = new ReferenceQueue<>();
+
+	/**
+	 * Content hash of a payload.
+	 */
+	private record ContentHash(int length, long h0, long h1, long h2, long h3)
+	{
+	}
+
+	/**
+	 * Weak reference to an interned payload, which removes itself from the
+	 * entries when cleared.
+	 */
+	private static final class Entry extends WeakReference<byte[]>
+	{
+		private final ContentHash contentHash;
+		private final Object origin;
+
+		private Entry(byte[] data, ContentHash contentHash, Object origin,
+			ReferenceQueue<byte[]> queue)
+		{
+			super(data, queue);
+			this.contentHash = contentHash;
+			this.origin = origin;
+		}
+	}
+
+	/**
+	 * Result of interning a payload.
+	 *
+	 * @param data      the shared payload
+	 * @param duplicate true, if the payload was resolved to a payload with
+	 *                  identical content of another resource
+	 */
+	record Interned(byte[] data, boolean duplicate)
+	{
+	}
+
+	/**
+	 * Returns the shared instance.
+	 *
+	 * @return the shared instance
+	 */
+	static BinaryInterner getInstance()
+	{
+		return INSTANCE;
+	}
+
+	private static ContentHash contentHash(byte[] data)
+	{
+		final ByteBuffer digest = ByteBuffer.wrap(ContentDigest.sha256(data));
+		return new ContentHash(data.length,
+			digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+	}
+
+	/**
+	 * Returns the interned payload with the same content as the given data.
+	 * If there is none, the given data is interned. The data must not be
+	 * modified afterwards.
+	 *
+	 * @param origin the key of the resource the payload is loaded from
+	 * @param data   the loaded payload
+	 * @return the interned payload
+	 */
+	Interned intern(Object origin, byte[] data)
+	{
+		// hash outside of the lock:
+		final ContentHash contentHash = contentHash(data);
+		synchronized (this)
+		{
+			expungeClearedEntries();
+			final Entry entry = entries.get(contentHash);
+			final byte[] interned = (entry != null) ? entry.get() : null;
+			if (entry != null && interned != null && (interned == data || Arrays.equals(interned, data)))
+			{
+				return new Interned(interned, !entry.origin.equals(origin));
+			}
+			else
+			{
+				entries.put(contentHash, new Entry(data, contentHash, origin, queue));
+				return new Interned(data, false);
+			}
+		}
+	}
+
+	private void expungeClearedEntries()
+	{
+		Entry entry;
+		while ((entry = (Entry) queue.poll()) != null)
+		{
+			entries.remove(entry.contentHash, entry);
+		}
+	}
+
+	/**
+	 * Returns the number of currently interned payloads.
+	 *
+	 * @return the number of currently interned payloads
+	 */
+	synchronized int size()
+	{
+		expungeClearedEntries();
+		return entries.size();
+	}
+}
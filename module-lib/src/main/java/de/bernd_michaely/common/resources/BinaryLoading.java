@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+/**
+ * Enumeration of the strategies used by the {@link ResourceInjector} to load
+ * binary resources into {@link OptionalBinaryObject} fields. With the lazy
+ * strategies, the injection just assigns a locator of the resource, and the
+ * file is read on first access to the data. In this case, fields are always
+ * assigned an OptionalBinaryObject, which is empty if the resource does not
+ * exist. Lazily loaded data bypasses the shared binary resource cache, so
+ * data dropped by a lazy strategy is actually reclaimed.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see ResourceInjector#withBinaryLoading(BinaryLoading)
+ */
+public enum BinaryLoading
+{
+	/**
+	 * Reads the resources during the injection.
+	 */
+	EAGER,
+	/**
+	 * Reads the resources on first access and keeps the data.
+	 */
+	LAZY,
+	/**
+	 * Reads the resources on first access and keeps the data softly
+	 * referenced, so it may be reclaimed by the garbage collector in case of
+	 * memory demand. Reclaimed data is read again on next access.
+	 */
+	LAZY_SOFT,
+	/**
+	 * Reads the resources on first access and keeps the data as long as the
+	 * process wide {@link ResourceCaches#setLazyBinaryBudget(long) budget}
+	 * allows. If the budget is exceeded, the data of the least recently used
+	 * resources is dropped and read again on next access.
+	 */
+	LAZY_BUDGET,
+	/**
+	 * Maps resources, which are stored as regular files of at least 64 KiB,
+	 * e.g. in an exploded module directory, read-only into memory during the
+	 * injection. The data is then paged in by the operating system on access
+	 * and is not copied into the Java heap, if accessed by
+	 * {@link OptionalBinaryObject#getByteBuffer()}. Other resources, like
+	 * entries of jar files, are read like with {@link #EAGER}. On some
+	 * platforms, mapped files can not be deleted until the mapping is garbage
+	 * collected.
+	 */
+	MAPPED
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import static de.bernd_michaely.common.resources.SharedConstants.FILE_NAME_BINARY_MANIFEST;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reader of the manifest of the binary resources of a package, see
+ * {@link BinaryManifestWriter} for the format. The manifests of all packages
+ * and the absence of manifests are cached until {@link #invalidate()
+ * invalidated}. Modules are referred to by {@link WeakKey}s, so the manifests
+ * of collected modules are forgotten, too.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class BinaryManifest
+{
+	private static final Logger LOGGER = System.getLogger(BinaryManifest.class.getName());
+	private static final Map<ManifestKey, Optional<BinaryManifest>> MANIFESTS = new ConcurrentHashMap<>();
+	private static volatile long clearedCount;
+	private final Map<String, EncodedVariants> entries;
+
+	private record ManifestKey(WeakKey module, String directory)
+	{
+	}
+
+	private BinaryManifest(Map<String, EncodedVariants> entries)
+	{
+		this.entries = entries;
+	}
+
+	/**
+	 * Parses a manifest.
+	 *
+	 * @param module      the module containing the resources
+	 * @param directory   the absolute path of the package of the resources
+	 *                    within its module, including a trailing slash
+	 * @param inputStream the content of the manifest
+	 * @return the manifest
+	 * @throws IOException if an I/O error occurs
+	 */
+	static BinaryManifest read(Module module, String directory, InputStream inputStream)
+		throws IOException
+	{
+		final var properties = new Properties();
+		properties.load(new InputStreamReader(inputStream, UTF_8));
+		final var entries = new HashMap<String, EncodedVariants>();
+		for (String fileName : properties.stringPropertyNames())
+		{
+			final String[] values = properties.getProperty(fileName).trim().split(" +");
+			try
+			{
+				final long size = Long.parseLong(values[0]);
+				if (values.length < 2 || values.length > 3 || size < 0)
+				{
+					throw new IllegalArgumentException();
+				}
+				final Set<ContentEncoding> contentEncodings = EnumSet.noneOf(ContentEncoding.class);
+				if (values.length == 3)
+				{
+					for (String name : values[2].split(","))
+					{
+						contentEncodings.add(getContentEncoding(name));
+					}
+				}
+				entries.put(fileName,
+					new EncodedVariants(module, directory + fileName, size, values[1], contentEncodings));
+			}
+			catch (IllegalArgumentException ex)
+			{
+				LOGGER.log(Level.WARNING, "Invalid manifest entry »{0}« in »{1}«",
+					fileName, directory + FILE_NAME_BINARY_MANIFEST);
+			}
+		}
+		return new BinaryManifest(entries);
+	}
+
+	private static ContentEncoding getContentEncoding(String name)
+	{
+		for (ContentEncoding contentEncoding : ContentEncoding.values())
+		{
+			if (contentEncoding.getName().equals(name))
+			{
+				return contentEncoding;
+			}
+		}
+		throw new IllegalArgumentException("Unknown content encoding »" + name + "«");
+	}
+
+	/**
+	 * Returns the manifest entry of the given binary resource, if its package
+	 * has a manifest.
+	 *
+	 * @param module     the module containing the resource
+	 * @param binaryPath the absolute path of the resource within its module
+	 * @return the manifest entry or null, if there is none
+	 */
+	static @Nullable
+	EncodedVariants getVariants(Module module, String binaryPath)
+	{
+		final int index = binaryPath.lastIndexOf('/') + 1;
+		final String directory = binaryPath.substring(0, index);
+		final var manifestKey = new ManifestKey(WeakKey.of(module), directory);
+		Optional<BinaryManifest> manifest = MANIFESTS.get(manifestKey);
+		if (manifest == null)
+		{
+			purge();
+			manifest = MANIFESTS.computeIfAbsent(manifestKey, key -> load(module, directory));
+		}
+		return manifest.map(m -> m.get(binaryPath.substring(index))).orElse(null);
+	}
+
+	private static Optional<BinaryManifest> load(Module module, String directory)
+	{
+		final String manifestPath = directory + FILE_NAME_BINARY_MANIFEST;
+		try (InputStream inputStream = module.getResourceAsStream(manifestPath))
+		{
+			return (inputStream != null) ?
+				Optional.of(read(module, directory, inputStream)) : Optional.empty();
+		}
+		catch (IOException ex)
+		{
+			LOGGER.log(Level.WARNING, "Invalid binary resource manifest »{0}«", manifestPath);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Forgets the manifests and missing manifests of collected modules, if any
+	 * modules have been collected since the last purge.
+	 */
+	private static void purge()
+	{
+		final long count = WeakKey.getClearedCount();
+		if (count != clearedCount)
+		{
+			clearedCount = count;
+			MANIFESTS.keySet().removeIf(key -> key.module().isCleared());
+		}
+	}
+
+	/**
+	 * Forgets all cached manifests and missing manifests.
+	 */
+	static void invalidate()
+	{
+		MANIFESTS.clear();
+	}
+
+	/**
+	 * Forgets the cached manifests and missing manifests of the given module.
+	 *
+	 * @param module the module containing the manifests
+	 */
+	static void invalidate(Module module)
+	{
+		MANIFESTS.keySet().removeIf(key -> key.module().isKeyOf(module));
+	}
+
+	/**
+	 * Returns the entry of the given resource.
+	 *
+	 * @param fileName the file name of the resource within its package
+	 * @return the entry or null, if the resource is not listed
+	 */
+	@Nullable
+	EncodedVariants get(String fileName)
+	{
+		return entries.get(fileName);
+	}
+
+	/**
+	 * Returns the number of entries.
+	 *
+	 * @return the number of entries
+	 */
+	int size()
+	{
+		return entries.size();
+	}
+}
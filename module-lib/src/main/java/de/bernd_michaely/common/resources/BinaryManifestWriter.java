@@ -0,0 +1,191 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writer of a binary resource manifest, mainly provided for the annotation
+ * processor. For each added resource, it creates the precompressed variants
+ * in all {@link ContentEncoding}s, which are smaller than the resource, and
+ * records them together with the size and the SHA-256 digest of the resource.
+ * At runtime, a manifest named {@link SharedConstants#FILE_NAME_BINARY_MANIFEST}
+ * is used to serve the variants stored next to the resources without
+ * compressing or hashing them.
+ * <p>
+ * The manifest is a properties file in UTF-8 encoding, mapping the file name
+ * of each resource to its size, the hexadecimal SHA-256 digest and the comma
+ * separated names of its variants, separated by spaces:
+ * </p>
+ * <pre>
+ * logo.svg=4711 9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08 gzip,deflate
+ * </pre>
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public final class BinaryManifestWriter
+{
+	/**
+	 * Minimum size of resources to be compressed in bytes. Smaller resources
+	 * hardly gain from compression.
+	 */
+	public static final int MIN_COMPRESSION_SIZE = 256;
+	private final SortedMap<String, String> entries = new TreeMap<>();
+
+	/**
+	 * Adds a resource and returns its precompressed variants.
+	 *
+	 * @param fileName the file name of the resource within its package
+	 * @param data     the content of the resource
+	 * @return the variants to be stored next to the resource, with the file
+	 *         name extended by the {@link ContentEncoding#getFileExtension()}
+	 * @throws NullPointerException     if an argument is null
+	 * @throws IllegalArgumentException if the file name contains a slash
+	 */
+	public Map<ContentEncoding, byte[]> add(String fileName, byte[] data)
+	{
+		if (Objects.requireNonNull(fileName, "fileName is null").contains("/"))
+		{
+			throw new IllegalArgumentException("Invalid file name »" + fileName + "«");
+		}
+		Objects.requireNonNull(data, "data is null");
+		final Map<ContentEncoding, byte[]> variants = new EnumMap<>(ContentEncoding.class);
+		if (data.length >= MIN_COMPRESSION_SIZE)
+		{
+			for (ContentEncoding contentEncoding : ContentEncoding.values())
+			{
+				final byte[] compressed = compress(contentEncoding, data);
+				if (compressed.length < data.length)
+				{
+					variants.put(contentEncoding, compressed);
+				}
+			}
+		}
+		final String encodings = variants.keySet().stream()
+			.map(ContentEncoding::getName).collect(Collectors.joining(","));
+		entries.put(fileName, (data.length + " " + ContentDigest.sha256Hex(data) + " " + encodings).trim());
+		return variants;
+	}
+
+	/**
+	 * Returns the number of entries.
+	 *
+	 * @return the number of entries
+	 */
+	public int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * Writes the manifest. The output does not depend on the order of adding
+	 * and contains no time stamp, so that builds are reproducible.
+	 *
+	 * @param outputStream the stream to write to, which is not closed
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void write(OutputStream outputStream) throws IOException
+	{
+		final Writer writer = new OutputStreamWriter(outputStream, UTF_8);
+		for (Map.Entry<String, String> entry : entries.entrySet())
+		{
+			writer.write(escapeKey(entry.getKey()));
+			writer.write('=');
+			writer.write(entry.getValue());
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Escapes the characters of a file name, which have a special meaning in
+	 * a properties file key.
+	 */
+	private static String escapeKey(String key)
+	{
+		final var stringBuilder = new StringBuilder(key.length());
+		for (char c : key.toCharArray())
+		{
+			switch (c)
+			{
+				case '\t' -> stringBuilder.append("\\t");
+				case '\n' -> stringBuilder.append("\\n");
+				case '\r' -> stringBuilder.append("\\r");
+				case '\f' -> stringBuilder.append("\\f");
+				case ' ', '=', ':', '#', '!', '\\' -> stringBuilder.append('\\').append(c);
+				default -> stringBuilder.append(c);
+			}
+		}
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * Compresses the given data with the best compression level.
+	 *
+	 * @param contentEncoding the content encoding
+	 * @param data            the data to compress
+	 * @return the compressed data
+	 */
+	static byte[] compress(ContentEncoding contentEncoding, byte[] data)
+	{
+		final var outputStream = new ByteArrayOutputStream(data.length / 2);
+		try (OutputStream compressingStream = switch (contentEncoding)
+		{
+			case GZIP ->
+				new GZIPOutputStream(outputStream)
+				{
+					{
+						def.setLevel(Deflater.BEST_COMPRESSION);
+					}
+				};
+			case DEFLATE ->
+				new DeflaterOutputStream(outputStream, new Deflater(Deflater.BEST_COMPRESSION), true)
+				{
+					@Override
+					public void close() throws IOException
+					{
+						super.close();
+						// the Deflater is not owned by the stream:
+						def.end();
+					}
+				};
+		})
+		{
+			compressingStream.write(data);
+		}
+		catch (IOException ex)
+		{
+			// not thrown by in-memory streams:
+			throw new IllegalStateException(ex);
+		}
+		return outputStream.toByteArray();
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Optional;
+
+/**
+ * Injectable read-only view of a binary resource. In contrast to
+ * {@link OptionalBinaryObject#get()}, the data can not be modified through
+ * this type, so all holders referring to the same resource, e.g. for
+ * different locales or sessions, share one copy of the data without
+ * defensive copying. If injected with {@link BinaryLoading#MAPPED}, the data
+ * may be a memory mapped file. A field of this type is only assigned, if the
+ * resource exists.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see OptionalBinaryObject#getByteBuffer()
+ */
+@FunctionalInterface
+public interface BinaryResourceBuffer
+{
+	/**
+	 * Returns a new read-only view of the data with position zero. The views
+	 * share the data, but have independent positions and limits, so they may
+	 * be used concurrently.
+	 *
+	 * @return a new read-only view of the data
+	 */
+	ByteBuffer getByteBuffer();
+
+	/**
+	 * Returns the size of the data.
+	 *
+	 * @return the size of the data in bytes
+	 */
+	default int size()
+	{
+		return getByteBuffer().remaining();
+	}
+
+	/**
+	 * Writes the data to the given channel, which must be in blocking mode.
+	 * Direct data, e.g. a memory mapped file, is written directly, heap data
+	 * through a pooled direct buffer.
+	 *
+	 * @param target the target channel
+	 * @return the number of bytes written
+	 * @throws IOException if an I/O error occurs
+	 */
+	default long transferTo(WritableByteChannel target) throws IOException
+	{
+		return BinaryTransfer.transfer(getByteBuffer(), target);
+	}
+
+	/**
+	 * Writes the data to the given stream.
+	 *
+	 * @param target the target stream
+	 * @return the number of bytes written
+	 * @throws IOException if an I/O error occurs
+	 */
+	default long transferTo(OutputStream target) throws IOException
+	{
+		return BinaryTransfer.transfer(getByteBuffer(), target);
+	}
+
+	/**
+	 * Returns the variant of the data, which was compressed at build time with
+	 * the given encoding. The variant is read on first access and then shared
+	 * like the data, so serving it requires neither compression nor copying.
+	 *
+	 * @param contentEncoding the content encoding
+	 * @return the encoded variant, if it was created at build time
+	 * @see ContentEncoding
+	 */
+	default Optional<BinaryResourceBuffer> getEncodedBuffer(ContentEncoding contentEncoding)
+	{
+		return Optional.empty();
+	}
+
+	/**
+	 * Returns the hexadecimal SHA-256 digest of the data, as recorded at build
+	 * time with the annotation processor option
+	 * {@code precompressBinaryResources=true}, e.g. to be used as an HTTP
+	 * entity tag. The recorded digest is verified against the data once per
+	 * resource, so it is absent for resources changed after the build.
+	 *
+	 * @return the lower case hexadecimal digest, if it was recorded
+	 */
+	default Optional<String> getContentHash()
+	{
+		return Optional.empty();
+	}
+}
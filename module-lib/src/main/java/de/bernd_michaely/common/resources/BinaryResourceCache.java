@@ -0,0 +1,588 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Cache of loaded binary resources shared by all ResourceInjector instances,
+ * bounded by the total size (weight) of the cached data in bytes. Values are
+ * shared between all users of a key, so they must be treated as immutable.
+ * <p>
+ * The policy follows W-TinyLFU: new entries are placed in a small LRU
+ * window. Entries evicted from the window are admitted to the main area only,
+ * if their access frequency, as estimated by a {@link FrequencySketch}, is
+ * higher than the frequency of the entries they would displace. The main
+ * area is a segmented LRU, where entries accessed again are promoted from a
+ * probation to a protected segment. This keeps frequently used resources
+ * cached, while e.g. a single pass over many rarely used resources does not
+ * flush the cache.
+ * </p>
+ * <p>
+ * Keys refer to modules, classes and decoders by {@link WeakKey}s only.
+ * Values referring to classes, like enum maps and decoded objects, are held
+ * strongly by their {@link #putIfAbsent(Object, Object, long, Class) anchor
+ * class} only, so that the cache never keeps a module and its class loader
+ * reachable. Entries of collected modules and anchors are removed on the next
+ * insertion.
+ * </p>
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see ResourceCaches
+ */
+final class BinaryResourceCache
+{
+	/**
+	 * The default maximum weight of the shared cache in bytes.
+	 */
+	static final long DEFAULT_MAX_WEIGHT = 32L * 1024 * 1024;
+	/**
+	 * Share of the window in the maximum weight in percent.
+	 */
+	private static final int WINDOW_PERCENT = 1;
+	/**
+	 * Share of the protected segment in the main area in percent.
+	 */
+	private static final int PROTECTED_PERCENT = 80;
+	/**
+	 * Assumed average weight of entries to size the frequency sketch.
+	 */
+	private static final int AVERAGE_WEIGHT = 4096;
+	private static final BinaryResourceCache INSTANCE = new BinaryResourceCache(DEFAULT_MAX_WEIGHT);
+	private final Map<Object, Node> nodes = new HashMap<>();
+	private final Map<Object, Node> window = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<Object, Node> probation = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<Object, Node> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+	private final ClassValue<Map<Object, Object>> anchoredValues = new ClassValue<>()
+	{
+		@Override
+		protected Map<Object, Object> computeValue(Class<?> type)
+		{
+			return new HashMap<>();
+		}
+	};
+	private long clearedCount;
+	private FrequencySketch sketch;
+	private long maxWeight, windowMaxWeight, mainMaxWeight, protectedMaxWeight;
+	private long windowWeight, probationWeight, protectedWeight;
+	private long hits, misses, evictions, evictedWeight, rejections;
+
+	/**
+	 * Key of a cached entry.
+	 */
+	sealed interface Key permits FileKey, EnumMapKey, DecodedKey
+	{
+		/**
+		 * Returns the key of the module containing the resources.
+		 *
+		 * @return the key of the module
+		 */
+		WeakKey module();
+
+		/**
+		 * Returns true, if a module, class or decoder of this key has been
+		 * collected, so that the entry can not be looked up anymore.
+		 *
+		 * @return true, if the entry is obsolete
+		 */
+		boolean isCleared();
+	}
+
+	/**
+	 * Key of a cached binary resource file.
+	 */
+	record FileKey(WeakKey module, String path) implements Key
+	{
+		FileKey(Module module, String path)
+		{
+			this(WeakKey.of(module), path);
+		}
+
+		@Override
+		public boolean isCleared()
+		{
+			return module.isCleared();
+		}
+	}
+
+	/**
+	 * Key of a cached {@link EnumByteArrayMap}.
+	 */
+	record EnumMapKey(WeakKey module, WeakKey enumClass, List<String> paths, boolean direct)
+		implements Key
+	{
+		EnumMapKey(Module module, Class<?> enumClass, List<String> paths, boolean direct)
+		{
+			this(WeakKey.of(module), WeakKey.of(enumClass), paths, direct);
+		}
+
+		@Override
+		public boolean isCleared()
+		{
+			return module.isCleared() || enumClass.isCleared();
+		}
+	}
+
+	/**
+	 * Key of a cached {@link DecodedBinaryObject}. The payload is compared by
+	 * identity, which is sufficient for payloads deduplicated by the
+	 * {@link BinaryInterner}.
+	 */
+	record DecodedKey(WeakKey module, WeakKey decoder, byte[] data) implements Key
+	{
+		DecodedKey(Module module, BinaryDecoder<?> decoder, byte[] data)
+		{
+			this(WeakKey.of(module), WeakKey.of(decoder), data);
+		}
+
+		@Override
+		public boolean isCleared()
+		{
+			return module.isCleared() || decoder.isCleared();
+		}
+	}
+
+	private enum Segment
+	{
+		WINDOW, PROBATION, PROTECTED
+	}
+
+	private static final class Node
+	{
+		private final Object key;
+		private final @Nullable Object value;
+		private final @Nullable WeakReference<Class<?>> anchor;
+		private final @Nullable WeakReference<Object> anchoredValue;
+		private final long weight;
+		private Segment segment = Segment.WINDOW;
+
+		private Node(Object key, Object value, @Nullable Class<?> anchor, long weight)
+		{
+			this.key = key;
+			this.value = (anchor != null) ? null : value;
+			this.anchor = (anchor != null) ? new WeakReference<>(anchor) : null;
+			this.anchoredValue = (anchor != null) ? new WeakReference<>(value) : null;
+			this.weight = weight;
+		}
+
+		private @Nullable
+		Object getValue()
+		{
+			final WeakReference<Object> reference = anchoredValue;
+			return (reference != null) ? reference.get() : value;
+		}
+
+		private boolean isCleared()
+		{
+			return (key instanceof Key cacheKey && cacheKey.isCleared()) ||
+				(anchoredValue != null && anchoredValue.refersTo(null));
+		}
+	}
+
+	/**
+	 * Creates a new cache instance.
+	 *
+	 * @param maxWeight the maximum weight in bytes
+	 */
+	BinaryResourceCache(long maxWeight)
+	{
+		this.sketch = new FrequencySketch(1);
+		setMaxWeight(maxWeight);
+	}
+
+	/**
+	 * Returns the shared instance.
+	 *
+	 * @return the shared instance
+	 */
+	static BinaryResourceCache getInstance()
+	{
+		return INSTANCE;
+	}
+
+	private void removeNode(Node node)
+	{
+		removeFromSegment(node);
+		dropNode(node);
+	}
+
+	/**
+	 * Removes a node, which is not contained in a segment anymore.
+	 */
+	private void dropNode(Node node)
+	{
+		nodes.remove(node.key);
+		dropAnchoredValue(node);
+	}
+
+	private void dropAnchoredValue(Node node)
+	{
+		final Class<?> anchor = (node.anchor != null) ? node.anchor.get() : null;
+		if (anchor != null)
+		{
+			anchoredValues.get(anchor).remove(node.key);
+		}
+	}
+
+	/**
+	 * Removes the entries of collected modules, classes and decoders, if any
+	 * keys have been cleared since the last purge.
+	 */
+	private void purge()
+	{
+		final long count = WeakKey.getClearedCount();
+		if (count != clearedCount)
+		{
+			clearedCount = count;
+			for (Node node : List.copyOf(nodes.values()))
+			{
+				if (node.isCleared())
+				{
+					removeNode(node);
+				}
+			}
+		}
+	}
+
+	private Map<Object, Node> getSegment(Segment segment)
+	{
+		return switch (segment)
+		{
+			case WINDOW ->
+				window;
+			case PROBATION ->
+				probation;
+			case PROTECTED ->
+				protectedSegment;
+		};
+	}
+
+	private void addWeight(Segment segment, long weight)
+	{
+		switch (segment)
+		{
+			case WINDOW ->
+				windowWeight += weight;
+			case PROBATION ->
+				probationWeight += weight;
+			case PROTECTED ->
+				protectedWeight += weight;
+		}
+	}
+
+	private void addTo(Segment segment, Node node)
+	{
+		node.segment = segment;
+		getSegment(segment).put(node.key, node);
+		addWeight(segment, node.weight);
+	}
+
+	private void removeFromSegment(Node node)
+	{
+		getSegment(node.segment).remove(node.key);
+		addWeight(node.segment, -node.weight);
+	}
+
+	private void evict(Node node)
+	{
+		removeNode(node);
+		evictions++;
+		evictedWeight += node.weight;
+	}
+
+	private static @Nullable
+	Node eldest(Map<Object, Node> segment)
+	{
+		final Iterator<Node> iterator = segment.values().iterator();
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	/**
+	 * Returns true, if the given key is cached, without recording an access.
+	 *
+	 * @param key the key
+	 * @return true, if the key is cached
+	 */
+	synchronized boolean containsKey(Object key)
+	{
+		return nodes.containsKey(key);
+	}
+
+	/**
+	 * Returns the cached value of the given key and records the access.
+	 *
+	 * @param key the key
+	 * @return the cached value or null, if it is not cached
+	 */
+	synchronized @Nullable
+	Object get(Object key)
+	{
+		sketch.increment(key);
+		final Node node = nodes.get(key);
+		final Object value = (node != null) ? node.getValue() : null;
+		if (node == null || value == null)
+		{
+			misses++;
+			return null;
+		}
+		hits++;
+		switch (node.segment)
+		{
+			case WINDOW, PROTECTED ->
+				getSegment(node.segment).get(key);
+			case PROBATION ->
+			{
+				removeFromSegment(node);
+				addTo(Segment.PROTECTED, node);
+				while (protectedWeight > protectedMaxWeight)
+				{
+					final Node demoted = eldest(protectedSegment);
+					if (demoted == null)
+					{
+						break;
+					}
+					removeFromSegment(demoted);
+					addTo(Segment.PROBATION, demoted);
+				}
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Adds a value to the cache, if the key is not already cached.
+	 *
+	 * @param key    the key
+	 * @param value  the value, which must not be modified afterwards
+	 * @param weight the weight of the value in bytes
+	 * @return the value cached for the key, i.e. the given value or a value
+	 *         cached concurrently before
+	 */
+	Object putIfAbsent(Object key, Object value, long weight)
+	{
+		return putIfAbsent(key, value, weight, null);
+	}
+
+	/**
+	 * Adds a value to the cache, if the key is not already cached. A value
+	 * referring to classes of a module, which may be unloaded, is held
+	 * strongly by an anchor class of the same class loader only, so that it
+	 * does not keep the class loader reachable.
+	 *
+	 * @param key    the key
+	 * @param value  the value, which must not be modified afterwards
+	 * @param weight the weight of the value in bytes
+	 * @param anchor the class holding the value or null to hold it by the
+	 *               cache
+	 * @return the value cached for the key, i.e. the given value or a value
+	 *         cached concurrently before
+	 */
+	synchronized Object putIfAbsent(Object key, Object value, long weight, @Nullable Class<?> anchor)
+	{
+		purge();
+		final Node existing = nodes.get(key);
+		final Object existingValue = (existing != null) ? existing.getValue() : null;
+		if (existingValue != null)
+		{
+			return existingValue;
+		}
+		else if (existing != null)
+		{
+			removeNode(existing);
+		}
+		if (weight <= mainMaxWeight)
+		{
+			final Node node = new Node(key, value, anchor, weight);
+			if (anchor != null)
+			{
+				anchoredValues.get(anchor).put(key, value);
+			}
+			nodes.put(key, node);
+			addTo(Segment.WINDOW, node);
+			while (windowWeight > windowMaxWeight)
+			{
+				final Node candidate = eldest(window);
+				if (candidate == null)
+				{
+					break;
+				}
+				removeFromSegment(candidate);
+				admit(candidate);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Moves a candidate evicted from the window to the main area, if its
+	 * frequency is higher than the frequency of each entry it displaces.
+	 */
+	private void admit(Node candidate)
+	{
+		final int candidateFrequency = sketch.frequency(candidate.key);
+		while (probationWeight + protectedWeight + candidate.weight > mainMaxWeight)
+		{
+			Node victim = eldest(probation);
+			if (victim == null)
+			{
+				victim = eldest(protectedSegment);
+			}
+			if (victim == null)
+			{
+				break;
+			}
+			if (candidateFrequency > sketch.frequency(victim.key))
+			{
+				evict(victim);
+			}
+			else
+			{
+				dropNode(candidate);
+				evictions++;
+				evictedWeight += candidate.weight;
+				rejections++;
+				return;
+			}
+		}
+		addTo(Segment.PROBATION, candidate);
+	}
+
+	/**
+	 * Sets the maximum weight and evicts entries, if necessary. A maximum
+	 * weight of zero disables the cache.
+	 *
+	 * @param maxWeight the maximum weight in bytes
+	 * @throws IllegalArgumentException if maxWeight is negative
+	 */
+	synchronized void setMaxWeight(long maxWeight)
+	{
+		if (maxWeight < 0)
+		{
+			throw new IllegalArgumentException("Maximum weight must not be negative: " + maxWeight);
+		}
+		this.maxWeight = maxWeight;
+		this.windowMaxWeight = maxWeight * WINDOW_PERCENT / 100;
+		this.mainMaxWeight = maxWeight - windowMaxWeight;
+		this.protectedMaxWeight = mainMaxWeight * PROTECTED_PERCENT / 100;
+		this.sketch = new FrequencySketch((int) Math.min(maxWeight / AVERAGE_WEIGHT, Integer.MAX_VALUE));
+		Node node;
+		while (windowWeight > windowMaxWeight && (node = eldest(window)) != null)
+		{
+			evict(node);
+		}
+		while (protectedWeight > protectedMaxWeight && (node = eldest(protectedSegment)) != null)
+		{
+			removeFromSegment(node);
+			addTo(Segment.PROBATION, node);
+		}
+		while (probationWeight + protectedWeight > mainMaxWeight &&
+			((node = eldest(probation)) != null || (node = eldest(protectedSegment)) != null))
+		{
+			evict(node);
+		}
+	}
+
+	synchronized long getMaxWeight()
+	{
+		return maxWeight;
+	}
+
+	/**
+	 * Returns the total weight of the cached values.
+	 *
+	 * @return the total weight in bytes
+	 */
+	synchronized long getWeight()
+	{
+		return windowWeight + probationWeight + protectedWeight;
+	}
+
+	synchronized int size()
+	{
+		return nodes.size();
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	synchronized void invalidate()
+	{
+		for (Node node : nodes.values())
+		{
+			dropAnchoredValue(node);
+		}
+		nodes.clear();
+		window.clear();
+		probation.clear();
+		protectedSegment.clear();
+		windowWeight = probationWeight = protectedWeight = 0;
+	}
+
+	/**
+	 * Removes all entries of the given module.
+	 *
+	 * @param module the module
+	 */
+	synchronized void invalidate(Module module)
+	{
+		for (Node node : List.copyOf(nodes.values()))
+		{
+			if (node.key instanceof Key key && key.module().isKeyOf(module))
+			{
+				removeNode(node);
+			}
+		}
+	}
+
+	synchronized long getHits()
+	{
+		return hits;
+	}
+
+	synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	synchronized long getEvictions()
+	{
+		return evictions;
+	}
+
+	synchronized long getEvictedWeight()
+	{
+		return evictedWeight;
+	}
+
+	synchronized long getRejections()
+	{
+		return rejections;
+	}
+
+	/**
+	 * Resets the statistics counters to zero.
+	 */
+	synchronized void resetStatistics()
+	{
+		hits = misses = evictions = evictedWeight = rejections = 0;
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Optional;
+
+/**
+ * Injectable handle to a binary resource, which opens a new channel on each
+ * call. In contrast to {@link OptionalBinaryObject}, the resource is not read
+ * into memory during the injection. If the resource is stored as a regular
+ * file, e.g. in an exploded module directory, the channel is a
+ * {@link java.nio.channels.FileChannel}. A field of this type is only
+ * assigned, if the resource exists.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see BinaryResourceStream
+ */
+@FunctionalInterface
+public interface BinaryResourceChannel
+{
+	/**
+	 * Opens a new channel to read the resource. The caller is responsible to
+	 * close the channel.
+	 *
+	 * @return a new channel positioned at the start of the resource
+	 * @throws IOException if the resource can not be opened, e.g. because it
+	 *                     was removed after the injection
+	 */
+	ReadableByteChannel openChannel() throws IOException;
+
+	/**
+	 * Transfers the resource to the given channel, which must be in blocking
+	 * mode. If the resource is a regular file, it is transferred by
+	 * {@link java.nio.channels.FileChannel#transferTo}, which the operating
+	 * system may perform without copying to user space. Otherwise the data is
+	 * passed through a pooled direct buffer.
+	 *
+	 * @param target the target channel
+	 * @return the number of bytes transferred
+	 * @throws IOException if the resource can not be opened or an I/O error
+	 *                     occurs
+	 */
+	default long transferTo(WritableByteChannel target) throws IOException
+	{
+		try (ReadableByteChannel channel = openChannel())
+		{
+			return BinaryTransfer.transfer(channel, target);
+		}
+	}
+
+	/**
+	 * Transfers the resource to the given stream.
+	 *
+	 * @param target the target stream
+	 * @return the number of bytes transferred
+	 * @throws IOException if the resource can not be opened or an I/O error
+	 *                     occurs
+	 */
+	default long transferTo(OutputStream target) throws IOException
+	{
+		return transferTo(Channels.newChannel(target));
+	}
+
+	/**
+	 * Returns a handle to the variant of the resource, which was compressed at
+	 * build time with the given encoding. If the variant is a regular file,
+	 * it is transferred by {@link java.nio.channels.FileChannel#transferTo}.
+	 *
+	 * @param contentEncoding the content encoding
+	 * @return a handle to the encoded variant, if it was created at build time
+	 * @see ContentEncoding
+	 */
+	default Optional<BinaryResourceChannel> getEncodedChannel(ContentEncoding contentEncoding)
+	{
+		return Optional.empty();
+	}
+
+	/**
+	 * Returns the hexadecimal SHA-256 digest of the resource, as recorded at
+	 * build time with the annotation processor option
+	 * {@code precompressBinaryResources=true}, e.g. to be used as an HTTP
+	 * entity tag without hashing at runtime. As the resource is not read in
+	 * advance, only its size is verified against the manifest, so the digest
+	 * is absent for resources changed to a different size after the build.
+	 *
+	 * @return the lower case hexadecimal digest, if it was recorded
+	 */
+	default Optional<String> getContentHash()
+	{
+		return Optional.empty();
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Injectable handle to a binary resource, or a byte range of it, supporting
+ * positional reads. In contrast to {@link OptionalBinaryObject}, only the
+ * requested bytes are read, e.g. the header of a large bundled file. If the
+ * resource is stored as a regular file, e.g. in an exploded module directory,
+ * each read is a positional {@link java.nio.channels.FileChannel} read.
+ * Otherwise, e.g. within a jar file, the resource is opened and the bytes
+ * before the offset are skipped, so reads near the end of large compressed
+ * entries are slow. A field of this type is only assigned, if the resource
+ * exists. Implementations are immutable and thread safe.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see BinaryResourceChannel
+ */
+public interface BinaryResourceRange
+{
+	/**
+	 * Returns the size of the range. For a resource not stored as a regular
+	 * file, the size is determined on first call by skipping through the
+	 * resource.
+	 *
+	 * @return the size of the range in bytes
+	 * @throws IOException if the resource can not be opened, e.g. because it
+	 *                     was removed after the injection
+	 */
+	long size() throws IOException;
+
+	/**
+	 * Reads bytes of the range starting at the given offset into the given
+	 * buffer, until the buffer is full or the end of the range is reached.
+	 * The position of the buffer is advanced by the number of bytes read.
+	 *
+	 * @param offset the offset within the range
+	 * @param dst    the buffer to read into
+	 * @return the number of bytes read, possibly zero, or -1, if the offset is
+	 *         at or beyond the end of the range
+	 * @throws IllegalArgumentException if offset is negative
+	 * @throws IOException              if the resource can not be opened or an
+	 *                                  I/O error occurs
+	 */
+	int read(long offset, ByteBuffer dst) throws IOException;
+
+	/**
+	 * Returns a handle to a part of this range. No data is read. The length of
+	 * the slice is truncated to the end of this range.
+	 *
+	 * @param offset the offset of the slice within this range
+	 * @param length the maximum length of the slice
+	 * @return a handle to the slice
+	 * @throws IllegalArgumentException if offset or length is negative
+	 */
+	BinaryResourceRange slice(long offset, long length);
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Optional;
+
+/**
+ * Injectable handle to a binary resource, which opens a new InputStream on
+ * each call. In contrast to {@link OptionalBinaryObject}, the resource is not
+ * read into memory during the injection, so it can be processed with constant
+ * memory, e.g. piped to the network or to a decoder. A field of this type is
+ * only assigned, if the resource exists.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see BinaryResourceChannel
+ */
+@FunctionalInterface
+public interface BinaryResourceStream
+{
+	/**
+	 * Opens a new InputStream to read the resource. The caller is responsible
+	 * to close the stream.
+	 *
+	 * @return a new InputStream positioned at the start of the resource
+	 * @throws IOException if the resource can not be opened, e.g. because it
+	 *                     was removed after the injection
+	 */
+	InputStream openStream() throws IOException;
+
+	/**
+	 * Transfers the resource to the given stream.
+	 *
+	 * @param target the target stream
+	 * @return the number of bytes transferred
+	 * @throws IOException if the resource can not be opened or an I/O error
+	 *                     occurs
+	 */
+	default long transferTo(OutputStream target) throws IOException
+	{
+		try (InputStream inputStream = openStream())
+		{
+			return inputStream.transferTo(target);
+		}
+	}
+
+	/**
+	 * Transfers the resource to the given channel, which must be in blocking
+	 * mode. The data is passed through a pooled direct buffer.
+	 *
+	 * @param target the target channel
+	 * @return the number of bytes transferred
+	 * @throws IOException if the resource can not be opened or an I/O error
+	 *                     occurs
+	 */
+	default long transferTo(WritableByteChannel target) throws IOException
+	{
+		try (InputStream inputStream = openStream())
+		{
+			return BinaryTransfer.transfer(Channels.newChannel(inputStream), target);
+		}
+	}
+
+	/**
+	 * Returns a handle to the variant of the resource, which was compressed at
+	 * build time with the given encoding.
+	 *
+	 * @param contentEncoding the content encoding
+	 * @return a handle to the encoded variant, if it was created at build time
+	 * @see ContentEncoding
+	 */
+	default Optional<BinaryResourceStream> getEncodedStream(ContentEncoding contentEncoding)
+	{
+		return Optional.empty();
+	}
+
+	/**
+	 * Returns the hexadecimal SHA-256 digest of the resource, as recorded at
+	 * build time with the annotation processor option
+	 * {@code precompressBinaryResources=true}, e.g. to be used as an HTTP
+	 * entity tag without hashing at runtime. As the resource is not read in
+	 * advance, only its size is verified against the manifest, so the digest
+	 * is absent for resources changed to a different size after the build.
+	 *
+	 * @return the lower case hexadecimal digest, if it was recorded
+	 */
+	default Optional<String> getContentHash()
+	{
+		return Optional.empty();
+	}
+}
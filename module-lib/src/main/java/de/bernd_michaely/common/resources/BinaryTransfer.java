@@ -0,0 +1,218 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Transfer of binary resources to channels and streams with as few copies as
+ * possible:
+ * <ul>
+ * <li>Files are transferred by {@link FileChannel#transferTo}, which the
+ * operating system may perform without copying to user space, e.g. by
+ * {@code sendfile} on Linux.</li>
+ * <li>Direct buffers, e.g. memory mapped files, are written to channels
+ * directly.</li>
+ * <li>Heap data and other channels are passed through a pooled direct buffer
+ * of {@link #BUFFER_SIZE} bytes. Otherwise the JDK would copy heap buffers to
+ * a temporary direct buffer of the full size of the data.</li>
+ * <li>Byte arrays are written to OutputStreams directly.</li>
+ * </ul>
+ * The target channels must be in blocking mode.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class BinaryTransfer
+{
+	/**
+	 * Size of the pooled direct buffers in bytes.
+	 */
+	static final int BUFFER_SIZE = 64 * 1024;
+	/**
+	 * Maximum number of direct buffers retained in the pool.
+	 */
+	private static final int MAX_POOLED_BUFFERS = 16;
+	private static final Deque<ByteBuffer> POOL = new ArrayDeque<>(MAX_POOLED_BUFFERS);
+
+	private BinaryTransfer()
+	{
+	}
+
+	private static ByteBuffer acquireBuffer()
+	{
+		final ByteBuffer buffer;
+		synchronized (POOL)
+		{
+			buffer = POOL.pollFirst();
+		}
+		return (buffer != null) ? buffer.clear() : ByteBuffer.allocateDirect(BUFFER_SIZE);
+	}
+
+	private static void releaseBuffer(ByteBuffer buffer)
+	{
+		synchronized (POOL)
+		{
+			if (POOL.size() < MAX_POOLED_BUFFERS)
+			{
+				POOL.addFirst(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of direct buffers currently retained in the pool.
+	 *
+	 * @return the number of pooled buffers
+	 */
+	static int getPooledBuffers()
+	{
+		synchronized (POOL)
+		{
+			return POOL.size();
+		}
+	}
+
+	private static void writeFully(ByteBuffer buffer, WritableByteChannel target) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			target.write(buffer);
+		}
+	}
+
+	/**
+	 * Writes the remaining content of the given buffer to a channel. The
+	 * position of the given buffer is not changed.
+	 *
+	 * @param source the source buffer
+	 * @param target the target channel
+	 * @return the number of bytes written
+	 * @throws IOException if an I/O error occurs
+	 */
+	static long transfer(ByteBuffer source, WritableByteChannel target) throws IOException
+	{
+		final ByteBuffer data = source.duplicate();
+		final int length = data.remaining();
+		if (data.isDirect())
+		{
+			writeFully(data, target);
+		}
+		else
+		{
+			final ByteBuffer buffer = acquireBuffer();
+			try
+			{
+				while (data.hasRemaining())
+				{
+					final int n = Math.min(data.remaining(), buffer.capacity());
+					buffer.clear().put(0, data, data.position(), n).limit(n);
+					data.position(data.position() + n);
+					writeFully(buffer, target);
+				}
+			}
+			finally
+			{
+				releaseBuffer(buffer);
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Writes the remaining content of the given buffer to a stream. The
+	 * position of the given buffer is not changed.
+	 *
+	 * @param source the source buffer
+	 * @param target the target stream
+	 * @return the number of bytes written
+	 * @throws IOException if an I/O error occurs
+	 */
+	static long transfer(ByteBuffer source, OutputStream target) throws IOException
+	{
+		if (source.hasArray())
+		{
+			final int length = source.remaining();
+			target.write(source.array(), source.arrayOffset() + source.position(), length);
+			return length;
+		}
+		else
+		{
+			// the stream adapter copies into a small heap array:
+			final ByteBuffer data = source.duplicate();
+			final int length = data.remaining();
+			writeFully(data, Channels.newChannel(target));
+			return length;
+		}
+	}
+
+	/**
+	 * Transfers the content of a channel to another channel. The source
+	 * channel is read until its end.
+	 *
+	 * @param source the source channel
+	 * @param target the target channel
+	 * @return the number of bytes transferred
+	 * @throws IOException if an I/O error occurs
+	 */
+	static long transfer(ReadableByteChannel source, WritableByteChannel target) throws IOException
+	{
+		long count = 0;
+		if (source instanceof FileChannel fileChannel)
+		{
+			final long size = fileChannel.size();
+			long position = fileChannel.position();
+			while (position < size)
+			{
+				final long n = fileChannel.transferTo(position, size - position, target);
+				if (n <= 0)
+				{
+					// the file has been truncated concurrently
+					break;
+				}
+				position += n;
+				count += n;
+			}
+			fileChannel.position(position);
+		}
+		else
+		{
+			final ByteBuffer buffer = acquireBuffer();
+			try
+			{
+				while (source.read(buffer) >= 0)
+				{
+					buffer.flip();
+					count += buffer.remaining();
+					writeFully(buffer, target);
+					buffer.clear();
+				}
+			}
+			finally
+			{
+				releaseBuffer(buffer);
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 digests of resource content, as used for interning and by binary
+ * manifests.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class ContentDigest
+{
+	private static final String ALGORITHM = "SHA-256";
+
+	private ContentDigest()
+	{
+	}
+
+	private static MessageDigest newMessageDigest()
+	{
+		try
+		{
+			return MessageDigest.getInstance(ALGORITHM);
+		}
+		catch (NoSuchAlgorithmException ex)
+		{
+			// every Java platform implementation supports SHA-256:
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Returns the SHA-256 digest of the given data.
+	 *
+	 * @param data the data
+	 * @return the digest of 32 bytes
+	 */
+	static byte[] sha256(byte[] data)
+	{
+		return newMessageDigest().digest(data);
+	}
+
+	/**
+	 * Returns the SHA-256 digest of the remaining bytes of the given buffer.
+	 * The position of the buffer is advanced to its limit.
+	 *
+	 * @param data the data
+	 * @return the digest of 32 bytes
+	 */
+	static byte[] sha256(ByteBuffer data)
+	{
+		final MessageDigest messageDigest = newMessageDigest();
+		messageDigest.update(data);
+		return messageDigest.digest();
+	}
+
+	/**
+	 * Returns the hexadecimal SHA-256 digest of the given data.
+	 *
+	 * @param data the data
+	 * @return the lower case hexadecimal digest
+	 */
+	static String sha256Hex(byte[] data)
+	{
+		return HexFormat.of().formatHex(sha256(data));
+	}
+
+	/**
+	 * Returns the hexadecimal SHA-256 digest of the remaining bytes of the given
+	 * buffer. The position of the buffer is advanced to its limit.
+	 *
+	 * @param data the data
+	 * @return the lower case hexadecimal digest
+	 */
+	static String sha256Hex(ByteBuffer data)
+	{
+		return HexFormat.of().formatHex(sha256(data));
+	}
+}
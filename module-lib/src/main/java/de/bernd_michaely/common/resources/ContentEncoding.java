@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+/**
+ * Enumeration of the content encodings of binary resource variants, which
+ * are compressed at build time by the annotation processor with the option
+ * {@code precompressBinaryResources=true}. The names match the HTTP content
+ * coding tokens.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see BinaryResourceBuffer#getEncodedBuffer(ContentEncoding)
+ * @see BinaryResourceChannel#getEncodedChannel(ContentEncoding)
+ * @see BinaryResourceStream#getEncodedStream(ContentEncoding)
+ */
+public enum ContentEncoding
+{
+	/**
+	 * The gzip format (RFC 1952).
+	 */
+	GZIP("gzip", ".gz"),
+	/**
+	 * The zlib format (RFC 1950), as used by the HTTP content coding
+	 * {@code deflate}.
+	 */
+	DEFLATE("deflate", ".deflate");
+
+	private final String name;
+	private final String fileExtension;
+
+	private ContentEncoding(String name, String fileExtension)
+	{
+		this.name = name;
+		this.fileExtension = fileExtension;
+	}
+
+	/**
+	 * Returns the name of the encoding as used in HTTP headers.
+	 *
+	 * @return the name of the encoding, e.g. {@code gzip}
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Returns the extension appended to the file name of a resource to form
+	 * the file name of its encoded variant.
+	 *
+	 * @return the file extension including the dot, e.g. {@code .gz}
+	 */
+	public String getFileExtension()
+	{
+		return fileExtension;
+	}
+}
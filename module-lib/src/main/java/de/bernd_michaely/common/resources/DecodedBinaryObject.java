@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Injectable binary resource decoded by a {@link BinaryDecoder} into an
+ * object of the type argument of the field, e.g.
+ * {@code DecodedBinaryObject<BufferedImage>}. Each distinct payload is decoded
+ * once, and the decoded object is shared by all holders injected with
+ * resources of identical content, across locales and instances, as long as
+ * it is retained by the weight bounded
+ * {@link ResourceCaches#setDecodedCacheMaxWeight(long) decoded object cache}.
+ * <p>
+ * By default, resources are decoded during the injection. With
+ * {@link ResourceInjector#withDecodingExecutor(java.util.concurrent.Executor)},
+ * decoding runs on the given executor, and the injection returns before the
+ * objects are decoded. A field of this type is only assigned, if the resource
+ * exists and a decoder for the type is known.
+ * </p>
+ *
+ * @param <T> the type of the decoded object
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public interface DecodedBinaryObject<T>
+{
+	/**
+	 * Returns the decoded object, waiting for the decoding to complete, if
+	 * necessary.
+	 *
+	 * @return the decoded object or an empty Optional, if the resource could
+	 *         not be decoded
+	 */
+	Optional<T> get();
+
+	/**
+	 * Returns true, if the decoding is complete, so that {@link #get()} does
+	 * not block.
+	 *
+	 * @return true, if the decoding is complete
+	 */
+	boolean isDone();
+
+	/**
+	 * Returns a stage, which completes with the result of {@link #get()} when
+	 * the decoding is complete.
+	 *
+	 * @return a stage completing with the decoded object
+	 */
+	CompletionStage<Optional<T>> getCompletionStage();
+}
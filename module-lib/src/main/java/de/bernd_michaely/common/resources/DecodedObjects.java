@@ -0,0 +1,181 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.BinaryResourceCache.DecodedKey;
+import java.io.IOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Decoding of binary resources into {@link DecodedBinaryObject}s. Each
+ * distinct payload is decoded once per decoder: the decoded objects are kept
+ * in a {@link BinaryResourceCache} instance of their own, bounded by the
+ * {@link BinaryDecoder#getWeight(Object, int) weight} of the decoded objects,
+ * and payloads currently being decoded are shared with concurrent requests.
+ * Payloads are identified by the identity of the byte arrays, which are
+ * deduplicated by content before by the {@link BinaryInterner}. Failed
+ * decodings are not cached.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class DecodedObjects
+{
+	/**
+	 * The default maximum weight of the decoded object cache in bytes.
+	 */
+	static final long DEFAULT_MAX_WEIGHT = 64L * 1024 * 1024;
+	private static final Logger LOGGER = System.getLogger(DecodedObjects.class.getName());
+	private static final BinaryResourceCache CACHE = new BinaryResourceCache(DEFAULT_MAX_WEIGHT);
+	private static final Map<DecodedKey, DecodedValue<?>> PENDING = new ConcurrentHashMap<>();
+
+	/**
+	 * A decoded object, which is possibly still being decoded.
+	 *
+	 * @param <T> the type of the decoded object
+	 */
+	static final class DecodedValue<T> implements DecodedBinaryObject<T>
+	{
+		private final CompletableFuture<Optional<T>> future = new CompletableFuture<>();
+
+		@Override
+		public Optional<T> get()
+		{
+			return future.join();
+		}
+
+		@Override
+		public boolean isDone()
+		{
+			return future.isDone();
+		}
+
+		@Override
+		public CompletionStage<Optional<T>> getCompletionStage()
+		{
+			return future.minimalCompletionStage();
+		}
+
+		@Override
+		public String toString()
+		{
+			return isDone() ? "DecodedBinaryObject[" + get().orElse(null) + "]" :
+				"DecodedBinaryObject[pending]";
+		}
+	}
+
+	private DecodedObjects()
+	{
+	}
+
+	/**
+	 * Returns the shared cache of decoded objects.
+	 *
+	 * @return the shared cache
+	 */
+	static BinaryResourceCache getCache()
+	{
+		return CACHE;
+	}
+
+	/**
+	 * Returns the decoded object of the given payload, which is decoded, if it
+	 * is neither cached nor currently being decoded.
+	 *
+	 * @param <T>        the type of the decoded object
+	 * @param module     the module containing the resource
+	 * @param binaryPath the absolute path of the resource within its module,
+	 *                   used for messages only
+	 * @param decoder    the decoder
+	 * @param data       the shared payload, which must not be modified
+	 * @param executor   the executor to decode on or null to decode on the
+	 *                   calling thread
+	 * @return the decoded object
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> DecodedValue<T> get(Module module, String binaryPath, BinaryDecoder<T> decoder,
+		byte[] data, @Nullable Executor executor)
+	{
+		final var key = new DecodedKey(module, decoder, data);
+		if (CACHE.get(key) instanceof DecodedValue<?> cached)
+		{
+			return (DecodedValue<T>) cached;
+		}
+		final var created = new DecodedValue<T>();
+		final DecodedValue<?> pending = PENDING.putIfAbsent(key, created);
+		if (pending != null)
+		{
+			return (DecodedValue<T>) pending;
+		}
+		final Runnable task = () -> decode(key, binaryPath, decoder, data, created);
+		if (executor != null)
+		{
+			try
+			{
+				executor.execute(task);
+			}
+			catch (RejectedExecutionException ex)
+			{
+				task.run();
+			}
+		}
+		else
+		{
+			task.run();
+		}
+		return created;
+	}
+
+	private static <T> void decode(DecodedKey key, String binaryPath, BinaryDecoder<T> decoder,
+		byte[] data, DecodedValue<T> decodedValue)
+	{
+		@Nullable T value = null;
+		try
+		{
+			final Object decoded = decoder.decode(ByteBuffer.wrap(data).asReadOnlyBuffer());
+			value = decoder.getType().cast(decoded);
+			if (value != null)
+			{
+				// the decoded object may refer to classes of the decoder's class loader:
+				CACHE.putIfAbsent(key, decodedValue, decoder.getWeight(value, data.length),
+					decoder.getClass());
+			}
+			else
+			{
+				LOGGER.log(Level.WARNING, "Binary resource »{0}« can not be decoded as {1}",
+					binaryPath, decoder.getType().getName());
+			}
+		}
+		catch (IOException | RuntimeException ex)
+		{
+			LOGGER.log(Level.WARNING, "Error decoding binary resource »" + binaryPath + "«", ex);
+		}
+		finally
+		{
+			PENDING.remove(key, decodedValue);
+			decodedValue.future.complete(Optional.ofNullable(value));
+		}
+	}
+}
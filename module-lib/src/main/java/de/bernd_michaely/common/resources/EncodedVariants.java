@@ -0,0 +1,193 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The manifest entry of a binary resource, i.e. its size, content hash and
+ * the precompressed variants stored next to it. Variants are read into
+ * memory on first access and shared by all buffers of the resource.
+ * Because the manifest is not rebuilt by every build, it is verified against
+ * the resource before use: buffers by size and digest, handles by size only,
+ * as their content is not in memory. The outcome is remembered, since the
+ * resources of a module do not change at runtime.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see BinaryManifest
+ */
+final class EncodedVariants
+{
+	private static final Logger LOGGER = System.getLogger(EncodedVariants.class.getName());
+	private final WeakKey module;
+	private final String binaryPath;
+	private final long size;
+	private final String contentHash;
+	private final Set<ContentEncoding> contentEncodings;
+	private final Map<ContentEncoding, SharedBinaryBuffer> buffers = new EnumMap<>(ContentEncoding.class);
+	private @Nullable Boolean contentMatching;
+	private @Nullable Boolean sizeMatching;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param module           the module containing the resource
+	 * @param binaryPath       the absolute path of the resource within its
+	 *                         module
+	 * @param size             the size of the resource
+	 * @param contentHash      the hexadecimal SHA-256 digest of the resource
+	 * @param contentEncodings the encodings of the available variants
+	 */
+	EncodedVariants(Module module, String binaryPath, long size, String contentHash,
+		Set<ContentEncoding> contentEncodings)
+	{
+		// the manifests are cached by module, so do not keep the module reachable:
+		this.module = WeakKey.of(module);
+		this.binaryPath = binaryPath;
+		this.size = size;
+		this.contentHash = contentHash;
+		this.contentEncodings = Set.copyOf(contentEncodings);
+	}
+
+	/**
+	 * Returns the size of the resource as recorded at build time.
+	 *
+	 * @return the size in bytes
+	 */
+	long getSize()
+	{
+		return size;
+	}
+
+	String getContentHash()
+	{
+		return contentHash;
+	}
+
+	Set<ContentEncoding> getContentEncodings()
+	{
+		return contentEncodings;
+	}
+
+	/**
+	 * Checks, whether this entry records the given data, i.e. whether size and
+	 * digest are equal.
+	 *
+	 * @param data the data of the resource
+	 * @return true, if this entry is up to date
+	 */
+	synchronized boolean matches(ByteBuffer data)
+	{
+		if (contentMatching == null)
+		{
+			contentMatching = data.remaining() == size &&
+				contentHash.equalsIgnoreCase(ContentDigest.sha256Hex(data.duplicate()));
+			if (!contentMatching)
+			{
+				logOutOfDate();
+			}
+		}
+		return contentMatching;
+	}
+
+	/**
+	 * Checks, whether this entry records the size of the given resource.
+	 *
+	 * @param handle the handle of the resource
+	 * @return true, if the size is equal
+	 * @throws IOException if the resource can not be opened
+	 */
+	synchronized boolean matches(ModuleResourceHandle handle) throws IOException
+	{
+		if (sizeMatching == null)
+		{
+			sizeMatching = handle.size() == size;
+			if (!sizeMatching)
+			{
+				logOutOfDate();
+			}
+		}
+		return sizeMatching;
+	}
+
+	private void logOutOfDate()
+	{
+		LOGGER.log(Level.WARNING, "Ignoring out of date manifest entry for »{0}«", binaryPath);
+	}
+
+	/**
+	 * Returns a handle to the variant of the given encoding.
+	 *
+	 * @param contentEncoding the content encoding
+	 * @return the handle or null, if there is no such variant or the module
+	 *         has been collected
+	 */
+	@Nullable
+	ModuleResourceHandle getHandle(ContentEncoding contentEncoding)
+	{
+		if (contentEncodings.contains(contentEncoding) && module.get() instanceof Module resourcesModule)
+		{
+			final String variantPath = binaryPath + contentEncoding.getFileExtension();
+			final Path file = MappedResources.findFile(resourcesModule, variantPath);
+			return new ModuleResourceHandle(resourcesModule, variantPath, file);
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the data of the variant of the given encoding, which is read on
+	 * first access.
+	 *
+	 * @param contentEncoding the content encoding
+	 * @return the data, if the variant exists and is readable
+	 */
+	synchronized Optional<BinaryResourceBuffer> getBuffer(ContentEncoding contentEncoding)
+	{
+		final SharedBinaryBuffer cached = buffers.get(contentEncoding);
+		if (cached != null)
+		{
+			return Optional.of(cached);
+		}
+		final ModuleResourceHandle handle = getHandle(contentEncoding);
+		if (handle != null)
+		{
+			try (InputStream inputStream = handle.openStream())
+			{
+				final var buffer = new SharedBinaryBuffer(inputStream.readAllBytes());
+				buffers.put(contentEncoding, buffer);
+				return Optional.of(buffer);
+			}
+			catch (IOException ex)
+			{
+				LOGGER.log(Level.WARNING, "Missing precompressed variant »{0}«", handle);
+			}
+		}
+		return Optional.empty();
+	}
+}
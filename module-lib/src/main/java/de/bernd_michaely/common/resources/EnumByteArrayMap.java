@@ -15,15 +15,63 @@
  */
 package de.bernd_michaely.common.resources;
 
+import java.nio.ByteBuffer;
+import java.util.BitSet;
 import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Interface which just specializes the general Map interfaces generic types to
  * an enum type for keys and byte[] for values.
+ * <p>
+ * Injected maps store all binary resources in one contiguous buffer. Their
+ * {@link #get(Object)} method returns a new copy of the data on each call,
+ * while {@link #getByteBuffer(Enum)} provides a view of the data without
+ * copying.
+ * </p>
  *
  * @author Bernd Michaely (info@bernd-michaely.de)
  * @param <E> the key enum type
  */
 public interface EnumByteArrayMap<E extends Enum<E>> extends Map<E, byte[]>
 {
+	/**
+	 * Returns a read-only buffer containing the data mapped to the given key.
+	 * The default implementation wraps the result of {@link #get(Object)}.
+	 *
+	 * @param key the key
+	 * @return a read-only buffer with position zero and limit at the length of
+	 *         the data or null, if the key is not mapped
+	 */
+	default @Nullable
+	ByteBuffer getByteBuffer(E key)
+	{
+		final byte[] data = get(key);
+		return (data != null) ? ByteBuffer.wrap(data).asReadOnlyBuffer() : null;
+	}
+
+	/**
+	 * Returns a new BitSet containing the ordinals of all enum constants which
+	 * are not mapped, that is the binary resources which do not exist. The
+	 * default implementation determines the enum type from the mapped keys, so
+	 * for an empty map it returns an empty BitSet.
+	 *
+	 * @return the ordinals of the absent keys
+	 */
+	default BitSet getAbsentOrdinals()
+	{
+		final BitSet absent = new BitSet();
+		final var iterator = keySet().iterator();
+		if (iterator.hasNext())
+		{
+			for (E e : iterator.next().getDeclaringClass().getEnumConstants())
+			{
+				if (!containsKey(e))
+				{
+					absent.set(e.ordinal());
+				}
+			}
+		}
+		return absent;
+	}
 }
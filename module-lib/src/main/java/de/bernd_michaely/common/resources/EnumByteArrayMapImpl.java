@@ -0,0 +1,327 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Immutable {@link EnumByteArrayMap} implementation which stores the data of
+ * all keys in one contiguous, optionally direct, buffer. Offsets and lengths
+ * of the data are kept in tables indexed by the ordinal of the enum
+ * constants, absent keys in a BitSet. Lookups are done in constant time.
+ * Identical payloads of several keys, detected by their content hash, are
+ * stored once.
+ * <p>
+ * Conforming to the {@code Map<E, byte[]>} contract, byte arrays are created
+ * on demand as copies of the buffer contents, so callers can not modify the
+ * shared data. {@link #getByteBuffer(Enum)} returns read-only views instead.
+ * Two instances for the same enum type are equal, if they contain the same
+ * data.
+ * </p>
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @param <E> the key enum type
+ */
+final class EnumByteArrayMapImpl<E extends Enum<E>>
+	extends AbstractMap<E, byte[]>
+	implements EnumByteArrayMap<E>
+{
+	private final Class<E> enumClass;
+	private final E[] keys;
+	private final ByteBuffer buffer;
+	private final int[] offsets;
+	private final int[] lengths;
+	private final BitSet absent;
+	private final int size;
+	private final long deduplicatedLength;
+	private @Nullable Set<Entry<E, byte[]>> entrySet;
+
+	private EnumByteArrayMapImpl(Class<E> enumClass, E[] keys, ByteBuffer buffer,
+		int[] offsets, int[] lengths, BitSet absent, long deduplicatedLength)
+	{
+		this.enumClass = enumClass;
+		this.keys = keys;
+		this.buffer = buffer;
+		this.offsets = offsets;
+		this.lengths = lengths;
+		this.absent = absent;
+		this.size = keys.length - absent.cardinality();
+		this.deduplicatedLength = deduplicatedLength;
+	}
+
+	/**
+	 * Creates a new map by copying the given data into one buffer. Data with
+	 * identical content is copied once and shared by all keys.
+	 *
+	 * @param <E>       the key enum type
+	 * @param enumClass the key enum type
+	 * @param keys      all constants of the enum type in ordinal order
+	 * @param data      the data indexed by ordinal, null for absent keys
+	 * @param direct    true to allocate a direct buffer, false for a heap
+	 *                  buffer
+	 * @return the new map
+	 * @throws IllegalArgumentException if the array lengths do not match or the
+	 *                                  total size exceeds the maximum buffer
+	 *                                  size
+	 */
+	static <E extends Enum<E>> EnumByteArrayMapImpl<E> create(Class<E> enumClass, E[] keys,
+		byte[] @Nullable [] data, boolean direct)
+	{
+		if (keys.length != data.length)
+		{
+			throw new IllegalArgumentException(String.format(
+				"Number of values (%d) does not match the number of enum constants (%d)",
+				data.length, keys.length));
+		}
+		final int n = keys.length;
+		final int[] offsets = new int[n];
+		final int[] lengths = new int[n];
+		final BitSet absent = new BitSet(n);
+		final BitSet shared = new BitSet(n);
+		// wrapping buffers compare and hash the array contents:
+		final Map<ByteBuffer, Integer> packedOffsets = new HashMap<>();
+		long totalLength = 0, deduplicatedLength = 0;
+		for (int i = 0; i < n; i++)
+		{
+			final byte[] bytes = data[i];
+			if (bytes != null)
+			{
+				lengths[i] = bytes.length;
+				final Integer packedOffset = packedOffsets.putIfAbsent(
+					ByteBuffer.wrap(bytes), (int) totalLength);
+				if (packedOffset != null)
+				{
+					offsets[i] = packedOffset;
+					shared.set(i);
+					deduplicatedLength += bytes.length;
+				}
+				else
+				{
+					offsets[i] = (int) totalLength;
+					totalLength += bytes.length;
+					if (totalLength > Integer.MAX_VALUE)
+					{
+						throw new IllegalArgumentException(
+							"Total size of binary resources exceeds maximum buffer size");
+					}
+				}
+			}
+			else
+			{
+				absent.set(i);
+			}
+		}
+		final ByteBuffer buffer = direct ?
+			ByteBuffer.allocateDirect((int) totalLength) : ByteBuffer.allocate((int) totalLength);
+		for (int i = 0; i < n; i++)
+		{
+			final byte[] bytes = data[i];
+			if (bytes != null && !shared.get(i))
+			{
+				buffer.put(offsets[i], bytes);
+			}
+		}
+		return new EnumByteArrayMapImpl<>(enumClass, keys, buffer, offsets, lengths, absent,
+			deduplicatedLength);
+	}
+
+	private int indexOf(@Nullable Object key)
+	{
+		return (key instanceof Enum<?> e && e.getDeclaringClass() == enumClass && !absent.get(e.ordinal())) ?
+			e.ordinal() : -1;
+	}
+
+	private byte[] copyOf(int index)
+	{
+		final byte[] data = new byte[lengths[index]];
+		buffer.get(offsets[index], data);
+		return data;
+	}
+
+	/**
+	 * Returns true, if the buffer containing the data of all keys is direct.
+	 *
+	 * @return true, if the buffer is direct
+	 */
+	boolean isDirect()
+	{
+		return buffer.isDirect();
+	}
+
+	/**
+	 * Returns the total length of the stored data of all keys.
+	 *
+	 * @return the total length of the data
+	 */
+	int getTotalLength()
+	{
+		return buffer.capacity();
+	}
+
+	/**
+	 * Returns the total length of the data of keys, which share the data of
+	 * another key with identical content.
+	 *
+	 * @return the total length of the deduplicated data
+	 */
+	long getDeduplicatedLength()
+	{
+		return deduplicatedLength;
+	}
+
+	@Override
+	public byte @Nullable [] get(@Nullable Object key)
+	{
+		final int index = indexOf(key);
+		return (index >= 0) ? copyOf(index) : null;
+	}
+
+	@Override
+	public @Nullable
+	ByteBuffer getByteBuffer(E key)
+	{
+		final int index = indexOf(key);
+		return (index >= 0) ? buffer.slice(offsets[index], lengths[index]).asReadOnlyBuffer() : null;
+	}
+
+	@Override
+	public BitSet getAbsentOrdinals()
+	{
+		return (BitSet) absent.clone();
+	}
+
+	@Override
+	public boolean containsKey(@Nullable Object key)
+	{
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super E, ? super byte[]> action)
+	{
+		for (int i = absent.nextClearBit(0); i < keys.length; i = absent.nextClearBit(i + 1))
+		{
+			action.accept(keys[i], copyOf(i));
+		}
+	}
+
+	@Override
+	public Set<Entry<E, byte[]>> entrySet()
+	{
+		Set<Entry<E, byte[]>> result = entrySet;
+		if (result == null)
+		{
+			result = entrySet = new AbstractSet<>()
+			{
+				@Override
+				public Iterator<Entry<E, byte[]>> iterator()
+				{
+					return new Iterator<>()
+					{
+						private int index = absent.nextClearBit(0);
+
+						@Override
+						public boolean hasNext()
+						{
+							return index < keys.length;
+						}
+
+						@Override
+						public Entry<E, byte[]> next()
+						{
+							if (!hasNext())
+							{
+								throw new NoSuchElementException();
+							}
+							final int i = index;
+							index = absent.nextClearBit(i + 1);
+							return new SimpleImmutableEntry<>(keys[i], copyOf(i));
+						}
+					};
+				}
+
+				@Override
+				public int size()
+				{
+					return size;
+				}
+			};
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(@Nullable Object object)
+	{
+		if (object == this)
+		{
+			return true;
+		}
+		else if (object instanceof EnumByteArrayMapImpl<?> other && other.enumClass == enumClass)
+		{
+			if (!other.absent.equals(absent))
+			{
+				return false;
+			}
+			for (int i = absent.nextClearBit(0); i < keys.length; i = absent.nextClearBit(i + 1))
+			{
+				if (!buffer.slice(offsets[i], lengths[i]).equals(
+					other.buffer.slice(other.offsets[i], other.lengths[i])))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+		else
+		{
+			return object instanceof Map<?, ?> map && map.isEmpty() && isEmpty();
+		}
+	}
+
+	@Override
+	public int hashCode()
+	{
+		int hash = 0;
+		for (int i = absent.nextClearBit(0); i < keys.length; i = absent.nextClearBit(i + 1))
+		{
+			hash += keys[i].hashCode() ^ buffer.slice(offsets[i], lengths[i]).hashCode();
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Immutable {@link EnumStringMap} implementation backed by a String array
+ * indexed by the ordinal of the enum constants. Lookups are done in constant
+ * time without iterating the entries, and {@link #forEach(BiConsumer)} does
+ * not allocate. The entries of {@link #entrySet()} are created once on first
+ * use. All mutating methods throw an UnsupportedOperationException.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @param <E> the key enum type
+ */
+final class EnumStringMapImpl<E extends Enum<E>>
+	extends AbstractMap<E, String>
+	implements EnumStringMap<E>
+{
+	private final Class<E> enumClass;
+	private final E[] keys;
+	private final @Nullable String[] values;
+	private final int size;
+	private @Nullable List<Entry<E, String>> entries;
+	private @Nullable Set<Entry<E, String>> entrySet;
+
+	/**
+	 * Creates a new map.
+	 *
+	 * @param enumClass the key enum type
+	 * @param keys      all constants of the enum type in ordinal order
+	 * @param values    the values indexed by ordinal, null for absent keys;
+	 *                  the array is owned by the map after construction
+	 * @throws IllegalArgumentException if the array lengths do not match
+	 */
+	EnumStringMapImpl(Class<E> enumClass, E[] keys, @Nullable String[] values)
+	{
+		if (keys.length != values.length)
+		{
+			throw new IllegalArgumentException(String.format(
+				"Number of values (%d) does not match the number of enum constants (%d)",
+				values.length, keys.length));
+		}
+		this.enumClass = enumClass;
+		this.keys = keys;
+		this.values = values;
+		int n = 0;
+		for (String value : values)
+		{
+			if (value != null)
+			{
+				n++;
+			}
+		}
+		this.size = n;
+	}
+
+	private int indexOf(@Nullable Object key)
+	{
+		return (key instanceof Enum<?> e && e.getDeclaringClass() == enumClass) ? e.ordinal() : -1;
+	}
+
+	@Override
+	public @Nullable
+	String get(@Nullable Object key)
+	{
+		final int index = indexOf(key);
+		return (index >= 0) ? values[index] : null;
+	}
+
+	@Override
+	public boolean containsKey(@Nullable Object key)
+	{
+		final int index = indexOf(key);
+		return index >= 0 && values[index] != null;
+	}
+
+	@Override
+	public boolean containsValue(@Nullable Object value)
+	{
+		if (value != null)
+		{
+			for (String v : values)
+			{
+				if (value.equals(v))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super E, ? super String> action)
+	{
+		for (int i = 0; i < values.length; i++)
+		{
+			final String value = values[i];
+			if (value != null)
+			{
+				action.accept(keys[i], value);
+			}
+		}
+	}
+
+	/**
+	 * Returns the immutable entries in ordinal order. The list is published
+	 * racily, which is safe, because it is immutable and may be created more
+	 * than once without harm.
+	 */
+	private List<Entry<E, String>> getEntries()
+	{
+		List<Entry<E, String>> result = entries;
+		if (result == null)
+		{
+			@SuppressWarnings("unchecked")
+			final Entry<E, String>[] array = new Entry[size];
+			int n = 0;
+			for (int i = 0; i < values.length; i++)
+			{
+				final String value = values[i];
+				if (value != null)
+				{
+					array[n++] = new SimpleImmutableEntry<>(keys[i], value);
+				}
+			}
+			result = entries = List.of(array);
+		}
+		return result;
+	}
+
+	@Override
+	public Set<Entry<E, String>> entrySet()
+	{
+		Set<Entry<E, String>> result = entrySet;
+		if (result == null)
+		{
+			result = entrySet = new AbstractSet<>()
+			{
+				@Override
+				public Iterator<Entry<E, String>> iterator()
+				{
+					return (size > 0) ? getEntries().iterator() : Collections.emptyIterator();
+				}
+
+				@Override
+				public int size()
+				{
+					return size;
+				}
+
+				@Override
+				public boolean contains(@Nullable Object object)
+				{
+					return object instanceof Entry<?, ?> entry &&
+						entry.getValue() != null && entry.getValue().equals(get(entry.getKey()));
+				}
+			};
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(@Nullable Object object)
+	{
+		if (object == this)
+		{
+			return true;
+		}
+		else if (object instanceof EnumStringMapImpl<?> other && other.enumClass == enumClass)
+		{
+			if (other.size != size)
+			{
+				return false;
+			}
+			for (int i = 0; i < values.length; i++)
+			{
+				final String value = values[i];
+				if (value != null ? !value.equals(other.values[i]) : other.values[i] != null)
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+		else
+		{
+			return super.equals(object);
+		}
+	}
+
+	@Override
+	public int hashCode()
+	{
+		int hash = 0;
+		for (int i = 0; i < values.length; i++)
+		{
+			final String value = values[i];
+			if (value != null)
+			{
+				hash += keys[i].hashCode() ^ value.hashCode();
+			}
+		}
+		return hash;
+	}
+}
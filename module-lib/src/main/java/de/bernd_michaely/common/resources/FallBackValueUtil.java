@@ -16,42 +16,72 @@
 package de.bernd_michaely.common.resources;
 
 import java.util.Locale;
-import java.util.function.IntPredicate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Class to calculate a fallback value for a missing String resource from its
- * resource key.
+ * resource key. The key is processed by a single pass scanner over its chars,
+ * which allocates only the resulting string. Calculated values are memoized
+ * in a bounded table shared by all instances, so the fallback values of the
+ * same missing keys are not recalculated e.g. on each locale switch.
  *
  * @author Bernd Michaely (info@bernd-michaely.de)
  */
 class FallBackValueUtil implements SharedConstants
 {
 	static final String STR_NULL_REPLACEMENT = "»…«";
+	/**
+	 * The maximum number of memoized fallback values. If the limit is reached,
+	 * the table is cleared.
+	 */
+	static final int MAX_MEMO_ENTRIES = 4096;
+	private static final Map<MemoKey, String> MEMO = new ConcurrentHashMap<>();
 	private final Locale locale;
 
+	/**
+	 * Key of a memoized fallback value.
+	 */
+	private record MemoKey(String key, boolean hasEnumPostfix, Locale locale)
+	{
+	}
+
 	FallBackValueUtil(Locale locale)
 	{
 		this.locale = locale;
 	}
 
 	/**
-	 * Checks (roughly, e.g. ignoring keywords), whether the string is a Java
+	 * Checks (roughly, e.g. ignoring keywords), whether a substring is a Java
 	 * identifier.
 	 *
-	 * @param str the string to check
-	 * @return true, if the string is a Java identifier, false otherwise
+	 * @param str   the string to check
+	 * @param start the start index of the substring (inclusive)
+	 * @param end   the end index of the substring (exclusive)
+	 * @return true, if the substring is a Java identifier, false otherwise
 	 */
-	private boolean isIdentifier(String str)
+	private static boolean isIdentifier(String str, int start, int end)
 	{
-		if (str == null || str.isEmpty() || str.equals("_") ||
-			!Character.isJavaIdentifierStart(str.codePointAt(0)))
+		if (start >= end || (end - start == 1 && str.charAt(start) == '_'))
 		{
 			return false;
 		}
-		return str.codePoints().skip(1)
-			.filter(((IntPredicate) Character::isJavaIdentifierPart).negate())
-			.findAny().isEmpty();
+		int codePoint = str.codePointAt(start);
+		if (!Character.isJavaIdentifierStart(codePoint))
+		{
+			return false;
+		}
+		for (int i = start + Character.charCount(codePoint); i < end; i += Character.charCount(codePoint))
+		{
+			codePoint = str.codePointAt(i);
+			if (!Character.isJavaIdentifierPart(codePoint))
+			{
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -66,8 +96,7 @@ class FallBackValueUtil implements SharedConstants
 		if (hasEnumPostfix && (SEPARATOR_KEY_NESTED.equals(SEPARATOR_ENUM_KEY)))
 		{
 			final int idxSepEnum = key.lastIndexOf(SEPARATOR_ENUM_KEY);
-			return (idxSepEnum >= 0) ?
-				key.substring(0, idxSepEnum).lastIndexOf(SEPARATOR_KEY_NESTED) : -1;
+			return (idxSepEnum >= 0) ? key.lastIndexOf(SEPARATOR_KEY_NESTED, idxSepEnum - 1) : -1;
 		}
 		else
 		{
@@ -75,84 +104,191 @@ class FallBackValueUtil implements SharedConstants
 		}
 	}
 
-	private static class FallBackValueBuilder
+	private static int addSpace(char @Nullable [] buffer, int length)
 	{
-		private final String identifier;
-		private final StringBuilder stringBuilder = new StringBuilder();
-		private int lastChar;
+		if (length > 0)
+		{
+			if (buffer != null)
+			{
+				buffer[length] = ' ';
+			}
+			return length + 1;
+		}
+		else
+		{
+			return length;
+		}
+	}
 
-		private FallBackValueBuilder(String identifier)
+	private static int append(char @Nullable [] buffer, int length, int codePoint)
+	{
+		if (buffer != null)
 		{
-			this.identifier = identifier;
+			Character.toChars(codePoint, buffer, length);
 		}
+		return length + Character.charCount(codePoint);
+	}
 
-		private String build()
+	/**
+	 * Scans a Java identifier and writes the fallback value into the given
+	 * buffer. A prefix consisting of lowercase chars is dropped, and spaces are
+	 * inserted according to camel case, digits and underscores.
+	 *
+	 * @param identifier the string containing the identifier
+	 * @param start      the start index of the identifier (inclusive)
+	 * @param end        the end index of the identifier (exclusive)
+	 * @param buffer     the buffer to write to or null to calculate the length
+	 *                   of the fallback value only
+	 * @return the length of the fallback value
+	 */
+	private static int scanIdentifier(String identifier, int start, int end, char @Nullable [] buffer)
+	{
+		int i = start;
+		while (i < end && Character.isLowerCase(identifier.codePointAt(i)))
 		{
-			lastChar = '0';
-			identifier.codePoints().dropWhile(Character::isLowerCase).forEachOrdered(currentChar ->
+			i += Character.charCount(identifier.codePointAt(i));
+		}
+		int length = 0;
+		int lastChar = '0';
+		while (i < end)
+		{
+			final int currentChar = identifier.codePointAt(i);
+			if (currentChar == '_')
+			{
+				if (lastChar != '_')
+				{
+					length = addSpace(buffer, length);
+				}
+			}
+			else if (Character.isDigit(currentChar))
+			{
+				if (!Character.isDigit(lastChar))
+				{
+					length = addSpace(buffer, length);
+				}
+				length = append(buffer, length, currentChar);
+			}
+			else if (Character.isUpperCase(currentChar))
 			{
-				if (currentChar == '_')
+				if (!(lastChar == '_' || Character.isUpperCase(lastChar)))
 				{
-					if (lastChar != '_')
-					{
-						addSpace();
-					}
+					length = addSpace(buffer, length);
 				}
-				else if (Character.isDigit(currentChar))
+				length = append(buffer, length, currentChar);
+			}
+			else // Character::isLowerCase
+			{
+				if (lastChar == '_')
 				{
-					if (!Character.isDigit(lastChar))
-					{
-						addSpace();
-					}
-					stringBuilder.appendCodePoint(currentChar);
+					length = append(buffer, length, Character.toUpperCase(currentChar));
 				}
-				else if (Character.isUpperCase(currentChar))
+				else if (Character.isDigit(lastChar))
 				{
-					if (!(lastChar == '_' || Character.isUpperCase(lastChar)))
-					{
-						addSpace();
-					}
-					stringBuilder.appendCodePoint(currentChar);
+					length = addSpace(buffer, length);
+					length = append(buffer, length, Character.toUpperCase(currentChar));
 				}
-				else // Character::isLowerCase
+				else
 				{
-					if (lastChar == '_')
-					{
-						stringBuilder.appendCodePoint(Character.toUpperCase(currentChar));
-					}
-					else if (Character.isDigit(lastChar))
-					{
-						addSpace();
-						stringBuilder.appendCodePoint(Character.toUpperCase(currentChar));
-					}
-					else
-					{
-						stringBuilder.appendCodePoint(currentChar);
-					}
+					length = append(buffer, length, currentChar);
 				}
-				lastChar = currentChar;
-			});
-			return stringBuilder.toString();
+			}
+			lastChar = currentChar;
+			i += Character.charCount(currentChar);
 		}
+		return length;
+	}
 
-		private void addSpace()
+	/**
+	 * Calculates a resource string fallback value from a java identifier.
+	 *
+	 * @param identifier the string containing the identifier
+	 * @param start      the start index of the identifier (inclusive)
+	 * @param end        the end index of the identifier (exclusive)
+	 * @return a fallback value
+	 */
+	private static String javaIdentifierToFallBackValue(String identifier, int start, int end)
+	{
+		final char[] buffer = new char[scanIdentifier(identifier, start, end, null)];
+		scanIdentifier(identifier, start, end, buffer);
+		return new String(buffer);
+	}
+
+	/**
+	 * Returns true, if the locale has special case mapping rules for ASCII
+	 * chars (the dotted and dotless i).
+	 */
+	private static boolean hasSpecialAsciiCaseMapping(Locale locale)
+	{
+		final String language = locale.getLanguage();
+		return language.equals("tr") || language.equals("az");
+	}
+
+	/**
+	 * Calculates a fallback value from an enum constant name: the first char is
+	 * converted to upper case and the following chars to lower case.
+	 *
+	 * @param key    the string containing the enum constant name
+	 * @param start  the start index of the enum constant name (inclusive)
+	 * @param locale the locale used for case conversion
+	 * @return a fallback value
+	 */
+	private static String enumConstantToFallBackValue(String key, int start, Locale locale)
+	{
+		final int end = key.length();
+		boolean isAscii = !hasSpecialAsciiCaseMapping(locale);
+		for (int i = start; isAscii && i < end; i++)
+		{
+			isAscii = key.charAt(i) < 0x80;
+		}
+		if (isAscii)
 		{
-			if (stringBuilder.length() > 0)
+			final char[] buffer = new char[end - start];
+			buffer[0] = Character.toUpperCase(key.charAt(start));
+			for (int i = start + 1; i < end; i++)
 			{
-				stringBuilder.append(' ');
+				buffer[i - start] = Character.toLowerCase(key.charAt(i));
 			}
+			return new String(buffer);
+		}
+		else
+		{
+			return key.substring(start, start + 1).toUpperCase(locale) +
+				key.substring(start + 1).toLowerCase(locale);
 		}
 	}
 
 	/**
-	 * Calculates a resource string fallback value from a java identifier.
+	 * Calculates a fallback value for a missing String resource from its key
+	 * without memoization.
 	 *
-	 * @param identifier the java identifier
-	 * @return a fallback value
+	 * @param key            the String resource key, which must not be blank
+	 * @param hasEnumPostfix true, if the key contains an enum postfix
+	 * @param locale         the locale used for case conversion of enum
+	 *                       constant names
+	 * @return a fallback value for a missing String resource
 	 */
-	private String javaIdentifierToFallBackValue(String identifier)
+	static String calculateFallBackValue(String key, boolean hasEnumPostfix, Locale locale)
 	{
-		return new FallBackValueBuilder(identifier).build();
+		final int indexNesting = getIndexNesting(key, hasEnumPostfix);
+		final int baseStart = (indexNesting >= 0) ? indexNesting + 1 : 0;
+		final int baseLength = key.length() - baseStart;
+		final int indexLastSeparator = key.lastIndexOf(SEPARATOR_ENUM_KEY);
+		// index of the enum separator relative to the base key:
+		final int indexOfEnumSeparator = (indexLastSeparator >= baseStart) ?
+			indexLastSeparator - baseStart : -1;
+		final boolean isPostfixEmpty = indexOfEnumSeparator == (baseLength - 1);
+		if (hasEnumPostfix && !isPostfixEmpty)
+		{
+			return enumConstantToFallBackValue(key,
+				baseStart + indexOfEnumSeparator + SEPARATOR_ENUM_KEY.length(), locale);
+		}
+		else
+		{
+			final int prefixEnd = hasEnumPostfix ? baseStart + indexOfEnumSeparator : key.length();
+			return isIdentifier(key, baseStart, prefixEnd) ?
+				javaIdentifierToFallBackValue(key, baseStart, prefixEnd) :
+				key.substring(baseStart, prefixEnd);
+		}
 	}
 
 	/**
@@ -163,36 +299,56 @@ class FallBackValueUtil implements SharedConstants
 	 * constant name will be used, e.g. <code>"mapColors.RED"</code> will be
 	 * turned into <code>"Red"</code>.
 	 *
+	 * @param locale         the locale used for case conversion of enum
+	 *                       constant names
 	 * @param key            the String resource key
 	 * @param hasEnumPostfix true, if the key contains an enum postfix
 	 * @return a fallback value for a missing String resource
 	 */
-	@NonNull
-	String getFallBackValue(String key, boolean hasEnumPostfix)
+	static String getFallBackValue(Locale locale, @Nullable String key, boolean hasEnumPostfix)
 	{
 		if (key != null && !key.isBlank())
 		{
-			int indexNesting = getIndexNesting(key, hasEnumPostfix);
-			final boolean hasNestedResourceHolderPrefix = indexNesting >= 0;
-			final String baseKey = hasNestedResourceHolderPrefix ? key.substring(indexNesting + 1) : key;
-			final int indexOfEnumSeparator = baseKey.lastIndexOf(SEPARATOR_ENUM_KEY);
-			final boolean isPostfixEmpty = indexOfEnumSeparator == (baseKey.length() - 1);
-			if (hasEnumPostfix && !isPostfixEmpty)
+			final MemoKey memoKey = new MemoKey(key, hasEnumPostfix, locale);
+			String fallBackValue = MEMO.get(memoKey);
+			if (fallBackValue == null)
 			{
-				final String postfix = baseKey.substring(indexOfEnumSeparator + SEPARATOR_ENUM_KEY.length());
-				return postfix.substring(0, 1).toUpperCase(locale) +
-					postfix.substring(1).toLowerCase(locale);
-			}
-			else
-			{
-				final String prefix = hasEnumPostfix ?
-					baseKey.substring(0, indexOfEnumSeparator) : baseKey;
-				return isIdentifier(prefix) ? javaIdentifierToFallBackValue(prefix) : prefix;
+				fallBackValue = calculateFallBackValue(key, hasEnumPostfix, locale);
+				if (MEMO.size() >= MAX_MEMO_ENTRIES)
+				{
+					MEMO.clear();
+				}
+				MEMO.put(memoKey, fallBackValue);
 			}
+			return fallBackValue;
 		}
 		else
 		{
 			return STR_NULL_REPLACEMENT;
 		}
 	}
+
+	/**
+	 * Returns the number of memoized fallback values.
+	 *
+	 * @return the number of memoized fallback values
+	 */
+	static int getMemoSize()
+	{
+		return MEMO.size();
+	}
+
+	/**
+	 * Calculates a fallback value for a missing String resource from its key.
+	 *
+	 * @param key            the String resource key
+	 * @param hasEnumPostfix true, if the key contains an enum postfix
+	 * @return a fallback value for a missing String resource
+	 * @see #getFallBackValue(Locale, String, boolean)
+	 */
+	@NonNull
+	String getFallBackValue(String key, boolean hasEnumPostfix)
+	{
+		return getFallBackValue(locale, key, hasEnumPostfix);
+	}
 }
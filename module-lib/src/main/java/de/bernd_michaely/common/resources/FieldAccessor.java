@@ -0,0 +1,46 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Internal interface to read and write a single ResourceHolder field.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see Accessors#createFieldAccessor(java.lang.reflect.Field, InjectionBackend)
+ */
+interface FieldAccessor
+{
+	/**
+	 * Returns the value of the field.
+	 *
+	 * @param object the object containing the field
+	 * @return the field value
+	 * @throws ReflectiveOperationException if the field could not be read
+	 */
+	@Nullable
+	Object get(Object object) throws ReflectiveOperationException;
+
+	/**
+	 * Sets the value of the field.
+	 *
+	 * @param object the object containing the field
+	 * @param value  the value to set
+	 * @throws ReflectiveOperationException if the field could not be written
+	 */
+	void set(Object object, @Nullable Object value) throws ReflectiveOperationException;
+}
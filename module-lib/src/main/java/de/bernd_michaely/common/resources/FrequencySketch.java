@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+/**
+ * Count-Min sketch with 4-bit counters estimating the access frequency of
+ * keys for the admission policy of the {@link BinaryResourceCache}, following
+ * the TinyLFU scheme. Each key is mapped to four counters, and its estimated
+ * frequency is the minimum of these. To let the history age, all counters are
+ * halved after a number of increments proportional to the sketch size. The
+ * sketch is not thread safe.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class FrequencySketch
+{
+	private static final long[] SEEDS =
+	{
+		0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+	};
+	private static final long RESET_MASK = 0x7777777777777777L;
+	private static final int MAX_COUNT = 15;
+	private final long[] table;
+	private final int tableMask;
+	private final int sampleSize;
+	private int additions;
+
+	/**
+	 * Creates a new sketch.
+	 *
+	 * @param expectedEntries the expected number of distinct keys, which
+	 *                        determines the size of the sketch
+	 */
+	FrequencySketch(int expectedEntries)
+	{
+		final int size = Integer.highestOneBit(Math.max(16, Math.min(expectedEntries, 1 << 24)) - 1) << 1;
+		this.table = new long[size];
+		this.tableMask = size - 1;
+		this.sampleSize = 10 * size;
+	}
+
+	private static int spread(int hashCode)
+	{
+		final int h = hashCode * 0x9e3779b9;
+		return h ^ (h >>> 16);
+	}
+
+	private int indexOf(int hash, int i)
+	{
+		long h = (hash + SEEDS[i]) * SEEDS[i];
+		h += h >>> 32;
+		return (int) h & tableMask;
+	}
+
+	private static int offsetOf(int hash, int i)
+	{
+		return ((hash >>> (i << 3)) & 0xf) << 2;
+	}
+
+	/**
+	 * Returns the estimated access frequency of the given key.
+	 *
+	 * @param key the key
+	 * @return the estimated frequency in the range of 0 to 15
+	 */
+	int frequency(Object key)
+	{
+		final int hash = spread(key.hashCode());
+		int frequency = MAX_COUNT;
+		for (int i = 0; i < SEEDS.length; i++)
+		{
+			final int count = (int) ((table[indexOf(hash, i)] >>> offsetOf(hash, i)) & MAX_COUNT);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	/**
+	 * Records an access of the given key.
+	 *
+	 * @param key the key
+	 */
+	void increment(Object key)
+	{
+		final int hash = spread(key.hashCode());
+		boolean added = false;
+		for (int i = 0; i < SEEDS.length; i++)
+		{
+			final int index = indexOf(hash, i);
+			final int offset = offsetOf(hash, i);
+			if (((table[index] >>> offset) & MAX_COUNT) != MAX_COUNT)
+			{
+				table[index] += 1L << offset;
+				added = true;
+			}
+		}
+		if (added && ++additions >= sampleSize)
+		{
+			reset();
+		}
+	}
+
+	/**
+	 * Halves all counters.
+	 */
+	private void reset()
+	{
+		for (int i = 0; i < table.length; i++)
+		{
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		additions >>>= 1;
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+/**
+ * Internal interface implemented by the hidden classes spun by
+ * {@link HiddenInjector}. Implementations assign the given values to the
+ * fields of a ResourceHolder type with straight-line bytecode.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see InjectorClassWriter
+ */
+interface GeneratedInjector
+{
+	/**
+	 * Assigns the given values to the fields of the given object.
+	 *
+	 * @param object the object to inject the values into
+	 * @param values the field values in the order the fields were given to the
+	 *               {@link InjectorClassWriter}
+	 */
+	void inject(Object object, Object[] values);
+
+	/**
+	 * Creates a new instance of the type using its public no-arg constructor.
+	 *
+	 * @return a new instance
+	 * @throws UnsupportedOperationException if the type has no public no-arg
+	 *                                       constructor
+	 */
+	default Object newInstance()
+	{
+		throw new UnsupportedOperationException();
+	}
+}
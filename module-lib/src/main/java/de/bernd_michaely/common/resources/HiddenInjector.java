@@ -0,0 +1,229 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.InjectionPlan.FieldPlan;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Injector for a single ResourceHolder (or nested {@link GenericResources})
+ * type, which assigns its fields by a hidden class spun at runtime. Only
+ * fields, which are accessible from the library module by bytecode, are
+ * assigned by the hidden class, all other fields are listed as
+ * {@link #getRemainingFieldPlans() remaining} for the regular field accessors.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see InjectionBackend#HIDDEN_CLASSES
+ */
+final class HiddenInjector
+{
+	private static final Logger LOGGER = System.getLogger(HiddenInjector.class.getName());
+	private static final Module LIBRARY_MODULE = HiddenInjector.class.getModule();
+	private static final ClassLoader LIBRARY_CLASS_LOADER = HiddenInjector.class.getClassLoader();
+	private final GeneratedInjector generatedInjector;
+	private final boolean instantiable;
+	private final List<FieldPlan> injectedFieldPlans;
+	private final List<FieldPlan> remainingFieldPlans;
+
+	private HiddenInjector(GeneratedInjector generatedInjector, boolean instantiable,
+		List<FieldPlan> injectedFieldPlans, List<FieldPlan> remainingFieldPlans)
+	{
+		this.generatedInjector = generatedInjector;
+		this.instantiable = instantiable;
+		this.injectedFieldPlans = injectedFieldPlans;
+		this.remainingFieldPlans = remainingFieldPlans;
+	}
+
+	/**
+	 * Creates a hidden class injector for the type of the given plan.
+	 *
+	 * @param plan the plan of a ResourceHolder or nested type
+	 * @return a hidden class injector or null, if the type is not accessible
+	 *         by bytecode or the hidden class could not be defined
+	 */
+	static @Nullable
+	HiddenInjector create(InjectionPlan plan)
+	{
+		final Class<?> type = plan.getType();
+		if (!isAccessible(type))
+		{
+			LOGGER.log(Level.DEBUG, "No hidden class injector for inaccessible »{0}«", type);
+			return null;
+		}
+		final List<FieldPlan> injectedFieldPlans = new ArrayList<>();
+		final List<FieldPlan> remainingFieldPlans = new ArrayList<>();
+		for (FieldPlan fieldPlan : plan.getFieldPlans())
+		{
+			if (isInjectable(fieldPlan) && injectedFieldPlans.size() < InjectorClassWriter.MAX_FIELDS)
+			{
+				injectedFieldPlans.add(fieldPlan);
+			}
+			else
+			{
+				remainingFieldPlans.add(fieldPlan);
+			}
+		}
+		final boolean instantiable = isInstantiable(type);
+		final String className = HiddenInjector.class.getPackageName().replace('.', '/') +
+			"/GeneratedInjector$" + type.getSimpleName();
+		final List<Field> fields = injectedFieldPlans.stream().map(FieldPlan::getField).toList();
+		try
+		{
+			final byte[] classFile = InjectorClassWriter.write(className, type, fields, instantiable);
+			final MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+			final GeneratedInjector generatedInjector = (GeneratedInjector) lookup
+				.findConstructor(lookup.lookupClass(), methodType(void.class)).invoke();
+			return new HiddenInjector(generatedInjector, instantiable,
+				List.copyOf(injectedFieldPlans), List.copyOf(remainingFieldPlans));
+		}
+		catch (Throwable ex)
+		{
+			if (ex instanceof VirtualMachineError error)
+			{
+				throw error;
+			}
+			LOGGER.log(Level.WARNING, "Failed to define hidden class injector for »" + type + "«", ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Checks, whether the given class can be linked from a class of the library
+	 * module. Readability of the module of the class is added, if required.
+	 *
+	 * @param type the class to check
+	 * @return true, if the class is accessible
+	 */
+	private static boolean isAccessible(Class<?> type)
+	{
+		if (type.isPrimitive() || type.isArray() || type.isHidden() ||
+			!Modifier.isPublic(type.getModifiers()))
+		{
+			return false;
+		}
+		final Module module = type.getModule();
+		if (!module.isExported(type.getPackageName(), LIBRARY_MODULE))
+		{
+			return false;
+		}
+		try
+		{
+			if (Class.forName(type.getName(), false, LIBRARY_CLASS_LOADER) != type)
+			{
+				return false;
+			}
+		}
+		catch (ClassNotFoundException | LinkageError ex)
+		{
+			return false;
+		}
+		LIBRARY_MODULE.addReads(module);
+		return true;
+	}
+
+	private static boolean isInjectable(FieldPlan fieldPlan)
+	{
+		final Field field = fieldPlan.getField();
+		final int modifiers = field.getModifiers();
+		final boolean isSupportedKind = switch (fieldPlan.getKind())
+		{
+			case STRING, ENUM_STRING_MAP, ENUM_BYTE_ARRAY_MAP ->
+				true;
+			case GENERIC_RESOURCES ->
+				fieldPlan.getNestedPlan() != null;
+			case BINARY, BINARY_STREAM, BINARY_CHANNEL, BINARY_BUFFER, BINARY_RANGE, DECODED,
+				ENUM_RESOURCE_HOLDER_MAP ->
+				false;
+		};
+		return isSupportedKind && Modifier.isPublic(modifiers) &&
+			!Modifier.isFinal(modifiers) && !Modifier.isStatic(modifiers) &&
+			isAccessible(field.getDeclaringClass()) && isAccessible(field.getType());
+	}
+
+	private static boolean isInstantiable(Class<?> type)
+	{
+		if (Modifier.isAbstract(type.getModifiers()))
+		{
+			return false;
+		}
+		try
+		{
+			return Modifier.isPublic(type.getDeclaredConstructor().getModifiers());
+		}
+		catch (NoSuchMethodException ex)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the field plans of the fields assigned by the hidden class in the
+	 * order of the values expected by {@link #inject(Object, Object[])}.
+	 *
+	 * @return the field plans of the fields assigned by the hidden class
+	 */
+	List<FieldPlan> getInjectedFieldPlans()
+	{
+		return injectedFieldPlans;
+	}
+
+	/**
+	 * Returns the field plans of the fields not assigned by the hidden class.
+	 *
+	 * @return the field plans of the fields not assigned by the hidden class
+	 */
+	List<FieldPlan> getRemainingFieldPlans()
+	{
+		return remainingFieldPlans;
+	}
+
+	/**
+	 * Assigns the given values to the injected fields.
+	 *
+	 * @param object the object to inject the values into
+	 * @param values the values in the order of {@link #getInjectedFieldPlans()}
+	 */
+	void inject(Object object, Object[] values)
+	{
+		generatedInjector.inject(object, values);
+	}
+
+	boolean isInstantiable()
+	{
+		return instantiable;
+	}
+
+	/**
+	 * Creates a new instance of the type.
+	 *
+	 * @return a new instance
+	 * @throws UnsupportedOperationException if the type is not
+	 *                                       {@link #isInstantiable() instantiable}
+	 */
+	Object newInstance()
+	{
+		return generatedInjector.newInstance();
+	}
+}
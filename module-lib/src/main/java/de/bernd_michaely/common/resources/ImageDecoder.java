@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Built-in decoder of images in the formats supported by {@link ImageIO}.
+ * This class must only be loaded, if the {@code java.desktop} module is
+ * readable.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see BinaryDecoders
+ */
+final class ImageDecoder implements BinaryDecoder<BufferedImage>
+{
+	@Override
+	public Class<BufferedImage> getType()
+	{
+		return BufferedImage.class;
+	}
+
+	@Override
+	public @Nullable
+	BufferedImage decode(ByteBuffer data) throws IOException
+	{
+		// cache in memory instead of the default temporary file
+		// (the stream is closed by ImageIO.read):
+		return ImageIO.read(new MemoryCacheImageInputStream(newInputStream(data)));
+	}
+
+	/**
+	 * Returns the size of the raster data of the image.
+	 */
+	@Override
+	public long getWeight(BufferedImage value, int dataSize)
+	{
+		final DataBuffer dataBuffer = value.getRaster().getDataBuffer();
+		return (long) dataBuffer.getSize() * dataBuffer.getNumBanks() *
+			DataBuffer.getDataTypeSize(dataBuffer.getDataType()) / 8;
+	}
+
+	private static InputStream newInputStream(ByteBuffer data)
+	{
+		return new InputStream()
+		{
+			@Override
+			public int read()
+			{
+				return data.hasRemaining() ? (data.get() & 0xff) : -1;
+			}
+
+			@Override
+			public int read(byte[] bytes, int offset, int length)
+			{
+				if (length == 0)
+				{
+					return 0;
+				}
+				else if (!data.hasRemaining())
+				{
+					return -1;
+				}
+				final int n = Math.min(length, data.remaining());
+				data.get(bytes, offset, n);
+				return n;
+			}
+
+			@Override
+			public int available()
+			{
+				return data.remaining();
+			}
+		};
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+/**
+ * Enumeration of the techniques used by the {@link ResourceInjector} to write
+ * the fields of ResourceHolders and to instantiate nested
+ * {@link GenericResources} types.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see ResourceInjector#withInjectionBackend(InjectionBackend)
+ */
+public enum InjectionBackend
+{
+	/**
+	 * Uses core reflection, that is {@link java.lang.reflect.Field#set} and
+	 * {@link java.lang.reflect.Constructor#newInstance}.
+	 */
+	REFLECTION,
+	/**
+	 * Resolves each field once to a getter and setter
+	 * {@link java.lang.invoke.MethodHandle} and each nested type to a constructor
+	 * MethodHandle. The handles are resolved by the lookup of this library,
+	 * after readability of the module of the type has been added, so fields and
+	 * constructors of packages exported (or opened) to this library are
+	 * accessible. Only if resolving a handle fails with an
+	 * {@link IllegalAccessException}, the field or type falls back to
+	 * {@link #REFLECTION}.
+	 */
+	METHOD_HANDLES,
+	/**
+	 * Spins a hidden class per ResourceHolder and nested type on first use,
+	 * which assigns all String, {@link EnumStringMap}, {@link EnumByteArrayMap}
+	 * and nested {@link GenericResources} fields with straight-line bytecode
+	 * and instantiates the type without reflection. This requires the packages
+	 * of the types to be exported (or opened) to this library and to be
+	 * visible to its class loader. Other fields and types are handled like
+	 * with {@link #METHOD_HANDLES}.
+	 */
+	HIDDEN_CLASSES
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Context providing the resources to a {@link ResourceHolderInjector} for a
+ * single injection. Missing string resources are replaced by fallback values
+ * as with reflective injection.
+ * <p>
+ * <strong>Note:</strong> This interface is intended to be used by generated
+ * code only.
+ * </p>
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public interface InjectionContext
+{
+	/**
+	 * Returns the string resource for the given key.
+	 *
+	 * @param resourceKey the fully resolved resource key
+	 * @return the string resource or a fallback value
+	 */
+	String getString(String resourceKey);
+
+	/**
+	 * Loads a binary resource into an OptionalBinaryObject.
+	 *
+	 * @param binaryObject the current field value
+	 * @param binaryPath   the absolute path of the resource within its module
+	 * @return the given binaryObject updated with the resource, if it is not
+	 *         null, otherwise a new OptionalBinaryObject, if the resource
+	 *         exists or is loaded lazily, or null
+	 */
+	@Nullable
+	OptionalBinaryObject getBinary(@Nullable OptionalBinaryObject binaryObject, String binaryPath);
+
+	/**
+	 * Returns a stream handle to a binary resource.
+	 *
+	 * @param current    the current field value
+	 * @param binaryPath the absolute path of the resource within its module
+	 * @return a handle to the resource or the current field value, if the
+	 *         resource does not exist
+	 */
+	@Nullable
+	BinaryResourceStream getBinaryStream(@Nullable BinaryResourceStream current, String binaryPath);
+
+	/**
+	 * Returns a channel handle to a binary resource.
+	 *
+	 * @param current    the current field value
+	 * @param binaryPath the absolute path of the resource within its module
+	 * @return a handle to the resource or the current field value, if the
+	 *         resource does not exist
+	 */
+	@Nullable
+	BinaryResourceChannel getBinaryChannel(@Nullable BinaryResourceChannel current, String binaryPath);
+
+	/**
+	 * Returns a read-only view of a binary resource.
+	 *
+	 * @param current    the current field value
+	 * @param binaryPath the absolute path of the resource within its module
+	 * @return a view of the resource or the current field value, if the
+	 *         resource does not exist
+	 */
+	@Nullable
+	BinaryResourceBuffer getBinaryBuffer(@Nullable BinaryResourceBuffer current, String binaryPath);
+
+	/**
+	 * Returns a positional read handle to a binary resource.
+	 *
+	 * @param current    the current field value
+	 * @param binaryPath the absolute path of the resource within its module
+	 * @return a handle to the resource or the current field value, if the
+	 *         resource does not exist
+	 */
+	@Nullable
+	BinaryResourceRange getBinaryRange(@Nullable BinaryResourceRange current, String binaryPath);
+
+	/**
+	 * Returns the decoded object of a binary resource.
+	 *
+	 * @param <T>        the type of the decoded object
+	 * @param current    the current field value
+	 * @param binaryPath the absolute path of the resource within its module
+	 * @param type       the erased type argument of the field
+	 * @return the decoded object or the current field value, if the resource
+	 *         does not exist or there is no decoder for the type
+	 */
+	@Nullable
+	<T> DecodedBinaryObject<T> getDecoded(@Nullable DecodedBinaryObject<T> current,
+		String binaryPath, Class<T> type);
+
+	/**
+	 * Returns a map of string resources.
+	 *
+	 * @param <E>          the enum type
+	 * @param enumClass    the enum class
+	 * @param resourceKeys the fully resolved resource keys in the order of the
+	 *                     enum constants
+	 * @return a map of string resources
+	 */
+	<E extends Enum<E>> EnumStringMap<E> getEnumStringMap(Class<E> enumClass, String... resourceKeys);
+
+	/**
+	 * Returns a map of binary resources.
+	 *
+	 * @param <E>         the enum type
+	 * @param enumClass   the enum class
+	 * @param binaryPaths the absolute paths of the resources in the order of the
+	 *                    enum constants
+	 * @return a map of binary resources
+	 */
+	<E extends Enum<E>> EnumByteArrayMap<E> getEnumByteArrayMap(Class<E> enumClass, String... binaryPaths);
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * State of a single injection pass, that is the injection into one top level
+ * ResourceHolder including all nested types. The resource bundle of each
+ * resource location is resolved once per pass and reused for all keys, which
+ * is valid because the locale is constant during a pass. Missing bundles are
+ * additionally remembered across passes by the {@link MissingResourceCache}.
+ * Instances are
+ * confined to the thread performing the injection. Subtrees injected by
+ * fork/join tasks use {@link #fork() passes of their own}.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class InjectionPass
+{
+	private static final Logger LOGGER = System.getLogger(InjectionPass.class.getName());
+	private final Locale locale;
+	private final Map<BundleKey, Optional<ResourceBundle>> bundles = new HashMap<>();
+	private @Nullable ResourceLocation lastResourceLocation;
+	private @Nullable Optional<ResourceBundle> lastBundle;
+	private int bundleLookups;
+	private int bundleLookupsSaved;
+	private long deduplicatedBytes;
+	private Map<BinaryResourceCache.FileKey, ByteBuffer> prefetched = Map.of();
+
+	/**
+	 * Key of a memoized resource bundle. Nested types have their own
+	 * ResourceLocation instances, but share the bundle of the top level
+	 * ResourceHolder.
+	 */
+	private record BundleKey(Module module, String baseName)
+	{
+	}
+
+	/**
+	 * Creates a new injection pass.
+	 *
+	 * @param locale the locale of the resources to be injected
+	 */
+	InjectionPass(Locale locale)
+	{
+		this.locale = locale;
+	}
+
+	Locale getLocale()
+	{
+		return locale;
+	}
+
+	/**
+	 * Creates a pass for the injection of a subtree on another thread. The
+	 * new pass starts with the resource bundles and prefetched binary
+	 * resources of this pass. Its counters are added to this pass by
+	 * {@link #merge(InjectionPass)}.
+	 *
+	 * @return a new pass for a subtree
+	 */
+	InjectionPass fork()
+	{
+		final InjectionPass pass = new InjectionPass(locale);
+		pass.bundles.putAll(bundles);
+		pass.prefetched = prefetched;
+		return pass;
+	}
+
+	/**
+	 * Adds the counters of a pass created by {@link #fork()} to this pass,
+	 * after the injection of its subtree is complete.
+	 *
+	 * @param pass the pass of a subtree
+	 */
+	void merge(InjectionPass pass)
+	{
+		bundleLookups += pass.bundleLookups;
+		bundleLookupsSaved += pass.bundleLookupsSaved;
+		deduplicatedBytes += pass.deduplicatedBytes;
+	}
+
+	/**
+	 * Returns the resource bundle of the given resource location, which is
+	 * looked up on first use within this pass.
+	 *
+	 * @param resourceLocation the resource location
+	 * @return the resource bundle or null, if it does not exist
+	 */
+	@Nullable
+	ResourceBundle getBundle(ResourceLocation resourceLocation)
+	{
+		Optional<ResourceBundle> bundle = this.lastBundle;
+		if (bundle != null && resourceLocation == this.lastResourceLocation)
+		{
+			bundleLookupsSaved++;
+		}
+		else
+		{
+			final BundleKey key = new BundleKey(
+				resourceLocation.getStringResourcesModule(), resourceLocation.getBundleBaseName());
+			bundle = bundles.get(key);
+			if (bundle != null)
+			{
+				bundleLookupsSaved++;
+			}
+			else
+			{
+				bundle = lookupBundle(key);
+				bundles.put(key, bundle);
+				bundleLookups++;
+			}
+			this.lastResourceLocation = resourceLocation;
+			this.lastBundle = bundle;
+		}
+		return bundle.orElse(null);
+	}
+
+	private Optional<ResourceBundle> lookupBundle(BundleKey key)
+	{
+		final MissingResourceCache missingResourceCache = MissingResourceCache.getInstance();
+		if (missingResourceCache.isBundleMissing(key.module(), key.baseName(), locale))
+		{
+			InjectionStatistics.addMissingResourceSkipped();
+			return Optional.empty();
+		}
+		try
+		{
+			return Optional.of(ResourceBundle.getBundle(key.baseName(), locale, key.module()));
+		}
+		catch (MissingResourceException ex)
+		{
+			missingResourceCache.putBundleMissing(key.module(), key.baseName(), locale);
+			LOGGER.log(Level.WARNING, "Missing resource bundle »{0}« for locale »{1}« – for »{2}«",
+				key.baseName(), locale, key.module());
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Returns the number of resource bundle lookups performed in this pass.
+	 *
+	 * @return the number of resource bundle lookups
+	 */
+	int getBundleLookups()
+	{
+		return bundleLookups;
+	}
+
+	/**
+	 * Returns the number of resource bundle lookups saved by memoization in
+	 * this pass.
+	 *
+	 * @return the number of saved resource bundle lookups
+	 */
+	int getBundleLookupsSaved()
+	{
+		return bundleLookupsSaved;
+	}
+
+	/**
+	 * Adds the size of a binary payload, which is shared with another payload
+	 * of identical content.
+	 *
+	 * @param bytes the size of the deduplicated payload
+	 */
+	void addDeduplicatedBytes(long bytes)
+	{
+		deduplicatedBytes += bytes;
+	}
+
+	/**
+	 * Returns the total size of binary payloads deduplicated in this pass.
+	 *
+	 * @return the deduplicated size in bytes
+	 */
+	long getDeduplicatedBytes()
+	{
+		return deduplicatedBytes;
+	}
+
+	/**
+	 * Sets the binary resources read ahead of the injection by the
+	 * {@link ParallelBinaryLoader}.
+	 *
+	 * @param prefetched the binary resources read ahead
+	 */
+	void setPrefetched(Map<BinaryResourceCache.FileKey, ByteBuffer> prefetched)
+	{
+		this.prefetched = prefetched;
+	}
+
+	/**
+	 * Returns a binary resource read ahead of the injection.
+	 *
+	 * @param key the key of the resource
+	 * @return the resource data or null, if it has not been read ahead
+	 */
+	@Nullable
+	ByteBuffer getPrefetched(BinaryResourceCache.FileKey key)
+	{
+		return prefetched.get(key);
+	}
+
+	/**
+	 * Adds the counters of this pass to the {@link InjectionStatistics}.
+	 */
+	void complete()
+	{
+		InjectionStatistics.addBundleLookups(bundleLookups, bundleLookupsSaved);
+		InjectionStatistics.addDeduplicatedBytes(deduplicatedBytes);
+	}
+}
@@ -0,0 +1,676 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNullElse;
+
+/**
+ * Precomputed description of the resource injection into a ResourceHolder
+ * class. A plan resolves all reflective information – fields, annotations,
+ * resource keys, enum constants and nested {@link GenericResources} types –
+ * once per class, so that repeated injections only need to walk the plan.
+ * Plans of top level ResourceHolder classes are cached using a
+ * {@link ClassValue}, so the cache does not prevent class unloading.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class InjectionPlan implements SharedConstants
+{
+	private static final Logger LOGGER = System.getLogger(InjectionPlan.class.getName());
+	private static final ClassValue<InjectionPlan> PLANS = new ClassValue<>()
+	{
+		@Override
+		protected InjectionPlan computeValue(Class<?> type)
+		{
+			return new InjectionPlan(type,
+				new ResourceParameters(type.asSubclass(ResourceHolder.class)), null, null);
+		}
+	};
+	private final Class<?> type;
+	private final ResourceLocation resourceLocation;
+	private final List<FieldPlan> fieldPlans;
+	private final int size;
+	private final @Nullable InstanceFactory[] instanceFactories =
+		new InstanceFactory[InjectionBackend.values().length];
+	private volatile @Nullable Optional<HiddenInjector> hiddenInjector;
+
+	/**
+	 * Enumeration of the supported kinds of ResourceHolder fields.
+	 */
+	enum FieldKind
+	{
+		STRING, BINARY, BINARY_STREAM, BINARY_CHANNEL, BINARY_BUFFER, BINARY_RANGE, DECODED,
+		ENUM_STRING_MAP, ENUM_BYTE_ARRAY_MAP,
+		@Deprecated
+		ENUM_RESOURCE_HOLDER_MAP,
+		GENERIC_RESOURCES
+	}
+
+	/**
+	 * Precomputed description of the injection into a single field.
+	 */
+	static final class FieldPlan
+	{
+		private final Field field;
+		private final FieldKind kind;
+		private final String resourceKey;
+		private final String binaryPath;
+		private final @Nullable Class<? extends Enum> enumClass;
+		private final Enum<?>[] enumConstants;
+		private final String[] enumResourceKeys;
+		private final @Nullable InjectionPlan nestedPlan;
+		private final InjectionPlan[] enumNestedPlans;
+		private final @Nullable Class<? extends ResourceHolder> resourceHolderClass;
+		private final @Nullable Class<?> decodedType;
+		private final @Nullable FieldAccessor[] accessors =
+			new FieldAccessor[InjectionBackend.values().length];
+
+		private FieldPlan(Field field, FieldKind kind, String resourceKey, String binaryPath,
+			@Nullable Class<? extends Enum> enumClass, Enum<?>[] enumConstants,
+			String[] enumResourceKeys, @Nullable InjectionPlan nestedPlan,
+			InjectionPlan[] enumNestedPlans,
+			@Nullable Class<? extends ResourceHolder> resourceHolderClass,
+			@Nullable Class<?> decodedType)
+		{
+			this.field = field;
+			this.kind = kind;
+			this.resourceKey = resourceKey;
+			this.binaryPath = binaryPath;
+			this.enumClass = enumClass;
+			this.enumConstants = enumConstants;
+			this.enumResourceKeys = enumResourceKeys;
+			this.nestedPlan = nestedPlan;
+			this.enumNestedPlans = enumNestedPlans;
+			this.resourceHolderClass = resourceHolderClass;
+			this.decodedType = decodedType;
+		}
+
+		private static FieldPlan ofKey(Field field, FieldKind kind, String resourceKey, String binaryPath)
+		{
+			return new FieldPlan(field, kind, resourceKey, binaryPath,
+				null, new Enum<?>[0], new String[0], null, new InjectionPlan[0], null, null);
+		}
+
+		private static FieldPlan ofDecoded(Field field, String resourceKey, String binaryPath,
+			Class<?> decodedType)
+		{
+			return new FieldPlan(field, FieldKind.DECODED, resourceKey, binaryPath,
+				null, new Enum<?>[0], new String[0], null, new InjectionPlan[0], null, decodedType);
+		}
+
+		private static FieldPlan ofEnum(Field field, FieldKind kind, String resourceKey,
+			Class<? extends Enum> enumClass, Enum<?>[] enumConstants, String[] enumResourceKeys)
+		{
+			return new FieldPlan(field, kind, resourceKey, "",
+				enumClass, enumConstants, enumResourceKeys, null, new InjectionPlan[0], null, null);
+		}
+
+		private static FieldPlan ofNested(Field field, String resourceKey, InjectionPlan nestedPlan)
+		{
+			return new FieldPlan(field, FieldKind.GENERIC_RESOURCES, resourceKey, "",
+				null, new Enum<?>[0], new String[0], nestedPlan, new InjectionPlan[0], null, null);
+		}
+
+		Field getField()
+		{
+			return field;
+		}
+
+		/**
+		 * Returns the accessor for the field, which is created on first use for
+		 * each backend. (Concurrent creation is benign, because accessors are
+		 * immutable.)
+		 *
+		 * @param backend the injection backend
+		 * @return the accessor for the field
+		 */
+		FieldAccessor getAccessor(InjectionBackend backend)
+		{
+			FieldAccessor accessor = accessors[backend.ordinal()];
+			if (accessor == null)
+			{
+				accessor = Accessors.createFieldAccessor(field, backend);
+				accessors[backend.ordinal()] = accessor;
+			}
+			return accessor;
+		}
+
+		FieldKind getKind()
+		{
+			return kind;
+		}
+
+		/**
+		 * Returns the fully resolved resource key including the prefixes of
+		 * enclosing nested ResourceHolders.
+		 *
+		 * @return the resolved resource key
+		 */
+		String getResourceKey()
+		{
+			return resourceKey;
+		}
+
+		/**
+		 * Returns the absolute path of a binary resource within its module.
+		 *
+		 * @return the absolute path of a binary resource
+		 */
+		String getBinaryPath()
+		{
+			return binaryPath;
+		}
+
+		@Nullable
+		Class<? extends Enum> getEnumClass()
+		{
+			return enumClass;
+		}
+
+		Enum<?>[] getEnumConstants()
+		{
+			return enumConstants;
+		}
+
+		/**
+		 * Returns the resolved resource keys (or binary paths, respectively) for
+		 * all enum constants in the order of {@link #getEnumConstants()}.
+		 *
+		 * @return the resolved resource keys per enum constant
+		 */
+		String[] getEnumResourceKeys()
+		{
+			return enumResourceKeys;
+		}
+
+		@Nullable
+		InjectionPlan getNestedPlan()
+		{
+			return nestedPlan;
+		}
+
+		InjectionPlan[] getEnumNestedPlans()
+		{
+			return enumNestedPlans;
+		}
+
+		@Nullable
+		Class<? extends ResourceHolder> getResourceHolderClass()
+		{
+			return resourceHolderClass;
+		}
+
+		/**
+		 * Returns the number of values injected into this field.
+		 *
+		 * @return the number of injected values
+		 * @see InjectionPlan#getSize()
+		 */
+		@SuppressWarnings("deprecation")
+		int getSize()
+		{
+			switch (kind)
+			{
+				case ENUM_STRING_MAP, ENUM_BYTE_ARRAY_MAP ->
+				{
+					return enumConstants.length;
+				}
+				case ENUM_RESOURCE_HOLDER_MAP ->
+				{
+					int sum = 0;
+					for (InjectionPlan enumNestedPlan : enumNestedPlans)
+					{
+						sum += enumNestedPlan.getSize();
+					}
+					return sum;
+				}
+				case GENERIC_RESOURCES ->
+				{
+					return (nestedPlan != null) ? nestedPlan.getSize() : 0;
+				}
+				default ->
+				{
+					return 1;
+				}
+			}
+		}
+
+		/**
+		 * Returns the type argument of a {@link DecodedBinaryObject} field.
+		 *
+		 * @return the type of the decoded object
+		 */
+		@Nullable
+		Class<?> getDecodedType()
+		{
+			return decodedType;
+		}
+	}
+
+	/**
+	 * Creates a plan for a ResourceHolder type or a nested type annotated with
+	 * {@link GenericResources}.
+	 *
+	 * @param type      the type to inject resources into
+	 * @param param     the resource parameters of the top level ResourceHolder
+	 * @param keyPrefix the resource key prefix of nested types
+	 * @param fieldRef  the field referencing a nested type
+	 */
+	private InjectionPlan(Class<?> type, ResourceParameters param,
+		@Nullable String keyPrefix, @Nullable Field fieldRef)
+	{
+		this.type = type;
+		this.resourceLocation = new ResourceLocation(param, type.getModule());
+		final String binaryPathPrefix = resourceLocation.getBinaryPathPrefix();
+		final var mapEnumTypes = getMapEnumTypes(fieldRef, (e, fieldName) ->
+		{
+			LOGGER.log(Level.ERROR,
+				"»@EnumTypes(…) […] {0}« contains duplicate field name »{1}«",
+				"" + fieldRef, fieldName);
+		});
+		final List<FieldPlan> list = new ArrayList<>();
+		for (Field field : type.getFields())
+		{
+			final FieldPlan fieldPlan = createFieldPlan(field, param, keyPrefix,
+				binaryPathPrefix, mapEnumTypes);
+			if (fieldPlan != null)
+			{
+				list.add(fieldPlan);
+			}
+		}
+		this.fieldPlans = List.copyOf(list);
+		int sum = 0;
+		for (FieldPlan fieldPlan : fieldPlans)
+		{
+			sum += fieldPlan.getSize();
+		}
+		this.size = sum;
+	}
+
+	/**
+	 * Returns the (cached) plan for the given ResourceHolder class.
+	 *
+	 * @param resourceHolderClass the ResourceHolder class
+	 * @return the plan for the given ResourceHolder class
+	 */
+	static InjectionPlan get(Class<? extends ResourceHolder> resourceHolderClass)
+	{
+		return PLANS.get(resourceHolderClass);
+	}
+
+	/**
+	 * Removes the cached plan for the given ResourceHolder class. Mainly
+	 * provided for tests and benchmarks.
+	 *
+	 * @param resourceHolderClass the ResourceHolder class
+	 */
+	static void invalidate(Class<? extends ResourceHolder> resourceHolderClass)
+	{
+		PLANS.remove(resourceHolderClass);
+	}
+
+	Class<?> getType()
+	{
+		return type;
+	}
+
+	/**
+	 * Creates a new instance of the type of this plan. The instance factory is
+	 * created on first use for each backend.
+	 *
+	 * @param backend the injection backend
+	 * @return a new instance
+	 * @throws ReflectiveOperationException if the instance could not be created
+	 */
+	Object newInstance(InjectionBackend backend) throws ReflectiveOperationException
+	{
+		InstanceFactory instanceFactory = instanceFactories[backend.ordinal()];
+		if (instanceFactory == null)
+		{
+			final HiddenInjector injector = (backend == InjectionBackend.HIDDEN_CLASSES) ?
+				getHiddenInjector() : null;
+			instanceFactory = (injector != null && injector.isInstantiable()) ?
+				() -> newInstance(injector) : Accessors.createInstanceFactory(type, backend);
+			instanceFactories[backend.ordinal()] = instanceFactory;
+		}
+		return instanceFactory.newInstance();
+	}
+
+	private static Object newInstance(HiddenInjector injector) throws InvocationTargetException
+	{
+		try
+		{
+			return injector.newInstance();
+		}
+		catch (RuntimeException ex)
+		{
+			// wrapped like Constructor.newInstance does:
+			throw new InvocationTargetException(ex);
+		}
+	}
+
+	/**
+	 * Returns the hidden class injector of this plan, which is created on first
+	 * use.
+	 *
+	 * @return the hidden class injector or null, if the type is not suitable
+	 * @see InjectionBackend#HIDDEN_CLASSES
+	 */
+	@Nullable
+	HiddenInjector getHiddenInjector()
+	{
+		Optional<HiddenInjector> injector = this.hiddenInjector;
+		if (injector == null)
+		{
+			synchronized (this)
+			{
+				injector = this.hiddenInjector;
+				if (injector == null)
+				{
+					injector = Optional.ofNullable(HiddenInjector.create(this));
+					this.hiddenInjector = injector;
+				}
+			}
+		}
+		return injector.orElse(null);
+	}
+
+	ResourceLocation getResourceLocation()
+	{
+		return resourceLocation;
+	}
+
+	List<FieldPlan> getFieldPlans()
+	{
+		return fieldPlans;
+	}
+
+	/**
+	 * Returns the number of values injected by this plan including its nested
+	 * plans, where each enum constant of an enum map counts as a value. This
+	 * is used to decide, whether injecting a subtree is worth a fork/join
+	 * task.
+	 *
+	 * @return the number of injected values
+	 * @see ResourceInjector#withForkJoinInjection(java.util.concurrent.ForkJoinPool, int)
+	 */
+	int getSize()
+	{
+		return size;
+	}
+
+	private static boolean isGenericResource(Field field)
+	{
+		return field.getType().isAnnotationPresent(GenericResources.class);
+	}
+
+	private static String getResourceKey(@Nullable String keyPrefix, Field field)
+	{
+		final ResourceKey annotation = field.getAnnotation(ResourceKey.class);
+		final String strResourceKey = (annotation != null && !annotation.value().isBlank()) ?
+			annotation.value() : field.getName();
+		final String prefix = requireNonNullElse(keyPrefix, "") + strResourceKey;
+		return isGenericResource(field) ? (prefix + SEPARATOR_KEY_NESTED) : prefix;
+	}
+
+	private static Map<String, Class<? extends Enum>> getMapEnumTypes(
+		@Nullable Field fieldRef, BiConsumer<EnumTypes, String> onDuplicateFieldName)
+	{
+		final EnumTypes[] arrEnumTypes = (fieldRef != null) ?
+			fieldRef.getAnnotationsByType(EnumTypes.class) : null;
+		final Map<String, Class<? extends Enum>> map = new TreeMap<>();
+		final Set<String> duplicateFieldNames = new TreeSet<>();
+		if (arrEnumTypes != null)
+		{
+			for (EnumTypes annEnumTypes : arrEnumTypes)
+			{
+				final Class<? extends Enum> type = annEnumTypes.enumType();
+				for (String fieldName : annEnumTypes.fieldNames())
+				{
+					if (!duplicateFieldNames.contains(fieldName))
+					{
+						if (map.containsKey(fieldName))
+						{
+							map.remove(fieldName);
+							duplicateFieldNames.add(fieldName);
+							if (onDuplicateFieldName != null)
+							{
+								onDuplicateFieldName.accept(annEnumTypes, fieldName);
+							}
+						}
+						else
+						{
+							map.put(fieldName, type);
+						}
+					}
+				}
+			}
+		}
+		return unmodifiableMap(map);
+	}
+
+	private static String getFileExtension(Field field, ResourceParameters param)
+	{
+		final FileExt fileExt = field.getAnnotation(FileExt.class);
+		return fileExt != null ? fileExt.value() : param.getDefaultExtension();
+	}
+
+	private static @Nullable
+	FieldPlan createFieldPlan(Field field, ResourceParameters param,
+		@Nullable String keyPrefix, String binaryPathPrefix,
+		Map<String, Class<? extends Enum>> mapEnumTypes)
+	{
+		final String fieldName = field.getName();
+		final String typeName = field.getType().getName();
+		final int modifiers = field.getModifiers();
+		if (!Modifier.isPublic(modifiers))
+		{
+			LOGGER.log(Level.WARNING, "Field »{0}« must be declared public", fieldName);
+			return null;
+		}
+		else if (Modifier.isFinal(modifiers) && !TYPE_NAME_BYTE_ARRAY.equals(typeName))
+		{
+			LOGGER.log(Level.WARNING, "Field »{0}« must not be declared final", fieldName);
+			return null;
+		}
+		final String resourceKey = getResourceKey(keyPrefix, field);
+		switch (typeName)
+		{
+			case TYPE_NAME_STRING ->
+			{
+				return FieldPlan.ofKey(field, FieldKind.STRING, resourceKey, "");
+			}
+			case TYPE_NAME_BYTE_ARRAY ->
+			{
+				return FieldPlan.ofKey(field, FieldKind.BINARY, resourceKey,
+					binaryPathPrefix + resourceKey + getFileExtension(field, param));
+			}
+			case TYPE_NAME_BINARY_STREAM ->
+			{
+				return FieldPlan.ofKey(field, FieldKind.BINARY_STREAM, resourceKey,
+					binaryPathPrefix + resourceKey + getFileExtension(field, param));
+			}
+			case TYPE_NAME_BINARY_CHANNEL ->
+			{
+				return FieldPlan.ofKey(field, FieldKind.BINARY_CHANNEL, resourceKey,
+					binaryPathPrefix + resourceKey + getFileExtension(field, param));
+			}
+			case TYPE_NAME_BINARY_BUFFER ->
+			{
+				return FieldPlan.ofKey(field, FieldKind.BINARY_BUFFER, resourceKey,
+					binaryPathPrefix + resourceKey + getFileExtension(field, param));
+			}
+			case TYPE_NAME_BINARY_RANGE ->
+			{
+				return FieldPlan.ofKey(field, FieldKind.BINARY_RANGE, resourceKey,
+					binaryPathPrefix + resourceKey + getFileExtension(field, param));
+			}
+			case TYPE_NAME_DECODED_BINARY_OBJECT ->
+			{
+				final Class<?> decodedType = getDecodedType(field);
+				if (decodedType != null)
+				{
+					return FieldPlan.ofDecoded(field, resourceKey,
+						binaryPathPrefix + resourceKey + getFileExtension(field, param), decodedType);
+				}
+				else
+				{
+					LOGGER.log(Level.WARNING,
+						"Invalid declaration of field »DecodedBinaryObject<T> {0}«", fieldName);
+					return null;
+				}
+			}
+			case TYPE_NAME_ENUM_STRING_MAP ->
+			{
+				return createEnumFieldPlan(field, FieldKind.ENUM_STRING_MAP,
+					resourceKey, resourceKey + SEPARATOR_ENUM_KEY, "", mapEnumTypes,
+					"Invalid declaration of field »EnumStringMap<Enum> {0}«");
+			}
+			case TYPE_NAME_ENUM_BYTE_ARRAY_MAP ->
+			{
+				return createEnumFieldPlan(field, FieldKind.ENUM_BYTE_ARRAY_MAP,
+					resourceKey, binaryPathPrefix + resourceKey + SEPARATOR_ENUM_FILE,
+					getFileExtension(field, param), mapEnumTypes,
+					"Invalid declaration of field »EnumByteArrayMap<Enum> {0}«");
+			}
+			case TYPE_NAME_ENUM_RESOURCE_HOLDER_MAP ->
+			{
+				return createEnumResourceHolderFieldPlan(field, param, resourceKey);
+			}
+			default ->
+			{
+				if (isGenericResource(field))
+				{
+					return FieldPlan.ofNested(field, resourceKey,
+						new InjectionPlan(field.getType(), param, resourceKey, field));
+				}
+				else
+				{
+					LOGGER.log(Level.WARNING, "Invalid type of field »{0} {1}« in ResourceHolder",
+						typeName, fieldName);
+					return null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the erased type argument of a {@link DecodedBinaryObject} field.
+	 *
+	 * @param field the field
+	 * @return the erased type argument or null, if it is not a class or
+	 *         parameterized type
+	 */
+	private static @Nullable
+	Class<?> getDecodedType(Field field)
+	{
+		if (field.getGenericType() instanceof ParameterizedType parameterizedType)
+		{
+			final Type type = parameterizedType.getActualTypeArguments()[0];
+			if (type instanceof Class<?> c)
+			{
+				return c;
+			}
+			else if (type instanceof ParameterizedType p && p.getRawType() instanceof Class<?> c)
+			{
+				return c;
+			}
+		}
+		return null;
+	}
+
+	private static @Nullable
+	FieldPlan createEnumFieldPlan(Field field, FieldKind kind, String resourceKey,
+		String prefix, String postfix, Map<String, Class<? extends Enum>> mapEnumTypes,
+		String msgInvalidDeclaration)
+	{
+		final EnumType enumType = field.getAnnotation(EnumType.class);
+		final Class<? extends Enum> enumClass = (enumType != null) ?
+			enumType.value() : mapEnumTypes.get(field.getName());
+		final Enum<?>[] enumConstants = (enumClass != null) ? enumClass.getEnumConstants() : null;
+		if (enumClass != null && enumConstants != null)
+		{
+			final String[] enumResourceKeys = new String[enumConstants.length];
+			for (int i = 0; i < enumConstants.length; i++)
+			{
+				enumResourceKeys[i] = prefix + enumConstants[i].name() + postfix;
+			}
+			return FieldPlan.ofEnum(field, kind, resourceKey,
+				enumClass, enumConstants, enumResourceKeys);
+		}
+		else
+		{
+			LOGGER.log(Level.WARNING, msgInvalidDeclaration, field.getName());
+			return null;
+		}
+	}
+
+	@Deprecated
+	private static @Nullable
+	FieldPlan createEnumResourceHolderFieldPlan(Field field,
+		ResourceParameters param, String resourceKey)
+	{
+		final String fieldName = field.getName();
+		final EnumType enumType = field.getAnnotation(EnumType.class);
+		final Class<? extends Enum> enumClass = (enumType != null) ? enumType.value() : null;
+		final ResourceHolderType resourceHolderType = field.getAnnotation(ResourceHolderType.class);
+		final Class<? extends ResourceHolder> resourceHolderClass = (resourceHolderType != null) ?
+			resourceHolderType.value() : null;
+		if (enumClass == null)
+		{
+			LOGGER.log(Level.WARNING,
+				"Missing @EnumType on field »EnumResourceHolderMap<E extends Enum<E>> {0}«",
+				fieldName);
+			return null;
+		}
+		else if (resourceHolderClass == null)
+		{
+			LOGGER.log(Level.WARNING,
+				"Missing @ResourceHolderType on field »EnumResourceHolderMap<E extends Enum<E>> {0}«",
+				fieldName);
+			return null;
+		}
+		final Enum<?>[] enumConstants = requireNonNullElse(enumClass.getEnumConstants(), new Enum<?>[0]);
+		final InjectionPlan[] enumNestedPlans = new InjectionPlan[enumConstants.length];
+		for (int i = 0; i < enumConstants.length; i++)
+		{
+			final String prefix = resourceKey + SEPARATOR_ENUM_FILE +
+				enumConstants[i].name() + SEPARATOR_KEY_NESTED;
+			enumNestedPlans[i] = new InjectionPlan(resourceHolderClass, param, prefix, field);
+		}
+		return new FieldPlan(field, FieldKind.ENUM_RESOURCE_HOLDER_MAP, resourceKey, "",
+			enumClass, enumConstants, new String[0], null, enumNestedPlans, resourceHolderClass,
+			null);
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process wide counters of the resource injection. The counters are updated
+ * at the end of each injection into a top level ResourceHolder, lazily loaded
+ * binary resources are counted on loading. The counters are mainly
+ * provided to verify the effect of caching, e.g. in tests, benchmarks or
+ * diagnostic output of an application.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public final class InjectionStatistics
+{
+	private static final LongAdder BUNDLE_LOOKUPS = new LongAdder();
+	private static final LongAdder BUNDLE_LOOKUPS_SAVED = new LongAdder();
+	private static final LongAdder MISSING_RESOURCES_SKIPPED = new LongAdder();
+	private static final LongAdder LAZY_BINARY_LOADS = new LongAdder();
+	private static final LongAdder DEDUPLICATED_BYTES = new LongAdder();
+	private static final LongAdder PACKED_RESOURCE_READS = new LongAdder();
+
+	private InjectionStatistics()
+	{
+	}
+
+	static void addBundleLookups(int bundleLookups, int bundleLookupsSaved)
+	{
+		BUNDLE_LOOKUPS.add(bundleLookups);
+		BUNDLE_LOOKUPS_SAVED.add(bundleLookupsSaved);
+	}
+
+	static void addMissingResourceSkipped()
+	{
+		MISSING_RESOURCES_SKIPPED.increment();
+	}
+
+	static void addLazyBinaryLoad()
+	{
+		LAZY_BINARY_LOADS.increment();
+	}
+
+	static void addDeduplicatedBytes(long bytes)
+	{
+		if (bytes > 0)
+		{
+			DEDUPLICATED_BYTES.add(bytes);
+		}
+	}
+
+	static void addPackedResourceRead()
+	{
+		PACKED_RESOURCE_READS.increment();
+	}
+
+	/**
+	 * Returns the number of resource bundle lookups performed.
+	 *
+	 * @return the number of resource bundle lookups
+	 */
+	public static long getBundleLookups()
+	{
+		return BUNDLE_LOOKUPS.sum();
+	}
+
+	/**
+	 * Returns the number of resource bundle lookups saved, because the bundle
+	 * was already resolved for another key during the same injection.
+	 *
+	 * @return the number of saved resource bundle lookups
+	 */
+	public static long getBundleLookupsSaved()
+	{
+		return BUNDLE_LOOKUPS_SAVED.sum();
+	}
+
+	/**
+	 * Returns the number of searches for resource bundles or binary resource
+	 * files skipped, because the resource is known to be missing.
+	 *
+	 * @return the number of skipped searches for missing resources
+	 * @see ResourceCaches
+	 */
+	public static long getMissingResourcesSkipped()
+	{
+		return MISSING_RESOURCES_SKIPPED.sum();
+	}
+
+	/**
+	 * Returns the number of binary resources loaded on access to a lazily
+	 * injected OptionalBinaryObject, including reloads of reclaimed data.
+	 *
+	 * @return the number of lazy binary resource loads
+	 * @see BinaryLoading
+	 */
+	public static long getLazyBinaryLoads()
+	{
+		return LAZY_BINARY_LOADS.sum();
+	}
+
+	/**
+	 * Returns the total size of binary resources, which were resolved to a
+	 * shared payload with identical content instead of being stored
+	 * separately.
+	 *
+	 * @return the deduplicated size in bytes
+	 * @see ResourceHolder#getDeduplicatedBytes()
+	 */
+	public static long getDeduplicatedBytes()
+	{
+		return DEDUPLICATED_BYTES.sum();
+	}
+
+	/**
+	 * Returns the number of binary resources read from a resource pack instead
+	 * of a separate file.
+	 *
+	 * @return the number of binary resources read from resource packs
+	 * @see ResourceCaches
+	 */
+	public static long getPackedResourceReads()
+	{
+		return PACKED_RESOURCE_READS.sum();
+	}
+
+	/**
+	 * Returns the number of binary resources served by the shared binary
+	 * resource cache.
+	 *
+	 * @return the number of binary resource cache hits
+	 * @see ResourceCaches#setBinaryCacheMaxWeight(long)
+	 */
+	public static long getBinaryCacheHits()
+	{
+		return BinaryResourceCache.getInstance().getHits();
+	}
+
+	/**
+	 * Returns the number of binary resources not found in the shared binary
+	 * resource cache.
+	 *
+	 * @return the number of binary resource cache misses
+	 */
+	public static long getBinaryCacheMisses()
+	{
+		return BinaryResourceCache.getInstance().getMisses();
+	}
+
+	/**
+	 * Returns the number of entries evicted from or not admitted to the
+	 * shared binary resource cache.
+	 *
+	 * @return the number of binary resource cache evictions
+	 */
+	public static long getBinaryCacheEvictions()
+	{
+		return BinaryResourceCache.getInstance().getEvictions();
+	}
+
+	/**
+	 * Resets all counters to zero.
+	 */
+	public static void reset()
+	{
+		BUNDLE_LOOKUPS.reset();
+		BUNDLE_LOOKUPS_SAVED.reset();
+		MISSING_RESOURCES_SKIPPED.reset();
+		LAZY_BINARY_LOADS.reset();
+		DEDUPLICATED_BYTES.reset();
+		PACKED_RESOURCE_READS.reset();
+		BinaryResourceCache.getInstance().resetStatistics();
+	}
+
+	/**
+	 * Returns a string representation of all counters.
+	 *
+	 * @return a string representation of all counters
+	 */
+	public static String asString()
+	{
+		return String.format(
+			"%s[bundleLookups=%d, bundleLookupsSaved=%d, missingResourcesSkipped=%d, lazyBinaryLoads=%d, " +
+			"deduplicatedBytes=%d, packedResourceReads=%d, binaryCacheHits=%d, binaryCacheMisses=%d, " +
+			"binaryCacheEvictions=%d]",
+			InjectionStatistics.class.getSimpleName(), getBundleLookups(), getBundleLookupsSaved(),
+			getMissingResourcesSkipped(), getLazyBinaryLoads(), getDeduplicatedBytes(),
+			getPackedResourceReads(),
+			getBinaryCacheHits(), getBinaryCacheMisses(), getBinaryCacheEvictions());
+	}
+}
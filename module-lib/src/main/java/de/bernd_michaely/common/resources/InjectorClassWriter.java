@@ -0,0 +1,301 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal class file writer for the {@link GeneratedInjector} implementations
+ * defined as hidden classes by {@link HiddenInjector}. The generated code
+ * contains no branches, so no {@code StackMapTable} attribute is required.
+ * For a type {@code T} with fields {@code f0 … fn} the generated class is
+ * equivalent to:
+ * <pre>
+ * final class GeneratedInjector$T implements GeneratedInjector
+ * {
+ *   public void inject(Object object, Object[] values)
+ *   {
+ *     final T t = (T) object;
+ *     t.f0 = (F0) values[0];
+ *     …
+ *     t.fn = (Fn) values[n];
+ *   }
+ *
+ *   public Object newInstance() // only, if T is instantiable
+ *   {
+ *     return new T();
+ *   }
+ * }
+ * </pre>
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class InjectorClassWriter
+{
+	/**
+	 * Class file version of Java 17.
+	 */
+	private static final int CLASS_FILE_VERSION = 61;
+	/**
+	 * Maximum number of fields, which keeps the code length far below the
+	 * limit of 64 KiB.
+	 */
+	static final int MAX_FIELDS = 2048;
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_FINAL = 0x0010;
+	private static final int ACC_SUPER = 0x0020;
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int ICONST_0 = 0x03;
+	private static final int BIPUSH = 0x10;
+	private static final int SIPUSH = 0x11;
+	private static final int ALOAD_0 = 0x2a;
+	private static final int ALOAD_1 = 0x2b;
+	private static final int ALOAD_2 = 0x2c;
+	private static final int ALOAD_3 = 0x2d;
+	private static final int AALOAD = 0x32;
+	private static final int ASTORE_3 = 0x4e;
+	private static final int DUP = 0x59;
+	private static final int ARETURN = 0xb0;
+	private static final int RETURN = 0xb1;
+	private static final int PUTFIELD = 0xb5;
+	private static final int INVOKESPECIAL = 0xb7;
+	private static final int NEW = 0xbb;
+	private static final int CHECKCAST = 0xc0;
+	private static final String INIT = "<init>";
+	private static final String DESCRIPTOR_VOID = "()V";
+	private static final String INTERNAL_NAME_OBJECT = "java/lang/Object";
+
+	private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+	private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+	private final Map<String, Integer> constants = new HashMap<>();
+	private int constantPoolCount = 1;
+
+	private InjectorClassWriter()
+	{
+	}
+
+	/**
+	 * Returns the class file of a {@link GeneratedInjector} implementation.
+	 *
+	 * @param className    the internal name of the generated class
+	 * @param type         the type to inject into
+	 * @param fields       the instance fields to assign
+	 * @param instantiable true, if {@code newInstance()} shall be generated
+	 * @return the class file bytes
+	 * @throws IllegalArgumentException if there are more than
+	 *                                  {@link #MAX_FIELDS} fields
+	 */
+	static byte[] write(String className, Class<?> type, List<Field> fields, boolean instantiable)
+	{
+		if (fields.size() > MAX_FIELDS)
+		{
+			throw new IllegalArgumentException("Too many fields: " + fields.size());
+		}
+		try
+		{
+			return new InjectorClassWriter().writeClass(className, type, fields, instantiable);
+		}
+		catch (IOException ex)
+		{
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static String getInternalName(Class<?> type)
+	{
+		return type.getName().replace('.', '/');
+	}
+
+	private int constant(String key, ConstantWriter constantWriter) throws IOException
+	{
+		final Integer index = constants.get(key);
+		if (index != null)
+		{
+			return index;
+		}
+		constantWriter.write(constantPool);
+		final int newIndex = constantPoolCount++;
+		constants.put(key, newIndex);
+		return newIndex;
+	}
+
+	@FunctionalInterface
+	private interface ConstantWriter
+	{
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	private int utf8(String value) throws IOException
+	{
+		return constant("U" + value, out ->
+		{
+			out.writeByte(CONSTANT_UTF8);
+			out.writeUTF(value);
+		});
+	}
+
+	private int classRef(String internalName) throws IOException
+	{
+		final int nameIndex = utf8(internalName);
+		return constant("C" + internalName, out ->
+		{
+			out.writeByte(CONSTANT_CLASS);
+			out.writeShort(nameIndex);
+		});
+	}
+
+	private int nameAndType(String name, String descriptor) throws IOException
+	{
+		final int nameIndex = utf8(name);
+		final int descriptorIndex = utf8(descriptor);
+		return constant("N" + name + ' ' + descriptor, out ->
+		{
+			out.writeByte(CONSTANT_NAME_AND_TYPE);
+			out.writeShort(nameIndex);
+			out.writeShort(descriptorIndex);
+		});
+	}
+
+	private int memberRef(int tag, String owner, String name, String descriptor) throws IOException
+	{
+		final int classIndex = classRef(owner);
+		final int nameAndTypeIndex = nameAndType(name, descriptor);
+		return constant("M" + tag + owner + '.' + name + ' ' + descriptor, out ->
+		{
+			out.writeByte(tag);
+			out.writeShort(classIndex);
+			out.writeShort(nameAndTypeIndex);
+		});
+	}
+
+	private static void pushInt(DataOutputStream code, int value) throws IOException
+	{
+		if (value <= 5)
+		{
+			code.writeByte(ICONST_0 + value);
+		}
+		else if (value <= Byte.MAX_VALUE)
+		{
+			code.writeByte(BIPUSH);
+			code.writeByte(value);
+		}
+		else
+		{
+			code.writeByte(SIPUSH);
+			code.writeShort(value);
+		}
+	}
+
+	private void writeMethod(DataOutputStream out, String name, String descriptor,
+		int maxStack, int maxLocals, byte[] code) throws IOException
+	{
+		out.writeShort(ACC_PUBLIC);
+		out.writeShort(utf8(name));
+		out.writeShort(utf8(descriptor));
+		out.writeShort(1);
+		out.writeShort(utf8("Code"));
+		out.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(code.length);
+		out.write(code);
+		out.writeShort(0);
+		out.writeShort(0);
+	}
+
+	private byte[] writeClass(String className, Class<?> type, List<Field> fields,
+		boolean instantiable) throws IOException
+	{
+		final String typeName = getInternalName(type);
+		final ByteArrayOutputStream methodsBytes = new ByteArrayOutputStream();
+		final DataOutputStream methods = new DataOutputStream(methodsBytes);
+		// constructor:
+		final ByteArrayOutputStream codeBytes = new ByteArrayOutputStream();
+		final DataOutputStream code = new DataOutputStream(codeBytes);
+		code.writeByte(ALOAD_0);
+		code.writeByte(INVOKESPECIAL);
+		code.writeShort(memberRef(CONSTANT_METHODREF, INTERNAL_NAME_OBJECT, INIT, DESCRIPTOR_VOID));
+		code.writeByte(RETURN);
+		writeMethod(methods, INIT, DESCRIPTOR_VOID, 1, 1, codeBytes.toByteArray());
+		// inject(Object, Object[]):
+		codeBytes.reset();
+		code.writeByte(ALOAD_1);
+		code.writeByte(CHECKCAST);
+		code.writeShort(classRef(typeName));
+		code.writeByte(ASTORE_3);
+		for (int i = 0; i < fields.size(); i++)
+		{
+			final Field field = fields.get(i);
+			final Class<?> fieldType = field.getType();
+			code.writeByte(ALOAD_3);
+			code.writeByte(ALOAD_2);
+			pushInt(code, i);
+			code.writeByte(AALOAD);
+			code.writeByte(CHECKCAST);
+			code.writeShort(classRef(getInternalName(fieldType)));
+			code.writeByte(PUTFIELD);
+			code.writeShort(memberRef(CONSTANT_FIELDREF, getInternalName(field.getDeclaringClass()),
+				field.getName(), fieldType.descriptorString()));
+		}
+		code.writeByte(RETURN);
+		writeMethod(methods, "inject", "(Ljava/lang/Object;[Ljava/lang/Object;)V",
+			3, 4, codeBytes.toByteArray());
+		// newInstance():
+		if (instantiable)
+		{
+			codeBytes.reset();
+			code.writeByte(NEW);
+			code.writeShort(classRef(typeName));
+			code.writeByte(DUP);
+			code.writeByte(INVOKESPECIAL);
+			code.writeShort(memberRef(CONSTANT_METHODREF, typeName, INIT, DESCRIPTOR_VOID));
+			code.writeByte(ARETURN);
+			writeMethod(methods, "newInstance", "()Ljava/lang/Object;", 2, 1, codeBytes.toByteArray());
+		}
+		final int thisClass = classRef(className);
+		final int superClass = classRef(INTERNAL_NAME_OBJECT);
+		final int interfaceClass = classRef(getInternalName(GeneratedInjector.class));
+		// class file:
+		final ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(classBytes);
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0);
+		out.writeShort(CLASS_FILE_VERSION);
+		out.writeShort(constantPoolCount);
+		constantPoolBytes.writeTo(out);
+		out.writeShort(ACC_FINAL | ACC_SUPER);
+		out.writeShort(thisClass);
+		out.writeShort(superClass);
+		out.writeShort(1);
+		out.writeShort(interfaceClass);
+		out.writeShort(0);
+		out.writeShort(instantiable ? 3 : 2);
+		methodsBytes.writeTo(out);
+		out.writeShort(0);
+		return classBytes.toByteArray();
+	}
+}
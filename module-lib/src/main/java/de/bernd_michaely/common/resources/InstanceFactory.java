@@ -0,0 +1,35 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+/**
+ * Internal interface to create instances of ResourceHolders and nested
+ * {@link GenericResources} types.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see Accessors#createInstanceFactory(Class, InjectionBackend)
+ */
+@FunctionalInterface
+interface InstanceFactory
+{
+	/**
+	 * Creates a new instance using the public no-arg constructor.
+	 *
+	 * @return a new instance
+	 * @throws ReflectiveOperationException if the instance could not be created
+	 */
+	Object newInstance() throws ReflectiveOperationException;
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Binary resource data, which is loaded on first access and retained
+ * according to a {@link BinaryLoading} strategy. The absence of a resource is
+ * always retained. Instances are thread safe.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class LazyBinary
+{
+	/**
+	 * Default of the process wide budget of data retained by
+	 * {@link BinaryLoading#LAZY_BUDGET} instances in bytes.
+	 */
+	static final long DEFAULT_BUDGET = 16L * 1024 * 1024;
+	private static final Object BUDGET_LOCK = new Object();
+	private static final Set<BudgetEntry> RETAINED = new HashSet<>();
+	private static final AtomicLong ACCESS_CLOCK = new AtomicLong();
+	private static long budget = DEFAULT_BUDGET;
+	private static long retainedBytes;
+	private final Supplier<Optional<byte[]>> loader;
+	private final BinaryLoading loading;
+	private volatile @Nullable Optional<byte[]> data;
+	private volatile @Nullable SoftReference<Optional<byte[]>> softData;
+	private volatile long lastAccess;
+	// guarded by BUDGET_LOCK:
+	private @Nullable BudgetEntry budgetEntry;
+
+	/**
+	 * Entry of the budget, which does not keep its instance reachable. The
+	 * retained bytes of a collected instance are released on the next
+	 * eviction.
+	 */
+	private static final class BudgetEntry extends WeakReference<LazyBinary>
+	{
+		private final int length;
+
+		private BudgetEntry(LazyBinary lazyBinary, int length)
+		{
+			super(lazyBinary);
+			this.length = length;
+		}
+	}
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param loader  the loader of the resource, which is called on first
+	 *                access and after the data has been dropped
+	 * @param loading the lazy loading strategy
+	 * @throws IllegalArgumentException if loading is not a lazy strategy
+	 */
+	LazyBinary(Supplier<Optional<byte[]>> loader, BinaryLoading loading)
+	{
+		if (loading == BinaryLoading.EAGER || loading == BinaryLoading.MAPPED)
+		{
+			throw new IllegalArgumentException("Loading strategy is not lazy");
+		}
+		this.loader = Objects.requireNonNull(loader, "loader is null");
+		this.loading = loading;
+	}
+
+	/**
+	 * Returns the data, which is loaded, if it is not retained.
+	 *
+	 * @return the data or an empty Optional, if the resource does not exist
+	 */
+	Optional<byte[]> get()
+	{
+		final Optional<byte[]> result = data;
+		if (result != null)
+		{
+			if (loading == BinaryLoading.LAZY_BUDGET && result.isPresent())
+			{
+				touch();
+			}
+			return result;
+		}
+		final SoftReference<Optional<byte[]>> reference = softData;
+		final Optional<byte[]> softResult = (reference != null) ? reference.get() : null;
+		return (softResult != null) ? softResult : load();
+	}
+
+	private Optional<byte[]> load()
+	{
+		final Optional<byte[]> result;
+		synchronized (this)
+		{
+			final Optional<byte[]> current = data;
+			final SoftReference<Optional<byte[]>> reference = softData;
+			final Optional<byte[]> softResult = (reference != null) ? reference.get() : null;
+			if (current != null || softResult != null)
+			{
+				return (current != null) ? current : softResult;
+			}
+			result = loader.get();
+			InjectionStatistics.addLazyBinaryLoad();
+			if (result.isPresent() && loading == BinaryLoading.LAZY_SOFT)
+			{
+				softData = new SoftReference<>(result);
+			}
+			else
+			{
+				data = result;
+			}
+		}
+		if (result.isPresent() && loading == BinaryLoading.LAZY_BUDGET)
+		{
+			retain(this, result.get().length);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true, if the data or the absence of the resource is currently
+	 * retained.
+	 *
+	 * @return true, if the next access does not load the resource
+	 */
+	boolean isRetained()
+	{
+		final SoftReference<Optional<byte[]>> reference = softData;
+		return data != null || (reference != null && reference.get() != null);
+	}
+
+	/**
+	 * Adds the given instance to the retained instances of the budget and drops
+	 * the data of the least recently used instances, if the budget is
+	 * exceeded. The accounting is approximate, if data is dropped and loaded
+	 * concurrently.
+	 */
+	private static void retain(LazyBinary lazyBinary, int length)
+	{
+		lazyBinary.lastAccess = ACCESS_CLOCK.incrementAndGet();
+		synchronized (BUDGET_LOCK)
+		{
+			if (lazyBinary.budgetEntry == null)
+			{
+				final BudgetEntry entry = new BudgetEntry(lazyBinary, length);
+				lazyBinary.budgetEntry = entry;
+				RETAINED.add(entry);
+				retainedBytes += length;
+			}
+			evict();
+		}
+	}
+
+	/**
+	 * Records an access without locking. The clock is only advanced, if
+	 * another instance has been accessed or loaded since the last access of
+	 * this instance, so that repeated accesses of the same data do not contend.
+	 */
+	private void touch()
+	{
+		if (lastAccess != ACCESS_CLOCK.get())
+		{
+			lastAccess = ACCESS_CLOCK.incrementAndGet();
+		}
+	}
+
+	private static void evict()
+	{
+		if (retainedBytes <= budget)
+		{
+			return;
+		}
+		record Access(BudgetEntry entry, long time)
+		{
+		}
+		final List<Access> accesses = new ArrayList<>(RETAINED.size());
+		final Iterator<BudgetEntry> iterator = RETAINED.iterator();
+		while (iterator.hasNext())
+		{
+			final BudgetEntry entry = iterator.next();
+			final LazyBinary lazyBinary = entry.get();
+			if (lazyBinary == null)
+			{
+				iterator.remove();
+				release(entry);
+			}
+			else
+			{
+				accesses.add(new Access(entry, lazyBinary.lastAccess));
+			}
+		}
+		accesses.sort(Comparator.comparingLong(Access::time));
+		for (int i = 0; retainedBytes > budget && i < accesses.size(); i++)
+		{
+			final BudgetEntry eldest = accesses.get(i).entry();
+			RETAINED.remove(eldest);
+			release(eldest);
+			final LazyBinary lazyBinary = eldest.get();
+			if (lazyBinary != null)
+			{
+				lazyBinary.budgetEntry = null;
+				lazyBinary.data = null;
+			}
+		}
+	}
+
+	private static void release(BudgetEntry entry)
+	{
+		retainedBytes -= entry.length;
+	}
+
+	/**
+	 * Sets the process wide budget of data retained by
+	 * {@link BinaryLoading#LAZY_BUDGET} instances.
+	 *
+	 * @param bytes the budget in bytes
+	 * @throws IllegalArgumentException if bytes is negative
+	 */
+	static void setBudget(long bytes)
+	{
+		if (bytes < 0)
+		{
+			throw new IllegalArgumentException("Budget must not be negative: " + bytes);
+		}
+		synchronized (BUDGET_LOCK)
+		{
+			budget = bytes;
+			evict();
+		}
+	}
+
+	static long getBudget()
+	{
+		synchronized (BUDGET_LOCK)
+		{
+			return budget;
+		}
+	}
+
+	static long getRetainedBytes()
+	{
+		synchronized (BUDGET_LOCK)
+		{
+			return retainedBytes;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provider of the default executor of parallel binary resource loading. This
+ * is the Java 17 variant using a shared pool of daemon platform threads, which
+ * are released after one minute of inactivity. The multi-release jar contains
+ * a Java 21 variant using virtual threads in {@code META-INF/versions/21}.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see ParallelBinaryLoader
+ */
+final class LoaderThreads
+{
+	private static final AtomicInteger COUNTER = new AtomicInteger();
+	private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable ->
+	{
+		final Thread thread = new Thread(runnable, "resource-loader-" + COUNTER.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private LoaderThreads()
+	{
+	}
+
+	/**
+	 * Returns the shared default executor.
+	 *
+	 * @return the shared default executor
+	 */
+	static Executor getExecutor()
+	{
+		return EXECUTOR;
+	}
+}
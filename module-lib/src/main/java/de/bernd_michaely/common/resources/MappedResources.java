@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.lang.module.ModuleReference;
+import java.lang.module.ResolvedModule;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Memory mapping of binary resources, which are stored as regular files, that
+ * is in an exploded module directory or a class path directory. Resources
+ * within jar files or the run time image can not be mapped.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class MappedResources
+{
+	/**
+	 * Default minimum size of files to be mapped in bytes. Smaller files are
+	 * read faster than mapped.
+	 */
+	static final long DEFAULT_MIN_SIZE = 64 * 1024;
+	private static final MappedResources INSTANCE = new MappedResources(DEFAULT_MIN_SIZE);
+	private final long minSize;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param minSize the minimum size of files to be mapped
+	 */
+	MappedResources(long minSize)
+	{
+		this.minSize = minSize;
+	}
+
+	/**
+	 * Returns the shared instance using the {@link #DEFAULT_MIN_SIZE}.
+	 *
+	 * @return the shared instance
+	 */
+	static MappedResources getInstance()
+	{
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the regular file containing the given resource.
+	 *
+	 * @param module     the module containing the resource
+	 * @param binaryPath the absolute path of the resource within its module
+	 * @return the file or null, if the resource is not stored as a regular file
+	 */
+	static @Nullable
+	Path findFile(Module module, String binaryPath)
+	{
+		final String name = binaryPath.startsWith("/") ? binaryPath.substring(1) : binaryPath;
+		try
+		{
+			final Path file;
+			if (module.isNamed())
+			{
+				final ModuleLayer layer = module.getLayer();
+				final Optional<URI> location = (layer != null) ?
+					layer.configuration().findModule(module.getName())
+						.map(ResolvedModule::reference).flatMap(ModuleReference::location) :
+					Optional.empty();
+				if (location.isPresent() && "file".equals(location.get().getScheme()))
+				{
+					final Path root = Path.of(location.get());
+					file = Files.isDirectory(root) ? root.resolve(name) : null;
+				}
+				else
+				{
+					file = null;
+				}
+			}
+			else
+			{
+				final ClassLoader classLoader = module.getClassLoader();
+				final URL url = (classLoader != null) ? classLoader.getResource(name) : null;
+				file = (url != null && "file".equals(url.getProtocol())) ? Path.of(url.toURI()) : null;
+			}
+			return (file != null && Files.isRegularFile(file)) ? file : null;
+		}
+		catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException |
+			SecurityException ex)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Maps the given file read-only into memory. The mapping stays valid after
+	 * the file channel is closed.
+	 *
+	 * @param file the file to map
+	 * @return a read-only buffer or null, if the file is smaller than the
+	 *         minimum size or too large for a single buffer
+	 * @throws IOException if the file can not be read
+	 */
+	@Nullable
+	MappedByteBuffer map(Path file) throws IOException
+	{
+		try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			final long size = fileChannel.size();
+			return (size >= minSize && size <= Integer.MAX_VALUE) ?
+				fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+		}
+	}
+}
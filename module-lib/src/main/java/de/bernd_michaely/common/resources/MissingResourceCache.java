@@ -0,0 +1,205 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of resources known to be missing, i.e. resource bundles
+ * identified by module, base name and locale as well as binary resource files
+ * identified by module and path. The cache is shared by all ResourceInjector
+ * instances, so that e.g. a locale switch does not repeat the full (and
+ * failing) resource search for each missing resource. Entries expire after a
+ * configurable time to live, so resources which become available later (e.g.
+ * in development environments) are eventually found. Expired entries and
+ * entries of collected modules, which are referred to by {@link WeakKey}s
+ * only, are removed whenever a missing resource is added. If the cache is
+ * still full, the least recently used entry is evicted.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see ResourceCaches
+ */
+final class MissingResourceCache
+{
+	/**
+	 * The maximum number of entries of the shared cache.
+	 */
+	static final int MAX_ENTRIES = 1024;
+	/**
+	 * The default time to live of cache entries.
+	 */
+	static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+	private static final MissingResourceCache INSTANCE =
+		new MissingResourceCache(MAX_ENTRIES, DEFAULT_TIME_TO_LIVE, System::nanoTime);
+	private final int maxEntries;
+	private final LongSupplier nanoTime;
+	private final Map<Object, Long> expiryTimes;
+	private long timeToLiveNanos;
+
+	/**
+	 * Key of a missing resource bundle.
+	 */
+	private record MissingBundle(WeakKey module, String baseName, Locale locale)
+	{
+	}
+
+	/**
+	 * Key of a missing binary resource file.
+	 */
+	private record MissingFile(WeakKey module, String path)
+	{
+	}
+
+	private static WeakKey getModule(Object key)
+	{
+		return (key instanceof MissingBundle missingBundle) ?
+			missingBundle.module() : ((MissingFile) key).module();
+	}
+
+	/**
+	 * Creates a new cache instance.
+	 *
+	 * @param maxEntries the maximum number of entries
+	 * @param timeToLive the time to live of entries
+	 * @param nanoTime   the time source
+	 */
+	MissingResourceCache(int maxEntries, Duration timeToLive, LongSupplier nanoTime)
+	{
+		this.maxEntries = maxEntries;
+		this.nanoTime = nanoTime;
+		this.timeToLiveNanos = timeToLive.toNanos();
+		this.expiryTimes = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, Long> eldest)
+			{
+				return size() > MissingResourceCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cache shared by all ResourceInjector instances.
+	 *
+	 * @return the shared cache
+	 */
+	static MissingResourceCache getInstance()
+	{
+		return INSTANCE;
+	}
+
+	private synchronized boolean isMissing(Object key)
+	{
+		final Long expiryTime = expiryTimes.get(key);
+		if (expiryTime == null)
+		{
+			return false;
+		}
+		else if (nanoTime.getAsLong() - expiryTime < 0)
+		{
+			return true;
+		}
+		else
+		{
+			expiryTimes.remove(key);
+			return false;
+		}
+	}
+
+	private synchronized void putMissing(Object key)
+	{
+		if (timeToLiveNanos > 0)
+		{
+			final long now = nanoTime.getAsLong();
+			expiryTimes.entrySet().removeIf(entry ->
+				now - entry.getValue() >= 0 || getModule(entry.getKey()).isCleared());
+			expiryTimes.put(key, now + timeToLiveNanos);
+		}
+	}
+
+	boolean isBundleMissing(Module module, String baseName, Locale locale)
+	{
+		return isMissing(new MissingBundle(WeakKey.of(module), baseName, locale));
+	}
+
+	void putBundleMissing(Module module, String baseName, Locale locale)
+	{
+		putMissing(new MissingBundle(WeakKey.of(module), baseName, locale));
+	}
+
+	boolean isFileMissing(Module module, String path)
+	{
+		return isMissing(new MissingFile(WeakKey.of(module), path));
+	}
+
+	void putFileMissing(Module module, String path)
+	{
+		putMissing(new MissingFile(WeakKey.of(module), path));
+	}
+
+	/**
+	 * Sets the time to live of new entries. A zero duration disables the
+	 * cache and removes all entries.
+	 *
+	 * @param timeToLive the time to live
+	 * @throws IllegalArgumentException if timeToLive is negative
+	 */
+	synchronized void setTimeToLive(Duration timeToLive)
+	{
+		if (Objects.requireNonNull(timeToLive, "timeToLive is null").isNegative())
+		{
+			throw new IllegalArgumentException("timeToLive is negative: " + timeToLive);
+		}
+		this.timeToLiveNanos = timeToLive.toNanos();
+		if (timeToLiveNanos == 0)
+		{
+			expiryTimes.clear();
+		}
+	}
+
+	synchronized Duration getTimeToLive()
+	{
+		return Duration.ofNanos(timeToLiveNanos);
+	}
+
+	synchronized int size()
+	{
+		return expiryTimes.size();
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	synchronized void invalidate()
+	{
+		expiryTimes.clear();
+	}
+
+	/**
+	 * Removes all entries of the given module.
+	 *
+	 * @param module the module
+	 */
+	synchronized void invalidate(Module module)
+	{
+		expiryTimes.keySet().removeIf(key -> getModule(key).isKeyOf(module));
+	}
+}
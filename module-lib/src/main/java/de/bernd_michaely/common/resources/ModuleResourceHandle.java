@@ -0,0 +1,196 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Optional;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Handle to a resolved binary resource, which is injected into
+ * {@link BinaryResourceStream} and {@link BinaryResourceChannel} fields and
+ * backs {@link ModuleResourceRange}. If the resource is stored as a regular
+ * file, it is opened directly, otherwise through its module. Instances are
+ * immutable, apart from the lazily determined size.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class ModuleResourceHandle implements BinaryResourceStream, BinaryResourceChannel
+{
+	private final Module module;
+	private final String binaryPath;
+	private final @Nullable Path file;
+	private final @Nullable EncodedVariants encodedVariants;
+	private volatile long streamSize = -1;
+
+	/**
+	 * Creates a new handle.
+	 *
+	 * @param module     the module containing the resource
+	 * @param binaryPath the absolute path of the resource within its module
+	 * @param file       the regular file containing the resource or null
+	 */
+	ModuleResourceHandle(Module module, String binaryPath, @Nullable Path file)
+	{
+		this(module, binaryPath, file, null);
+	}
+
+	/**
+	 * Creates a new handle.
+	 *
+	 * @param module          the module containing the resource
+	 * @param binaryPath      the absolute path of the resource within its
+	 *                        module
+	 * @param file            the regular file containing the resource or null
+	 * @param encodedVariants the manifest entry of the resource or null
+	 */
+	ModuleResourceHandle(Module module, String binaryPath, @Nullable Path file,
+		@Nullable EncodedVariants encodedVariants)
+	{
+		this.module = module;
+		this.binaryPath = binaryPath;
+		this.file = file;
+		this.encodedVariants = encodedVariants;
+	}
+
+	/**
+	 * Returns the regular file containing the resource.
+	 *
+	 * @return the file or null, if the resource is not stored as a regular file
+	 */
+	@Nullable
+	Path getFile()
+	{
+		return file;
+	}
+
+	/**
+	 * Returns the size of the resource. If the resource is not stored as a
+	 * regular file, it is read once to determine the size.
+	 *
+	 * @return the size in bytes
+	 * @throws IOException if the resource can not be opened
+	 */
+	long size() throws IOException
+	{
+		if (file != null)
+		{
+			return Files.size(file);
+		}
+		long size = streamSize;
+		if (size < 0)
+		{
+			try (InputStream inputStream = openStream())
+			{
+				size = inputStream.transferTo(OutputStream.nullOutputStream());
+			}
+			streamSize = size;
+		}
+		return size;
+	}
+
+	@Override
+	public InputStream openStream() throws IOException
+	{
+		if (file != null)
+		{
+			return Files.newInputStream(file);
+		}
+		final InputStream inputStream = module.getResourceAsStream(binaryPath);
+		if (inputStream == null)
+		{
+			throw new NoSuchFileException(binaryPath);
+		}
+		return inputStream;
+	}
+
+	@Override
+	public ReadableByteChannel openChannel() throws IOException
+	{
+		return (file != null) ? FileChannel.open(file, StandardOpenOption.READ) :
+			Channels.newChannel(openStream());
+	}
+
+	/**
+	 * Transfers the resource through {@link #openChannel()}, so that a regular
+	 * file is transferred by {@link FileChannel#transferTo}.
+	 */
+	@Override
+	public long transferTo(WritableByteChannel target) throws IOException
+	{
+		return BinaryResourceChannel.super.transferTo(target);
+	}
+
+	@Override
+	public long transferTo(OutputStream target) throws IOException
+	{
+		return BinaryResourceStream.super.transferTo(target);
+	}
+
+	private Optional<ModuleResourceHandle> getEncodedHandle(ContentEncoding contentEncoding)
+	{
+		return Optional.ofNullable(
+			(encodedVariants != null) ? encodedVariants.getHandle(contentEncoding) : null);
+	}
+
+	@Override
+	public Optional<BinaryResourceChannel> getEncodedChannel(ContentEncoding contentEncoding)
+	{
+		return getEncodedHandle(contentEncoding).map(BinaryResourceChannel.class::cast);
+	}
+
+	@Override
+	public Optional<BinaryResourceStream> getEncodedStream(ContentEncoding contentEncoding)
+	{
+		return getEncodedHandle(contentEncoding).map(BinaryResourceStream.class::cast);
+	}
+
+	@Override
+	public Optional<String> getContentHash()
+	{
+		return Optional.ofNullable((encodedVariants != null) ? encodedVariants.getContentHash() : null);
+	}
+
+	@Override
+	public boolean equals(@Nullable Object object)
+	{
+		return object instanceof ModuleResourceHandle other &&
+			module.equals(other.module) && binaryPath.equals(other.binaryPath);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Objects.hash(module, binaryPath);
+	}
+
+	@Override
+	public String toString()
+	{
+		return module + ":" + binaryPath;
+	}
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Byte range of a resolved binary resource, which is injected into
+ * {@link BinaryResourceRange} fields. Instances are immutable.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class ModuleResourceRange implements BinaryResourceRange
+{
+	/**
+	 * Size of the temporary array used to read into direct buffers from a
+	 * stream.
+	 */
+	private static final int COPY_BUFFER_SIZE = 8192;
+	private final ModuleResourceHandle handle;
+	private final long start;
+	private final long length;
+
+	/**
+	 * Creates a new instance covering the whole resource.
+	 *
+	 * @param handle the handle to the resource
+	 */
+	ModuleResourceRange(ModuleResourceHandle handle)
+	{
+		this(handle, 0, Long.MAX_VALUE);
+	}
+
+	private ModuleResourceRange(ModuleResourceHandle handle, long start, long length)
+	{
+		this.handle = handle;
+		this.start = start;
+		this.length = length;
+	}
+
+	@Override
+	public long size() throws IOException
+	{
+		return Math.min(length, Math.max(0, handle.size() - start));
+	}
+
+	@Override
+	public int read(long offset, ByteBuffer dst) throws IOException
+	{
+		if (offset < 0)
+		{
+			throw new IllegalArgumentException("Negative offset " + offset);
+		}
+		if (offset >= length)
+		{
+			return -1;
+		}
+		final int count = (int) Math.min(dst.remaining(), length - offset);
+		if (count == 0)
+		{
+			return 0;
+		}
+		final int limit = dst.limit();
+		dst.limit(dst.position() + count);
+		try
+		{
+			final Path file = handle.getFile();
+			return (file != null) ? readFile(file, start + offset, dst) :
+				readStream(start + offset, dst);
+		}
+		finally
+		{
+			dst.limit(limit);
+		}
+	}
+
+	private static int readFile(Path file, long position, ByteBuffer dst) throws IOException
+	{
+		try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			int total = 0;
+			while (dst.hasRemaining())
+			{
+				final int n = fileChannel.read(dst, position + total);
+				if (n < 0)
+				{
+					break;
+				}
+				total += n;
+			}
+			return (total > 0) ? total : -1;
+		}
+	}
+
+	private int readStream(long position, ByteBuffer dst) throws IOException
+	{
+		try (InputStream inputStream = handle.openStream())
+		{
+			try
+			{
+				inputStream.skipNBytes(position);
+			}
+			catch (EOFException ex)
+			{
+				return -1;
+			}
+			int total = 0;
+			if (dst.hasArray())
+			{
+				total = inputStream.readNBytes(dst.array(), dst.arrayOffset() + dst.position(),
+					dst.remaining());
+				dst.position(dst.position() + total);
+			}
+			else
+			{
+				final byte[] buffer = new byte[Math.min(dst.remaining(), COPY_BUFFER_SIZE)];
+				while (dst.hasRemaining())
+				{
+					final int n = inputStream.read(buffer, 0, Math.min(dst.remaining(), buffer.length));
+					if (n < 0)
+					{
+						break;
+					}
+					dst.put(buffer, 0, n);
+					total += n;
+				}
+			}
+			return (total > 0) ? total : -1;
+		}
+	}
+
+	@Override
+	public BinaryResourceRange slice(long offset, long length)
+	{
+		if (offset < 0 || length < 0)
+		{
+			throw new IllegalArgumentException(
+				"Invalid slice offset " + offset + " and length " + length);
+		}
+		final long sliceOffset = Math.min(offset, this.length);
+		return new ModuleResourceRange(handle, start + sliceOffset,
+			Math.min(length, this.length - sliceOffset));
+	}
+
+	@Override
+	public boolean equals(@Nullable Object object)
+	{
+		return object instanceof ModuleResourceRange other && handle.equals(other.handle) &&
+			start == other.start && length == other.length;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Objects.hash(handle, start, length);
+	}
+
+	@Override
+	public String toString()
+	{
+		return handle + "[" + start + "+" + ((length == Long.MAX_VALUE) ? "*" : length) + "]";
+	}
+}
@@ -15,6 +15,12 @@
  */
 package de.bernd_michaely.common.resources;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -27,12 +33,42 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  * Object to wrap an (optional) byte array. Similar to the Optional type, but
  * mutable, so it is suitable to be installed final in a constructor and having
  * a binary resource injected at runtime.
+ * <p>
+ * If injected with a lazy {@link BinaryLoading} strategy, the object holds
+ * just a locator of the resource, which is loaded on first access to the
+ * data, e.g. by {@link #get()}, {@link #isPresent()} or
+ * {@link #ifPresent(Consumer)}. Depending on the strategy, the data may be
+ * dropped later and is then transparently loaded again.
+ * </p>
+ * <p>
+ * If injected with {@link BinaryLoading#MAPPED}, the data may be a memory
+ * mapped file, which is accessible without copying by
+ * {@link #getByteBuffer()}. In this case, {@link #get()} and the methods
+ * passing the data as a byte array, i.e. {@link #ifPresent(Consumer)},
+ * {@link #ifPresentOrElse(Consumer, Runnable)}, {@link #stream()} and
+ * {@link #streamOptional()}, copy the data onto the heap on each call, while
+ * {@link #isPresent()}, {@link #isEmpty()}, {@link #equals(Object)} and
+ * {@link #hashCode()} do not access the data at all. Like byte arrays, mapped
+ * files are compared by identity.
+ * </p>
+ * <p>
+ * To serve the data, e.g. over the network, {@link #transferTo(WritableByteChannel)}
+ * and {@link #transferTo(OutputStream)} write it without intermediate byte
+ * arrays.
+ * </p>
+ * <p>
+ * Injected byte arrays are private copies of the data shared process wide by
+ * the binary resource cache, so modifying them affects this object only. To
+ * share the data without copying, use a {@link BinaryResourceBuffer} field.
+ * </p>
  *
  * @author Bernd Michaely (info@bernd-michaely.de)
  */
 public class OptionalBinaryObject
 {
 	private Optional<byte[]> optionalData;
+	private @Nullable LazyBinary lazyData;
+	private @Nullable MappedByteBuffer mappedData;
 
 	public OptionalBinaryObject()
 	{
@@ -44,12 +80,61 @@ public class OptionalBinaryObject
 		set(data);
 	}
 
+	OptionalBinaryObject(LazyBinary lazyData)
+	{
+		this.optionalData = Optional.empty();
+		this.lazyData = lazyData;
+	}
+
+	OptionalBinaryObject(MappedByteBuffer mappedData)
+	{
+		this.optionalData = Optional.empty();
+		this.mappedData = mappedData;
+	}
+
+	/**
+	 * Returns the data, which is loaded in lazy mode or copied from a mapped
+	 * file, if necessary.
+	 */
+	private Optional<byte[]> getOptional()
+	{
+		final LazyBinary lazy = lazyData;
+		final MappedByteBuffer mapped = mappedData;
+		if (lazy != null)
+		{
+			return lazy.get();
+		}
+		else if (mapped != null)
+		{
+			return Optional.of(copy(mapped));
+		}
+		else
+		{
+			return optionalData;
+		}
+	}
+
+	private static byte[] copy(MappedByteBuffer mapped)
+	{
+		final byte[] data = new byte[mapped.capacity()];
+		mapped.get(0, data);
+		return data;
+	}
+
 	@Override
 	public boolean equals(@Nullable Object object)
 	{
-		if (object instanceof OptionalBinaryObject other)
+		if (object == this)
+		{
+			return true;
+		}
+		else if (object instanceof OptionalBinaryObject other)
 		{
-			return Objects.equals(this.optionalData, other.optionalData);
+			final MappedByteBuffer mapped = this.mappedData;
+			final MappedByteBuffer otherMapped = other.mappedData;
+			// mapped files are compared by identity like byte arrays:
+			return (mapped != null || otherMapped != null) ? mapped == otherMapped :
+				Objects.equals(this.getOptional(), other.getOptional());
 		}
 		else
 		{
@@ -60,12 +145,78 @@ public class OptionalBinaryObject
 	@Override
 	public int hashCode()
 	{
-		return Objects.hashCode(this.optionalData);
+		final MappedByteBuffer mapped = mappedData;
+		return (mapped != null) ? System.identityHashCode(mapped) : Objects.hashCode(getOptional());
 	}
 
+	/**
+	 * Returns the data. A memory mapped file is copied onto the heap on each
+	 * call, use {@link #getByteBuffer()} to access it without copying.
+	 *
+	 * @return the data
+	 * @throws NoSuchElementException if there is no data
+	 */
 	public byte[] get()
 	{
-		return optionalData.get();
+		return getOptional().get();
+	}
+
+	/**
+	 * Writes the data to the given channel, which must be in blocking mode.
+	 * Memory mapped data is written directly, heap data through a pooled
+	 * direct buffer.
+	 *
+	 * @param target the target channel
+	 * @return the number of bytes written
+	 * @throws IOException            if an I/O error occurs
+	 * @throws NoSuchElementException if there is no data
+	 */
+	public long transferTo(WritableByteChannel target) throws IOException
+	{
+		final MappedByteBuffer mapped = mappedData;
+		return BinaryTransfer.transfer((mapped != null) ? mapped : ByteBuffer.wrap(get()), target);
+	}
+
+	/**
+	 * Writes the data to the given stream. Heap data is written without
+	 * copying.
+	 *
+	 * @param target the target stream
+	 * @return the number of bytes written
+	 * @throws IOException            if an I/O error occurs
+	 * @throws NoSuchElementException if there is no data
+	 */
+	public long transferTo(OutputStream target) throws IOException
+	{
+		final MappedByteBuffer mapped = mappedData;
+		return BinaryTransfer.transfer((mapped != null) ? mapped : ByteBuffer.wrap(get()), target);
+	}
+
+	/**
+	 * Returns a read-only view of the data. If the data is a memory mapped
+	 * file, the result is a {@link MappedByteBuffer}, otherwise a buffer
+	 * wrapping the byte array. Each call returns a new buffer with position
+	 * zero, so buffers may be used concurrently.
+	 *
+	 * @return a read-only view of the data or an empty Optional, if there is
+	 *         no data
+	 */
+	public Optional<ByteBuffer> getByteBuffer()
+	{
+		final MappedByteBuffer mapped = mappedData;
+		return (mapped != null) ? Optional.of(mapped.duplicate()) :
+			getOptional().map(data -> ByteBuffer.wrap(data).asReadOnlyBuffer());
+	}
+
+	/**
+	 * Returns true, if the data is a memory mapped file.
+	 *
+	 * @return true, if the data is a memory mapped file
+	 * @see BinaryLoading#MAPPED
+	 */
+	public boolean isMapped()
+	{
+		return mappedData != null;
 	}
 
 	@EnsuresNonNull("optionalData")
@@ -73,53 +224,99 @@ public class OptionalBinaryObject
 		byte[] data)
 	{
 		this.optionalData = data != null ? Optional.of(data) : Optional.empty();
+		this.lazyData = null;
+		this.mappedData = null;
 	}
 
 	public void set(Optional<byte[]> data)
 	{
 		this.optionalData = data != null ? data : Optional.empty();
+		this.lazyData = null;
+		this.mappedData = null;
+	}
+
+	/**
+	 * Sets a lazily loaded resource.
+	 *
+	 * @param lazyData the lazily loaded resource
+	 */
+	void setLazy(LazyBinary lazyData)
+	{
+		this.optionalData = Optional.empty();
+		this.lazyData = lazyData;
+		this.mappedData = null;
+	}
+
+	/**
+	 * Sets a memory mapped file.
+	 *
+	 * @param mappedData the read-only mapped file
+	 */
+	void setMapped(MappedByteBuffer mappedData)
+	{
+		this.optionalData = Optional.empty();
+		this.lazyData = null;
+		this.mappedData = mappedData;
 	}
 
 	public boolean isEmpty()
 	{
-		return optionalData.isEmpty();
+		// a mapped file is always present:
+		return mappedData == null && getOptional().isEmpty();
 	}
 
 	public boolean isPresent()
 	{
-		return optionalData.isPresent();
+		// a mapped file is always present:
+		return mappedData != null || getOptional().isPresent();
 	}
 
+	/**
+	 * Passes the data to the given consumer, if present. A memory mapped file
+	 * is copied onto the heap.
+	 *
+	 * @param consumer the consumer of the data
+	 */
 	public void ifPresent(Consumer<byte[]> consumer)
 	{
-		final byte[] value = get();
-		if (value != null)
-		{
-			consumer.accept(value);
-		}
+		getOptional().ifPresent(consumer);
 	}
 
+	/**
+	 * Passes the data to the given consumer, if present, otherwise runs the
+	 * given action. A memory mapped file is copied onto the heap.
+	 *
+	 * @param consumer    the consumer of the data
+	 * @param emptyAction the action to run, if there is no data
+	 */
 	public void ifPresentOrElse(Consumer<byte[]> consumer, Runnable emptyAction)
 	{
-		final byte[] value = get();
-		if (value != null)
-		{
-			consumer.accept(value);
-		}
-		else
-		{
-			emptyAction.run();
-		}
+		getOptional().ifPresentOrElse(consumer, emptyAction);
 	}
 
+	/**
+	 * Returns a stream of the optional data. A memory mapped file is copied
+	 * onto the heap, when the element is consumed.
+	 *
+	 * @return a stream of one element
+	 */
 	public Stream<Optional<byte[]>> streamOptional()
 	{
-		return Stream.of(optionalData);
+		final MappedByteBuffer mapped = mappedData;
+		return (mapped != null) ? Stream.of(mapped).map(m -> Optional.of(copy(m))) :
+			Stream.of(getOptional());
 	}
 
+	/**
+	 * Returns a stream of the data, if present. A memory mapped file is copied
+	 * onto the heap, when the element is consumed.
+	 *
+	 * @return a stream of at most one element
+	 */
 	public Stream<byte[]> stream()
 	{
-		final byte[] value = get();
-		return value != null ? Stream.of(value) : Stream.empty();
+		final MappedByteBuffer mapped = mappedData;
+		return (mapped != null) ? Stream.of(mapped).map(OptionalBinaryObject::copy) :
+			getOptional().stream();
 	}
 }
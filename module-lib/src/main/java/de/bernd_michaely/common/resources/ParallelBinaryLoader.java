@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Reads a set of binary resources concurrently. The reads are performed by
+ * at most {@code maxConcurrency} workers, one of which is the calling thread,
+ * pulling resources from a shared list, so that no worker blocks on a limit.
+ * The calling thread returns, when all reads are complete.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see ResourceInjector#withParallelBinaryLoading(int)
+ */
+final class ParallelBinaryLoader
+{
+	private static final Logger LOGGER = System.getLogger(ParallelBinaryLoader.class.getName());
+
+	private ParallelBinaryLoader()
+	{
+	}
+
+	/**
+	 * Reads the given resources concurrently. If the executor rejects a
+	 * worker, the remaining workers read its share.
+	 *
+	 * @param <K>            the type of the resource keys
+	 * @param keys           the keys of the resources to read
+	 * @param reader         the reader of a single resource
+	 * @param executor       the executor or null for the
+	 *                       {@link LoaderThreads#getExecutor() default executor}
+	 * @param maxConcurrency the maximum number of concurrent reads
+	 * @return a map of the existing resources
+	 */
+	static <K> Map<K, ByteBuffer> load(Collection<K> keys, Function<K, Optional<ByteBuffer>> reader,
+		@Nullable Executor executor, int maxConcurrency)
+	{
+		final List<K> list = List.copyOf(keys);
+		final Map<K, ByteBuffer> result = new ConcurrentHashMap<>();
+		final AtomicInteger next = new AtomicInteger();
+		final Runnable worker = () ->
+		{
+			int i;
+			while ((i = next.getAndIncrement()) < list.size())
+			{
+				final K key = list.get(i);
+				try
+				{
+					reader.apply(key).ifPresent(buffer -> result.put(key, buffer));
+				}
+				catch (RuntimeException ex)
+				{
+					LOGGER.log(Level.WARNING, "Error reading binary resource »" + key + "«", ex);
+				}
+			}
+		};
+		final Executor workerExecutor = (executor != null) ? executor : LoaderThreads.getExecutor();
+		final int numWorkers = Math.min(maxConcurrency, list.size());
+		final CompletableFuture<?>[] futures = new CompletableFuture<?>[Math.max(numWorkers - 1, 0)];
+		for (int i = 0; i < futures.length; i++)
+		{
+			try
+			{
+				futures[i] = CompletableFuture.runAsync(worker, workerExecutor);
+			}
+			catch (RejectedExecutionException ex)
+			{
+				futures[i] = CompletableFuture.completedFuture(null);
+			}
+		}
+		worker.run();
+		CompletableFuture.allOf(futures).join();
+		return result;
+	}
+}
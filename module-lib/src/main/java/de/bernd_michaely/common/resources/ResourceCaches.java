@@ -0,0 +1,275 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Configuration of the caches shared by all {@link ResourceInjector}
+ * instances.
+ *
+ * <h2>Missing resources</h2>
+ * Resource bundles and binary resource files, which could not be found, are
+ * remembered for a {@link #setMissingResourcesTimeToLive(Duration) time to live}
+ * (5 minutes by default), so repeated injections, e.g. on a locale switch
+ * with sparse translations, do not repeat the search. The number of
+ * remembered resources is bounded. If resources are added at runtime, the
+ * cache may be {@link #invalidateMissingResources() invalidated} explicitly.
+ *
+ * <h2>Lazy binary resources</h2>
+ * Binary resources injected with {@link BinaryLoading#LAZY_BUDGET} are
+ * retained after loading as long as their total size stays within a
+ * {@link #setLazyBinaryBudget(long) budget} (16 MiB by default).
+ *
+ * <h2>Binary resources</h2>
+ * Eagerly loaded binary resources and the data of enum byte array maps are
+ * shared process wide, so that all injections of the same file use the same
+ * storage. The cache is bounded by a {@link #setBinaryCacheMaxWeight(long)
+ * maximum weight} (32 MiB by default) in bytes. It admits new entries based on
+ * their access frequency (W-TinyLFU), so that a scan over rarely used
+ * resources does not flush frequently used ones. Additionally, payloads with
+ * identical content, e.g. the same icon under different names, are
+ * deduplicated by a content hash, see
+ * {@link ResourceHolder#getDeduplicatedBytes()}. The shared data is exposed
+ * by read-only views only, OptionalBinaryObjects receive private copies.
+ * Lazily loaded OptionalBinaryObjects bypass the cache.
+ *
+ * <h2>Resource packs</h2>
+ * If the annotation processor is run with the option
+ * {@code packBinaryResources=true}, it additionally packs the binary
+ * resources of each package into a single file, from which they are read
+ * with one resource lookup instead of one per file, if enabled by
+ * {@link ResourceInjector#withResourcePacks(boolean)}. Packs are not checked
+ * for staleness, so they must be rebuilt whenever the resources change. The
+ * packs and the absence of packs are remembered until the binary resources
+ * are {@link #invalidateBinaryResources() invalidated}.
+ *
+ * <h2>Precompressed resources</h2>
+ * With the option {@code precompressBinaryResources=true}, the annotation
+ * processor stores gzip and deflate variants next to the binary resources
+ * together with a manifest of their sizes and SHA-256 digests. The variants
+ * are provided by {@link BinaryResourceBuffer#getEncodedBuffer(ContentEncoding)},
+ * {@link BinaryResourceChannel#getEncodedChannel(ContentEncoding)} and
+ * {@link BinaryResourceStream#getEncodedStream(ContentEncoding)}, so serving
+ * them requires no compression at runtime. Manifest entries of buffers whose
+ * size or digest differs from the resource are ignored, as are entries of
+ * streams and channels whose size differs. Manifests are remembered like
+ * resource packs.
+ *
+ * <h2>Decoded objects</h2>
+ * Objects decoded from binary resources for {@link DecodedBinaryObject}
+ * fields are shared process wide per decoder and payload, so that e.g. an
+ * image is decoded once for all locales and holder instances. The cache is
+ * bounded by a {@link #setDecodedCacheMaxWeight(long) maximum weight} (64 MiB
+ * by default) in bytes as estimated by
+ * {@link BinaryDecoder#getWeight(Object, int)} and uses the same admission
+ * policy as the binary resource cache. Invalidating the binary resources
+ * invalidates the decoded objects, too.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @see InjectionStatistics
+ */
+public final class ResourceCaches
+{
+	private ResourceCaches()
+	{
+	}
+
+	/**
+	 * Forgets all missing resources, so that they are searched again on next
+	 * use.
+	 */
+	public static void invalidateMissingResources()
+	{
+		MissingResourceCache.getInstance().invalidate();
+	}
+
+	/**
+	 * Forgets all missing resources of the given module.
+	 *
+	 * @param module the module containing the resources
+	 * @throws NullPointerException if module is null
+	 */
+	public static void invalidateMissingResources(Module module)
+	{
+		MissingResourceCache.getInstance().invalidate(
+			Objects.requireNonNull(module, "module is null"));
+	}
+
+	/**
+	 * Sets the time to live of remembered missing resources. A duration of
+	 * zero disables the remembering of missing resources.
+	 *
+	 * @param timeToLive the time to live
+	 * @throws NullPointerException     if timeToLive is null
+	 * @throws IllegalArgumentException if timeToLive is negative
+	 */
+	public static void setMissingResourcesTimeToLive(Duration timeToLive)
+	{
+		MissingResourceCache.getInstance().setTimeToLive(timeToLive);
+	}
+
+	/**
+	 * Returns the time to live of remembered missing resources.
+	 *
+	 * @return the time to live of remembered missing resources
+	 */
+	public static Duration getMissingResourcesTimeToLive()
+	{
+		return MissingResourceCache.getInstance().getTimeToLive();
+	}
+
+	/**
+	 * Returns the number of currently remembered missing resources.
+	 *
+	 * @return the number of currently remembered missing resources
+	 */
+	public static int getMissingResourcesCount()
+	{
+		return MissingResourceCache.getInstance().size();
+	}
+
+	/**
+	 * Sets the budget of binary resource data retained by OptionalBinaryObjects
+	 * injected with {@link BinaryLoading#LAZY_BUDGET}. If the budget is
+	 * exceeded, the data of the least recently used resources is dropped. A
+	 * budget of zero disables the retention.
+	 *
+	 * @param bytes the budget in bytes
+	 * @throws IllegalArgumentException if bytes is negative
+	 */
+	public static void setLazyBinaryBudget(long bytes)
+	{
+		LazyBinary.setBudget(bytes);
+	}
+
+	/**
+	 * Returns the budget of retained lazy binary resource data.
+	 *
+	 * @return the budget in bytes
+	 */
+	public static long getLazyBinaryBudget()
+	{
+		return LazyBinary.getBudget();
+	}
+
+	/**
+	 * Returns the size of the lazy binary resource data currently retained
+	 * within the budget. Data of collected instances is released with the next
+	 * eviction.
+	 *
+	 * @return the retained size in bytes
+	 */
+	public static long getLazyBinaryRetainedBytes()
+	{
+		return LazyBinary.getRetainedBytes();
+	}
+
+	/**
+	 * Sets the maximum weight of the shared binary resource cache. Entries are
+	 * evicted until the cache fits. A maximum weight of zero disables the
+	 * cache.
+	 *
+	 * @param bytes the maximum weight in bytes
+	 * @throws IllegalArgumentException if bytes is negative
+	 */
+	public static void setBinaryCacheMaxWeight(long bytes)
+	{
+		BinaryResourceCache.getInstance().setMaxWeight(bytes);
+	}
+
+	/**
+	 * Returns the maximum weight of the shared binary resource cache.
+	 *
+	 * @return the maximum weight in bytes
+	 */
+	public static long getBinaryCacheMaxWeight()
+	{
+		return BinaryResourceCache.getInstance().getMaxWeight();
+	}
+
+	/**
+	 * Returns the current weight of the shared binary resource cache.
+	 *
+	 * @return the current weight in bytes
+	 */
+	public static long getBinaryCacheWeight()
+	{
+		return BinaryResourceCache.getInstance().getWeight();
+	}
+
+	/**
+	 * Sets the maximum weight of the shared decoded object cache. Entries are
+	 * evicted until the cache fits. A maximum weight of zero disables the
+	 * cache, so that resources are decoded on each injection.
+	 *
+	 * @param bytes the maximum weight in bytes
+	 * @throws IllegalArgumentException if bytes is negative
+	 */
+	public static void setDecodedCacheMaxWeight(long bytes)
+	{
+		DecodedObjects.getCache().setMaxWeight(bytes);
+	}
+
+	/**
+	 * Returns the maximum weight of the shared decoded object cache.
+	 *
+	 * @return the maximum weight in bytes
+	 */
+	public static long getDecodedCacheMaxWeight()
+	{
+		return DecodedObjects.getCache().getMaxWeight();
+	}
+
+	/**
+	 * Returns the current weight of the shared decoded object cache.
+	 *
+	 * @return the current weight in bytes
+	 */
+	public static long getDecodedCacheWeight()
+	{
+		return DecodedObjects.getCache().getWeight();
+	}
+
+	/**
+	 * Removes all entries from the shared binary resource and decoded object
+	 * caches and forgets all resource packs and manifests.
+	 */
+	public static void invalidateBinaryResources()
+	{
+		BinaryResourceCache.getInstance().invalidate();
+		DecodedObjects.getCache().invalidate();
+		ResourcePack.invalidate();
+		BinaryManifest.invalidate();
+	}
+
+	/**
+	 * Removes all entries of the given module from the shared binary resource
+	 * and decoded object caches and forgets its resource packs and manifests.
+	 *
+	 * @param module the module containing the resources
+	 * @throws NullPointerException if module is null
+	 */
+	public static void invalidateBinaryResources(Module module)
+	{
+		BinaryResourceCache.getInstance().invalidate(
+			Objects.requireNonNull(module, "module is null"));
+		DecodedObjects.getCache().invalidate(module);
+		ResourcePack.invalidate(module);
+		BinaryManifest.invalidate(module);
+	}
+}
@@ -31,6 +31,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 public abstract class ResourceHolder
 {
 	private @MonotonicNonNull Locale locale;
+	private long deduplicatedBytes;
 
 	/**
 	 * Package local setter. Used by {@link ResourceInjector}.
@@ -52,4 +53,29 @@ public abstract class ResourceHolder
 	{
 		return locale;
 	}
+
+	/**
+	 * Package local setter. Used by {@link ResourceInjector}.
+	 *
+	 * @param deduplicatedBytes the deduplicated size of the last injection
+	 */
+	void setDeduplicatedBytes(long deduplicatedBytes)
+	{
+		this.deduplicatedBytes = deduplicatedBytes;
+	}
+
+	/**
+	 * Returns the total size of the binary resources injected into this holder
+	 * and its nested types by the last injection, which share their storage
+	 * with other resources of identical content, e.g. the same icon under
+	 * different keys or enum constants. Data loaded lazily after the injection
+	 * is not included.
+	 *
+	 * @return the deduplicated size in bytes
+	 * @see InjectionStatistics#getDeduplicatedBytes()
+	 */
+	public long getDeduplicatedBytes()
+	{
+		return deduplicatedBytes;
+	}
 }
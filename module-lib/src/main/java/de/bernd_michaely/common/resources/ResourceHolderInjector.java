@@ -0,0 +1,68 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Injector for a single ResourceHolder class, which is generated by the
+ * annotation processor and assigns all resources with plain Java code. The
+ * generated class is named by appending
+ * {@link SharedConstants#SUFFIX_GENERATED_INJECTOR} to the binary name of the
+ * ResourceHolder class and is registered in
+ * <code>META-INF/services</code>. In named modules, which do not declare the
+ * generated injectors with a <code>provides</code> clause, the injectors are
+ * found by their name instead, which requires the package to be exported or
+ * opened to this library (as for reflective injection).
+ * <p>
+ * The {@link ResourceInjector} uses a generated injector instead of reflection
+ * whenever one is present.
+ * </p>
+ * <p>
+ * <strong>Note:</strong> This interface is intended to be implemented by
+ * generated code only.
+ * </p>
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ * @param <R> the type of the ResourceHolder
+ * @see ResourceInjector#withGeneratedInjectors(boolean)
+ */
+public interface ResourceHolderInjector<R extends ResourceHolder>
+{
+	/**
+	 * Returns the ResourceHolder class handled by this injector.
+	 *
+	 * @return the ResourceHolder class
+	 */
+	Class<R> getType();
+
+	/**
+	 * Creates a new instance of the ResourceHolder class.
+	 *
+	 * @return a new instance or null, if the class has no public no-arg
+	 *         constructor
+	 */
+	@Nullable
+	R newInstance();
+
+	/**
+	 * Injects the resources into the given ResourceHolder.
+	 *
+	 * @param resourceHolder the ResourceHolder
+	 * @param context        the context providing the resources
+	 */
+	void inject(R resourceHolder, InjectionContext context);
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Registry of the {@link ResourceHolderInjector}s generated by the annotation
+ * processor. Injectors are looked up once per ResourceHolder class, first
+ * among the service providers, then by their class name.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class ResourceHolderInjectors implements SharedConstants
+{
+	private static final Logger LOGGER = System.getLogger(ResourceHolderInjectors.class.getName());
+	private static final ClassValue<Optional<Binding>> BINDINGS = new ClassValue<>()
+	{
+		@Override
+		protected Optional<Binding> computeValue(Class<?> type)
+		{
+			final ResourceHolderInjector<?> injector = findInjector(type);
+			return (injector != null) ?
+				Optional.of(new Binding(injector, ResourceLocation.of(injector.getType()))) :
+				Optional.empty();
+		}
+	};
+	private static @MonotonicNonNull Map<Class<?>, ResourceHolderInjector<?>> serviceProviders;
+
+	/**
+	 * A generated injector together with the resolved resource location of its
+	 * ResourceHolder class.
+	 *
+	 * @param injector         the generated injector
+	 * @param resourceLocation the resource location
+	 */
+	record Binding(ResourceHolderInjector<?> injector, ResourceLocation resourceLocation)
+	{
+	}
+
+	private ResourceHolderInjectors()
+	{
+	}
+
+	/**
+	 * Returns the generated injector for the given ResourceHolder class.
+	 *
+	 * @param resourceHolderClass the ResourceHolder class
+	 * @return the generated injector or null, if none is present
+	 */
+	static @Nullable
+	Binding get(Class<? extends ResourceHolder> resourceHolderClass)
+	{
+		return BINDINGS.get(resourceHolderClass).orElse(null);
+	}
+
+	private static synchronized Map<Class<?>, ResourceHolderInjector<?>> getServiceProviders()
+	{
+		if (serviceProviders == null)
+		{
+			final Map<Class<?>, ResourceHolderInjector<?>> map = new HashMap<>();
+			try
+			{
+				for (ResourceHolderInjector<?> injector : ServiceLoader.load(ResourceHolderInjector.class))
+				{
+					map.put(injector.getType(), injector);
+				}
+			}
+			catch (ServiceConfigurationError ex)
+			{
+				LOGGER.log(Level.WARNING, "Error loading generated ResourceHolderInjectors", ex);
+			}
+			serviceProviders = unmodifiableMap(map);
+		}
+		return serviceProviders;
+	}
+
+	private static @Nullable
+	ResourceHolderInjector<?> findInjector(Class<?> type)
+	{
+		final ResourceHolderInjector<?> serviceProvider = getServiceProviders().get(type);
+		if (serviceProvider != null)
+		{
+			return serviceProvider;
+		}
+		final String className = type.getName() + SUFFIX_GENERATED_INJECTOR;
+		try
+		{
+			final Class<?> injectorClass = Class.forName(type.getModule(), className);
+			if (injectorClass != null && ResourceHolderInjector.class.isAssignableFrom(injectorClass))
+			{
+				final var injector = (ResourceHolderInjector<?>) injectorClass.getConstructor().newInstance();
+				if (injector.getType() == type)
+				{
+					return injector;
+				}
+			}
+		}
+		catch (ReflectiveOperationException | RuntimeException | LinkageError ex)
+		{
+			LOGGER.log(Level.WARNING, "Error loading generated injector »" + className + "«", ex);
+		}
+		return null;
+	}
+}
@@ -15,486 +15,1590 @@
  */
 package de.bernd_michaely.common.resources;
 
+import de.bernd_michaely.common.resources.InjectionPlan.FieldPlan;
+import de.bernd_michaely.common.resources.ResourceHolderInjectors.Binding;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.MissingResourceException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
-import java.util.function.BiConsumer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import org.checkerframework.checker.nullness.qual.KeyFor;
-import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
-import static de.bernd_michaely.common.resources.SharedConstants.SEPARATOR_ENUM_KEY;
-import static java.util.Collections.unmodifiableMap;
-import static java.util.Objects.requireNonNullElse;
-
 /**
- * Class to perform runtime resource injection via reflection.
+ * Class to perform runtime resource injection via reflection or via
+ * {@link ResourceHolderInjector}s generated by the annotation processor.
+ * <p>
+ * ResourceInjector instances are immutable and thread safe. A single instance
+ * may be shared by any number of threads, which concurrently inject resources
+ * into the same or different ResourceHolder classes. The configuration is
+ * changed by creating new instances using the {@code with…} methods, which
+ * share all caches with this instance. The state of a single injection is
+ * confined to the calling thread and passed along explicitly.
+ * </p>
  *
  * @author Bernd Michaely (info@bernd-michaely.de)
  */
 public class ResourceInjector implements SharedConstants
 {
+	/**
+	 * The default minimum size of subtrees injected by fork/join tasks.
+	 *
+	 * @see #withForkJoinInjection(ForkJoinPool)
+	 */
+	public static final int DEFAULT_FORK_THRESHOLD = 64;
 	private static final Logger LOGGER = System.getLogger(ResourceInjector.class.getName());
 	private final Locale locale;
-	private @MonotonicNonNull ResourceParameters param;
+	private final Options options;
+
+	/**
+	 * Options of a ResourceInjector which are independent of the locale.
+	 *
+	 * @param injectionBackend    the technique used to write fields
+	 * @param generatedInjectors true, if generated injectors shall be used
+	 * @param directBuffers      true, if EnumByteArrayMaps shall use direct
+	 *                           buffers
+	 * @param binaryLoading      the loading strategy of OptionalBinaryObjects
+	 * @param decoders           the decoders of DecodedBinaryObjects by type
+	 * @param decodingExecutor   the executor of decodings or null to decode
+	 *                           during the injection
+	 * @param loadingConcurrency the maximum number of concurrent binary
+	 *                           resource reads, 1 for serial reads
+	 * @param loadingExecutor    the executor of parallel reads or null for the
+	 *                           default executor
+	 * @param forkJoinPool       the pool of fork/join injection or null for
+	 *                           serial injection
+	 * @param forkThreshold      the minimum size of subtrees injected by
+	 *                           fork/join tasks
+	 * @param resourcePacks      true, if binary resources shall be read from
+	 *                           resource packs
+	 */
+	private record Options(InjectionBackend injectionBackend, boolean generatedInjectors,
+		boolean directBuffers, BinaryLoading binaryLoading,
+		Map<Class<?>, BinaryDecoder<?>> decoders, @Nullable Executor decodingExecutor,
+		int loadingConcurrency, @Nullable Executor loadingExecutor,
+		@Nullable ForkJoinPool forkJoinPool, int forkThreshold, boolean resourcePacks)
+	{
+		private static final Options DEFAULT = new Options(InjectionBackend.REFLECTION, true, false,
+			BinaryLoading.EAGER, Map.of(), null, 1, null, null, DEFAULT_FORK_THRESHOLD, false);
+
+		private Options withInjectionBackend(InjectionBackend injectionBackend)
+		{
+			return new Options(injectionBackend, generatedInjectors, directBuffers, binaryLoading,
+				decoders, decodingExecutor, loadingConcurrency, loadingExecutor,
+				forkJoinPool, forkThreshold, resourcePacks);
+		}
+
+		private Options withGeneratedInjectors(boolean generatedInjectors)
+		{
+			return new Options(injectionBackend, generatedInjectors, directBuffers, binaryLoading,
+				decoders, decodingExecutor, loadingConcurrency, loadingExecutor,
+				forkJoinPool, forkThreshold, resourcePacks);
+		}
+
+		private Options withDirectBuffers(boolean directBuffers)
+		{
+			return new Options(injectionBackend, generatedInjectors, directBuffers, binaryLoading,
+				decoders, decodingExecutor, loadingConcurrency, loadingExecutor,
+				forkJoinPool, forkThreshold, resourcePacks);
+		}
+
+		private Options withBinaryLoading(BinaryLoading binaryLoading)
+		{
+			return new Options(injectionBackend, generatedInjectors, directBuffers, binaryLoading,
+				decoders, decodingExecutor, loadingConcurrency, loadingExecutor,
+				forkJoinPool, forkThreshold, resourcePacks);
+		}
+
+		private Options withDecoder(BinaryDecoder<?> decoder)
+		{
+			final Map<Class<?>, BinaryDecoder<?>> map = new HashMap<>(decoders);
+			map.put(decoder.getType(), decoder);
+			return new Options(injectionBackend, generatedInjectors, directBuffers, binaryLoading,
+				Map.copyOf(map), decodingExecutor, loadingConcurrency, loadingExecutor,
+				forkJoinPool, forkThreshold, resourcePacks);
+		}
+
+		private Options withDecodingExecutor(@Nullable Executor decodingExecutor)
+		{
+			return new Options(injectionBackend, generatedInjectors, directBuffers, binaryLoading,
+				decoders, decodingExecutor, loadingConcurrency, loadingExecutor,
+				forkJoinPool, forkThreshold, resourcePacks);
+		}
+
+		private Options withForkJoinInjection(@Nullable ForkJoinPool forkJoinPool, int forkThreshold)
+		{
+			return new Options(injectionBackend, generatedInjectors, directBuffers, binaryLoading,
+				decoders, decodingExecutor, loadingConcurrency, loadingExecutor,
+				forkJoinPool, forkThreshold, resourcePacks);
+		}
+
+		private Options withResourcePacks(boolean resourcePacks)
+		{
+			return new Options(injectionBackend, generatedInjectors, directBuffers, binaryLoading,
+				decoders, decodingExecutor, loadingConcurrency, loadingExecutor,
+				forkJoinPool, forkThreshold, resourcePacks);
+		}
+
+		private Options withParallelBinaryLoading(int loadingConcurrency,
+			@Nullable Executor loadingExecutor)
+		{
+			return new Options(injectionBackend, generatedInjectors, directBuffers, binaryLoading,
+				decoders, decodingExecutor, loadingConcurrency, loadingExecutor,
+				forkJoinPool, forkThreshold, resourcePacks);
+		}
+	}
+
+	/**
+	 * Same as {@link #ResourceInjector(Locale) ResourceInjector(null)}.
+	 */
+	public ResourceInjector()
+	{
+		this(null);
+	}
+
+	/**
+	 * Creates a new ResourceInjector instance.
+	 *
+	 * @param locale the locale of the resources to be injected, null will be
+	 *               treated as {@link Locale#ROOT}
+	 */
+	public ResourceInjector(@Nullable Locale locale)
+	{
+		this(locale, Options.DEFAULT);
+	}
+
+	private ResourceInjector(@Nullable Locale locale, Options options)
+	{
+		this.locale = Objects.requireNonNullElse(locale, Locale.ROOT);
+		this.options = options;
+	}
+
+	/**
+	 * Returns a ResourceInjector with the same options as this one, but for the
+	 * given locale.
+	 *
+	 * @param locale the locale of the resources to be injected, null will be
+	 *               treated as {@link Locale#ROOT}
+	 * @return a ResourceInjector for the given locale
+	 */
+	public ResourceInjector withLocale(@Nullable Locale locale)
+	{
+		return new ResourceInjector(locale, this.options);
+	}
+
+	/**
+	 * Returns a ResourceInjector with the same locale and options as this one,
+	 * but using the given backend to write fields and to instantiate nested
+	 * types. The default backend is {@link InjectionBackend#REFLECTION}.
+	 *
+	 * @param injectionBackend the injection backend
+	 * @return a ResourceInjector using the given backend
+	 * @throws NullPointerException if injectionBackend is null
+	 */
+	public ResourceInjector withInjectionBackend(InjectionBackend injectionBackend)
+	{
+		return new ResourceInjector(this.locale, options.withInjectionBackend(
+			Objects.requireNonNull(injectionBackend, "injectionBackend is null")));
+	}
+
+	/**
+	 * Returns the injection backend of this ResourceInjector.
+	 *
+	 * @return the injection backend
+	 * @see #withInjectionBackend(InjectionBackend)
+	 */
+	public InjectionBackend getInjectionBackend()
+	{
+		return options.injectionBackend();
+	}
+
+	/**
+	 * Returns a ResourceInjector with the same locale and options as this one,
+	 * but with the usage of {@link ResourceHolderInjector}s generated by the
+	 * annotation processor enabled or disabled. By default, a generated
+	 * injector is used instead of reflection whenever one is present.
+	 *
+	 * @param enabled true to use generated injectors, false to always use the
+	 *                {@link #getInjectionBackend() injection backend}
+	 * @return a ResourceInjector with the given setting
+	 */
+	public ResourceInjector withGeneratedInjectors(boolean enabled)
+	{
+		return new ResourceInjector(this.locale, options.withGeneratedInjectors(enabled));
+	}
+
+	/**
+	 * Returns true, if generated injectors are used.
+	 *
+	 * @return true, if generated injectors are used
+	 * @see #withGeneratedInjectors(boolean)
+	 */
+	public boolean isUsingGeneratedInjectors()
+	{
+		return options.generatedInjectors();
+	}
+
+	/**
+	 * Returns a ResourceInjector with the same locale and options as this one,
+	 * but storing the data of injected {@link EnumByteArrayMap}s in direct or
+	 * heap buffers. Direct buffers keep large binary resources out of the Java
+	 * heap. By default, heap buffers are used.
+	 *
+	 * @param enabled true to use direct buffers, false to use heap buffers
+	 * @return a ResourceInjector with the given setting
+	 */
+	public ResourceInjector withDirectBuffers(boolean enabled)
+	{
+		return new ResourceInjector(this.locale, options.withDirectBuffers(enabled));
+	}
+
+	/**
+	 * Returns true, if injected EnumByteArrayMaps use direct buffers.
+	 *
+	 * @return true, if direct buffers are used
+	 * @see #withDirectBuffers(boolean)
+	 */
+	public boolean isUsingDirectBuffers()
+	{
+		return options.directBuffers();
+	}
+
+	/**
+	 * Returns a ResourceInjector with the same locale and options as this one,
+	 * but loading the binary resources of {@link OptionalBinaryObject} fields
+	 * with the given strategy. The default strategy is
+	 * {@link BinaryLoading#EAGER}.
+	 *
+	 * @param binaryLoading the loading strategy
+	 * @return a ResourceInjector using the given strategy
+	 * @throws NullPointerException if binaryLoading is null
+	 */
+	public ResourceInjector withBinaryLoading(BinaryLoading binaryLoading)
+	{
+		return new ResourceInjector(this.locale, options.withBinaryLoading(
+			Objects.requireNonNull(binaryLoading, "binaryLoading is null")));
+	}
+
+	/**
+	 * Returns the loading strategy of binary resources.
+	 *
+	 * @return the loading strategy of binary resources
+	 * @see #withBinaryLoading(BinaryLoading)
+	 */
+	public BinaryLoading getBinaryLoading()
+	{
+		return options.binaryLoading();
+	}
+
+	/**
+	 * Returns a ResourceInjector with the same locale and options as this one,
+	 * but with reading binary resources from resource packs enabled or
+	 * disabled. Packs are generated by the annotation processor with the
+	 * option {@code packBinaryResources=true} and contain all binary
+	 * resources of a package, which are then read with one resource lookup
+	 * instead of one per file. By default, packs are not read.
+	 * <p>
+	 * <strong>Note:</strong> Packs are snapshots of the resources taken at
+	 * compile time and are not checked for staleness at runtime. If resources
+	 * change without the annotation processor being run again, e.g. by an
+	 * incremental build skipping the compilation, the packs must be rebuilt
+	 * by a clean build. Otherwise fields reading from packs, like
+	 * {@link OptionalBinaryObject}s and {@link BinaryResourceBuffer}s, provide
+	 * outdated data, while streaming fields read the current files. As the
+	 * loaded data is shared process wide by the binary resource cache, all
+	 * ResourceInjectors of a process should use the same setting.
+	 * </p>
+	 *
+	 * @param enabled true to read binary resources from resource packs
+	 * @return a ResourceInjector with the given setting
+	 * @see ResourceCaches
+	 */
+	public ResourceInjector withResourcePacks(boolean enabled)
+	{
+		return new ResourceInjector(this.locale, options.withResourcePacks(enabled));
+	}
+
+	/**
+	 * Returns true, if binary resources are read from resource packs.
+	 *
+	 * @return true, if binary resources are read from resource packs
+	 * @see #withResourcePacks(boolean)
+	 */
+	public boolean isReadingResourcePacks()
+	{
+		return options.resourcePacks();
+	}
+
+	/**
+	 * Returns a ResourceInjector with the same locale and options as this one,
+	 * but decoding {@link DecodedBinaryObject} fields of the decoder's type
+	 * with the given decoder instead of a built-in or service provider decoder.
+	 *
+	 * @param decoder the decoder
+	 * @return a ResourceInjector using the given decoder
+	 * @throws NullPointerException if decoder or its type is null
+	 * @see BinaryDecoder
+	 */
+	public ResourceInjector withDecoder(BinaryDecoder<?> decoder)
+	{
+		Objects.requireNonNull(decoder, "decoder is null");
+		Objects.requireNonNull(decoder.getType(), "decoder type is null");
+		return new ResourceInjector(this.locale, options.withDecoder(decoder));
+	}
+
+	/**
+	 * Returns the decoder used for {@link DecodedBinaryObject} fields of the
+	 * given type, i.e. a decoder given to {@link #withDecoder(BinaryDecoder)},
+	 * a service provider or a built-in decoder.
+	 *
+	 * @param <T>  the type of the decoded objects
+	 * @param type the type of the decoded objects
+	 * @return the decoder or null, if there is none for the given type
+	 */
+	@SuppressWarnings("unchecked")
+	public @Nullable
+	<T> BinaryDecoder<T> getDecoder(Class<T> type)
+	{
+		final BinaryDecoder<?> decoder = options.decoders().get(type);
+		return (BinaryDecoder<T>) (decoder != null ? decoder : BinaryDecoders.get(type));
+	}
+
+	/**
+	 * Returns a ResourceInjector with the same locale and options as this one,
+	 * but decoding {@link DecodedBinaryObject} fields on the given executor.
+	 * The injection then returns without waiting for the decodings. If the
+	 * executor rejects a decoding, it runs on the injecting thread. By default,
+	 * resources are decoded during the injection.
+	 *
+	 * @param executor the executor or null to decode during the injection
+	 * @return a ResourceInjector using the given executor
+	 */
+	public ResourceInjector withDecodingExecutor(@Nullable Executor executor)
+	{
+		return new ResourceInjector(this.locale, options.withDecodingExecutor(executor));
+	}
+
+	/**
+	 * Returns the executor of decodings.
+	 *
+	 * @return the executor or null, if resources are decoded during the
+	 *         injection
+	 * @see #withDecodingExecutor(Executor)
+	 */
+	public @Nullable
+	Executor getDecodingExecutor()
+	{
+		return options.decodingExecutor();
+	}
+
+	/**
+	 * Returns a ResourceInjector with the same locale and options as this one,
+	 * but reading the binary resources of an injection concurrently before
+	 * assigning the fields. This applies to eagerly loaded
+	 * {@link OptionalBinaryObject}s, {@link BinaryResourceBuffer}s,
+	 * {@link DecodedBinaryObject}s and {@link EnumByteArrayMap}s, which are not
+	 * cached yet, and mainly speeds up the first injection from slow storage,
+	 * e.g. network file systems or cold page caches. The injecting thread
+	 * takes part in the reads and the fields are assigned after all reads are
+	 * complete. By default, resources are read one after another.
+	 * <p>
+	 * The reads run on a shared executor, which uses virtual threads on Java
+	 * 21 and later, and a pool of daemon threads otherwise.
+	 * </p>
+	 *
+	 * @param maxConcurrency the maximum number of concurrent reads, 1 to read
+	 *                       resources one after another
+	 * @return a ResourceInjector with the given setting
+	 * @throws IllegalArgumentException if maxConcurrency is less than 1
+	 */
+	public ResourceInjector withParallelBinaryLoading(int maxConcurrency)
+	{
+		return withParallelBinaryLoading(maxConcurrency, null);
+	}
+
+	/**
+	 * Same as {@link #withParallelBinaryLoading(int)}, but running the reads
+	 * on the given executor. If the executor rejects a read, it is performed
+	 * by the other readers.
+	 *
+	 * @param maxConcurrency the maximum number of concurrent reads, 1 to read
+	 *                       resources one after another
+	 * @param executor       the executor or null for the default executor
+	 * @return a ResourceInjector with the given settings
+	 * @throws IllegalArgumentException if maxConcurrency is less than 1
+	 */
+	public ResourceInjector withParallelBinaryLoading(int maxConcurrency, @Nullable Executor executor)
+	{
+		if (maxConcurrency < 1)
+		{
+			throw new IllegalArgumentException("Invalid maxConcurrency: " + maxConcurrency);
+		}
+		return new ResourceInjector(this.locale,
+			options.withParallelBinaryLoading(maxConcurrency, executor));
+	}
+
+	/**
+	 * Returns the maximum number of concurrent binary resource reads.
+	 *
+	 * @return the maximum number of concurrent reads, 1 for serial reads
+	 * @see #withParallelBinaryLoading(int)
+	 */
+	public int getBinaryLoadingConcurrency()
+	{
+		return options.loadingConcurrency();
+	}
+
+	/**
+	 * Same as {@link #withForkJoinInjection(ForkJoinPool, int)
+	 * withForkJoinInjection(pool, DEFAULT_FORK_THRESHOLD)}.
+	 *
+	 * @param pool the pool or null to inject serially
+	 * @return a ResourceInjector with the given setting
+	 */
+	public ResourceInjector withForkJoinInjection(@Nullable ForkJoinPool pool)
+	{
+		return withForkJoinInjection(pool, DEFAULT_FORK_THRESHOLD);
+	}
+
+	/**
+	 * Returns a ResourceInjector with the same locale and options as this one,
+	 * but injecting large ResourceHolders with fork/join tasks on the given
+	 * pool. Nested {@link GenericResources} types and the data of
+	 * {@link EnumByteArrayMap}s are then injected concurrently, if their size,
+	 * i.e. the number of their fields and enum constants including nested
+	 * types, is at least the given threshold. Smaller subtrees are injected
+	 * serially. ResourceHolders with a
+	 * {@link #withGeneratedInjectors(boolean) generated injector} are always
+	 * injected by the generated injector in the calling thread, regardless of
+	 * their size. By default, all resources are injected by the calling
+	 * thread.
+	 *
+	 * @param pool      the pool or null to inject serially
+	 * @param threshold the minimum size of concurrently injected subtrees
+	 * @return a ResourceInjector with the given settings
+	 * @throws IllegalArgumentException if threshold is less than 1
+	 */
+	public ResourceInjector withForkJoinInjection(@Nullable ForkJoinPool pool, int threshold)
+	{
+		if (threshold < 1)
+		{
+			throw new IllegalArgumentException("Invalid threshold: " + threshold);
+		}
+		return new ResourceInjector(this.locale, options.withForkJoinInjection(pool, threshold));
+	}
+
+	/**
+	 * Returns the pool of fork/join injection.
+	 *
+	 * @return the pool or null, if resources are injected serially
+	 * @see #withForkJoinInjection(ForkJoinPool, int)
+	 */
+	public @Nullable
+	ForkJoinPool getForkJoinPool()
+	{
+		return options.forkJoinPool();
+	}
+
+	/**
+	 * Returns the minimum size of subtrees injected by fork/join tasks.
+	 *
+	 * @return the minimum size of concurrently injected subtrees
+	 * @see #withForkJoinInjection(ForkJoinPool, int)
+	 */
+	public int getForkThreshold()
+	{
+		return options.forkThreshold();
+	}
+
+	/**
+	 * Returns the locale given with the constructor.
+	 *
+	 * @return the locale given with the constructor
+	 */
+	public Locale getLocale()
+	{
+		return this.locale;
+	}
+
+	/**
+	 * Instantiates a ResourceHolder class and injects the resources according to
+	 * its annotations.
+	 *
+	 * @param <R>                 the type of the ResourceHolder
+	 * @param resourceHolderClass the ResourceHolder class
+	 * @return a ResourceHolder instance injected with resources or null, if the
+	 *         class could not be instantiated
+	 * @see #injectResourcesInto(ResourceHolder)
+	 */
+	public @Nullable
+	<R extends ResourceHolder> R injectResourcesInto(Class<R> resourceHolderClass)
+	{
+		try
+		{
+			final Binding binding = getGeneratedInjector(resourceHolderClass);
+			final Object generatedInstance = (binding != null) ? binding.injector().newInstance() : null;
+			final R newInstance = resourceHolderClass.cast((generatedInstance != null) ? generatedInstance :
+				InjectionPlan.get(resourceHolderClass).newInstance(getInjectionBackend()));
+			injectResourcesInto(newInstance);
+			return newInstance;
+		}
+		catch (ReflectiveOperationException | SecurityException ex)
+		{
+			LOGGER.log(Logger.Level.WARNING,
+				"Error trying to create ResourceHolder instance", ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Injects resources into the given ResourceHolder according to its
+	 * annotations.
+	 *
+	 * @param resourceHolder the given ResourceHolder
+	 * @see #injectResourcesInto(Class)
+	 */
+	public void injectResourcesInto(ResourceHolder resourceHolder)
+	{
+		resourceHolder.setLocale(this.locale);
+		final Binding binding = getGeneratedInjector(resourceHolder.getClass());
+		final InjectionPass pass = new InjectionPass(this.locale);
+		prefetchBinaryResources(pass, resourceHolder.getClass());
+		if (binding != null)
+		{
+			checkHasAnyResources(resourceHolder, binding.resourceLocation());
+			injectGenerated(binding.injector(), resourceHolder, pass, binding.resourceLocation());
+		}
+		else
+		{
+			final InjectionPlan plan = InjectionPlan.get(resourceHolder.getClass());
+			checkHasAnyResources(resourceHolder, plan.getResourceLocation());
+			final ForkJoinPool pool = getForkJoinPool();
+			if (pool != null && plan.getSize() >= getForkThreshold())
+			{
+				pool.invoke(ForkJoinTask.adapt(() -> handleResourceHolder(resourceHolder, pass, plan)));
+			}
+			else
+			{
+				handleResourceHolder(resourceHolder, pass, plan);
+			}
+		}
+		pass.complete();
+		resourceHolder.setDeduplicatedBytes(pass.getDeduplicatedBytes());
+	}
+
+	/**
+	 * Returns the binary resources declared by the given ResourceHolder type
+	 * and its nested types as read-only views, without instantiating the type.
+	 * This is e.g. useful to serve the resources over the network. The data is
+	 * shared with the holders injected with the same resources. Missing
+	 * resources are omitted.
+	 *
+	 * @param resourceHolderClass the ResourceHolder class
+	 * @return an unmodifiable map of the resources keyed by their absolute path
+	 *         within their module, in declaration order
+	 * @see BinaryResourceBuffer
+	 */
+	public Map<String, BinaryResourceBuffer> getBinaryResources(
+		Class<? extends ResourceHolder> resourceHolderClass)
+	{
+		final InjectionPass pass = new InjectionPass(this.locale);
+		prefetchBinaryResources(pass, resourceHolderClass);
+		final Map<String, BinaryResourceBuffer> binaryResources = new LinkedHashMap<>();
+		collectBinaryResources(pass, InjectionPlan.get(resourceHolderClass), binaryResources);
+		pass.complete();
+		return Collections.unmodifiableMap(binaryResources);
+	}
+
+	@SuppressWarnings("deprecation")
+	private void collectBinaryResources(InjectionPass pass, InjectionPlan plan,
+		Map<String, BinaryResourceBuffer> binaryResources)
+	{
+		final ResourceLocation resourceLocation = plan.getResourceLocation();
+		for (FieldPlan fieldPlan : plan.getFieldPlans())
+		{
+			final String[] binaryPaths = switch (fieldPlan.getKind())
+			{
+				case BINARY, BINARY_STREAM, BINARY_CHANNEL, BINARY_BUFFER, BINARY_RANGE, DECODED ->
+					new String[]
+					{
+						fieldPlan.getBinaryPath()
+					};
+				case ENUM_BYTE_ARRAY_MAP ->
+					fieldPlan.getEnumResourceKeys();
+				case STRING, ENUM_STRING_MAP, GENERIC_RESOURCES, ENUM_RESOURCE_HOLDER_MAP ->
+					new String[0];
+			};
+			for (String binaryPath : binaryPaths)
+			{
+				if (!binaryResources.containsKey(binaryPath))
+				{
+					final SharedBinaryBuffer buffer = getBinaryBuffer(pass, resourceLocation, binaryPath);
+					if (buffer != null)
+					{
+						binaryResources.put(binaryPath, buffer);
+					}
+				}
+			}
+			final InjectionPlan nestedPlan = fieldPlan.getNestedPlan();
+			if (nestedPlan != null)
+			{
+				collectBinaryResources(pass, nestedPlan, binaryResources);
+			}
+			for (InjectionPlan enumNestedPlan : fieldPlan.getEnumNestedPlans())
+			{
+				collectBinaryResources(pass, enumNestedPlan, binaryResources);
+			}
+		}
+	}
+
+	/**
+	 * Reads the binary resources of the given plan concurrently, if
+	 * {@link #withParallelBinaryLoading(int) enabled}, so that they are taken
+	 * from the pass instead of being read one after another.
+	 *
+	 * @param pass                the current injection pass
+	 * @param resourceHolderClass the top level ResourceHolder class
+	 */
+	private void prefetchBinaryResources(InjectionPass pass,
+		Class<? extends ResourceHolder> resourceHolderClass)
+	{
+		final int maxConcurrency = getBinaryLoadingConcurrency();
+		if (maxConcurrency > 1)
+		{
+			final Map<BinaryResourceCache.FileKey, ResourceLocation> keys = new LinkedHashMap<>();
+			collectPrefetchKeys(InjectionPlan.get(resourceHolderClass), keys);
+			if (keys.size() > 1)
+			{
+				pass.setPrefetched(ParallelBinaryLoader.load(keys.keySet(),
+					key -> getBinaryResource(Objects.requireNonNull(keys.get(key)), key.path(), false),
+					options.loadingExecutor(), maxConcurrency));
+			}
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	private void collectPrefetchKeys(InjectionPlan plan,
+		Map<BinaryResourceCache.FileKey, ResourceLocation> keys)
+	{
+		final ResourceLocation resourceLocation = plan.getResourceLocation();
+		final Module module = resourceLocation.getBinaryResourcesModule();
+		final BinaryResourceCache cache = BinaryResourceCache.getInstance();
+		final MissingResourceCache missingResourceCache = MissingResourceCache.getInstance();
+		for (FieldPlan fieldPlan : plan.getFieldPlans())
+		{
+			final Class<? extends Enum> enumClass = fieldPlan.getEnumClass();
+			final String[] binaryPaths = switch (fieldPlan.getKind())
+			{
+				case BINARY ->
+					(getBinaryLoading() == BinaryLoading.EAGER) ?
+					new String[]
+					{
+						fieldPlan.getBinaryPath()
+					} : new String[0];
+				case BINARY_BUFFER ->
+					(getBinaryLoading() != BinaryLoading.MAPPED) ?
+					new String[]
+					{
+						fieldPlan.getBinaryPath()
+					} : new String[0];
+				case DECODED ->
+					(getDecoder(Objects.requireNonNull(fieldPlan.getDecodedType())) != null) ?
+					new String[]
+					{
+						fieldPlan.getBinaryPath()
+					} : new String[0];
+				case ENUM_BYTE_ARRAY_MAP ->
+					(enumClass != null && !cache.containsKey(new BinaryResourceCache.EnumMapKey(
+						module, enumClass, List.of(fieldPlan.getEnumResourceKeys()), options.directBuffers()))) ?
+					fieldPlan.getEnumResourceKeys() : new String[0];
+				case STRING, BINARY_STREAM, BINARY_CHANNEL, BINARY_RANGE, ENUM_STRING_MAP,
+					GENERIC_RESOURCES, ENUM_RESOURCE_HOLDER_MAP ->
+					new String[0];
+			};
+			for (String binaryPath : binaryPaths)
+			{
+				final var key = new BinaryResourceCache.FileKey(module, binaryPath);
+				if (!cache.containsKey(key) && !missingResourceCache.isFileMissing(module, binaryPath))
+				{
+					keys.putIfAbsent(key, resourceLocation);
+				}
+			}
+			final InjectionPlan nestedPlan = fieldPlan.getNestedPlan();
+			if (nestedPlan != null)
+			{
+				collectPrefetchKeys(nestedPlan, keys);
+			}
+			for (InjectionPlan enumNestedPlan : fieldPlan.getEnumNestedPlans())
+			{
+				collectPrefetchKeys(enumNestedPlan, keys);
+			}
+		}
+	}
+
+	private static void checkHasAnyResources(ResourceHolder resourceHolder,
+		ResourceLocation resourceLocation)
+	{
+		if (!resourceLocation.hasAnyResources())
+		{
+			LOGGER.log(Level.WARNING,
+				"Top level ResourceHolder instance »{0}« used without @[String|Binary]Resources",
+				resourceHolder);
+		}
+	}
+
+	private @Nullable
+	Binding getGeneratedInjector(Class<? extends ResourceHolder> resourceHolderClass)
+	{
+		return isUsingGeneratedInjectors() ? ResourceHolderInjectors.get(resourceHolderClass) : null;
+	}
+
+	private <R extends ResourceHolder> void injectGenerated(ResourceHolderInjector<R> injector,
+		ResourceHolder resourceHolder, InjectionPass pass, ResourceLocation resourceLocation)
+	{
+		injector.inject(injector.getType().cast(resourceHolder), new Context(pass, resourceLocation));
+	}
+
+	/**
+	 * InjectionContext for generated injectors.
+	 */
+	private final class Context implements InjectionContext
+	{
+		private final InjectionPass pass;
+		private final ResourceLocation resourceLocation;
+
+		private Context(InjectionPass pass, ResourceLocation resourceLocation)
+		{
+			this.pass = pass;
+			this.resourceLocation = resourceLocation;
+		}
+
+		@Override
+		public String getString(String resourceKey)
+		{
+			return getStringResource(pass, resourceLocation, resourceKey, false);
+		}
+
+		@Override
+		public @Nullable
+		OptionalBinaryObject getBinary(@Nullable OptionalBinaryObject binaryObject, String binaryPath)
+		{
+			return injectBinary(pass, binaryObject, resourceLocation, binaryPath);
+		}
+
+		@Override
+		public @Nullable
+		BinaryResourceStream getBinaryStream(@Nullable BinaryResourceStream current, String binaryPath)
+		{
+			final ModuleResourceHandle handle = getBinaryResourceHandle(resourceLocation, binaryPath);
+			return (handle != null) ? handle : current;
+		}
+
+		@Override
+		public @Nullable
+		BinaryResourceChannel getBinaryChannel(@Nullable BinaryResourceChannel current,
+			String binaryPath)
+		{
+			final ModuleResourceHandle handle = getBinaryResourceHandle(resourceLocation, binaryPath);
+			return (handle != null) ? handle : current;
+		}
+
+		@Override
+		public @Nullable
+		BinaryResourceBuffer getBinaryBuffer(@Nullable BinaryResourceBuffer current, String binaryPath)
+		{
+			final SharedBinaryBuffer buffer =
+				ResourceInjector.this.getBinaryBuffer(pass, resourceLocation, binaryPath);
+			return (buffer != null) ? buffer : current;
+		}
+
+		@Override
+		public @Nullable
+		BinaryResourceRange getBinaryRange(@Nullable BinaryResourceRange current, String binaryPath)
+		{
+			final ModuleResourceRange range = getBinaryResourceRange(resourceLocation, binaryPath);
+			return (range != null) ? range : current;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public @Nullable
+		<T> DecodedBinaryObject<T> getDecoded(@Nullable DecodedBinaryObject<T> current,
+			String binaryPath, Class<T> type)
+		{
+			final DecodedBinaryObject<?> decoded =
+				getDecodedObject(pass, resourceLocation, binaryPath, type);
+			return (decoded != null) ? (DecodedBinaryObject<T>) decoded : current;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <E extends Enum<E>> EnumStringMap<E> getEnumStringMap(
+			Class<E> enumClass, String... resourceKeys)
+		{
+			return (EnumStringMap<E>) createEnumStringMap(pass, resourceLocation,
+				enumClass, enumClass.getEnumConstants(), resourceKeys);
+		}
 
-	/**
-	 * Same as {@link #ResourceInjector(Locale) ResourceInjector(null)}.
-	 */
-	public ResourceInjector()
-	{
-		this(null);
+		@Override
+		@SuppressWarnings("unchecked")
+		public <E extends Enum<E>> EnumByteArrayMap<E> getEnumByteArrayMap(
+			Class<E> enumClass, String... binaryPaths)
+		{
+			return (EnumByteArrayMap<E>) createEnumByteArrayMap(pass, resourceLocation,
+				enumClass, enumClass.getEnumConstants(), binaryPaths);
+		}
 	}
 
 	/**
-	 * Creates a new ResourceInjector instance.
+	 * Returns the resource string or a fallback value, if it does not exist.
 	 *
-	 * @param locale the locale of the resources to be injected, null will be
-	 *               treated as {@link Locale#ROOT}
+	 * @param pass             the current injection pass
+	 * @param resourceLocation the resource location of the ResourceHolder
+	 * @param key              the String resource key
+	 * @param hasEnumPostfix   true, if the key contains an enum postfix
+	 * @return the resource string
 	 */
-	public ResourceInjector(@Nullable Locale locale)
+	private static String getStringResource(InjectionPass pass, ResourceLocation resourceLocation,
+		String key, boolean hasEnumPostfix)
 	{
-		this.locale = Objects.requireNonNullElse(locale, Locale.ROOT);
+		final ResourceBundle bundle = pass.getBundle(resourceLocation);
+		// check the key first to avoid the costs of a MissingResourceException:
+		if (bundle != null && bundle.containsKey(key))
+		{
+			return bundle.getString(key);
+		}
+		final String fallbackValue = FallBackValueUtil.getFallBackValue(
+			pass.getLocale(), key, hasEnumPostfix);
+		LOGGER.log(Level.WARNING, () -> String.format(
+			"Missing string resource [»%s.properties« → %s] → using fallback value »%s« – for »%s«",
+			resourceLocation.getBundleBaseName(), key, fallbackValue,
+			resourceLocation.getStringResourcesModule()));
+		return fallbackValue;
 	}
 
 	/**
-	 * Returns the locale given with the constructor.
+	 * Returns the resource data from the {@link BinaryResourceCache} or loads,
+	 * {@link BinaryInterner interns} and caches it. The returned array is
+	 * shared process wide, so it must not be modified and must be exposed only
+	 * by read-only views or copies.
 	 *
-	 * @return the locale given with the constructor
+	 * @param pass             the current injection pass
+	 * @param resourceLocation the resource location of the ResourceHolder
+	 * @param binaryPath       the absolute path of the resource file within its
+	 *                         module
+	 * @return a byte array containing the resource file content
 	 */
-	public Locale getLocale()
+	private Optional<byte[]> getBinaryResource(InjectionPass pass,
+		ResourceLocation resourceLocation, String binaryPath)
 	{
-		return this.locale;
+		final Optional<BinaryInterner.Interned> interned =
+			getInternedBinaryResource(pass, resourceLocation, binaryPath);
+		interned.filter(BinaryInterner.Interned::duplicate).ifPresent(duplicate ->
+			pass.addDeduplicatedBytes(duplicate.data().length));
+		return interned.map(BinaryInterner.Interned::data);
 	}
 
 	/**
-	 * Instantiates a ResourceHolder class and injects the resources according to
-	 * its annotations.
+	 * Returns a private copy of the resource data, which is taken from the
+	 * {@link BinaryResourceCache}, if present.
 	 *
-	 * @param <R>                 the type of the ResourceHolder
-	 * @param resourceHolderClass the ResourceHolder class
-	 * @return a ResourceHolder instance injected with resources or null, if the
-	 *         class could not be instantiated
-	 * @see #injectResourcesInto(ResourceHolder)
+	 * @param pass             the current injection pass
+	 * @param resourceLocation the resource location of the ResourceHolder
+	 * @param binaryPath       the absolute path of the resource file within its
+	 *                         module
+	 * @return a new byte array containing the resource file content
 	 */
-	public @Nullable
-	<R extends ResourceHolder> R injectResourcesInto(Class<R> resourceHolderClass)
+	private Optional<byte[]> copyBinaryResource(InjectionPass pass,
+		ResourceLocation resourceLocation, String binaryPath)
 	{
-		try
+		return getInternedBinaryResource(pass, resourceLocation, binaryPath)
+			.map(interned -> interned.data().clone());
+	}
+
+	private Optional<BinaryInterner.Interned> getInternedBinaryResource(InjectionPass pass,
+		ResourceLocation resourceLocation, String binaryPath)
+	{
+		final BinaryResourceCache cache = BinaryResourceCache.getInstance();
+		final var key = new BinaryResourceCache.FileKey(
+			resourceLocation.getBinaryResourcesModule(), binaryPath);
+		if (cache.get(key) instanceof BinaryInterner.Interned cached)
 		{
-			final R newInstance = resourceHolderClass.getDeclaredConstructor().newInstance();
-			injectResourcesInto(newInstance);
-			return newInstance;
+			return Optional.of(cached);
 		}
-		catch (ReflectiveOperationException | SecurityException ex)
+		else
 		{
-			LOGGER.log(Logger.Level.WARNING,
-				"Error trying to create ResourceHolder instance", ex);
-			return null;
+			return readBinaryResource(pass, resourceLocation, binaryPath)
+				.map(buffer -> BinaryInterner.getInstance().intern(key, buffer.array()))
+				.map(loaded -> (BinaryInterner.Interned) cache.putIfAbsent(
+					key, loaded, loaded.data().length));
 		}
 	}
 
 	/**
-	 * Injects resources into the given ResourceHolder according to its
-	 * annotations.
+	 * Returns the resource data read ahead by the given pass or reads it.
 	 *
-	 * @param resourceHolder the given ResourceHolder
-	 * @see #injectResourcesInto(Class)
+	 * @param pass             the current injection pass
+	 * @param resourceLocation the resource location of the ResourceHolder
+	 * @param binaryPath       the absolute path of the resource file within its
+	 *                         module
+	 * @return a heap buffer wrapping a byte array containing the resource file
+	 *         content
 	 */
-	public void injectResourcesInto(ResourceHolder resourceHolder)
+	private Optional<ByteBuffer> readBinaryResource(InjectionPass pass,
+		ResourceLocation resourceLocation, String binaryPath)
 	{
-		resourceHolder.setLocale(this.locale);
-		this.param = new ResourceParameters(resourceHolder.getClass());
-		if (!this.param.hasAnyResources())
-		{
-			LOGGER.log(Level.WARNING,
-				"Top level ResourceHolder instance »{0}« used without @[String|Binary]Resources",
-				resourceHolder);
-		}
-		handleResourceHolder(resourceHolder);
+		final ByteBuffer prefetched = pass.getPrefetched(
+			new BinaryResourceCache.FileKey(resourceLocation.getBinaryResourcesModule(), binaryPath));
+		return (prefetched != null) ? Optional.of(prefetched) :
+			getBinaryResource(resourceLocation, binaryPath, false);
 	}
 
 	/**
-	 * Returns the resource string or a fallback value, if it does not exist.
+	 * Returns the resource data, which is optionally memory mapped. Unmapped
+	 * resources are read from the {@link ResourcePack} of their package, if
+	 * {@link #isReadingResourcePacks() enabled} and the pack exists and
+	 * contains the resource.
 	 *
-	 * @param resourceHolder the ResourceHolder
-	 * @param key            the String resource key
-	 * @param hasEnumPostfix true, if the key contains an enum postfix
-	 * @return the resource string
+	 * @param resourceLocation the resource location of the ResourceHolder
+	 * @param binaryPath       the absolute path of the resource file within its
+	 *                         module
+	 * @param mapped           true to map the resource, if it is a regular file
+	 *                         of sufficient size
+	 * @return a read-only {@link MappedByteBuffer} or a heap buffer wrapping a
+	 *         byte array containing the resource file content
 	 */
-	private String getStringResource(Object resourceHolder, String key, boolean hasEnumPostfix)
+	private Optional<ByteBuffer> getBinaryResource(ResourceLocation resourceLocation,
+		String binaryPath, boolean mapped)
 	{
-		final Module module;
-		final String baseName;
-		if (this.param != null)
+		final Module module = resourceLocation.getBinaryResourcesModule();
+		if (!mapped && isReadingResourcePacks())
 		{
-			module = this.param.getStringResourcesModule(resourceHolder.getClass().getModule());
-			final String packageName = this.param.getStringResourcePackageName();
-			baseName = packageName.isBlank() ? this.param.getBasename() :
-				(packageName + '.' + this.param.getBasename());
+			final ResourcePack resourcePack = ResourcePack.get(module, binaryPath);
+			final byte[] packed = (resourcePack != null) ? resourcePack.getData(binaryPath) : null;
+			if (packed != null)
+			{
+				InjectionStatistics.addPackedResourceRead();
+				return Optional.of(ByteBuffer.wrap(packed));
+			}
 		}
-		else
+		final MissingResourceCache missingResourceCache = MissingResourceCache.getInstance();
+		if (missingResourceCache.isFileMissing(module, binaryPath))
 		{
-			module = null;
-			baseName = "";
+			InjectionStatistics.addMissingResourceSkipped();
+			return Optional.empty();
 		}
-		try
+		try (InputStream inputStream = module.getResourceAsStream(binaryPath))
 		{
-			final ResourceBundle bundle = module != null ?
-				ResourceBundle.getBundle(baseName, getLocale(), module) :
-				ResourceBundle.getBundle(baseName, getLocale());
-			final String value = (bundle != null) ? bundle.getString(key) : null;
-			return (value != null) ? value :
-				new FallBackValueUtil(getLocale()).getFallBackValue(key, hasEnumPostfix);
+			if (inputStream != null)
+			{
+				final Path file = mapped ? MappedResources.findFile(module, binaryPath) : null;
+				final MappedByteBuffer mappedBuffer =
+					(file != null) ? MappedResources.getInstance().map(file) : null;
+				return Optional.of((mappedBuffer != null) ? mappedBuffer :
+					ByteBuffer.wrap(inputStream.readAllBytes()));
+			}
+			else
+			{
+				missingResourceCache.putFileMissing(module, binaryPath);
+			}
 		}
-		catch (MissingResourceException ex)
+		catch (IOException ex)
 		{
-			final String fallbackValue = new FallBackValueUtil(getLocale())
-				.getFallBackValue(key, hasEnumPostfix);
-			LOGGER.log(Level.WARNING, String.format(
-				"Missing string resource [»%s.properties« → %s] → using fallback value »%s« – for »%s«",
-				baseName, key, fallbackValue, module));
-			return fallbackValue;
+			LOGGER.log(Level.WARNING, "Missing binary resource »{0}«", binaryPath);
 		}
+		return Optional.empty();
 	}
 
 	/**
-	 * Returns the resource data.
+	 * Returns a read-only view of a binary resource. The data is shared with
+	 * all other holders referring to the same resource, unless it is memory
+	 * mapped or loaded with {@link BinaryLoading#MAPPED}, but too small to be
+	 * mapped. Lazy loading strategies do not apply. If the package of the
+	 * resource has a {@link BinaryManifest} recording the resource with the
+	 * same size and digest, the view provides its precompressed variants.
 	 *
-	 * @param resourceHolder the module of the ResourceHolder
-	 * @param key            the String resource key
-	 * @param fileExt        the resource file name extension
-	 * @return a byte array containing the resource file content
+	 * @param pass             the current injection pass
+	 * @param resourceLocation the resource location of the ResourceHolder
+	 * @param binaryPath       the absolute path of the resource file within its
+	 *                         module
+	 * @return a view of the resource or null, if it does not exist
+	 */
+	private @Nullable
+	SharedBinaryBuffer getBinaryBuffer(InjectionPass pass, ResourceLocation resourceLocation,
+		String binaryPath)
+	{
+		final Optional<SharedBinaryBuffer> buffer = (getBinaryLoading() == BinaryLoading.MAPPED) ?
+			getBinaryResource(resourceLocation, binaryPath, true).map(SharedBinaryBuffer::new) :
+			getBinaryResource(pass, resourceLocation, binaryPath).map(SharedBinaryBuffer::new);
+		return buffer.map(sharedBinaryBuffer ->
+		{
+			final EncodedVariants encodedVariants = BinaryManifest.getVariants(
+				resourceLocation.getBinaryResourcesModule(), binaryPath);
+			// ignore an out of date manifest entry:
+			return (encodedVariants != null && encodedVariants.matches(sharedBinaryBuffer.getByteBuffer())) ?
+				sharedBinaryBuffer.withEncodedVariants(encodedVariants) : sharedBinaryBuffer;
+		}).orElse(null);
+	}
+
+	/**
+	 * Returns a handle to a binary resource, which is opened on each use. If
+	 * the package of the resource has a {@link BinaryManifest} recording the
+	 * resource with the same size, the handle provides its precompressed
+	 * variants.
+	 *
+	 * @param resourceLocation the resource location of the ResourceHolder
+	 * @param binaryPath       the absolute path of the resource file within its
+	 *                         module
+	 * @return a handle to the resource or null, if it does not exist
 	 */
-	private Optional<byte[]> getBinaryResource(Object resourceHolder, String key, @Nullable FileExt fileExt)
+	private static @Nullable
+	ModuleResourceHandle getBinaryResourceHandle(ResourceLocation resourceLocation, String binaryPath)
 	{
-		if (this.param != null)
+		final Module module = resourceLocation.getBinaryResourcesModule();
+		final MissingResourceCache missingResourceCache = MissingResourceCache.getInstance();
+		if (missingResourceCache.isFileMissing(module, binaryPath))
+		{
+			InjectionStatistics.addMissingResourceSkipped();
+			return null;
+		}
+		// open the resource once to check its existence and accessibility:
+		try (InputStream inputStream = module.getResourceAsStream(binaryPath))
 		{
-			final Module module = this.param.getBinaryResourcesModule(resourceHolder.getClass().getModule());
-			final String p = this.param.getBinaryResourcePackageName();
-			final String ext = fileExt != null ? fileExt.value() : this.param.getDefaultExtension();
-			final String packageName = p.isEmpty() ? getClass().getPackageName() : p;
-			final String fileName = "/" + packageName.replaceAll("\\.", "/") + "/" + key + ext;
-			try (InputStream inputStream = module.getResourceAsStream(fileName))
+			if (inputStream != null)
 			{
-				if (inputStream != null)
-				{
-					return Optional.of(inputStream.readAllBytes());
-				}
+				final Path file = MappedResources.findFile(module, binaryPath);
+				final EncodedVariants encodedVariants = BinaryManifest.getVariants(module, binaryPath);
+				// ignore an out of date manifest entry:
+				return (encodedVariants != null &&
+					encodedVariants.matches(new ModuleResourceHandle(module, binaryPath, file))) ?
+					new ModuleResourceHandle(module, binaryPath, file, encodedVariants) :
+					new ModuleResourceHandle(module, binaryPath, file);
 			}
-			catch (IOException ex)
+			else
 			{
-				LOGGER.log(Level.WARNING, "Missing binary resource »{0}«", fileName);
+				missingResourceCache.putFileMissing(module, binaryPath);
 			}
 		}
-		return Optional.empty();
+		catch (IOException ex)
+		{
+			LOGGER.log(Level.WARNING, "Missing binary resource »{0}«", binaryPath);
+		}
+		return null;
 	}
 
-	private static boolean isResourceHolder(Field field)
+	/**
+	 * Returns a positional read handle to a binary resource.
+	 *
+	 * @param resourceLocation the resource location of the ResourceHolder
+	 * @param binaryPath       the absolute path of the resource file within its
+	 *                         module
+	 * @return a handle to the whole resource or null, if it does not exist
+	 */
+	private static @Nullable
+	ModuleResourceRange getBinaryResourceRange(ResourceLocation resourceLocation, String binaryPath)
 	{
-		return (field == null) ? false :
-			ResourceHolder.class.isAssignableFrom(field.getType());
+		final ModuleResourceHandle handle = getBinaryResourceHandle(resourceLocation, binaryPath);
+		return (handle != null) ? new ModuleResourceRange(handle) : null;
 	}
 
-	private static boolean isGenericResource(Field field)
+	/**
+	 * Returns the decoded object of a binary resource, which is decoded by the
+	 * {@link #getDecoder(Class) decoder} of the given type, if it is neither
+	 * cached nor currently being decoded.
+	 *
+	 * @param pass             the current injection pass
+	 * @param resourceLocation the resource location of the ResourceHolder
+	 * @param binaryPath       the absolute path of the resource file within its
+	 *                         module
+	 * @param type             the type of the decoded object
+	 * @return the decoded object or null, if the resource does not exist or
+	 *         there is no decoder for the type
+	 */
+	private @Nullable
+	DecodedBinaryObject<?> getDecodedObject(InjectionPass pass, ResourceLocation resourceLocation,
+		String binaryPath, Class<?> type)
 	{
-		return (field == null) ? false :
-			field.getType().isAnnotationPresent(GenericResources.class);
+		final BinaryDecoder<?> decoder = getDecoder(type);
+		if (decoder == null)
+		{
+			LOGGER.log(Level.WARNING, "No BinaryDecoder for type »{0}« of binary resource »{1}«",
+				type.getName(), binaryPath);
+			return null;
+		}
+		final Module module = resourceLocation.getBinaryResourcesModule();
+		return getBinaryResource(pass, resourceLocation, binaryPath).map(data ->
+			DecodedObjects.get(module, binaryPath, decoder, data, getDecodingExecutor()))
+			.orElse(null);
 	}
 
-	private static String getResourceKey(@Nullable String keyPrefix, Field field)
+	/**
+	 * Fork/join task injecting a nested GenericResources type with a pass of
+	 * its own.
+	 */
+	private final class NestedInjection extends RecursiveAction
 	{
-		final ResourceKey annotation = field.getAnnotation(ResourceKey.class);
-		final String strResourceKey = (annotation != null && !annotation.value().isBlank()) ?
-			annotation.value() : field.getName();
-		final String prefix = requireNonNullElse(keyPrefix, "") + strResourceKey;
-		return isGenericResource(field) ? (prefix + SEPARATOR_KEY_NESTED) : prefix;
+		private final InjectionPass pass;
+		private final FieldPlan fieldPlan;
+		private @Nullable Object value;
+		private @Nullable ReflectiveOperationException exception;
+
+		private NestedInjection(InjectionPass pass, FieldPlan fieldPlan)
+		{
+			this.pass = pass;
+			this.fieldPlan = fieldPlan;
+		}
+
+		@Override
+		protected void compute()
+		{
+			try
+			{
+				value = createGenericResources(pass, fieldPlan);
+			}
+			catch (ReflectiveOperationException ex)
+			{
+				exception = ex;
+			}
+		}
+
+		/**
+		 * Waits for the injection and adds the counters of its pass to the
+		 * given pass.
+		 *
+		 * @param parent the pass of the enclosing type
+		 * @return the injected instance of the nested type
+		 * @throws ReflectiveOperationException if the nested type could not be
+		 *                                      instantiated
+		 */
+		private @Nullable
+		Object getValue(InjectionPass parent) throws ReflectiveOperationException
+		{
+			try
+			{
+				join();
+			}
+			finally
+			{
+				parent.merge(pass);
+			}
+			if (exception != null)
+			{
+				throw exception;
+			}
+			return value;
+		}
 	}
 
-	private void handleResourceHolder(ResourceHolder resourceHolder)
+	/**
+	 * Returns true, if the current thread is a worker of the
+	 * {@link #getForkJoinPool() fork/join pool} and the given size reaches the
+	 * {@link #getForkThreshold() threshold}.
+	 *
+	 * @param size the size of a subtree
+	 * @return true, if the subtree shall be injected by fork/join tasks
+	 */
+	private boolean isForking(int size)
 	{
-		handleResourceHolder(resourceHolder, null, null);
+		final ForkJoinPool pool = getForkJoinPool();
+		return pool != null && ForkJoinTask.getPool() == pool && size >= getForkThreshold();
 	}
 
-	private static Map<String, Class<? extends Enum>> getMapEnumTypes(
-		@Nullable Field fieldRef, BiConsumer<EnumTypes, String> onDuplicateFieldName)
+	/**
+	 * Forks the injection of the nested GenericResources types of the given
+	 * plan, which reach the fork threshold.
+	 *
+	 * @param pass the current injection pass
+	 * @param plan the plan of the (possibly nested) ResourceHolder
+	 * @return the forked injections by field
+	 */
+	private Map<FieldPlan, NestedInjection> forkNestedInjections(InjectionPass pass,
+		InjectionPlan plan)
 	{
-		final EnumTypes[] arrEnumTypes = (fieldRef != null) ?
-			fieldRef.getAnnotationsByType(EnumTypes.class) : null;
-		final Map<String, Class<? extends Enum>> map = new TreeMap<>();
-		final Set<String> duplicateFieldNames = new TreeSet<>();
-		if (arrEnumTypes != null)
+		if (!isForking(plan.getSize()))
 		{
-			for (EnumTypes annEnumTypes : arrEnumTypes)
+			return Map.of();
+		}
+		final Map<FieldPlan, NestedInjection> forked = new HashMap<>();
+		for (FieldPlan fieldPlan : plan.getFieldPlans())
+		{
+			final InjectionPlan nestedPlan = fieldPlan.getNestedPlan();
+			if (fieldPlan.getKind() == InjectionPlan.FieldKind.GENERIC_RESOURCES &&
+				nestedPlan != null && isForking(nestedPlan.getSize()))
 			{
-				final Class<? extends Enum> type = annEnumTypes.enumType();
-				for (String fieldName : annEnumTypes.fieldNames())
-				{
-					if (!duplicateFieldNames.contains(fieldName))
-					{
-						if (map.containsKey(fieldName))
-						{
-							map.remove(fieldName);
-							duplicateFieldNames.add(fieldName);
-							if (onDuplicateFieldName != null)
-							{
-								onDuplicateFieldName.accept(annEnumTypes, fieldName);
-							}
-						}
-						else
-						{
-							map.put(fieldName, type);
-						}
-					}
-				}
+				final var nestedInjection = new NestedInjection(pass.fork(), fieldPlan);
+				nestedInjection.fork();
+				forked.put(fieldPlan, nestedInjection);
 			}
 		}
-		return unmodifiableMap(map);
+		return forked;
 	}
 
-	private void handleResourceHolder(Object resourceHolder,
-		@Nullable String keyPrefix, @Nullable Field fieldRef)
+	private void handleResourceHolder(Object resourceHolder, InjectionPass pass, InjectionPlan plan)
 	{
-		final var mapEnumTypes = getMapEnumTypes(fieldRef, (e, fieldName) ->
+		final InjectionBackend backend = getInjectionBackend();
+		final Map<FieldPlan, NestedInjection> forked = forkNestedInjections(pass, plan);
+		final HiddenInjector hiddenInjector =
+			(backend == InjectionBackend.HIDDEN_CLASSES) ? plan.getHiddenInjector() : null;
+		final List<FieldPlan> fieldPlans;
+		if (hiddenInjector != null)
 		{
-			LOGGER.log(Level.ERROR,
-				"»@EnumTypes(…) […] {0}« contains duplicate field name »{1}«",
-				"" + fieldRef, fieldName);
-		});
-		for (Field field : resourceHolder.getClass().getFields())
-		{
-			final String fieldName = field.getName();
-			final Class<?> fieldType = field.getType();
-			final String typeName = fieldType.getName();
-			final int modifiers = field.getModifiers();
-			if (!Modifier.isPublic(modifiers))
-			{
-				LOGGER.log(Level.WARNING, "Field »{0}« must be declared public", fieldName);
-			}
-			else if (Modifier.isFinal(modifiers) && !TYPE_NAME_BYTE_ARRAY.equals(typeName))
+			final List<FieldPlan> injectedFieldPlans = hiddenInjector.getInjectedFieldPlans();
+			final Object[] values = new Object[injectedFieldPlans.size()];
+			for (int i = 0; i < values.length; i++)
 			{
-				LOGGER.log(Level.WARNING, "Field »{0}« must not be declared final", fieldName);
+				final FieldPlan fieldPlan = injectedFieldPlans.get(i);
+				try
+				{
+					final Object value = getFieldValue(pass, plan, fieldPlan, forked);
+					// the hidden class assigns all fields, so keep the current value
+					// like the other backends do:
+					values[i] = (value != null) ? value :
+						getCurrentValue(resourceHolder, fieldPlan, backend);
+				}
+				catch (ReflectiveOperationException | IllegalArgumentException ex)
+				{
+					LOGGER.log(Level.WARNING,
+						"Error when creating value of field »" + fieldPlan.getField().getName() + "«", ex);
+					values[i] = getCurrentValue(resourceHolder, fieldPlan, backend);
+				}
 			}
-			else
+			hiddenInjector.inject(resourceHolder, values);
+			fieldPlans = hiddenInjector.getRemainingFieldPlans();
+		}
+		else
+		{
+			fieldPlans = plan.getFieldPlans();
+		}
+		for (FieldPlan fieldPlan : fieldPlans)
+		{
+			try
 			{
-				final String resourceKey = getResourceKey(keyPrefix, field);
-				try
+				switch (fieldPlan.getKind())
 				{
-					switch (typeName)
+					case STRING, BINARY_STREAM, BINARY_CHANNEL, BINARY_BUFFER, BINARY_RANGE, DECODED,
+						ENUM_STRING_MAP, ENUM_BYTE_ARRAY_MAP, GENERIC_RESOURCES ->
 					{
-						case TYPE_NAME_STRING ->
-						{
-							try
-							{
-								final String stringResource = getStringResource(
-									resourceHolder, resourceKey, false);
-								field.set(resourceHolder, stringResource);
-							}
-							catch (IllegalArgumentException | IllegalAccessException ex)
-							{
-								LOGGER.log(Level.WARNING,
-									"Error when setting value of field »" + resourceKey + "«", ex);
-							}
-						}
-						case TYPE_NAME_BYTE_ARRAY ->
-						{
-							final Optional<byte[]> binaryResource = getBinaryResource(
-								resourceHolder, resourceKey, field.getAnnotation(FileExt.class));
-							if (binaryResource.isPresent())
-							{
-								System.out.println("Field: " + field);
-								final Class<?> type = field.getType();
-								System.out.println("field.getType() : " + type);
-								System.out.println("--> getName() : " + type.getName());
-								final Method method = type.getMethod("set", Optional.class);
-								System.out.println("Method : " + method);
-								method.invoke(field, binaryResource);
-							}
-						}
-						case TYPE_NAME_ENUM_STRING_MAP ->
-							handleFieldEnumStrings(resourceHolder, resourceKey, field, mapEnumTypes);
-						case TYPE_NAME_ENUM_BYTE_ARRAY_MAP ->
-							handleFieldEnumByteArrays(resourceHolder, resourceKey, field, mapEnumTypes);
-						case TYPE_NAME_ENUM_RESOURCE_HOLDER_MAP ->
-							handleFieldEnumResourceHolder(resourceHolder, resourceKey, field);
-						default ->
+						final Object value = getFieldValue(pass, plan, fieldPlan, forked);
+						if (value != null)
 						{
-							if (isGenericResource(field))
-							{
-								final Object newInstance = fieldType.getDeclaredConstructor().newInstance();
-								field.set(resourceHolder, newInstance);
-								handleResourceHolder(newInstance, resourceKey, field);
-							}
-							else
-							{
-								LOGGER.log(Level.WARNING, "Invalid type of field »{0} {1}« in ResourceHolder",
-									typeName, fieldName);
-							}
+							fieldPlan.getAccessor(backend).set(resourceHolder, value);
 						}
 					}
+					case BINARY ->
+						handleFieldBinary(resourceHolder, pass, plan, fieldPlan);
+					case ENUM_RESOURCE_HOLDER_MAP ->
+						handleFieldEnumResourceHolder(resourceHolder, pass, fieldPlan);
 				}
-				catch (ReflectiveOperationException | IllegalArgumentException ex)
-				{
-					LOGGER.log(Level.WARNING,
-						"Error when setting value of field »" + fieldName + "«", ex);
-				}
+			}
+			catch (ReflectiveOperationException | IllegalArgumentException ex)
+			{
+				LOGGER.log(Level.WARNING,
+					"Error when setting value of field »" + fieldPlan.getField().getName() + "«", ex);
 			}
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-	private void handleFieldEnumStrings(Object resourceHolder, String resourceKeyPrefix,
-		Field field, Map<String, Class<? extends Enum>> mapEnumTypes)
-		throws IllegalArgumentException, IllegalAccessException
+	/**
+	 * Returns the current value of the given field.
+	 *
+	 * @param resourceHolder the (possibly nested) ResourceHolder
+	 * @param fieldPlan      the plan of the field
+	 * @param backend        the injection backend
+	 * @return the current value or null, if it can not be read
+	 */
+	private static @Nullable
+	Object getCurrentValue(Object resourceHolder, FieldPlan fieldPlan, InjectionBackend backend)
 	{
-		final String fieldName = field.getName();
-		final EnumType enumType = field.getAnnotation(EnumType.class);
-		final Class<? extends Enum> enumClass = (enumType != null) ?
-			enumType.value() : mapEnumTypes.get(fieldName);
-		if (enumClass != null)
+		try
 		{
-			class EnumStringMapImpl<E extends Enum<E>>
-				extends AbstractMap<E, String>
-				implements EnumStringMap<E>
-			{
-				private final EnumMap<@KeyFor("this") E, String> enumMap = new EnumMap<>(enumClass);
+			return fieldPlan.getAccessor(backend).get(resourceHolder);
+		}
+		catch (ReflectiveOperationException | IllegalArgumentException ex)
+		{
+			LOGGER.log(Level.WARNING,
+				"Error when reading value of field »" + fieldPlan.getField().getName() + "«", ex);
+			return null;
+		}
+	}
 
-				@Override
-				public Set<Map.Entry<@KeyFor("this") E, String>> entrySet()
-				{
-					return enumMap.entrySet();
-				}
+	/**
+	 * Returns the value to assign to a String, BinaryResourceStream,
+	 * BinaryResourceChannel, BinaryResourceBuffer, BinaryResourceRange,
+	 * DecodedBinaryObject, EnumStringMap, EnumByteArrayMap or nested GenericResources field.
+	 *
+	 * @param pass      the current injection pass
+	 * @param plan      the plan of the (possibly nested) ResourceHolder
+	 * @param fieldPlan the plan of the field
+	 * @param forked    the forked injections of nested types by field
+	 * @return the field value or null, if the field is of another kind
+	 * @throws ReflectiveOperationException if a nested type could not be
+	 *                                      instantiated
+	 */
+	private @Nullable
+	Object getFieldValue(InjectionPass pass, InjectionPlan plan, FieldPlan fieldPlan,
+		Map<FieldPlan, NestedInjection> forked)
+		throws ReflectiveOperationException
+	{
+		return switch (fieldPlan.getKind())
+		{
+			case STRING ->
+				getStringResource(pass, plan.getResourceLocation(), fieldPlan.getResourceKey(), false);
+			case BINARY_STREAM, BINARY_CHANNEL ->
+				getBinaryResourceHandle(plan.getResourceLocation(), fieldPlan.getBinaryPath());
+			case BINARY_BUFFER ->
+				getBinaryBuffer(pass, plan.getResourceLocation(), fieldPlan.getBinaryPath());
+			case BINARY_RANGE ->
+				getBinaryResourceRange(plan.getResourceLocation(), fieldPlan.getBinaryPath());
+			case DECODED ->
+				getDecodedObject(pass, plan.getResourceLocation(), fieldPlan.getBinaryPath(),
+					Objects.requireNonNull(fieldPlan.getDecodedType()));
+			case ENUM_STRING_MAP ->
+				createEnumStringMap(pass, plan, fieldPlan);
+			case ENUM_BYTE_ARRAY_MAP ->
+				createEnumByteArrayMap(pass, plan, fieldPlan);
+			case GENERIC_RESOURCES ->
+				getNestedValue(pass, fieldPlan, forked.get(fieldPlan));
+			case BINARY, ENUM_RESOURCE_HOLDER_MAP ->
+				null;
+		};
+	}
+
+	private @Nullable
+	Object getNestedValue(InjectionPass pass, FieldPlan fieldPlan,
+		@Nullable NestedInjection nestedInjection)
+		throws ReflectiveOperationException
+	{
+		return (nestedInjection != null) ? nestedInjection.getValue(pass) :
+			createGenericResources(pass, fieldPlan);
+	}
+
+	private @Nullable
+	Object createGenericResources(InjectionPass pass, FieldPlan fieldPlan)
+		throws ReflectiveOperationException
+	{
+		final InjectionPlan nestedPlan = fieldPlan.getNestedPlan();
+		if (nestedPlan != null)
+		{
+			final Object newInstance = nestedPlan.newInstance(getInjectionBackend());
+			handleResourceHolder(newInstance, pass, nestedPlan);
+			return newInstance;
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Loads a binary resource into an OptionalBinaryObject according to the
+	 * {@link #getBinaryLoading() loading strategy}.
+	 *
+	 * @param pass             the current injection pass
+	 * @param binaryObject     the current field value
+	 * @param resourceLocation the resource location of the ResourceHolder
+	 * @param binaryPath       the absolute path of the resource within its
+	 *                         module
+	 * @return the given binaryObject updated with the resource, if it is not
+	 *         null, otherwise a new OptionalBinaryObject, if the resource
+	 *         exists or is loaded lazily, or null
+	 */
+	private @Nullable
+	OptionalBinaryObject injectBinary(InjectionPass pass, @Nullable OptionalBinaryObject binaryObject,
+		ResourceLocation resourceLocation, String binaryPath)
+	{
+		final BinaryLoading binaryLoading = getBinaryLoading();
+		if (binaryLoading != BinaryLoading.EAGER && binaryLoading != BinaryLoading.MAPPED)
+		{
+			// lazily loaded data bypasses the shared cache, so dropping it frees it:
+			final LazyBinary lazyBinary = new LazyBinary(() -> getBinaryResource(
+				resourceLocation, binaryPath, false).map(ByteBuffer::array), binaryLoading);
+			if (binaryObject != null)
+			{
+				binaryObject.setLazy(lazyBinary);
+				return binaryObject;
 			}
-			final var enumStringMap = new EnumStringMapImpl();
-			final var enumConstants = enumClass.getEnumConstants();
-			if (enumConstants != null)
+			else
+			{
+				return new OptionalBinaryObject(lazyBinary);
+			}
+		}
+		final Optional<byte[]> binaryResource;
+		if (binaryLoading == BinaryLoading.MAPPED)
+		{
+			final Optional<ByteBuffer> buffer = getBinaryResource(resourceLocation, binaryPath, true);
+			if (buffer.isPresent() && buffer.get() instanceof MappedByteBuffer mappedBuffer)
 			{
-				for (Enum enumConstant : enumConstants)
+				if (binaryObject != null)
+				{
+					binaryObject.setMapped(mappedBuffer);
+					return binaryObject;
+				}
+				else
 				{
-					final String resourceKey = resourceKeyPrefix + SEPARATOR_ENUM_KEY + enumConstant.name();
-					final String stringResource = getStringResource(resourceHolder, resourceKey, true);
-					enumStringMap.enumMap.put(enumConstant, stringResource);
+					return new OptionalBinaryObject(mappedBuffer);
 				}
-				field.set(resourceHolder, enumStringMap);
 			}
+			binaryResource = buffer.map(ByteBuffer::array);
 		}
 		else
 		{
-			LOGGER.log(Level.WARNING,
-				"Invalid declaration of field »EnumStringMap<Enum> {0}«", fieldName);
+			binaryResource = copyBinaryResource(pass, resourceLocation, binaryPath);
 		}
+		if (binaryObject != null)
+		{
+			binaryObject.set(binaryResource);
+			return binaryObject;
+		}
+		else
+		{
+			return binaryResource.map(OptionalBinaryObject::new).orElse(null);
+		}
+	}
+
+	private void handleFieldBinary(Object resourceHolder, InjectionPass pass, InjectionPlan plan,
+		FieldPlan fieldPlan)
+		throws ReflectiveOperationException
+	{
+		final FieldAccessor accessor = fieldPlan.getAccessor(getInjectionBackend());
+		final OptionalBinaryObject binaryObject =
+			(accessor.get(resourceHolder) instanceof OptionalBinaryObject optionalBinaryObject) ?
+			optionalBinaryObject : null;
+		final OptionalBinaryObject value =
+			injectBinary(pass, binaryObject, plan.getResourceLocation(), fieldPlan.getBinaryPath());
+		if (value != null && value != binaryObject)
+		{
+			accessor.set(resourceHolder, value);
+		}
+	}
+
+	private @Nullable
+	EnumStringMap<?> createEnumStringMap(InjectionPass pass, InjectionPlan plan, FieldPlan fieldPlan)
+	{
+		final Class<? extends Enum> enumClass = fieldPlan.getEnumClass();
+		return (enumClass != null) ? createEnumStringMap(pass, plan.getResourceLocation(),
+			enumClass, fieldPlan.getEnumConstants(), fieldPlan.getEnumResourceKeys()) : null;
 	}
 
 	@SuppressWarnings("unchecked")
-	private void handleFieldEnumByteArrays(Object resourceHolder, String resourceKeyPrefix,
-		Field field, Map<String, Class<? extends Enum>> mapEnumTypes)
-		throws IllegalArgumentException, IllegalAccessException
+	private static EnumStringMap<?> createEnumStringMap(InjectionPass pass,
+		ResourceLocation resourceLocation, Class<? extends Enum> enumClass,
+		Enum<?>[] enumConstants, String[] resourceKeys)
 	{
-		final String fieldName = field.getName();
-		final EnumType enumType = field.getAnnotation(EnumType.class);
-		final Class<? extends Enum> enumClass = (enumType != null) ?
-			enumType.value() : mapEnumTypes.get(fieldName);
-		if (enumClass != null)
+		final @Nullable String[] values = new String[enumConstants.length];
+		final int n = Math.min(enumConstants.length, resourceKeys.length);
+		for (int i = 0; i < n; i++)
 		{
-			class EnumByteArrayMapImpl<E extends Enum<E>>
-				extends AbstractMap<E, byte[]>
-				implements EnumByteArrayMap<E>
-			{
-				private final EnumMap<@KeyFor("this") E, byte[]> enumMap = new EnumMap<>(enumClass);
+			values[enumConstants[i].ordinal()] =
+				getStringResource(pass, resourceLocation, resourceKeys[i], true);
+		}
+		return new EnumStringMapImpl(enumClass, enumConstants, values);
+	}
 
-				@Override
-				public Set<Entry<@KeyFor("this") E, byte[]>> entrySet()
-				{
-					return enumMap.entrySet();
-				}
-			}
-			final var enumByteArrayMap = new EnumByteArrayMapImpl();
-			final var enumConstants = enumClass.getEnumConstants();
-			if (enumConstants != null)
+	private @Nullable
+	EnumByteArrayMap<?> createEnumByteArrayMap(InjectionPass pass, InjectionPlan plan,
+		FieldPlan fieldPlan)
+	{
+		final Class<? extends Enum> enumClass = fieldPlan.getEnumClass();
+		return (enumClass != null) ? createEnumByteArrayMap(pass, plan.getResourceLocation(),
+			enumClass, fieldPlan.getEnumConstants(), fieldPlan.getEnumResourceKeys()) : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private EnumByteArrayMap<?> createEnumByteArrayMap(InjectionPass pass,
+		ResourceLocation resourceLocation, Class<? extends Enum> enumClass, Enum<?>[] enumConstants,
+		String[] binaryPaths)
+	{
+		// the maps are immutable, so they are cached as a whole and shared:
+		final BinaryResourceCache cache = BinaryResourceCache.getInstance();
+		final var key = new BinaryResourceCache.EnumMapKey(resourceLocation.getBinaryResourcesModule(),
+			enumClass, List.of(binaryPaths), options.directBuffers());
+		if (cache.get(key) instanceof EnumByteArrayMapImpl<?> cached)
+		{
+			pass.addDeduplicatedBytes(cached.getDeduplicatedLength());
+			return cached;
+		}
+		final byte[] @Nullable [] data = new byte[enumConstants.length][];
+		final int n = Math.min(enumConstants.length, binaryPaths.length);
+		if (isForking(n))
+		{
+			final List<ForkJoinTask<?>> tasks = new ArrayList<>(n);
+			for (int i = 0; i < n; i++)
 			{
-				for (Enum enumConstant : enumConstants)
-				{
-					final String resourceKey = resourceKeyPrefix + SEPARATOR_ENUM_FILE + enumConstant.name();
-					getBinaryResource(resourceHolder, resourceKey, field.getAnnotation(FileExt.class))
-						.ifPresent(binaryResource -> enumByteArrayMap.enumMap.put(enumConstant, binaryResource));
-				}
-				field.set(resourceHolder, enumByteArrayMap);
+				final Enum<?> enumConstant = enumConstants[i];
+				final String binaryPath = binaryPaths[i];
+				tasks.add(ForkJoinTask.adapt(() -> data[enumConstant.ordinal()] =
+					readBinaryResource(pass, resourceLocation, binaryPath)
+						.map(ByteBuffer::array).orElse(null)));
 			}
+			ForkJoinTask.invokeAll(tasks);
 		}
 		else
 		{
-			LOGGER.log(Level.WARNING,
-				"Invalid declaration of field »EnumByteArrayMap<Enum> {0}«", fieldName);
+			for (int i = 0; i < n; i++)
+			{
+				data[enumConstants[i].ordinal()] = readBinaryResource(pass, resourceLocation, binaryPaths[i])
+					.map(ByteBuffer::array).orElse(null);
+			}
 		}
+		final EnumByteArrayMapImpl<?> enumByteArrayMap = EnumByteArrayMapImpl.create(
+			(Class) enumClass, (Enum[]) enumConstants, data, options.directBuffers());
+		pass.addDeduplicatedBytes(enumByteArrayMap.getDeduplicatedLength());
+		// the map refers to the enum class, so it is held by the enum class:
+		return (EnumByteArrayMap<?>) cache.putIfAbsent(key, enumByteArrayMap,
+			enumByteArrayMap.getTotalLength(), enumClass);
 	}
 
 	@Deprecated
 	@SuppressWarnings("unchecked")
-	private void handleFieldEnumResourceHolder(Object resourceHolder,
-		String resourceKeyPrefix, Field field) throws ReflectiveOperationException
+	private void handleFieldEnumResourceHolder(Object resourceHolder, InjectionPass pass,
+		FieldPlan fieldPlan)
+		throws ReflectiveOperationException
 	{
-		final String fieldName = field.getName();
-		final EnumType enumType = field.getAnnotation(EnumType.class);
-		final Class<? extends Enum> enumClass = (enumType != null) ? enumType.value() : null;
-		final ResourceHolderType resourceHolderType = field.getAnnotation(ResourceHolderType.class);
-		final Class<? extends ResourceHolder> resourceHolderClass = (resourceHolderType != null) ?
-			resourceHolderType.value() : null;
-		if (enumClass != null)
+		final Class<? extends Enum> enumClass = fieldPlan.getEnumClass();
+		final Class<? extends ResourceHolder> resourceHolderClass = fieldPlan.getResourceHolderClass();
+		if (enumClass != null && resourceHolderClass != null)
 		{
-			if (resourceHolderClass != null)
+			class EnumResourceHolderMapImpl<E extends Enum<E>, R extends ResourceHolder>
+				extends AbstractMap<E, R> implements EnumResourceHolderMap<E, R>
 			{
-				class EnumResourceHolderMapImpl<E extends Enum<E>, R extends ResourceHolder>
-					extends AbstractMap<E, R> implements EnumResourceHolderMap<E, R>
-				{
-					private final EnumMap<@KeyFor("this") E, R> enumMap = new EnumMap<>(enumClass);
+				private final EnumMap<@KeyFor("this") E, R> enumMap = new EnumMap<>(enumClass);
 
-					@Override
-					public Set<Entry<@KeyFor("this") E, R>> entrySet()
-					{
-						return enumMap.entrySet();
-					}
-				}
-				final var enumResourceHolderMap = new EnumResourceHolderMapImpl();
-				final var enumConstants = enumClass.getEnumConstants();
-				if (enumConstants != null)
+				@Override
+				public Set<Entry<@KeyFor("this") E, R>> entrySet()
 				{
-					for (Enum enumConstant : enumConstants)
-					{
-						final String prefix = resourceKeyPrefix + SEPARATOR_ENUM_FILE +
-							enumConstant.name() + SEPARATOR_KEY_NESTED;
-						final ResourceHolder newInstance = resourceHolderClass.getDeclaredConstructor().newInstance();
-						enumResourceHolderMap.enumMap.put(enumConstant, newInstance);
-						handleResourceHolder(newInstance, prefix, field);
-					}
+					return enumMap.entrySet();
 				}
 			}
-			else
+			final var enumResourceHolderMap = new EnumResourceHolderMapImpl();
+			final Enum<?>[] enumConstants = fieldPlan.getEnumConstants();
+			final InjectionPlan[] nestedPlans = fieldPlan.getEnumNestedPlans();
+			for (int i = 0; i < enumConstants.length; i++)
 			{
-				LOGGER.log(Level.WARNING,
-					"Missing @ResourceHolderType on field »EnumResourceHolderMap<E extends Enum<E>> {0}«",
-					fieldName);
+				final ResourceHolder newInstance = resourceHolderClass.cast(
+					nestedPlans[i].newInstance(getInjectionBackend()));
+				enumResourceHolderMap.enumMap.put(enumConstants[i], newInstance);
+				handleResourceHolder(newInstance, pass, nestedPlans[i]);
 			}
 		}
-		else
-		{
-			LOGGER.log(Level.WARNING,
-				"Missing @EnumType on field »EnumResourceHolderMap<E extends Enum<E>> {0}«",
-				fieldName);
-		}
 	}
 }
@@ -26,7 +26,9 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import static java.lang.System.Logger.Level.*;
 
 /**
- * Class to centrally manage resource injection.
+ * Class to centrally manage resource injection. A ResourceLoader is meant to
+ * be used by a single thread (e.g. an UI thread), while the underlying
+ * {@link ResourceInjector} may be shared by any number of threads.
  *
  * @author Bernd Michaely (info@bernd-michaely.de)
  */
@@ -34,7 +36,7 @@ public class ResourceLoader
 {
 	private static final Logger LOGGER = System.getLogger(ResourceLoader.class.getName());
 	private final List<ResourceHolderCallback> listCallbacks = new ArrayList<>();
-	private Locale locale = Locale.ROOT;
+	private ResourceInjector resourceInjector;
 
 	/**
 	 * Class to encapsulate a ResourceHolder callback method with its
@@ -106,6 +108,29 @@ public class ResourceLoader
 		}
 	}
 
+	/**
+	 * Creates a new ResourceLoader instance using a default ResourceInjector
+	 * for the {@link Locale#ROOT root locale}.
+	 */
+	public ResourceLoader()
+	{
+		this(new ResourceInjector(Locale.ROOT));
+	}
+
+	/**
+	 * Creates a new ResourceLoader instance using the given ResourceInjector.
+	 * On locale changes, the ResourceInjector is derived from the given one by
+	 * {@link ResourceInjector#withLocale(Locale)}, so all other options are
+	 * retained.
+	 *
+	 * @param resourceInjector the ResourceInjector to use
+	 * @throws NullPointerException if resourceInjector is null
+	 */
+	public ResourceLoader(ResourceInjector resourceInjector)
+	{
+		this.resourceInjector = Objects.requireNonNull(resourceInjector, "resourceInjector is null");
+	}
+
 	/**
 	 * Registers a callback method for a ResourceHolder class. If the callback
 	 * method was already registered before, it will be moved to the end of the
@@ -125,10 +150,7 @@ public class ResourceLoader
 			new ResourceHolderCallback<>(callback, resourceHolderClass);
 		final boolean isDuplicate = this.listCallbacks.remove(resourceHolderCallback);
 		this.listCallbacks.add(resourceHolderCallback);
-		if (this.locale != null)
-		{
-			resourceHolderCallback.runCallback(new ResourceInjector(this.locale));
-		}
+		resourceHolderCallback.runCallback(this.resourceInjector);
 		return isDuplicate;
 	}
 
@@ -161,7 +183,7 @@ public class ResourceLoader
 	 */
 	public Locale getLocale()
 	{
-		return locale;
+		return resourceInjector.getLocale();
 	}
 
 	/**
@@ -174,11 +196,10 @@ public class ResourceLoader
 	public void setLocale(Locale locale)
 	{
 		final Locale l = Objects.requireNonNullElse(locale, Locale.ROOT);
-		if (!l.equals(this.locale))
+		if (!l.equals(getLocale()))
 		{
-			this.locale = l;
-			final ResourceInjector resourceInjector = new ResourceInjector(l);
-			this.listCallbacks.forEach(c -> c.runCallback(resourceInjector));
+			this.resourceInjector = this.resourceInjector.withLocale(l);
+			this.listCallbacks.forEach(c -> c.runCallback(this.resourceInjector));
 		}
 	}
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+/**
+ * Resolved location of the string and binary resources of a ResourceHolder
+ * class.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class ResourceLocation
+{
+	private final boolean hasAnyResources;
+	private final Module stringResourcesModule;
+	private final String bundleBaseName;
+	private final Module binaryResourcesModule;
+	private final String binaryPathPrefix;
+
+	/**
+	 * Resolves the resource location.
+	 *
+	 * @param param         the resource parameters of the top level
+	 *                      ResourceHolder
+	 * @param defaultModule the module to use, if no module name is given
+	 */
+	ResourceLocation(ResourceParameters param, Module defaultModule)
+	{
+		this.hasAnyResources = param.hasAnyResources();
+		this.stringResourcesModule = param.getStringResourcesModule(defaultModule);
+		this.bundleBaseName = param.getBundleBaseName();
+		this.binaryResourcesModule = param.getBinaryResourcesModule(defaultModule);
+		this.binaryPathPrefix = param.getBinaryPathPrefix();
+	}
+
+	/**
+	 * Resolves the resource location of a ResourceHolder class.
+	 *
+	 * @param resourceHolderClass the ResourceHolder class
+	 * @return the resource location
+	 */
+	static ResourceLocation of(Class<? extends ResourceHolder> resourceHolderClass)
+	{
+		return new ResourceLocation(new ResourceParameters(resourceHolderClass),
+			resourceHolderClass.getModule());
+	}
+
+	boolean hasAnyResources()
+	{
+		return hasAnyResources;
+	}
+
+	Module getStringResourcesModule()
+	{
+		return stringResourcesModule;
+	}
+
+	/**
+	 * Returns the fully qualified base name of the resource bundle.
+	 *
+	 * @return the fully qualified base name of the resource bundle
+	 */
+	String getBundleBaseName()
+	{
+		return bundleBaseName;
+	}
+
+	Module getBinaryResourcesModule()
+	{
+		return binaryResourcesModule;
+	}
+
+	/**
+	 * Returns the absolute path of the binary resources package within its
+	 * module, including a trailing slash.
+	 *
+	 * @return the absolute path prefix of binary resources
+	 */
+	String getBinaryPathPrefix()
+	{
+		return binaryPathPrefix;
+	}
+}
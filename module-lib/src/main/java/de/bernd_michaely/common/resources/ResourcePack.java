@@ -0,0 +1,218 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import static de.bernd_michaely.common.resources.SharedConstants.FILE_NAME_RESOURCE_PACK;
+import static de.bernd_michaely.common.resources.SharedConstants.RESOURCE_PACK_MAGIC;
+
+/**
+ * Reader of a resource pack file containing all binary resources of a
+ * package. Reading resources from a pack requires a single resource lookup
+ * per package instead of one per file, which pays off for many small files,
+ * e.g. icons in a jar file.
+ * <p>
+ * Packs are optionally generated by the annotation processor, see
+ * {@link ResourcePackWriter} for the format, and are read only if enabled by
+ * {@link ResourceInjector#withResourcePacks(boolean)}.
+ * </p>
+ * The packs of all packages are cached with soft references, so that their
+ * data may be reclaimed, once the resources are held by the
+ * {@link BinaryResourceCache}. The absence of a pack is cached until
+ * {@link #invalidate() invalidated}. Modules are referred to by
+ * {@link WeakKey}s, so the packs and missing packs of collected modules are
+ * forgotten, too.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class ResourcePack
+{
+	private static final Logger LOGGER = System.getLogger(ResourcePack.class.getName());
+	private static final Map<PackKey, SoftReference<ResourcePack>> PACKS = new ConcurrentHashMap<>();
+	private static final SoftReference<ResourcePack> NO_PACK = new SoftReference<>(null);
+	private static volatile long clearedCount;
+	private final byte[] data;
+	private final int dataOffset;
+	private final Map<String, Entry> entries;
+
+	private record PackKey(WeakKey module, String packPath)
+	{
+	}
+
+	private record Entry(int offset, int length)
+	{
+	}
+
+	private ResourcePack(byte[] data, int dataOffset, Map<String, Entry> entries)
+	{
+		this.data = data;
+		this.dataOffset = dataOffset;
+		this.entries = entries;
+	}
+
+	/**
+	 * Parses the index of a resource pack.
+	 *
+	 * @param data the content of the pack file
+	 * @return the resource pack
+	 * @throws IOException if the data is not a valid resource pack
+	 */
+	static ResourcePack read(byte[] data) throws IOException
+	{
+		final var inputStream = new ByteArrayInputStream(data);
+		final var dataInputStream = new DataInputStream(inputStream);
+		if (dataInputStream.readInt() != RESOURCE_PACK_MAGIC)
+		{
+			throw new IOException("Invalid resource pack magic number");
+		}
+		final int n = dataInputStream.readInt();
+		if (n < 0)
+		{
+			throw new IOException("Invalid number of resource pack entries: " + n);
+		}
+		final var entries = new HashMap<String, Entry>();
+		for (int i = 0; i < n; i++)
+		{
+			entries.put(dataInputStream.readUTF(),
+				new Entry(dataInputStream.readInt(), dataInputStream.readInt()));
+		}
+		final int dataOffset = data.length - inputStream.available();
+		final int dataLength = data.length - dataOffset;
+		for (Map.Entry<String, Entry> entry : entries.entrySet())
+		{
+			final Entry value = entry.getValue();
+			if (value.offset() < 0 || value.length() < 0 || value.offset() > dataLength - value.length())
+			{
+				throw new IOException("Invalid resource pack entry »" + entry.getKey() + "«");
+			}
+		}
+		return new ResourcePack(data, dataOffset, entries);
+	}
+
+	/**
+	 * Returns the pack containing the given binary resource, if its package has
+	 * a pack.
+	 *
+	 * @param module     the module containing the resource
+	 * @param binaryPath the absolute path of the resource within its module
+	 * @return the resource pack or null, if there is none
+	 */
+	static @Nullable
+	ResourcePack get(Module module, String binaryPath)
+	{
+		final String packPath = binaryPath.substring(0, binaryPath.lastIndexOf('/') + 1) +
+			FILE_NAME_RESOURCE_PACK;
+		final var key = new PackKey(WeakKey.of(module), packPath);
+		final SoftReference<ResourcePack> reference = PACKS.get(key);
+		final ResourcePack cached = (reference != null) ? reference.get() : null;
+		if (cached != null || reference == NO_PACK)
+		{
+			return cached;
+		}
+		final ResourcePack resourcePack = load(module, packPath);
+		purge();
+		PACKS.put(key, (resourcePack != null) ? new SoftReference<>(resourcePack) : NO_PACK);
+		return resourcePack;
+	}
+
+	private static @Nullable
+	ResourcePack load(Module module, String packPath)
+	{
+		try (InputStream inputStream = module.getResourceAsStream(packPath))
+		{
+			return (inputStream != null) ? read(inputStream.readAllBytes()) : null;
+		}
+		catch (IOException ex)
+		{
+			LOGGER.log(Level.WARNING, "Invalid resource pack »{0}« – using separate files", packPath);
+			return null;
+		}
+	}
+
+	/**
+	 * Forgets the packs and missing packs of collected modules, if any
+	 * modules have been collected since the last purge.
+	 */
+	private static void purge()
+	{
+		final long count = WeakKey.getClearedCount();
+		if (count != clearedCount)
+		{
+			clearedCount = count;
+			PACKS.keySet().removeIf(key -> key.module().isCleared());
+		}
+	}
+
+	/**
+	 * Forgets all cached packs and missing packs.
+	 */
+	static void invalidate()
+	{
+		PACKS.clear();
+	}
+
+	/**
+	 * Forgets the cached packs and missing packs of the given module.
+	 *
+	 * @param module the module containing the packs
+	 */
+	static void invalidate(Module module)
+	{
+		PACKS.keySet().removeIf(key -> key.module().isKeyOf(module));
+	}
+
+	/**
+	 * Returns a copy of the data of the given binary resource.
+	 *
+	 * @param binaryPath the absolute path of the resource within its module
+	 * @return the data or null, if the resource is not contained in the pack
+	 */
+	byte @Nullable [] getData(String binaryPath)
+	{
+		final Entry entry = entries.get(binaryPath.substring(binaryPath.lastIndexOf('/') + 1));
+		if (entry != null)
+		{
+			final int from = dataOffset + entry.offset();
+			return Arrays.copyOfRange(data, from, from + entry.length());
+		}
+		else
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the number of entries.
+	 *
+	 * @return the number of entries
+	 */
+	int size()
+	{
+		return entries.size();
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static de.bernd_michaely.common.resources.SharedConstants.RESOURCE_PACK_MAGIC;
+
+/**
+ * Writer of a resource pack file containing the binary resources of a
+ * package, mainly provided for the annotation processor. At runtime, a pack
+ * named {@link SharedConstants#FILE_NAME_RESOURCE_PACK} is used to read the
+ * resources of its package with a single resource lookup.
+ * <p>
+ * The format (big endian, as written by a {@link DataOutputStream}) is:
+ * </p>
+ * <pre>
+ * int     magic number {@link SharedConstants#RESOURCE_PACK_MAGIC}
+ * int     number of entries n
+ * n times:
+ *   UTF   file name
+ *   int   offset of the entry data relative to the start of the data section
+ *   int   length of the entry data
+ * bytes   data section
+ * </pre>
+ * Entries with identical content share their data.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public final class ResourcePackWriter
+{
+	private final SortedMap<String, byte[]> entries = new TreeMap<>();
+
+	/**
+	 * Adds an entry. An entry added before with the same file name is
+	 * replaced.
+	 *
+	 * @param fileName the file name of the resource within its package
+	 * @param data     the content of the resource
+	 * @return this writer
+	 * @throws NullPointerException     if an argument is null
+	 * @throws IllegalArgumentException if the file name contains a slash
+	 */
+	public ResourcePackWriter add(String fileName, byte[] data)
+	{
+		if (Objects.requireNonNull(fileName, "fileName is null").contains("/"))
+		{
+			throw new IllegalArgumentException("Invalid file name »" + fileName + "«");
+		}
+		entries.put(fileName, Objects.requireNonNull(data, "data is null").clone());
+		return this;
+	}
+
+	/**
+	 * Returns the number of entries.
+	 *
+	 * @return the number of entries
+	 */
+	public int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * Writes the pack.
+	 *
+	 * @param outputStream the stream to write to, which is not closed
+	 * @throws IOException if an I/O error occurs or the pack exceeds 2 GiB
+	 */
+	public void write(OutputStream outputStream) throws IOException
+	{
+		final var dataSection = new ByteArrayOutputStream();
+		final Map<ByteBuffer, Integer> offsets = new HashMap<>();
+		final Map<String, Integer> entryOffsets = new HashMap<>();
+		for (Map.Entry<String, byte[]> entry : entries.entrySet())
+		{
+			final byte[] data = entry.getValue();
+			Integer offset = offsets.get(ByteBuffer.wrap(data));
+			if (offset == null)
+			{
+				if ((long) dataSection.size() + data.length > Integer.MAX_VALUE)
+				{
+					throw new IOException("Resource pack exceeds 2 GiB");
+				}
+				offset = dataSection.size();
+				offsets.put(ByteBuffer.wrap(data), offset);
+				dataSection.writeBytes(data);
+			}
+			entryOffsets.put(entry.getKey(), offset);
+		}
+		final var dataOutputStream = new DataOutputStream(outputStream);
+		dataOutputStream.writeInt(RESOURCE_PACK_MAGIC);
+		dataOutputStream.writeInt(entries.size());
+		for (Map.Entry<String, byte[]> entry : entries.entrySet())
+		{
+			dataOutputStream.writeUTF(entry.getKey());
+			dataOutputStream.writeInt(entryOffsets.get(entry.getKey()));
+			dataOutputStream.writeInt(entry.getValue().length);
+		}
+		dataSection.writeTo(dataOutputStream);
+		dataOutputStream.flush();
+	}
+}
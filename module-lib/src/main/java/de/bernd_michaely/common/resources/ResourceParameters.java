@@ -92,6 +92,17 @@ public class ResourceParameters
 			this.stringResources.basename() : "";
 	}
 
+	/**
+	 * Returns the fully qualified base name of the resource bundle.
+	 *
+	 * @return the fully qualified base name of the resource bundle
+	 */
+	public String getBundleBaseName()
+	{
+		final String packageName = getStringResourcePackageName();
+		return packageName.isBlank() ? getBasename() : (packageName + '.' + getBasename());
+	}
+
 	Module getStringResourcesModule(Module defaultModule)
 	{
 		return (this.stringResources != null &&
@@ -124,6 +135,19 @@ public class ResourceParameters
 			this.binaryResources.defaultExtension() : "";
 	}
 
+	/**
+	 * Returns the absolute path of the binary resources package within its
+	 * module, including a trailing slash, e.g. <code>/com/example/icons/</code>.
+	 *
+	 * @return the absolute path prefix of binary resources
+	 */
+	public String getBinaryPathPrefix()
+	{
+		final String p = getBinaryResourcePackageName();
+		final String packageName = p.isEmpty() ? ResourceParameters.class.getPackageName() : p;
+		return "/" + packageName.replace('.', '/') + "/";
+	}
+
 	Module getBinaryResourcesModule(Module defaultModule)
 	{
 		return (this.binaryResources != null &&
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Implementation of {@link BinaryResourceBuffer} wrapping a shared read-only
+ * buffer, which is injected into BinaryResourceBuffer fields. Instances are
+ * immutable. Two instances are equal, if they contain the same data.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class SharedBinaryBuffer implements BinaryResourceBuffer
+{
+	private final ByteBuffer buffer;
+	private final Object storage;
+	private final @Nullable EncodedVariants encodedVariants;
+
+	/**
+	 * Creates a new instance wrapping the given data without copying.
+	 *
+	 * @param data the data, which must not be modified afterwards
+	 */
+	SharedBinaryBuffer(byte[] data)
+	{
+		this.buffer = ByteBuffer.wrap(data).asReadOnlyBuffer();
+		this.storage = data;
+		this.encodedVariants = null;
+	}
+
+	/**
+	 * Creates a new instance viewing the given buffer without copying.
+	 *
+	 * @param buffer the buffer, e.g. a memory mapped file, whose content must
+	 *               not be modified afterwards
+	 */
+	SharedBinaryBuffer(ByteBuffer buffer)
+	{
+		this.buffer = buffer.slice().asReadOnlyBuffer();
+		this.storage = buffer.hasArray() ? buffer.array() : buffer;
+		this.encodedVariants = null;
+	}
+
+	private SharedBinaryBuffer(SharedBinaryBuffer other, @Nullable EncodedVariants encodedVariants)
+	{
+		this.buffer = other.buffer;
+		this.storage = other.storage;
+		this.encodedVariants = encodedVariants;
+	}
+
+	/**
+	 * Returns an instance sharing the data of this instance, which provides
+	 * the precompressed variants and the content hash of the given manifest
+	 * entry.
+	 *
+	 * @param encodedVariants the manifest entry of the resource or null
+	 * @return a new instance or this instance, if encodedVariants is null
+	 */
+	SharedBinaryBuffer withEncodedVariants(@Nullable EncodedVariants encodedVariants)
+	{
+		return (encodedVariants != null) ? new SharedBinaryBuffer(this, encodedVariants) : this;
+	}
+
+	/**
+	 * Returns true, if this instance views the same storage as the given
+	 * instance, i.e. the same array or the same direct buffer.
+	 *
+	 * @param other the other instance
+	 * @return true, if the storage is shared
+	 */
+	boolean sharesStorageWith(SharedBinaryBuffer other)
+	{
+		return storage == other.storage;
+	}
+
+	@Override
+	public ByteBuffer getByteBuffer()
+	{
+		return buffer.duplicate();
+	}
+
+	@Override
+	public int size()
+	{
+		return buffer.capacity();
+	}
+
+	@Override
+	public Optional<BinaryResourceBuffer> getEncodedBuffer(ContentEncoding contentEncoding)
+	{
+		return (encodedVariants != null) ? encodedVariants.getBuffer(contentEncoding) : Optional.empty();
+	}
+
+	@Override
+	public Optional<String> getContentHash()
+	{
+		return Optional.ofNullable((encodedVariants != null) ? encodedVariants.getContentHash() : null);
+	}
+
+	/**
+	 * Returns true, if the data is a memory mapped file or otherwise outside
+	 * of the heap.
+	 *
+	 * @return true, if the buffer is direct
+	 */
+	boolean isDirect()
+	{
+		return buffer.isDirect();
+	}
+
+	@Override
+	public boolean equals(@Nullable Object object)
+	{
+		return object == this ||
+			(object instanceof SharedBinaryBuffer other && buffer.equals(other.buffer));
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return buffer.hashCode();
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[size=" + size() + "]";
+	}
+}
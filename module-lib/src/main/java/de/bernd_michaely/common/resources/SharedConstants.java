@@ -33,6 +33,16 @@ public interface SharedConstants
 //	String TYPE_NAME_BYTE_ARRAY = "byte[]";
 //	String CLASS_NAME_BYTE_ARRAY = "[B";
 	String TYPE_NAME_BYTE_ARRAY = "de.bernd_michaely.common.resources.OptionalBinaryObject";
+	String TYPE_NAME_BINARY_STREAM =
+		"de.bernd_michaely.common.resources.BinaryResourceStream";
+	String TYPE_NAME_BINARY_CHANNEL =
+		"de.bernd_michaely.common.resources.BinaryResourceChannel";
+	String TYPE_NAME_BINARY_BUFFER =
+		"de.bernd_michaely.common.resources.BinaryResourceBuffer";
+	String TYPE_NAME_BINARY_RANGE =
+		"de.bernd_michaely.common.resources.BinaryResourceRange";
+	String TYPE_NAME_DECODED_BINARY_OBJECT =
+		"de.bernd_michaely.common.resources.DecodedBinaryObject";
 	String TYPE_NAME_ENUM_STRING_MAP =
 		"de.bernd_michaely.common.resources.EnumStringMap";
 	String TYPE_NAME_ENUM_BYTE_ARRAY_MAP =
@@ -40,4 +50,26 @@ public interface SharedConstants
 //	@Deprecated
 	String TYPE_NAME_ENUM_RESOURCE_HOLDER_MAP =
 		"de.bernd_michaely.common.resources.EnumResourceHolderMap";
+	// generated code:
+	/**
+	 * Suffix appended to the binary name of a ResourceHolder class to form the
+	 * name of its generated {@link ResourceHolderInjector}.
+	 */
+	String SUFFIX_GENERATED_INJECTOR = "$$Injector";
+	// resource packs:
+	/**
+	 * Name of the pack file containing the binary resources of a package,
+	 * optionally generated by the annotation processor.
+	 */
+	String FILE_NAME_RESOURCE_PACK = "binary-resources.pack";
+	/**
+	 * Magic number at the start of a resource pack file.
+	 */
+	int RESOURCE_PACK_MAGIC = 0x52504b31;
+	/**
+	 * Name of the manifest file listing the size, content hash and
+	 * precompressed variants of the binary resources of a package, optionally
+	 * generated by the annotation processor.
+	 */
+	String FILE_NAME_BINARY_MANIFEST = "binary-resources.manifest";
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Weak identity of a module, class or decoder within the keys of the process
+ * wide caches. Like the {@link ClassValue} based caches of injection plans,
+ * these caches must never keep a module, and thereby its class loader,
+ * reachable. There is a single instance per live referent, so instances are
+ * compared by identity. Caches remove the entries of
+ * {@link #isCleared() cleared} keys, whenever the
+ * {@link #getClearedCount() number of cleared keys} has changed.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+final class WeakKey extends WeakReference<Object>
+{
+	private static final Map<Object, WeakKey> KEYS = new WeakHashMap<>();
+	private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+	private static final AtomicLong CLEARED_COUNT = new AtomicLong();
+
+	private WeakKey(Object referent)
+	{
+		super(referent, QUEUE);
+	}
+
+	/**
+	 * Returns the key of the given object.
+	 *
+	 * @param referent the module, class or decoder
+	 * @return the key, which is the same for all calls with the same referent
+	 */
+	static WeakKey of(Object referent)
+	{
+		synchronized (KEYS)
+		{
+			return KEYS.computeIfAbsent(referent, WeakKey::new);
+		}
+	}
+
+	/**
+	 * Returns the number of keys cleared so far. Caches compare it with the
+	 * number at their last purge to avoid scanning their entries needlessly.
+	 *
+	 * @return the number of cleared keys
+	 */
+	static long getClearedCount()
+	{
+		while (QUEUE.poll() != null)
+		{
+			CLEARED_COUNT.incrementAndGet();
+		}
+		return CLEARED_COUNT.get();
+	}
+
+	/**
+	 * Returns true, if the referent has been collected.
+	 *
+	 * @return true, if the referent has been collected
+	 */
+	boolean isCleared()
+	{
+		return refersTo(null);
+	}
+
+	/**
+	 * Returns true, if this is the key of the given object.
+	 *
+	 * @param object the object
+	 * @return true, if this key refers to the object
+	 */
+	boolean isKeyOf(@Nullable Object object)
+	{
+		return object != null && refersTo(object);
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + "[" + get() + "]";
+	}
+}
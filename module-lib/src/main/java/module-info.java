@@ -37,6 +37,9 @@
 module de.bernd_michaely.common.resources
 {
 	requires java.compiler;
+	requires static java.desktop;
 	requires org.checkerframework.checker.qual;
 	exports de.bernd_michaely.common.resources;
+	uses de.bernd_michaely.common.resources.BinaryDecoder;
+	uses de.bernd_michaely.common.resources.ResourceHolderInjector;
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.lang.reflect.Field;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class Accessors.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class AccessorsTest
+{
+	public static class TestObject
+	{
+		public String text;
+		public final String finalText = "final";
+		public int number;
+	}
+
+	static class NonPublicObject
+	{
+		String text;
+	}
+
+	private static Field getField(Class<?> type, String name) throws NoSuchFieldException
+	{
+		return type.getDeclaredField(name);
+	}
+
+	@Test
+	public void testFieldAccess() throws ReflectiveOperationException
+	{
+		for (InjectionBackend backend : InjectionBackend.values())
+		{
+			final TestObject testObject = new TestObject();
+			final FieldAccessor accessor = Accessors.createFieldAccessor(
+				getField(TestObject.class, "text"), backend);
+			accessor.set(testObject, "value");
+			assertEquals("value", testObject.text, backend.name());
+			assertEquals("value", accessor.get(testObject), backend.name());
+			accessor.set(testObject, null);
+			assertNull(testObject.text, backend.name());
+			final FieldAccessor accessorFinal = Accessors.createFieldAccessor(
+				getField(TestObject.class, "finalText"), backend);
+			assertEquals("final", accessorFinal.get(testObject), backend.name());
+			assertThrows(IllegalAccessException.class, () -> accessorFinal.set(testObject, ""));
+			final FieldAccessor accessorNumber = Accessors.createFieldAccessor(
+				getField(TestObject.class, "number"), backend);
+			assertThrows(IllegalArgumentException.class, () -> accessorNumber.set(testObject, "1"));
+		}
+	}
+
+	@Test
+	public void testFallbackToReflection() throws ReflectiveOperationException
+	{
+		final NonPublicObject object = new NonPublicObject();
+		final FieldAccessor accessor = Accessors.createFieldAccessor(
+			getField(NonPublicObject.class, "text"), InjectionBackend.METHOD_HANDLES);
+		accessor.set(object, "value");
+		assertEquals("value", object.text);
+	}
+
+	@Test
+	public void testInstanceFactory() throws ReflectiveOperationException
+	{
+		for (InjectionBackend backend : InjectionBackend.values())
+		{
+			assertInstanceOf(TestObject.class,
+				Accessors.createInstanceFactory(TestObject.class, backend).newInstance());
+		}
+		assertThrows(NoSuchMethodException.class, () ->
+			Accessors.createInstanceFactory(Integer.class, InjectionBackend.METHOD_HANDLES));
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class BinaryInterner.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class BinaryInternerTest
+{
+	public enum ButtonType
+	{
+		ONE, TWO, THREE
+	}
+
+	@StringResources(packagename = ".dedup", basename = "strings")
+	@BinaryResources(packagename = ".dedup", defaultExtension = ".bin")
+	public static class DedupResources extends ResourceHolder
+	{
+		public final OptionalBinaryObject icon = new OptionalBinaryObject();
+		public BinaryResourceBuffer copy;
+		public final OptionalBinaryObject other = new OptionalBinaryObject();
+		@EnumType(ButtonType.class)
+		public EnumByteArrayMap<ButtonType> buttonIcons;
+	}
+
+	private static SharedBinaryBuffer getShared(BinaryResourceBuffer buffer)
+	{
+		return assertInstanceOf(SharedBinaryBuffer.class, buffer);
+	}
+
+	@Test
+	public void testIntern()
+	{
+		final var interner = new BinaryInterner();
+		final byte[] data = "interned".getBytes(US_ASCII);
+		final BinaryInterner.Interned first = interner.intern("a", data);
+		assertSame(data, first.data());
+		assertFalse(first.duplicate());
+		final BinaryInterner.Interned reloaded = interner.intern("a", "interned".getBytes(US_ASCII));
+		assertSame(data, reloaded.data());
+		assertFalse(reloaded.duplicate(), "reloading the same resource is no duplicate");
+		final BinaryInterner.Interned second = interner.intern("b", "interned".getBytes(US_ASCII));
+		assertSame(data, second.data());
+		assertTrue(second.duplicate());
+		final byte[] other = "other".getBytes(US_ASCII);
+		assertSame(other, interner.intern("c", other).data());
+		assertEquals(2, interner.size());
+	}
+
+	@Test
+	public void testInternedDataIsNotExposed() throws IOException
+	{
+		ResourceCaches.invalidateBinaryResources();
+		final var resources = new DedupResources();
+		new ResourceInjector(Locale.ROOT).injectResourcesInto(resources);
+		final ByteBuffer placeholder = ByteBuffer.wrap("placeholder".getBytes(US_ASCII));
+		// the data of an OptionalBinaryObject is a private copy:
+		resources.icon.get()[0] = 'X';
+		assertEquals(placeholder, resources.copy.getByteBuffer());
+		assertEquals(placeholder, resources.buttonIcons.getByteBuffer(ButtonType.TWO));
+		// streams can not modify shared data:
+		resources.copy.transferTo(new OutputStream()
+		{
+			@Override
+			public void write(int b)
+			{
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len)
+			{
+				Arrays.fill(b, off, off + len, (byte) 'X');
+			}
+		});
+		assertEquals(placeholder, resources.copy.getByteBuffer());
+		final var other = new DedupResources();
+		new ResourceInjector(Locale.ROOT).injectResourcesInto(other);
+		assertEquals(placeholder, ByteBuffer.wrap(other.icon.get()));
+	}
+
+	@Test
+	public void testInjectionDeduplicates()
+	{
+		ResourceCaches.invalidateBinaryResources();
+		final long deduplicatedBytes = InjectionStatistics.getDeduplicatedBytes();
+		final var resources = new DedupResources();
+		new ResourceInjector(Locale.ROOT).injectResourcesInto(resources);
+		assertArrayEquals("placeholder".getBytes(US_ASCII), resources.icon.get());
+		assertEquals(ByteBuffer.wrap(resources.icon.get()), resources.copy.getByteBuffer());
+		assertTrue(resources.other.isPresent());
+		assertArrayEquals(resources.icon.get(), resources.buttonIcons.get(ButtonType.TWO));
+		// copy.bin + buttonIcons.TWO.bin:
+		final long expected = 2 * "placeholder".length();
+		assertEquals(expected, resources.getDeduplicatedBytes());
+		assertEquals(deduplicatedBytes + expected, InjectionStatistics.getDeduplicatedBytes());
+		// the report is the same for holders served by the binary resource cache:
+		final var cached = new DedupResources();
+		new ResourceInjector(Locale.ROOT).injectResourcesInto(cached);
+		assertTrue(getShared(resources.copy).sharesStorageWith(getShared(cached.copy)));
+		assertEquals(expected, cached.getDeduplicatedBytes());
+		// and for holders reloading the data:
+		ResourceCaches.invalidateBinaryResources();
+		final var reloaded = new DedupResources();
+		new ResourceInjector(Locale.ROOT).injectResourcesInto(reloaded);
+		assertTrue(getShared(resources.copy).sharesStorageWith(getShared(reloaded.copy)));
+		assertEquals(expected, reloaded.getDeduplicatedBytes());
+	}
+}
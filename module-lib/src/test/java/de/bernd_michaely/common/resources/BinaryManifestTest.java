@@ -0,0 +1,175 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the precompressed variants of binary resources, i.e. the
+ * classes BinaryManifestWriter, BinaryManifest and EncodedVariants.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class BinaryManifestTest
+{
+	@BinaryResources(packagename = ".precompressed", defaultExtension = ".svg")
+	public static class PrecompressedResources extends ResourceHolder
+	{
+		public BinaryResourceBuffer logo;
+		@ResourceKey("logo")
+		public BinaryResourceChannel logoChannel;
+		@ResourceKey("logo")
+		public BinaryResourceStream logoStream;
+		@FileExt(".bin")
+		public BinaryResourceBuffer small;
+		public BinaryResourceBuffer stale;
+		@ResourceKey("stale")
+		public BinaryResourceChannel staleChannel;
+		@ResourceKey("stale")
+		public BinaryResourceStream staleStream;
+		public BinaryResourceBuffer edited;
+	}
+
+	private static byte[] decode(ContentEncoding contentEncoding, byte[] data) throws IOException
+	{
+		final var inputStream = new ByteArrayInputStream(data);
+		try (InputStream decodingStream = (contentEncoding == ContentEncoding.GZIP) ?
+			new GZIPInputStream(inputStream) : new InflaterInputStream(inputStream))
+		{
+			return decodingStream.readAllBytes();
+		}
+	}
+
+	private static byte[] toByteArray(BinaryResourceBuffer buffer)
+	{
+		final ByteBuffer byteBuffer = buffer.getByteBuffer();
+		final byte[] data = new byte[byteBuffer.remaining()];
+		byteBuffer.get(data);
+		return data;
+	}
+
+	private static byte[] readResource(String fileName) throws IOException
+	{
+		try (InputStream inputStream = BinaryManifestTest.class.getResourceAsStream(
+			"precompressed/" + fileName))
+		{
+			assertNotNull(inputStream);
+			return inputStream.readAllBytes();
+		}
+	}
+
+	@Test
+	public void testWriter() throws IOException
+	{
+		final var writer = new BinaryManifestWriter();
+		final byte[] text = "compressible text ".repeat(100).getBytes(UTF_8);
+		final Map<ContentEncoding, byte[]> variants = writer.add("text.txt", text);
+		assertEquals(Set.of(ContentEncoding.values()), variants.keySet());
+		for (Map.Entry<ContentEncoding, byte[]> variant : variants.entrySet())
+		{
+			assertArrayEquals(text, decode(variant.getKey(), variant.getValue()));
+		}
+		assertTrue(writer.add("small.txt", "small".getBytes(UTF_8)).isEmpty());
+		final byte[] random = new byte[4096];
+		new Random(42).nextBytes(random);
+		assertTrue(writer.add("random.bin", random).isEmpty(), "incompressible data");
+		assertThrows(IllegalArgumentException.class, () -> writer.add("x/y.bin", random));
+		assertEquals(3, writer.size());
+	}
+
+	@Test
+	public void testReadManifest() throws IOException
+	{
+		final var writer = new BinaryManifestWriter();
+		writer.add("a b=c:d.txt", "x".repeat(1000).getBytes(UTF_8));
+		writer.add("small.txt", "small".getBytes(UTF_8));
+		final var outputStream = new ByteArrayOutputStream();
+		writer.write(outputStream);
+		outputStream.write("invalid.txt=abc\n".getBytes(UTF_8));
+		final Module module = getClass().getModule();
+		final BinaryManifest manifest = BinaryManifest.read(module, "/x/",
+			new ByteArrayInputStream(outputStream.toByteArray()));
+		assertEquals(2, manifest.size(), "invalid entries must be skipped");
+		final EncodedVariants encodedVariants = manifest.get("a b=c:d.txt");
+		assertNotNull(encodedVariants);
+		assertEquals(1000, encodedVariants.getSize());
+		assertEquals(Set.of(ContentEncoding.values()), encodedVariants.getContentEncodings());
+		assertEquals(Set.of(), manifest.get("small.txt").getContentEncodings());
+	}
+
+	@Test
+	public void testInjection() throws IOException
+	{
+		ResourceCaches.invalidateBinaryResources();
+		final var resources = new PrecompressedResources();
+		new ResourceInjector(Locale.ROOT).injectResourcesInto(resources);
+		final byte[] logo = readResource("logo.svg");
+		final String hash = ContentDigest.sha256Hex(logo);
+		assertEquals(hash, resources.logo.getContentHash().orElseThrow());
+		for (ContentEncoding contentEncoding : ContentEncoding.values())
+		{
+			final BinaryResourceBuffer encoded = resources.logo.getEncodedBuffer(contentEncoding)
+				.orElseThrow();
+			assertTrue(encoded.size() < logo.length);
+			assertArrayEquals(logo, decode(contentEncoding, toByteArray(encoded)));
+			assertSame(encoded, resources.logo.getEncodedBuffer(contentEncoding).orElseThrow(),
+				"variants must be read once");
+			final BinaryResourceChannel channel = resources.logoChannel.getEncodedChannel(contentEncoding)
+				.orElseThrow();
+			try (ReadableByteChannel readableByteChannel = channel.openChannel())
+			{
+				assertArrayEquals(toByteArray(encoded),
+					Channels.newInputStream(readableByteChannel).readAllBytes());
+			}
+			final BinaryResourceStream stream = resources.logoStream.getEncodedStream(contentEncoding)
+				.orElseThrow();
+			try (InputStream inputStream = stream.openStream())
+			{
+				assertArrayEquals(toByteArray(encoded), inputStream.readAllBytes());
+			}
+		}
+		assertEquals(hash, resources.logoChannel.getContentHash().orElseThrow());
+		assertEquals(hash, resources.logoStream.getContentHash().orElseThrow());
+		assertTrue(resources.small.getContentHash().isPresent());
+		assertTrue(resources.small.getEncodedBuffer(ContentEncoding.GZIP).isEmpty());
+		assertTrue(resources.stale.getContentHash().isEmpty(), "stale manifest entries are ignored");
+		assertTrue(resources.stale.getEncodedBuffer(ContentEncoding.GZIP).isEmpty());
+		assertTrue(resources.staleChannel.getContentHash().isEmpty());
+		assertTrue(resources.staleChannel.getEncodedChannel(ContentEncoding.GZIP).isEmpty());
+		assertTrue(resources.staleStream.getContentHash().isEmpty());
+		assertTrue(resources.staleStream.getEncodedStream(ContentEncoding.GZIP).isEmpty());
+		assertEquals(logo.length, resources.edited.size());
+		assertTrue(resources.edited.getContentHash().isEmpty(),
+			"manifest entries of edited resources of the same size are ignored");
+		assertTrue(resources.edited.getEncodedBuffer(ContentEncoding.GZIP).isEmpty());
+	}
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class BinaryResourceCache.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class BinaryResourceCacheTest
+{
+	private static final long MAX_WEIGHT = 1_000_000;
+	private static final long WEIGHT = 100_000;
+
+	@StringResources(packagename = ".concurrency.a", basename = "strings")
+	@BinaryResources(packagename = ".concurrency.a", defaultExtension = ".bin")
+	public static class CachedResources extends ResourceHolder
+	{
+		public final OptionalBinaryObject icon = new OptionalBinaryObject();
+	}
+
+	@AfterEach
+	public void restoreMaxWeight()
+	{
+		ResourceCaches.setBinaryCacheMaxWeight(BinaryResourceCache.DEFAULT_MAX_WEIGHT);
+	}
+
+	private static Object key(int i)
+	{
+		return new BinaryResourceCache.FileKey(BinaryResourceCacheTest.class.getModule(), "/" + i);
+	}
+
+	/**
+	 * Fills the main area with 9 entries and accesses each of them 3 times.
+	 */
+	private static BinaryResourceCache createFilledCache()
+	{
+		final BinaryResourceCache cache = new BinaryResourceCache(MAX_WEIGHT);
+		for (int i = 0; i < 9; i++)
+		{
+			assertNull(cache.get(key(i)));
+			cache.putIfAbsent(key(i), "value" + i, WEIGHT);
+		}
+		for (int n = 0; n < 3; n++)
+		{
+			for (int i = 0; i < 9; i++)
+			{
+				assertEquals("value" + i, cache.get(key(i)));
+			}
+		}
+		assertEquals(9, cache.size());
+		assertEquals(9 * WEIGHT, cache.getWeight());
+		return cache;
+	}
+
+	@Test
+	public void testPutIfAbsent()
+	{
+		final BinaryResourceCache cache = new BinaryResourceCache(MAX_WEIGHT);
+		final byte[] data = new byte[10];
+		assertSame(data, cache.putIfAbsent(key(0), data, data.length));
+		assertSame(data, cache.putIfAbsent(key(0), new byte[10], data.length),
+			"concurrently loaded data must be replaced by the cached data");
+		assertSame(data, cache.get(key(0)));
+		assertNull(cache.get(key(1)));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		cache.resetStatistics();
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+		final Object tooHeavy = new Object();
+		assertSame(tooHeavy, cache.putIfAbsent(key(2), tooHeavy, MAX_WEIGHT));
+		assertNull(cache.get(key(2)));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testAdmissionRejectsRareCandidate()
+	{
+		final BinaryResourceCache cache = createFilledCache();
+		// a one-hit wonder must not displace frequently used entries:
+		assertNull(cache.get(key(100)));
+		cache.putIfAbsent(key(100), "scan", WEIGHT);
+		assertNull(cache.get(key(100)));
+		assertEquals(1, cache.getRejections());
+		assertEquals(1, cache.getEvictions());
+		assertEquals(WEIGHT, cache.getEvictedWeight());
+		for (int i = 0; i < 9; i++)
+		{
+			assertEquals("value" + i, cache.get(key(i)));
+		}
+	}
+
+	@Test
+	public void testAdmissionAcceptsFrequentCandidate()
+	{
+		final BinaryResourceCache cache = createFilledCache();
+		for (int n = 0; n < 10; n++)
+		{
+			assertNull(cache.get(key(100)));
+		}
+		cache.putIfAbsent(key(100), "frequent", WEIGHT);
+		assertEquals("frequent", cache.get(key(100)));
+		assertEquals(0, cache.getRejections());
+		assertEquals(1, cache.getEvictions());
+		assertEquals(9, cache.size());
+		assertTrue(cache.getWeight() <= MAX_WEIGHT);
+	}
+
+	@Test
+	public void testSetMaxWeight()
+	{
+		final BinaryResourceCache cache = createFilledCache();
+		assertThrows(IllegalArgumentException.class, () -> cache.setMaxWeight(-1));
+		cache.setMaxWeight(MAX_WEIGHT / 2);
+		assertEquals(MAX_WEIGHT / 2, cache.getMaxWeight());
+		assertTrue(cache.getWeight() <= MAX_WEIGHT / 2);
+		assertEquals(4, cache.size());
+		assertEquals(5, cache.getEvictions());
+		cache.setMaxWeight(0);
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+		final Object value = new Object();
+		assertSame(value, cache.putIfAbsent(key(0), value, 1));
+		assertNull(cache.get(key(0)), "a cache of zero weight must be disabled");
+	}
+
+	@Test
+	public void testAnchoredValue()
+	{
+		final BinaryResourceCache cache = new BinaryResourceCache(MAX_WEIGHT);
+		final Object value = new Object();
+		assertSame(value, cache.putIfAbsent(key(0), value, WEIGHT, CachedResources.class));
+		assertSame(value, cache.get(key(0)));
+		assertSame(value, cache.putIfAbsent(key(0), new Object(), WEIGHT, CachedResources.class));
+		cache.invalidate(BinaryResourceCacheTest.class.getModule());
+		assertNull(cache.get(key(0)));
+	}
+
+	@Test
+	public void testCollectedKeysArePurged() throws InterruptedException
+	{
+		final BinaryResourceCache cache = new BinaryResourceCache(MAX_WEIGHT);
+		BinaryDecoder<String> decoder = new BinaryDecoder<>()
+		{
+			@Override
+			public Class<String> getType()
+			{
+				return String.class;
+			}
+
+			@Override
+			public String decode(ByteBuffer data)
+			{
+				return "";
+			}
+		};
+		final var decodedKey = new BinaryResourceCache.DecodedKey(
+			BinaryResourceCacheTest.class.getModule(), decoder, new byte[0]);
+		cache.putIfAbsent(decodedKey, "decoded", WEIGHT, decoder.getClass());
+		assertEquals("decoded", cache.get(decodedKey));
+		assertTrue(decodedKey.decoder().isKeyOf(decoder));
+		assertSame(decodedKey.decoder(), WeakKey.of(decoder));
+		decoder = null;
+		for (int i = 0; i < 100 && !decodedKey.isCleared(); i++)
+		{
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertTrue(decodedKey.isCleared(), "the cache must not keep the decoder reachable");
+		cache.putIfAbsent(key(0), "value", WEIGHT);
+		assertEquals(1, cache.size(), "entries of collected keys must be purged");
+		assertEquals(WEIGHT, cache.getWeight());
+	}
+
+	@Test
+	public void testInvalidate()
+	{
+		final BinaryResourceCache cache = createFilledCache();
+		cache.invalidate(Object.class.getModule());
+		assertEquals(9, cache.size());
+		cache.invalidate(BinaryResourceCacheTest.class.getModule());
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+		final BinaryResourceCache other = createFilledCache();
+		other.invalidate();
+		assertEquals(0, other.size());
+		assertNull(other.get(key(0)));
+	}
+
+	@Test
+	public void testInjectedDataIsCached()
+	{
+		ResourceCaches.invalidateBinaryResources();
+		final long hits = InjectionStatistics.getBinaryCacheHits();
+		final ResourceInjector injector = new ResourceInjector(Locale.ROOT);
+		final var first = new CachedResources();
+		final var second = new CachedResources();
+		injector.injectResourcesInto(first);
+		injector.injectResourcesInto(second);
+		assertTrue(first.icon.isPresent());
+		assertArrayEquals(first.icon.get(), second.icon.get());
+		assertTrue(InjectionStatistics.getBinaryCacheHits() > hits);
+		assertTrue(ResourceCaches.getBinaryCacheWeight() >= first.icon.get().length);
+		ResourceCaches.setBinaryCacheMaxWeight(0);
+		final var third = new CachedResources();
+		injector.injectResourcesInto(third);
+		assertArrayEquals(first.icon.get(), third.icon.get());
+	}
+
+	@Test
+	public void testInjectedDataIsPrivate()
+	{
+		ResourceCaches.invalidateBinaryResources();
+		final ResourceInjector injector = new ResourceInjector(Locale.ROOT);
+		final var first = new CachedResources();
+		injector.injectResourcesInto(first);
+		final byte[] expected = first.icon.get().clone();
+		// modifying the data of one holder must not affect the cached data:
+		first.icon.get()[0]++;
+		final var second = new CachedResources();
+		injector.injectResourcesInto(second);
+		assertArrayEquals(expected, second.icon.get());
+		assertNotSame(first.icon.get(), second.icon.get());
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class BinaryTransfer and the transferTo methods of the
+ * binary resource types.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class BinaryTransferTest
+{
+	private static final String ICON_PATH =
+		"/" + BinaryTransferTest.class.getPackageName().replace('.', '/') + "/concurrency/b/icon.bin";
+
+	private static byte[] createData(int length)
+	{
+		final byte[] data = new byte[length];
+		new Random(length).nextBytes(data);
+		return data;
+	}
+
+	private static Path createTempFile(byte[] data) throws IOException
+	{
+		final Path file = Files.createTempFile(BinaryTransferTest.class.getSimpleName(), ".bin");
+		file.toFile().deleteOnExit();
+		return Files.write(file, data);
+	}
+
+	@Test
+	public void testTransferBuffer() throws IOException
+	{
+		// larger than the pooled buffer, not a multiple of its size:
+		final byte[] data = createData(2 * BinaryTransfer.BUFFER_SIZE + 17);
+		for (ByteBuffer source : new ByteBuffer[]
+		{
+			ByteBuffer.wrap(data), ByteBuffer.wrap(data).asReadOnlyBuffer(),
+			ByteBuffer.allocateDirect(data.length).put(data).flip()
+		})
+		{
+			final var channelTarget = new ByteArrayOutputStream();
+			assertEquals(data.length, BinaryTransfer.transfer(source, Channels.newChannel(channelTarget)));
+			assertArrayEquals(data, channelTarget.toByteArray());
+			final var streamTarget = new ByteArrayOutputStream();
+			assertEquals(data.length, BinaryTransfer.transfer(source, streamTarget));
+			assertArrayEquals(data, streamTarget.toByteArray());
+			assertEquals(0, source.position(), "source position unchanged");
+		}
+		assertTrue(BinaryTransfer.getPooledBuffers() > 0, "buffer returned to the pool");
+	}
+
+	@Test
+	public void testTransferChannel() throws IOException
+	{
+		final byte[] data = createData(3 * BinaryTransfer.BUFFER_SIZE + 1);
+		final Path source = createTempFile(data);
+		final Path target = createTempFile(new byte[0]);
+		try (FileChannel sourceChannel = FileChannel.open(source);
+			FileChannel targetChannel = FileChannel.open(target, StandardOpenOption.WRITE))
+		{
+			assertEquals(data.length, BinaryTransfer.transfer(sourceChannel, targetChannel));
+			assertEquals(data.length, sourceChannel.position());
+		}
+		assertArrayEquals(data, Files.readAllBytes(target));
+		final var streamTarget = new ByteArrayOutputStream();
+		assertEquals(data.length, BinaryTransfer.transfer(
+			Channels.newChannel(new ByteArrayInputStream(data)), Channels.newChannel(streamTarget)));
+		assertArrayEquals(data, streamTarget.toByteArray());
+	}
+
+	@Test
+	public void testOptionalBinaryObject() throws IOException
+	{
+		final byte[] data = createData(100_000);
+		final var heap = new OptionalBinaryObject(data);
+		final var streamTarget = new ByteArrayOutputStream();
+		assertEquals(data.length, heap.transferTo(streamTarget));
+		assertArrayEquals(data, streamTarget.toByteArray());
+		final MappedByteBuffer mapped = new MappedResources(0).map(createTempFile(data));
+		assertNotNull(mapped);
+		final var channelTarget = new ByteArrayOutputStream();
+		assertEquals(data.length, new OptionalBinaryObject(mapped).transferTo(
+			Channels.newChannel(channelTarget)));
+		assertArrayEquals(data, channelTarget.toByteArray());
+		final WritableByteChannel nullChannel = Channels.newChannel(new ByteArrayOutputStream());
+		assertThrows(NoSuchElementException.class, () -> new OptionalBinaryObject().transferTo(nullChannel));
+	}
+
+	@Test
+	public void testResourceTypes() throws IOException
+	{
+		final byte[] data = createData(1000);
+		final var buffer = new SharedBinaryBuffer(data);
+		final var streamTarget = new ByteArrayOutputStream();
+		assertEquals(data.length, buffer.transferTo(streamTarget));
+		final var channelTarget = new ByteArrayOutputStream();
+		assertEquals(data.length, buffer.transferTo(Channels.newChannel(channelTarget)));
+		assertArrayEquals(data, streamTarget.toByteArray());
+		assertArrayEquals(data, channelTarget.toByteArray());
+		final Module module = getClass().getModule();
+		for (ModuleResourceHandle handle : new ModuleResourceHandle[]
+		{
+			new ModuleResourceHandle(module, ICON_PATH, null),
+			new ModuleResourceHandle(module, ICON_PATH, MappedResources.findFile(module, ICON_PATH))
+		})
+		{
+			final var handleStreamTarget = new ByteArrayOutputStream();
+			assertEquals(2, handle.transferTo(handleStreamTarget));
+			final var handleChannelTarget = new ByteArrayOutputStream();
+			assertEquals(2, handle.transferTo(Channels.newChannel(handleChannelTarget)));
+			assertArrayEquals("BB".getBytes(), handleStreamTarget.toByteArray());
+			assertArrayEquals("BB".getBytes(), handleChannelTarget.toByteArray());
+		}
+	}
+}
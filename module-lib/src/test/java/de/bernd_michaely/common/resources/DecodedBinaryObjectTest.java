@@ -0,0 +1,166 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the injection of {@link DecodedBinaryObject} fields.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class DecodedBinaryObjectTest
+{
+	@BinaryResources(packagename = ".decoded", defaultExtension = ".png")
+	public static class DecodedResources extends ResourceHolder
+	{
+		public DecodedBinaryObject<BufferedImage> image;
+		public DecodedBinaryObject<BufferedImage> copy;
+		public DecodedBinaryObject<BufferedImage> broken;
+		public DecodedBinaryObject<BufferedImage> missing;
+		@FileExt(".txt")
+		public DecodedBinaryObject<String> text;
+	}
+
+	/**
+	 * Decoder of UTF-8 text counting its decodings.
+	 */
+	private static class TextDecoder implements BinaryDecoder<String>
+	{
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Class<String> getType()
+		{
+			return String.class;
+		}
+
+		@Override
+		public String decode(ByteBuffer data)
+		{
+			counter.incrementAndGet();
+			return UTF_8.decode(data).toString();
+		}
+	}
+
+	@Test
+	public void testImageDecoding()
+	{
+		for (InjectionBackend backend : InjectionBackend.values())
+		{
+			final var resourceInjector = new ResourceInjector(Locale.ROOT).withInjectionBackend(backend);
+			final DecodedResources resources = resourceInjector.injectResourcesInto(DecodedResources.class);
+			assertNotNull(resources);
+			assertNotNull(resources.image, backend.name());
+			assertTrue(resources.image.isDone());
+			final BufferedImage image = resources.image.get().orElseThrow();
+			assertEquals(4, image.getWidth());
+			assertEquals(3, image.getHeight());
+			assertEquals(0xffff0000, image.getRGB(0, 0));
+			assertSame(resources.image, resources.copy, "decoded once for identical content");
+			assertNull(resources.missing);
+			assertNull(resources.text, "no decoder for String");
+			// shared across instances and locales:
+			final DecodedResources other = resourceInjector.withLocale(Locale.GERMAN)
+				.injectResourcesInto(DecodedResources.class);
+			assertNotNull(other);
+			assertSame(resources.image, other.image);
+		}
+	}
+
+	@Test
+	public void testUndecodable()
+	{
+		final var resourceInjector = new ResourceInjector(Locale.ROOT);
+		final DecodedResources resources = resourceInjector.injectResourcesInto(DecodedResources.class);
+		assertNotNull(resources);
+		assertNotNull(resources.broken);
+		assertTrue(resources.broken.isDone());
+		assertTrue(resources.broken.get().isEmpty());
+		final DecodedResources other = resourceInjector.injectResourcesInto(DecodedResources.class);
+		assertNotNull(other);
+		assertNotSame(resources.broken, other.broken, "failures are not cached");
+	}
+
+	@Test
+	public void testCustomDecoder()
+	{
+		final var decoder = new TextDecoder();
+		final var resourceInjector = new ResourceInjector().withDecoder(decoder);
+		assertSame(decoder, resourceInjector.getDecoder(String.class));
+		assertNull(new ResourceInjector().getDecoder(String.class));
+		assertNotNull(resourceInjector.getDecoder(BufferedImage.class));
+		final DecodedResources resources = resourceInjector.injectResourcesInto(DecodedResources.class);
+		assertNotNull(resources);
+		assertNotNull(resources.text);
+		assertEquals("decoded text", resources.text.get().orElseThrow());
+		resourceInjector.withLocale(Locale.GERMAN).injectResourcesInto(DecodedResources.class);
+		assertEquals(1, decoder.counter.get());
+	}
+
+	@Test
+	public void testDecodingExecutor()
+	{
+		final List<Runnable> tasks = new ArrayList<>();
+		final var decoder = new TextDecoder();
+		final var resourceInjector = new ResourceInjector()
+			.withDecoder(decoder).withDecodingExecutor(tasks::add);
+		final DecodedResources resources = resourceInjector.injectResourcesInto(DecodedResources.class);
+		assertNotNull(resources);
+		assertNotNull(resources.text);
+		assertFalse(resources.text.isDone());
+		final var stage = resources.text.getCompletionStage().toCompletableFuture();
+		final DecodedResources other = resourceInjector.injectResourcesInto(DecodedResources.class);
+		assertNotNull(other);
+		assertSame(resources.text, other.text, "pending decoding is shared");
+		assertEquals(0, decoder.counter.get());
+		tasks.forEach(Runnable::run);
+		assertTrue(resources.text.isDone());
+		assertEquals("decoded text", stage.join().orElseThrow());
+		assertEquals(1, decoder.counter.get());
+	}
+
+	@Test
+	public void testCacheWeight()
+	{
+		final long maxWeight = ResourceCaches.getDecodedCacheMaxWeight();
+		try
+		{
+			ResourceCaches.setDecodedCacheMaxWeight(0);
+			final var resourceInjector = new ResourceInjector().withDecoder(new TextDecoder());
+			final DecodedResources resources = resourceInjector.injectResourcesInto(DecodedResources.class);
+			final DecodedResources other = resourceInjector.injectResourcesInto(DecodedResources.class);
+			assertNotNull(resources);
+			assertNotNull(other);
+			assertEquals(0, ResourceCaches.getDecodedCacheWeight());
+			assertNotSame(resources.text, other.text, "cache disabled");
+			assertEquals(resources.text.get(), other.text.get());
+		}
+		finally
+		{
+			ResourceCaches.setDecodedCacheMaxWeight(maxWeight);
+		}
+	}
+}
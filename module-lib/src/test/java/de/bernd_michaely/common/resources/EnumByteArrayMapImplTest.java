@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class EnumByteArrayMapImpl.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class EnumByteArrayMapImplTest
+{
+	private enum TestEnum
+	{
+		ONE, TWO, THREE, FOUR
+	}
+
+	private static EnumByteArrayMapImpl<TestEnum> create(boolean direct, String... values)
+	{
+		final byte[][] data = new byte[values.length][];
+		for (int i = 0; i < values.length; i++)
+		{
+			data[i] = (values[i] != null) ? values[i].getBytes(US_ASCII) : null;
+		}
+		return EnumByteArrayMapImpl.create(TestEnum.class, TestEnum.values(), data, direct);
+	}
+
+	@Test
+	public void testLookup()
+	{
+		for (boolean direct : List.of(false, true))
+		{
+			final var map = create(direct, "one", null, "", "four");
+			assertEquals(direct, map.isDirect());
+			assertEquals(7, map.getTotalLength(), "contiguous buffer");
+			assertEquals(3, map.size());
+			assertArrayEquals("one".getBytes(US_ASCII), map.get(TestEnum.ONE));
+			assertNull(map.get(TestEnum.TWO));
+			assertArrayEquals(new byte[0], map.get(TestEnum.THREE), "empty file is present");
+			assertArrayEquals("four".getBytes(US_ASCII), map.get(TestEnum.FOUR));
+			assertNotSame(map.get(TestEnum.ONE), map.get(TestEnum.ONE), "copy on demand");
+			assertTrue(map.containsKey(TestEnum.THREE));
+			assertFalse(map.containsKey(TestEnum.TWO));
+			assertFalse(map.containsKey(null));
+			assertEquals(List.of(TestEnum.ONE, TestEnum.THREE, TestEnum.FOUR), List.copyOf(map.keySet()));
+			final BitSet absent = new BitSet();
+			absent.set(TestEnum.TWO.ordinal());
+			assertEquals(absent, map.getAbsentOrdinals());
+			map.getAbsentOrdinals().clear();
+			assertEquals(absent, map.getAbsentOrdinals(), "defensive copy");
+		}
+	}
+
+	@Test
+	public void testDeduplication()
+	{
+		final var map = create(false, "same", "other", "same", "same");
+		assertEquals(9, map.getTotalLength(), "identical data is stored once");
+		assertEquals(8, map.getDeduplicatedLength());
+		assertArrayEquals("same".getBytes(US_ASCII), map.get(TestEnum.FOUR));
+		assertEquals(map.getByteBuffer(TestEnum.ONE), map.getByteBuffer(TestEnum.THREE));
+		assertEquals(create(false, "same", "other", "same", "same"), map);
+		assertNotEquals(create(false, "same", "other", "same", "diff"), map);
+		assertEquals(0, create(false, "one", null, "", "four").getDeduplicatedLength());
+	}
+
+	@Test
+	public void testByteBuffer()
+	{
+		final var map = create(true, "one", null, "", "four");
+		final ByteBuffer buffer = map.getByteBuffer(TestEnum.FOUR);
+		assertNotNull(buffer);
+		assertTrue(buffer.isReadOnly());
+		assertEquals(0, buffer.position());
+		assertEquals(4, buffer.remaining());
+		assertEquals(ByteBuffer.wrap("four".getBytes(US_ASCII)), buffer);
+		assertThrows(ReadOnlyBufferException.class, () -> buffer.put(0, (byte) 0));
+		assertNull(map.getByteBuffer(TestEnum.TWO));
+		assertEquals(0, map.getByteBuffer(TestEnum.THREE).remaining());
+	}
+
+	@Test
+	public void testIteration()
+	{
+		final var map = create(false, null, "two", null, "four");
+		final Map<TestEnum, String> copy = new EnumMap<>(TestEnum.class);
+		map.forEach((key, value) -> copy.put(key, new String(value, US_ASCII)));
+		assertEquals(Map.of(TestEnum.TWO, "two", TestEnum.FOUR, "four"), copy);
+		copy.clear();
+		map.entrySet().forEach(entry -> copy.put(entry.getKey(), new String(entry.getValue(), US_ASCII)));
+		assertEquals(Map.of(TestEnum.TWO, "two", TestEnum.FOUR, "four"), copy);
+		assertThrows(UnsupportedOperationException.class, () -> map.put(TestEnum.ONE, new byte[0]));
+		assertThrows(UnsupportedOperationException.class, () -> map.remove(TestEnum.TWO));
+	}
+
+	@Test
+	public void testEqualsHashCode()
+	{
+		final var map = create(false, "one", null, "", "four");
+		assertEquals(create(true, "one", null, "", "four"), map);
+		assertEquals(create(true, "one", null, "", "four").hashCode(), map.hashCode());
+		assertNotEquals(create(false, "one", "", "", "four"), map);
+		assertNotEquals(create(false, "one", null, "", "fou4"), map);
+		assertEquals(Map.of(), create(false, null, null, null, null));
+		assertEquals(create(false, null, null, null, null), Map.of());
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class EnumStringMapImpl.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class EnumStringMapImplTest
+{
+	private enum TestEnum
+	{
+		ONE, TWO, THREE
+	}
+
+	private static EnumStringMapImpl<TestEnum> create(String... values)
+	{
+		return new EnumStringMapImpl<>(TestEnum.class, TestEnum.values(), values);
+	}
+
+	@Test
+	public void testLookup()
+	{
+		final var map = create("one", null, "three");
+		assertEquals(2, map.size());
+		assertFalse(map.isEmpty());
+		assertEquals("one", map.get(TestEnum.ONE));
+		assertNull(map.get(TestEnum.TWO));
+		assertEquals("three", map.get(TestEnum.THREE));
+		assertTrue(map.containsKey(TestEnum.ONE));
+		assertFalse(map.containsKey(TestEnum.TWO));
+		assertFalse(map.containsKey(TimeUnit.DAYS), "foreign enum type");
+		assertFalse(map.containsKey("ONE"));
+		assertNull(map.get(null));
+		assertTrue(map.containsValue("three"));
+		assertFalse(map.containsValue(null));
+		assertEquals(List.of(TestEnum.ONE, TestEnum.THREE), List.copyOf(map.keySet()));
+		assertEquals(List.of("one", "three"), List.copyOf(map.values()));
+		assertTrue(create(null, null, null).isEmpty());
+		assertTrue(create(null, null, null).entrySet().isEmpty());
+	}
+
+	@Test
+	public void testForEach()
+	{
+		final var map = create(null, "two", "three");
+		final Map<TestEnum, String> copy = new EnumMap<>(TestEnum.class);
+		map.forEach(copy::put);
+		assertEquals(Map.of(TestEnum.TWO, "two", TestEnum.THREE, "three"), copy);
+		assertSame(map.entrySet(), map.entrySet());
+	}
+
+	@Test
+	public void testEqualsHashCode()
+	{
+		final var map = create("one", null, "three");
+		final Map<TestEnum, String> hashMap = new HashMap<>();
+		hashMap.put(TestEnum.ONE, "one");
+		hashMap.put(TestEnum.THREE, "three");
+		assertEquals(hashMap, map);
+		assertEquals(map, hashMap);
+		assertEquals(hashMap.hashCode(), map.hashCode());
+		assertEquals(create("one", null, "three"), map);
+		assertEquals(create("one", null, "three").hashCode(), map.hashCode());
+		assertNotEquals(create("one", "two", "three"), map);
+		assertNotEquals(create("one", null, "3"), map);
+		assertTrue(map.entrySet().contains(Map.entry(TestEnum.ONE, "one")));
+		assertFalse(map.entrySet().contains(Map.entry(TestEnum.ONE, "1")));
+	}
+
+	@Test
+	public void testImmutable()
+	{
+		final var map = create("one", null, "three");
+		assertThrows(UnsupportedOperationException.class, () -> map.put(TestEnum.TWO, "two"));
+		assertThrows(UnsupportedOperationException.class, () -> map.remove(TestEnum.ONE));
+		assertThrows(UnsupportedOperationException.class, () -> map.clear());
+		assertThrows(UnsupportedOperationException.class,
+			() -> map.entrySet().iterator().next().setValue("1"));
+		assertThrows(UnsupportedOperationException.class, () -> map.keySet().clear());
+		assertThrows(IllegalArgumentException.class,
+			() -> new EnumStringMapImpl<>(TestEnum.class, TestEnum.values(), new String[2]));
+	}
+}
@@ -197,4 +197,39 @@ public class FallBackValueUtilTest
 		final String result = new FallBackValueUtil(Locale.ROOT).getFallBackValue(key, false);
 		assertEquals(expResult, result);
 	}
+
+	/**
+	 * Test of getFallbackValue method for non ASCII keys and locale specific
+	 * case conversion, of class FallBackValueUtil.
+	 */
+	@Test
+	public void testGetFallbackValue_nonAscii()
+	{
+		System.out.println("getFallbackValue –> non ASCII");
+		assertEquals("Größe Ändern",
+			FallBackValueUtil.calculateFallBackValue("titleGrößeÄndern", false, Locale.ROOT));
+		assertEquals("List", FallBackValueUtil.calculateFallBackValue("map.LIST", true, Locale.ROOT));
+		assertEquals("Lıst", FallBackValueUtil.calculateFallBackValue("map.LIST", true, new Locale("tr")));
+		assertEquals("Straße", FallBackValueUtil.calculateFallBackValue("map.STRAßE", true, Locale.GERMAN));
+	}
+
+	/**
+	 * Test of the memoization of fallback values, of class FallBackValueUtil.
+	 */
+	@Test
+	public void testGetFallbackValue_memo()
+	{
+		System.out.println("getFallbackValue –> memo");
+		final String key = "titleMemoizedValue";
+		final String result = FallBackValueUtil.getFallBackValue(Locale.ROOT, key, false);
+		assertEquals("Memoized Value", result);
+		assertSame(result, new FallBackValueUtil(Locale.ROOT).getFallBackValue(key, false));
+		assertNotSame(result, FallBackValueUtil.getFallBackValue(Locale.GERMAN, key, false));
+		for (int i = 0; i < FallBackValueUtil.MAX_MEMO_ENTRIES + 1; i++)
+		{
+			FallBackValueUtil.getFallBackValue(Locale.ROOT, "label" + i, false);
+		}
+		assertTrue(FallBackValueUtil.getMemoSize() <= FallBackValueUtil.MAX_MEMO_ENTRIES,
+			"memo table must be bounded");
+	}
 }
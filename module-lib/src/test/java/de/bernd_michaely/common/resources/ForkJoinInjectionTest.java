@@ -0,0 +1,170 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.BinaryInternerTest.ButtonType;
+import de.bernd_michaely.common.resources.BinaryInternerTest.DedupResources;
+import de.bernd_michaely.common.resources.ResourceInjectorConcurrencyTest.Choice;
+import de.bernd_michaely.common.resources.ResourceInjectorConcurrencyTest.NestedResources;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link ResourceInjector#withForkJoinInjection(ForkJoinPool, int)}.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class ForkJoinInjectionTest
+{
+	@StringResources(packagename = ".concurrency.a", basename = "strings")
+	@BinaryResources(packagename = ".concurrency.a", defaultExtension = ".bin")
+	public static class ForkResources extends ResourceHolder
+	{
+		public String title;
+		public String label;
+		@EnumType(Choice.class)
+		public EnumStringMap<Choice> choices;
+		public final OptionalBinaryObject icon = new OptionalBinaryObject();
+		public NestedResources nested;
+		public NestedResources other;
+	}
+
+	private static ForkJoinPool createPool(AtomicInteger workers)
+	{
+		return new ForkJoinPool(2, pool ->
+		{
+			workers.incrementAndGet();
+			return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		}, null, false);
+	}
+
+	@Test
+	public void testInjection()
+	{
+		final AtomicInteger workers = new AtomicInteger();
+		final ForkJoinPool pool = createPool(workers);
+		try
+		{
+			for (InjectionBackend backend : InjectionBackend.values())
+			{
+				final var resourceInjector = new ResourceInjector(Locale.ROOT).withInjectionBackend(backend);
+				final long requests = InjectionStatistics.getBundleLookups() +
+					InjectionStatistics.getBundleLookupsSaved();
+				final ForkResources expected = resourceInjector.injectResourcesInto(ForkResources.class);
+				final long serialRequests = InjectionStatistics.getBundleLookups() +
+					InjectionStatistics.getBundleLookupsSaved() - requests;
+				final ForkResources resources = resourceInjector.withForkJoinInjection(pool, 1)
+					.injectResourcesInto(ForkResources.class);
+				assertNotNull(expected);
+				assertNotNull(resources, backend.name());
+				assertEquals(serialRequests, InjectionStatistics.getBundleLookups() +
+					InjectionStatistics.getBundleLookupsSaved() - requests - serialRequests,
+					"counters of forked passes are merged");
+				assertEquals("Title A", resources.title);
+				assertEquals(expected.label, resources.label);
+				assertEquals(expected.choices, resources.choices);
+				assertArrayEquals(expected.icon.get(), resources.icon.get());
+				assertEquals("Nested label A", resources.nested.label);
+				assertEquals(expected.other.label, resources.other.label);
+			}
+			assertTrue(workers.get() > 0, "injected by the pool");
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testForkedEnumByteArrayMap()
+	{
+		final AtomicInteger workers = new AtomicInteger();
+		final ForkJoinPool pool = createPool(workers);
+		try
+		{
+			ResourceCaches.invalidateBinaryResources();
+			final var resources = new DedupResources();
+			new ResourceInjector(Locale.ROOT).withForkJoinInjection(pool, 1).injectResourcesInto(resources);
+			final byte[] placeholder = "placeholder".getBytes(US_ASCII);
+			assertArrayEquals(placeholder, resources.icon.get());
+			assertEquals(ByteBuffer.wrap(placeholder), resources.copy.getByteBuffer());
+			assertArrayEquals(placeholder, resources.buttonIcons.get(ButtonType.TWO));
+			assertEquals(3, resources.buttonIcons.size());
+			// copy.bin + buttonIcons.TWO.bin:
+			assertEquals(2 * placeholder.length, resources.getDeduplicatedBytes());
+			assertTrue(workers.get() > 0, "injected by the pool");
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testGeneratedInjector()
+	{
+		final AtomicInteger workers = new AtomicInteger();
+		final ForkJoinPool pool = createPool(workers);
+		try
+		{
+			final int injections = GeneratedTestResources$$Injector.injections;
+			// above the threshold, the generated injector is preferred nonetheless:
+			final GeneratedTestResources resources = new ResourceInjector(Locale.ROOT)
+				.withForkJoinInjection(pool, 1).injectResourcesInto(GeneratedTestResources.class);
+			assertNotNull(resources);
+			assertEquals(injections + 1, GeneratedTestResources$$Injector.injections);
+			assertNotNull(resources.title);
+			assertEquals(0, workers.get());
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testThreshold()
+	{
+		final AtomicInteger workers = new AtomicInteger();
+		final ForkJoinPool pool = createPool(workers);
+		try
+		{
+			final var resourceInjector = new ResourceInjector(Locale.ROOT);
+			assertNull(resourceInjector.getForkJoinPool());
+			assertEquals(ResourceInjector.DEFAULT_FORK_THRESHOLD, resourceInjector.getForkThreshold());
+			final var forkJoinInjector = resourceInjector.withForkJoinInjection(pool);
+			assertSame(pool, forkJoinInjector.getForkJoinPool());
+			assertEquals(ResourceInjector.DEFAULT_FORK_THRESHOLD, forkJoinInjector.getForkThreshold());
+			// below the default threshold, resources are injected serially:
+			final ForkResources resources = forkJoinInjector.injectResourcesInto(ForkResources.class);
+			assertNotNull(resources);
+			assertEquals("Nested label A", resources.nested.label);
+			assertEquals(0, workers.get());
+			assertThrows(IllegalArgumentException.class,
+				() -> resourceInjector.withForkJoinInjection(pool, 0));
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+}
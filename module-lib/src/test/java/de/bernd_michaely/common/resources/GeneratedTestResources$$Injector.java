@@ -0,0 +1,62 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+/**
+ * Injector for {@link GeneratedTestResources} in the form generated by the
+ * annotation processor, additionally counting its invocations.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public final class GeneratedTestResources$$Injector
+	implements de.bernd_michaely.common.resources.ResourceHolderInjector<de.bernd_michaely.common.resources.GeneratedTestResources>
+{
+	static int injections;
+
+	@Override
+	public Class<de.bernd_michaely.common.resources.GeneratedTestResources> getType()
+	{
+		return de.bernd_michaely.common.resources.GeneratedTestResources.class;
+	}
+
+	@Override
+	public de.bernd_michaely.common.resources.GeneratedTestResources newInstance()
+	{
+		return new de.bernd_michaely.common.resources.GeneratedTestResources();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void inject(de.bernd_michaely.common.resources.GeneratedTestResources r,
+		de.bernd_michaely.common.resources.InjectionContext c)
+	{
+		injections++;
+		r.title = c.getString("title");
+		r.enumStrings = c.getEnumStringMap(de.bernd_michaely.common.resources.InjectionPlanTest.TestEnum.class,
+			"enumStrings.ONE", "enumStrings.TWO");
+		r.enumIcons = c.getEnumByteArrayMap(de.bernd_michaely.common.resources.InjectionPlanTest.TestEnum.class,
+			"/de/bernd_michaely/common/resources/binary/enumIcons.ONE.png",
+			"/de/bernd_michaely/common/resources/binary/enumIcons.TWO.png");
+		c.getBinary(r.icon, "/de/bernd_michaely/common/resources/binary/icon.png");
+		final var n1 = r.nested = new de.bernd_michaely.common.resources.InjectionPlanTest.NestedResources();
+		n1.label = c.getString("nested.label");
+		n1.titles = c.getEnumStringMap(de.bernd_michaely.common.resources.InjectionPlanTest.TestEnum.class,
+			"nested.titles.ONE", "nested.titles.TWO");
+		n1.icons = c.getEnumByteArrayMap(de.bernd_michaely.common.resources.InjectionPlanTest.TestEnum.class,
+			"/de/bernd_michaely/common/resources/binary/nested.icons.ONE.png",
+			"/de/bernd_michaely/common/resources/binary/nested.icons.TWO.png");
+	}
+}
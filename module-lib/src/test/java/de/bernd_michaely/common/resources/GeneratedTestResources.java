@@ -0,0 +1,42 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.InjectionPlanTest.NestedResources;
+import de.bernd_michaely.common.resources.InjectionPlanTest.TestEnum;
+
+/**
+ * ResourceHolder with a {@link ResourceHolderInjector} written in the form
+ * generated by the annotation processor.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+@StringResources(packagename = ".strings", basename = "string")
+@BinaryResources(packagename = ".binary", defaultExtension = ".png")
+public class GeneratedTestResources extends ResourceHolder
+{
+	public String title;
+	@EnumType(TestEnum.class)
+	public EnumStringMap<TestEnum> enumStrings;
+	@EnumType(TestEnum.class)
+	public EnumByteArrayMap<TestEnum> enumIcons;
+	public final OptionalBinaryObject icon = new OptionalBinaryObject();
+	@EnumTypes(enumType = TestEnum.class, fieldNames =
+	{
+		"titles", "icons"
+	})
+	public NestedResources nested;
+}
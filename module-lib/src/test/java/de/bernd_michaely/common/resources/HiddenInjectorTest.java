@@ -0,0 +1,166 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.InjectionPlan.FieldPlan;
+import de.bernd_michaely.common.resources.InjectionPlanTest.TestEnum;
+import de.bernd_michaely.common.resources.InjectionPlanTest.TestResources;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class HiddenInjector.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class HiddenInjectorTest
+{
+	@GenericResources
+	static class NonPublicResources
+	{
+		public String label;
+	}
+
+	private static List<String> getFieldNames(List<FieldPlan> fieldPlans)
+	{
+		return fieldPlans.stream().map(fieldPlan -> fieldPlan.getField().getName()).toList();
+	}
+
+	@Test
+	public void testFieldSelection()
+	{
+		final HiddenInjector hiddenInjector = InjectionPlan.get(TestResources.class).getHiddenInjector();
+		assertNotNull(hiddenInjector);
+		assertSame(hiddenInjector, InjectionPlan.get(TestResources.class).getHiddenInjector());
+		assertTrue(hiddenInjector.isInstantiable());
+		assertEquals(Set.of("title", "exit", "enumStrings", "nested"),
+			Set.copyOf(getFieldNames(hiddenInjector.getInjectedFieldPlans())));
+		assertEquals(List.of("icon"), getFieldNames(hiddenInjector.getRemainingFieldPlans()));
+		assertInstanceOf(TestResources.class, hiddenInjector.newInstance());
+	}
+
+	@Test
+	public void testInject()
+	{
+		final HiddenInjector hiddenInjector = InjectionPlan.get(TestResources.class).getHiddenInjector();
+		assertNotNull(hiddenInjector);
+		final TestResources testResources = new TestResources();
+		final var nested = new InjectionPlanTest.NestedResources();
+		final Map<String, Object> values = new HashMap<>();
+		values.put("title", "Title");
+		values.put("exit", "Exit");
+		values.put("nested", nested);
+		final List<String> fieldNames = getFieldNames(hiddenInjector.getInjectedFieldPlans());
+		hiddenInjector.inject(testResources, fieldNames.stream().map(values::get).toArray());
+		assertEquals("Title", testResources.title);
+		assertEquals("Exit", testResources.exit);
+		assertNull(testResources.enumStrings);
+		assertSame(nested, testResources.nested);
+		values.put("exit", 1);
+		assertThrows(ClassCastException.class, () ->
+			hiddenInjector.inject(testResources, fieldNames.stream().map(values::get).toArray()));
+	}
+
+	@Test
+	public void testInaccessibleType()
+	{
+		final InjectionPlan plan = InjectionPlan.get(NonPublicHolder.class);
+		final FieldPlan nested = plan.getFieldPlans().get(0);
+		assertNull(nested.getNestedPlan().getHiddenInjector());
+	}
+
+	@Test
+	public void testResourceInjector()
+	{
+		final var resourceInjector = new ResourceInjector(Locale.ROOT)
+			.withInjectionBackend(InjectionBackend.HIDDEN_CLASSES);
+		final TestResources expected = new ResourceInjector(Locale.ROOT)
+			.injectResourcesInto(TestResources.class);
+		final TestResources actual = resourceInjector.injectResourcesInto(TestResources.class);
+		assertNotNull(expected);
+		assertNotNull(actual);
+		assertEquals(expected.title, actual.title);
+		assertEquals(expected.exit, actual.exit);
+		assertEquals(expected.enumStrings, actual.enumStrings);
+		assertEquals(expected.nested.label, actual.nested.label);
+		assertEquals(expected.nested.titles, actual.nested.titles);
+		assertEquals(expected.nested.titles.get(TestEnum.ONE), actual.nested.titles.get(TestEnum.ONE));
+		assertEquals(expected.icon, actual.icon);
+		final NonPublicHolder holder = resourceInjector.injectResourcesInto(NonPublicHolder.class);
+		assertNotNull(holder);
+		assertNotNull(holder.nonPublic);
+		assertEquals(expected.title, holder.title);
+	}
+
+	@StringResources(packagename = ".strings", basename = "string")
+	public static class NonPublicHolder extends ResourceHolder
+	{
+		public NonPublicResources nonPublic;
+		public String title;
+	}
+
+	/**
+	 * Nested type, whose constructor fails while {@link #failing} is set.
+	 */
+	@GenericResources
+	public static class FailingResources
+	{
+		private static volatile boolean failing;
+		public String label;
+
+		public FailingResources()
+		{
+			if (failing)
+			{
+				throw new IllegalStateException("constructor failure");
+			}
+		}
+	}
+
+	@StringResources(packagename = ".strings", basename = "string")
+	public static class FailingHolder extends ResourceHolder
+	{
+		public FailingResources nested = new FailingResources();
+		public String title;
+	}
+
+	@Test
+	public void testFailingNestedConstructor()
+	{
+		for (InjectionBackend backend : InjectionBackend.values())
+		{
+			final FailingHolder holder = new FailingHolder();
+			final FailingResources nested = holder.nested;
+			FailingResources.failing = true;
+			try
+			{
+				new ResourceInjector(Locale.ROOT).withInjectionBackend(backend).injectResourcesInto(holder);
+			}
+			finally
+			{
+				FailingResources.failing = false;
+			}
+			assertSame(nested, holder.nested, "current value kept with " + backend);
+			assertNotNull(holder.title, backend.name());
+		}
+	}
+}
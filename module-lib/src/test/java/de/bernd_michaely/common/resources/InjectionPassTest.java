@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.InjectionPlan.FieldPlan;
+import de.bernd_michaely.common.resources.InjectionPlanTest.TestResources;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class InjectionPass.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class InjectionPassTest
+{
+	@Test
+	public void testBundleMemoized()
+	{
+		final InjectionPlan plan = InjectionPlan.get(TestResources.class);
+		final InjectionPass pass = new InjectionPass(Locale.ROOT);
+		final var bundle = pass.getBundle(plan.getResourceLocation());
+		assertSame(bundle, pass.getBundle(plan.getResourceLocation()));
+		assertEquals(1, pass.getBundleLookups());
+		assertEquals(1, pass.getBundleLookupsSaved());
+		final FieldPlan nested = plan.getFieldPlans().stream()
+			.filter(fieldPlan -> fieldPlan.getField().getName().equals("nested"))
+			.findAny().orElseThrow();
+		final InjectionPlan nestedPlan = nested.getNestedPlan();
+		assertNotNull(nestedPlan);
+		assertNotSame(plan.getResourceLocation(), nestedPlan.getResourceLocation());
+		assertSame(bundle, pass.getBundle(nestedPlan.getResourceLocation()));
+		assertEquals(1, pass.getBundleLookups(), "nested types must share the bundle");
+		assertEquals(2, pass.getBundleLookupsSaved());
+	}
+
+	@Test
+	public void testStatistics()
+	{
+		InjectionStatistics.reset();
+		assertEquals(0, InjectionStatistics.getBundleLookups());
+		assertEquals(0, InjectionStatistics.getBundleLookupsSaved());
+		final TestResources resources = new ResourceInjector(Locale.ROOT)
+			.injectResourcesInto(TestResources.class);
+		assertNotNull(resources);
+		// 7 string resources: title, exit, enumStrings × 2, nested.label, nested.titles × 2
+		assertEquals(1, InjectionStatistics.getBundleLookups());
+		assertEquals(6, InjectionStatistics.getBundleLookupsSaved());
+		assertTrue(InjectionStatistics.asString().contains("bundleLookupsSaved=6"));
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.InjectionPlan.FieldKind;
+import de.bernd_michaely.common.resources.InjectionPlan.FieldPlan;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+import static java.util.stream.Collectors.toMap;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class InjectionPlan.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class InjectionPlanTest
+{
+	public enum TestEnum
+	{
+		ONE, TWO
+	}
+
+	@GenericResources
+	public static class NestedResources
+	{
+		public String label;
+		public EnumStringMap<TestEnum> titles;
+		public EnumByteArrayMap<TestEnum> icons;
+	}
+
+	@StringResources(packagename = ".strings", basename = "string")
+	@BinaryResources(packagename = ".binary", defaultExtension = ".png")
+	public static class TestResources extends ResourceHolder
+	{
+		public String title;
+		@ResourceKey("title-exit")
+		public String exit;
+		@EnumType(TestEnum.class)
+		public EnumStringMap<TestEnum> enumStrings;
+		@FileExt(".svg")
+		public final OptionalBinaryObject icon = new OptionalBinaryObject();
+		@EnumTypes(enumType = TestEnum.class, fieldNames =
+		{
+			"titles", "icons"
+		})
+		public NestedResources nested;
+		public final String invalidFinal = "";
+		public int invalidType;
+	}
+
+	private static Map<String, FieldPlan> getFieldPlans(InjectionPlan plan)
+	{
+		return plan.getFieldPlans().stream().collect(
+			toMap(fieldPlan -> fieldPlan.getField().getName(), Function.identity()));
+	}
+
+	@Test
+	public void testPlanIsCached()
+	{
+		assertSame(InjectionPlan.get(TestResources.class), InjectionPlan.get(TestResources.class));
+		final InjectionPlan plan = InjectionPlan.get(TestResources.class);
+		InjectionPlan.invalidate(TestResources.class);
+		assertNotSame(plan, InjectionPlan.get(TestResources.class));
+	}
+
+	@Test
+	public void testResolvedLocations()
+	{
+		final ResourceLocation location = InjectionPlan.get(TestResources.class).getResourceLocation();
+		assertTrue(location.hasAnyResources());
+		assertEquals(TestResources.class.getModule(), location.getStringResourcesModule());
+		assertEquals(InjectionPlanTest.class.getPackageName() + ".strings.string",
+			location.getBundleBaseName());
+		assertEquals("/" + InjectionPlanTest.class.getPackageName().replace('.', '/') + "/binary/",
+			location.getBinaryPathPrefix());
+	}
+
+	@Test
+	public void testFieldPlans()
+	{
+		final Map<String, FieldPlan> fieldPlans = getFieldPlans(InjectionPlan.get(TestResources.class));
+		assertEquals(5, fieldPlans.size(), "invalid fields must be skipped");
+		assertEquals(FieldKind.STRING, fieldPlans.get("title").getKind());
+		assertEquals("title", fieldPlans.get("title").getResourceKey());
+		assertEquals("title-exit", fieldPlans.get("exit").getResourceKey());
+		final String binaryPath = "/" + InjectionPlanTest.class.getPackageName().replace('.', '/') +
+			"/binary/";
+		final FieldPlan icon = fieldPlans.get("icon");
+		assertEquals(FieldKind.BINARY, icon.getKind());
+		assertEquals(binaryPath + "icon.svg", icon.getBinaryPath());
+		final FieldPlan enumStrings = fieldPlans.get("enumStrings");
+		assertEquals(FieldKind.ENUM_STRING_MAP, enumStrings.getKind());
+		assertEquals(TestEnum.class, enumStrings.getEnumClass());
+		assertEquals(List.of("enumStrings.ONE", "enumStrings.TWO"),
+			List.of(enumStrings.getEnumResourceKeys()));
+	}
+
+	@Test
+	public void testNestedPlan()
+	{
+		final FieldPlan nested = getFieldPlans(InjectionPlan.get(TestResources.class)).get("nested");
+		assertEquals(FieldKind.GENERIC_RESOURCES, nested.getKind());
+		assertEquals("nested.", nested.getResourceKey());
+		final InjectionPlan nestedPlan = nested.getNestedPlan();
+		assertNotNull(nestedPlan);
+		assertEquals(NestedResources.class, nestedPlan.getType());
+		final Map<String, FieldPlan> fieldPlans = getFieldPlans(nestedPlan);
+		assertEquals("nested.label", fieldPlans.get("label").getResourceKey());
+		assertEquals(List.of("nested.titles.ONE", "nested.titles.TWO"),
+			List.of(fieldPlans.get("titles").getEnumResourceKeys()));
+		final String binaryPath = "/" + InjectionPlanTest.class.getPackageName().replace('.', '/') +
+			"/binary/nested.icons.";
+		assertEquals(List.of(binaryPath + "ONE.png", binaryPath + "TWO.png"),
+			List.of(fieldPlans.get("icons").getEnumResourceKeys()));
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class LazyBinary.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class LazyBinaryTest
+{
+	@StringResources(packagename = ".concurrency.a", basename = "strings")
+	@BinaryResources(packagename = ".concurrency.a", defaultExtension = ".bin")
+	public static class LazyResources extends ResourceHolder
+	{
+		public final OptionalBinaryObject icon = new OptionalBinaryObject();
+		public OptionalBinaryObject missing;
+	}
+
+	private static class CountingLoader implements Supplier<Optional<byte[]>>
+	{
+		private final AtomicInteger count = new AtomicInteger();
+		private final byte @Nullable [] data;
+
+		private CountingLoader(byte @Nullable [] data)
+		{
+			this.data = data;
+		}
+
+		@Override
+		public Optional<byte[]> get()
+		{
+			count.incrementAndGet();
+			return Optional.ofNullable(data);
+		}
+	}
+
+	@AfterEach
+	public void restoreBudget()
+	{
+		ResourceCaches.setLazyBinaryBudget(LazyBinary.DEFAULT_BUDGET);
+	}
+
+	@Test
+	public void testLazy()
+	{
+		assertThrows(IllegalArgumentException.class,
+			() -> new LazyBinary(Optional::empty, BinaryLoading.EAGER));
+		for (BinaryLoading loading : new BinaryLoading[]
+		{
+			BinaryLoading.LAZY, BinaryLoading.LAZY_SOFT, BinaryLoading.LAZY_BUDGET
+		})
+		{
+			final CountingLoader loader = new CountingLoader(new byte[]
+			{
+				1, 2, 3
+			});
+			final LazyBinary lazyBinary = new LazyBinary(loader, loading);
+			assertEquals(0, loader.count.get(), "not loaded before access");
+			assertFalse(lazyBinary.isRetained());
+			final byte[] data = lazyBinary.get().orElseThrow();
+			assertSame(data, lazyBinary.get().orElseThrow());
+			assertEquals(1, loader.count.get(), loading.name());
+			assertTrue(lazyBinary.isRetained());
+		}
+	}
+
+	@Test
+	public void testAbsenceRetained()
+	{
+		final CountingLoader loader = new CountingLoader(null);
+		final LazyBinary lazyBinary = new LazyBinary(loader, BinaryLoading.LAZY_SOFT);
+		assertTrue(lazyBinary.get().isEmpty());
+		assertTrue(lazyBinary.get().isEmpty());
+		assertEquals(1, loader.count.get());
+	}
+
+	@Test
+	public void testBudget()
+	{
+		ResourceCaches.setLazyBinaryBudget(0);
+		assertEquals(0, ResourceCaches.getLazyBinaryRetainedBytes());
+		ResourceCaches.setLazyBinaryBudget(10);
+		final CountingLoader loader1 = new CountingLoader(new byte[6]);
+		final CountingLoader loader2 = new CountingLoader(new byte[4]);
+		final CountingLoader loader3 = new CountingLoader(new byte[2]);
+		final LazyBinary lazyBinary1 = new LazyBinary(loader1, BinaryLoading.LAZY_BUDGET);
+		final LazyBinary lazyBinary2 = new LazyBinary(loader2, BinaryLoading.LAZY_BUDGET);
+		final LazyBinary lazyBinary3 = new LazyBinary(loader3, BinaryLoading.LAZY_BUDGET);
+		lazyBinary1.get();
+		lazyBinary2.get();
+		assertEquals(10, ResourceCaches.getLazyBinaryRetainedBytes());
+		lazyBinary1.get();
+		lazyBinary3.get();
+		assertEquals(8, ResourceCaches.getLazyBinaryRetainedBytes());
+		assertTrue(lazyBinary1.isRetained());
+		assertFalse(lazyBinary2.isRetained(), "least recently used is dropped");
+		assertTrue(lazyBinary3.isRetained());
+		assertEquals(4, lazyBinary2.get().orElseThrow().length);
+		assertEquals(2, loader2.count.get(), "reloaded after drop");
+		assertEquals(1, loader1.count.get());
+		assertThrows(IllegalArgumentException.class, () -> ResourceCaches.setLazyBinaryBudget(-1));
+	}
+
+	@Test
+	public void testBudgetDoesNotRetainInstances() throws InterruptedException
+	{
+		ResourceCaches.setLazyBinaryBudget(0);
+		ResourceCaches.setLazyBinaryBudget(10);
+		LazyBinary lazyBinary = new LazyBinary(new CountingLoader(new byte[8]), BinaryLoading.LAZY_BUDGET);
+		lazyBinary.get();
+		assertEquals(8, ResourceCaches.getLazyBinaryRetainedBytes());
+		final WeakReference<LazyBinary> reference = new WeakReference<>(lazyBinary);
+		lazyBinary = null;
+		for (int i = 0; i < 100 && !reference.refersTo(null); i++)
+		{
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertTrue(reference.refersTo(null), "the budget must not keep instances reachable");
+		final LazyBinary other = new LazyBinary(new CountingLoader(new byte[4]), BinaryLoading.LAZY_BUDGET);
+		other.get();
+		assertEquals(4, ResourceCaches.getLazyBinaryRetainedBytes(), "collected instances are released");
+		assertTrue(other.isRetained());
+	}
+
+	@Test
+	public void testLazyInjection()
+	{
+		final long loads = InjectionStatistics.getLazyBinaryLoads();
+		final ResourceInjector resourceInjector =
+			new ResourceInjector(Locale.ROOT).withBinaryLoading(BinaryLoading.LAZY);
+		assertEquals(BinaryLoading.LAZY, resourceInjector.getBinaryLoading());
+		final LazyResources resources = resourceInjector.injectResourcesInto(LazyResources.class);
+		assertNotNull(resources);
+		assertEquals(loads, InjectionStatistics.getLazyBinaryLoads(), "nothing loaded during injection");
+		assertNotNull(resources.missing, "lazy field is assigned");
+		assertArrayEquals(new byte[]
+		{
+			'A'
+		}, resources.icon.get());
+		assertTrue(resources.missing.isEmpty());
+		resources.missing.ifPresent(data -> fail("missing resource is not present"));
+		assertEquals(loads + 2, InjectionStatistics.getLazyBinaryLoads());
+		resources.icon.set(new byte[0]);
+		assertEquals(0, resources.icon.get().length, "explicit set replaces lazy data");
+	}
+
+	@Test
+	public void testLazyInjectionBypassesCache()
+	{
+		ResourceCaches.invalidateBinaryResources();
+		final ResourceInjector resourceInjector =
+			new ResourceInjector(Locale.ROOT).withBinaryLoading(BinaryLoading.LAZY_BUDGET);
+		final LazyResources resources = resourceInjector.injectResourcesInto(LazyResources.class);
+		final LazyResources other = resourceInjector.injectResourcesInto(LazyResources.class);
+		assertNotNull(resources);
+		assertNotNull(other);
+		assertArrayEquals(other.icon.get(), resources.icon.get());
+		assertNotSame(other.icon.get(), resources.icon.get());
+		// dropped data is not retained by the binary resource cache:
+		assertEquals(0, ResourceCaches.getBinaryCacheWeight());
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class MappedResources.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class MappedResourcesTest
+{
+	private static final String ICON_PATH =
+		"/" + MappedResourcesTest.class.getPackageName().replace('.', '/') + "/concurrency/a/icon.bin";
+
+	@StringResources(packagename = ".concurrency.a", basename = "strings")
+	@BinaryResources(packagename = ".concurrency.a", defaultExtension = ".bin")
+	public static class MappedTestResources extends ResourceHolder
+	{
+		public final OptionalBinaryObject icon = new OptionalBinaryObject();
+		public OptionalBinaryObject missing;
+	}
+
+	private static Path createTempFile(byte[] data) throws IOException
+	{
+		final Path file = Files.createTempFile(MappedResourcesTest.class.getSimpleName(), ".bin");
+		// mapped files can not be deleted on all platforms before unmapping:
+		file.toFile().deleteOnExit();
+		return Files.write(file, data);
+	}
+
+	@Test
+	public void testFindFile()
+	{
+		final Module module = MappedResourcesTest.class.getModule();
+		final Path file = MappedResources.findFile(module, ICON_PATH);
+		assertNotNull(file, "test resources are regular files");
+		assertTrue(file.endsWith(Path.of("concurrency", "a", "icon.bin")));
+		assertNull(MappedResources.findFile(module, "/does/not/exist.bin"));
+		assertNull(MappedResources.findFile(Object.class.getModule(), "/java/lang/Object.class"),
+			"run time image");
+	}
+
+	@Test
+	public void testMap() throws IOException
+	{
+		final Path file = createTempFile(new byte[]
+		{
+			1, 2, 3, 4
+		});
+		assertNull(new MappedResources(5).map(file), "smaller than minimum size");
+		final MappedByteBuffer buffer = new MappedResources(4).map(file);
+		assertNotNull(buffer);
+		assertTrue(buffer.isReadOnly());
+		assertEquals(ByteBuffer.wrap(new byte[]
+		{
+			1, 2, 3, 4
+		}), buffer);
+	}
+
+	@Test
+	public void testMappedObject() throws IOException
+	{
+		final Path file = createTempFile(new byte[]
+		{
+			1, 2, 3
+		});
+		final MappedByteBuffer buffer = new MappedResources(0).map(file);
+		assertNotNull(buffer);
+		final OptionalBinaryObject binaryObject = new OptionalBinaryObject(buffer);
+		assertTrue(binaryObject.isMapped());
+		assertTrue(binaryObject.isPresent());
+		assertArrayEquals(new byte[]
+		{
+			1, 2, 3
+		}, binaryObject.get());
+		assertNotSame(binaryObject.get(), binaryObject.get());
+		final ByteBuffer view = binaryObject.getByteBuffer().orElseThrow();
+		assertTrue(view.isReadOnly());
+		assertTrue(view instanceof MappedByteBuffer);
+		view.get();
+		assertEquals(0, binaryObject.getByteBuffer().orElseThrow().position(), "independent views");
+		assertFalse(binaryObject.isEmpty());
+		assertArrayEquals(binaryObject.get(), binaryObject.stream().findFirst().orElseThrow());
+		assertArrayEquals(binaryObject.get(),
+			binaryObject.streamOptional().findFirst().orElseThrow().orElseThrow());
+		// compared by identity like byte arrays:
+		assertEquals(binaryObject, new OptionalBinaryObject(buffer));
+		assertEquals(binaryObject.hashCode(), new OptionalBinaryObject(buffer).hashCode());
+		assertNotEquals(binaryObject, new OptionalBinaryObject(new MappedResources(0).map(file)));
+		assertNotEquals(binaryObject, new OptionalBinaryObject(binaryObject.get()));
+		binaryObject.set(new byte[0]);
+		assertFalse(binaryObject.isMapped());
+	}
+
+	@Test
+	public void testMappedInjectionFallback()
+	{
+		final ResourceInjector resourceInjector =
+			new ResourceInjector(Locale.ROOT).withBinaryLoading(BinaryLoading.MAPPED);
+		final MappedTestResources resources = resourceInjector.injectResourcesInto(MappedTestResources.class);
+		assertNotNull(resources);
+		assertFalse(resources.icon.isMapped(), "small files are read into the heap");
+		assertArrayEquals(new byte[]
+		{
+			'A'
+		}, resources.icon.get());
+		assertSame(resources.icon.get(), resources.icon.get());
+		assertEquals(1, resources.icon.getByteBuffer().orElseThrow().remaining());
+		assertNull(resources.missing);
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.InjectionPlanTest.TestResources;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class MissingResourceCache.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class MissingResourceCacheTest
+{
+	private final Module module = MissingResourceCacheTest.class.getModule();
+	private final AtomicLong time = new AtomicLong();
+
+	@Test
+	public void testTimeToLive()
+	{
+		final var cache = new MissingResourceCache(4, Duration.ofNanos(100), time::get);
+		assertFalse(cache.isBundleMissing(module, "a.b", Locale.ROOT));
+		cache.putBundleMissing(module, "a.b", Locale.ROOT);
+		cache.putFileMissing(module, "/a/b.png");
+		assertTrue(cache.isBundleMissing(module, "a.b", Locale.ROOT));
+		assertFalse(cache.isBundleMissing(module, "a.b", Locale.GERMAN));
+		assertTrue(cache.isFileMissing(module, "/a/b.png"));
+		assertFalse(cache.isFileMissing(module, "/a/c.png"));
+		time.set(99);
+		assertTrue(cache.isBundleMissing(module, "a.b", Locale.ROOT));
+		time.set(100);
+		assertFalse(cache.isBundleMissing(module, "a.b", Locale.ROOT), "entry must expire");
+		assertEquals(1, cache.size());
+		cache.setTimeToLive(Duration.ZERO);
+		assertEquals(0, cache.size());
+		cache.putFileMissing(module, "/a/b.png");
+		assertFalse(cache.isFileMissing(module, "/a/b.png"), "cache must be disabled");
+		assertThrows(IllegalArgumentException.class, () -> cache.setTimeToLive(Duration.ofSeconds(-1)));
+	}
+
+	@Test
+	public void testBounded()
+	{
+		final var cache = new MissingResourceCache(2, Duration.ofHours(1), time::get);
+		cache.putFileMissing(module, "/1");
+		cache.putFileMissing(module, "/2");
+		assertTrue(cache.isFileMissing(module, "/1"));
+		cache.putFileMissing(module, "/3");
+		assertEquals(2, cache.size());
+		assertTrue(cache.isFileMissing(module, "/1"));
+		assertFalse(cache.isFileMissing(module, "/2"), "least recently used entry must be evicted");
+		assertTrue(cache.isFileMissing(module, "/3"));
+	}
+
+	@Test
+	public void testExpiredEntriesArePurged()
+	{
+		final var cache = new MissingResourceCache(8, Duration.ofNanos(100), time::get);
+		cache.putFileMissing(module, "/1");
+		cache.putBundleMissing(module, "a.b", Locale.ROOT);
+		time.set(100);
+		cache.putFileMissing(module, "/2");
+		assertEquals(1, cache.size(), "expired entries must be removed on insertion");
+		assertTrue(cache.isFileMissing(module, "/2"));
+	}
+
+	@Test
+	public void testInvalidate()
+	{
+		final var cache = new MissingResourceCache(8, Duration.ofHours(1), time::get);
+		final Module otherModule = Object.class.getModule();
+		cache.putBundleMissing(module, "a.b", Locale.ROOT);
+		cache.putFileMissing(otherModule, "/1");
+		cache.invalidate(module);
+		assertFalse(cache.isBundleMissing(module, "a.b", Locale.ROOT));
+		assertTrue(cache.isFileMissing(otherModule, "/1"));
+		cache.invalidate();
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testSharedByInjectors()
+	{
+		ResourceCaches.invalidateMissingResources();
+		ResourceCaches.invalidateBinaryResources();
+		assertEquals(0, ResourceCaches.getMissingResourcesCount());
+		assertEquals(MissingResourceCache.DEFAULT_TIME_TO_LIVE,
+			ResourceCaches.getMissingResourcesTimeToLive());
+		new ResourceInjector(Locale.ROOT).injectResourcesInto(TestResources.class);
+		// missing bundle + missing binary resources icon, nested.icons × 2:
+		assertEquals(4, ResourceCaches.getMissingResourcesCount());
+		final long skipped = InjectionStatistics.getMissingResourcesSkipped();
+		new ResourceInjector(Locale.ROOT).injectResourcesInto(TestResources.class);
+		// the enum byte array map nested.icons is served by the binary resource cache:
+		assertEquals(skipped + 2, InjectionStatistics.getMissingResourcesSkipped());
+		ResourceCaches.invalidateMissingResources(TestResources.class.getModule());
+		assertEquals(0, ResourceCaches.getMissingResourcesCount());
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the injection of {@link BinaryResourceStream} and
+ * {@link BinaryResourceChannel} fields.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class ModuleResourceHandleTest
+{
+	private static final BinaryResourceStream PRESET = InputStream::nullInputStream;
+
+	@StringResources(packagename = ".concurrency.a", basename = "strings")
+	@BinaryResources(packagename = ".concurrency.a", defaultExtension = ".bin")
+	public static class StreamResources extends ResourceHolder
+	{
+		public BinaryResourceStream icon;
+		@ResourceKey("icon")
+		public BinaryResourceChannel iconChannel;
+		public BinaryResourceStream missing;
+		@ResourceKey("missing")
+		public BinaryResourceStream missingPreset = PRESET;
+		@ResourceKey("missing")
+		public BinaryResourceChannel missingChannel;
+	}
+
+	@Test
+	public void testInjection() throws IOException
+	{
+		for (InjectionBackend backend : InjectionBackend.values())
+		{
+			final StreamResources resources = new ResourceInjector(Locale.ROOT)
+				.withInjectionBackend(backend).injectResourcesInto(StreamResources.class);
+			assertNotNull(resources);
+			assertNotNull(resources.icon, backend.name());
+			for (int i = 0; i < 2; i++)
+			{
+				try (InputStream inputStream = resources.icon.openStream())
+				{
+					assertArrayEquals(new byte[]
+					{
+						'A'
+					}, inputStream.readAllBytes(), "re-openable");
+				}
+			}
+			try (ReadableByteChannel channel = resources.iconChannel.openChannel())
+			{
+				assertTrue(channel instanceof FileChannel, "test resources are regular files");
+				final ByteBuffer buffer = ByteBuffer.allocate(2);
+				assertEquals(1, channel.read(buffer));
+				assertEquals('A', buffer.get(0));
+			}
+			assertNull(resources.missing);
+			assertNull(resources.missingChannel);
+			assertSame(PRESET, resources.missingPreset, "field kept, if resource is missing");
+		}
+	}
+
+	@Test
+	public void testModuleHandle() throws IOException
+	{
+		final String path = "/" + getClass().getPackageName().replace('.', '/') + "/concurrency/b/icon.bin";
+		final Module module = getClass().getModule();
+		final ModuleResourceHandle handle = new ModuleResourceHandle(module, path, null);
+		try (ReadableByteChannel channel = handle.openChannel())
+		{
+			assertFalse(channel instanceof FileChannel);
+			final ByteBuffer buffer = ByteBuffer.allocate(4);
+			while (channel.read(buffer) >= 0)
+			{
+			}
+			assertEquals(2, buffer.position());
+		}
+		assertEquals(handle, new ModuleResourceHandle(module, path, MappedResources.findFile(module, path)));
+		assertThrows(NoSuchFileException.class,
+			() -> new ModuleResourceHandle(module, "/does/not/exist.bin", null).openStream());
+	}
+}
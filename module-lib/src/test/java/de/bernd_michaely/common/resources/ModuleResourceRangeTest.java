@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the injection of {@link BinaryResourceRange} fields. The
+ * test resource consists of 1000 digits, cycling from 0 to 9.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class ModuleResourceRangeTest
+{
+	private static final String PATH =
+		"/" + ModuleResourceRangeTest.class.getPackageName().replace('.', '/') + "/range/digits.txt";
+	private static final int SIZE = 1000;
+
+	@BinaryResources(packagename = ".range", defaultExtension = ".txt")
+	public static class RangeResources extends ResourceHolder
+	{
+		public BinaryResourceRange digits;
+		public BinaryResourceRange missing;
+	}
+
+	private static String read(BinaryResourceRange range, long offset, ByteBuffer buffer)
+		throws IOException
+	{
+		buffer.clear();
+		final int n = range.read(offset, buffer);
+		assertEquals(Math.max(n, 0), buffer.position());
+		final byte[] data = new byte[buffer.flip().remaining()];
+		buffer.get(data);
+		return new String(data, US_ASCII);
+	}
+
+	private static void checkRange(BinaryResourceRange range) throws IOException
+	{
+		assertEquals(SIZE, range.size());
+		for (ByteBuffer buffer : new ByteBuffer[]
+		{
+			ByteBuffer.allocate(4), ByteBuffer.allocateDirect(4)
+		})
+		{
+			assertEquals("0123", read(range, 0, buffer));
+			assertEquals("5678", read(range, 995, buffer));
+			assertEquals("89", read(range, 998, buffer), "read truncated at end");
+			assertEquals(-1, range.read(SIZE, buffer.clear()));
+			assertEquals(-1, range.read(Long.MAX_VALUE, buffer.clear()));
+			final BinaryResourceRange slice = range.slice(503, 3);
+			assertEquals(3, slice.size());
+			assertEquals("345", read(slice, 0, buffer));
+			assertEquals("5", read(slice, 2, buffer));
+			assertEquals(-1, slice.read(3, buffer.clear()));
+			assertEquals("4", read(slice.slice(1, 1), 0, buffer), "slice of slice");
+			assertEquals(0, slice.slice(5, 10).size(), "slice beyond end");
+			final BinaryResourceRange tail = range.slice(990, Long.MAX_VALUE);
+			assertEquals(10, tail.size());
+			assertEquals("0123", read(tail, 0, buffer));
+			assertEquals(-1, tail.read(10, buffer.clear()));
+			assertEquals(0, range.read(0, buffer.clear().limit(0)));
+		}
+		assertThrows(IllegalArgumentException.class, () -> range.read(-1, ByteBuffer.allocate(1)));
+		assertThrows(IllegalArgumentException.class, () -> range.slice(-1, 1));
+		assertThrows(IllegalArgumentException.class, () -> range.slice(1, -1));
+	}
+
+	@Test
+	public void testInjection() throws IOException
+	{
+		for (InjectionBackend backend : InjectionBackend.values())
+		{
+			final RangeResources resources = new ResourceInjector(Locale.ROOT)
+				.withInjectionBackend(backend).injectResourcesInto(RangeResources.class);
+			assertNotNull(resources);
+			assertNotNull(resources.digits, backend.name());
+			assertNull(resources.missing);
+			checkRange(resources.digits);
+		}
+	}
+
+	@Test
+	public void testFileRange() throws IOException
+	{
+		final Module module = getClass().getModule();
+		final ModuleResourceHandle handle =
+			new ModuleResourceHandle(module, PATH, MappedResources.findFile(module, PATH));
+		assertNotNull(handle.getFile(), "test resources are regular files");
+		checkRange(new ModuleResourceRange(handle));
+	}
+
+	@Test
+	public void testStreamRange() throws IOException
+	{
+		final var range = new ModuleResourceRange(
+			new ModuleResourceHandle(getClass().getModule(), PATH, null));
+		checkRange(range);
+		assertEquals(range.slice(7, 3), range.slice(7, 3));
+		assertNotEquals(range.slice(7, 3), range.slice(7, 4));
+	}
+}
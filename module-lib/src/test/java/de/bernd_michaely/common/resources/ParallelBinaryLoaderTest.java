@@ -0,0 +1,141 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.BinaryInternerTest.ButtonType;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for class ParallelBinaryLoader and
+ * {@link ResourceInjector#withParallelBinaryLoading(int)}.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class ParallelBinaryLoaderTest
+{
+	@BinaryResources(packagename = ".dedup", defaultExtension = ".bin")
+	public static class ParallelResources extends ResourceHolder
+	{
+		public final OptionalBinaryObject icon = new OptionalBinaryObject();
+		public final OptionalBinaryObject other = new OptionalBinaryObject();
+		public final OptionalBinaryObject missing = new OptionalBinaryObject();
+		public BinaryResourceBuffer copy;
+		@EnumType(ButtonType.class)
+		public EnumByteArrayMap<ButtonType> buttonIcons;
+	}
+
+	private static void checkResources(ParallelResources resources)
+	{
+		final byte[] placeholder = "placeholder".getBytes(US_ASCII);
+		assertArrayEquals(placeholder, resources.icon.get());
+		assertNotNull(resources.copy);
+		assertEquals(ByteBuffer.wrap(placeholder), resources.copy.getByteBuffer());
+		assertTrue(resources.other.isPresent());
+		assertFalse(resources.missing.isPresent());
+		assertArrayEquals(placeholder, resources.buttonIcons.get(ButtonType.TWO));
+		assertEquals(3, resources.buttonIcons.size());
+	}
+
+	@Test
+	public void testLoadConcurrencyLimit()
+	{
+		final int maxConcurrency = 3;
+		final AtomicInteger active = new AtomicInteger();
+		final AtomicInteger maxActive = new AtomicInteger();
+		final Map<Integer, ByteBuffer> result = ParallelBinaryLoader.load(
+			IntStream.range(0, 20).boxed().collect(Collectors.toList()), key ->
+		{
+			maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+			try
+			{
+				Thread.sleep(5);
+			}
+			catch (InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+			}
+			active.decrementAndGet();
+			return (key % 5 == 0) ? Optional.empty() : Optional.of(ByteBuffer.allocate(key));
+		}, null, maxConcurrency);
+		assertEquals(16, result.size());
+		assertEquals(7, result.get(7).capacity());
+		assertFalse(result.containsKey(5));
+		assertTrue(maxActive.get() <= maxConcurrency, "max active: " + maxActive.get());
+	}
+
+	@Test
+	public void testInjection()
+	{
+		ResourceCaches.invalidateBinaryResources();
+		final AtomicInteger submitted = new AtomicInteger();
+		final Executor executor = runnable ->
+		{
+			submitted.incrementAndGet();
+			new Thread(runnable).start();
+		};
+		final var resourceInjector = new ResourceInjector(Locale.ROOT)
+			.withParallelBinaryLoading(3, executor);
+		assertEquals(3, resourceInjector.getBinaryLoadingConcurrency());
+		final var resources = new ParallelResources();
+		resourceInjector.injectResourcesInto(resources);
+		checkResources(resources);
+		assertEquals(2, submitted.get(), "calling thread is the third reader");
+		// cached resources are not read again:
+		final var other = new ParallelResources();
+		resourceInjector.injectResourcesInto(other);
+		checkResources(other);
+		assertEquals(2, submitted.get());
+		assertSame(resources.buttonIcons, other.buttonIcons);
+	}
+
+	@Test
+	public void testRejectingExecutor()
+	{
+		ResourceCaches.invalidateBinaryResources();
+		final Executor executor = runnable ->
+		{
+			throw new RejectedExecutionException();
+		};
+		final var resources = new ParallelResources();
+		new ResourceInjector(Locale.ROOT).withParallelBinaryLoading(4, executor)
+			.injectResourcesInto(resources);
+		checkResources(resources);
+	}
+
+	@Test
+	public void testDefaultExecutor()
+	{
+		ResourceCaches.invalidateBinaryResources();
+		final var resources = new ParallelResources();
+		new ResourceInjector(Locale.ROOT).withParallelBinaryLoading(8).injectResourcesInto(resources);
+		checkResources(resources);
+		assertEquals(1, new ResourceInjector().getBinaryLoadingConcurrency());
+		assertThrows(IllegalArgumentException.class,
+			() -> new ResourceInjector().withParallelBinaryLoading(0));
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import de.bernd_michaely.common.resources.InjectionPlanTest.TestEnum;
+import de.bernd_michaely.common.resources.InjectionPlanTest.TestResources;
+import de.bernd_michaely.common.resources.ResourceHolderInjectors.Binding;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the usage of generated ResourceHolderInjectors.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class ResourceHolderInjectorsTest
+{
+	@Test
+	public void testLookup()
+	{
+		final Binding binding = ResourceHolderInjectors.get(GeneratedTestResources.class);
+		assertNotNull(binding);
+		assertInstanceOf(GeneratedTestResources$$Injector.class, binding.injector());
+		assertSame(binding, ResourceHolderInjectors.get(GeneratedTestResources.class));
+		assertEquals(GeneratedTestResources.class.getPackageName() + ".strings.string",
+			binding.resourceLocation().getBundleBaseName());
+		assertNull(ResourceHolderInjectors.get(TestResources.class));
+	}
+
+	@Test
+	public void testInjection()
+	{
+		final ResourceInjector resourceInjector = new ResourceInjector(Locale.ROOT);
+		assertTrue(resourceInjector.isUsingGeneratedInjectors());
+		final int injections = GeneratedTestResources$$Injector.injections;
+		final GeneratedTestResources generated = resourceInjector.injectResourcesInto(
+			GeneratedTestResources.class);
+		assertEquals(injections + 1, GeneratedTestResources$$Injector.injections);
+		final ResourceInjector reflectiveInjector = resourceInjector.withGeneratedInjectors(false);
+		assertFalse(reflectiveInjector.isUsingGeneratedInjectors());
+		final GeneratedTestResources reflective = reflectiveInjector.injectResourcesInto(
+			GeneratedTestResources.class);
+		assertEquals(injections + 1, GeneratedTestResources$$Injector.injections);
+		assertNotNull(generated);
+		assertNotNull(reflective);
+		assertEquals(Locale.ROOT, generated.getLocale());
+		assertEquals(reflective.title, generated.title);
+		assertEquals(reflective.enumStrings, generated.enumStrings);
+		assertEquals(reflective.enumIcons, generated.enumIcons);
+		assertEquals(reflective.icon, generated.icon);
+		assertEquals(reflective.nested.label, generated.nested.label);
+		assertEquals(reflective.nested.titles, generated.nested.titles);
+		assertEquals(reflective.nested.titles.get(TestEnum.TWO), generated.nested.titles.get(TestEnum.TWO));
+		assertEquals(reflective.nested.icons, generated.nested.icons);
+	}
+}
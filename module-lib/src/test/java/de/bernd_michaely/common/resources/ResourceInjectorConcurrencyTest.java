@@ -0,0 +1,244 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress test for the concurrent usage of shared ResourceInjector instances.
+ * ResourceHolder classes with the same field names but different resource
+ * locations are injected concurrently using all injection backends and
+ * different locales, so any mix up of the resource parameters of different
+ * classes would result in wrong values.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class ResourceInjectorConcurrencyTest
+{
+	private static final int NUM_THREADS = 8;
+	private static final int NUM_ITERATIONS = 400;
+
+	public enum Choice
+	{
+		ONE, TWO
+	}
+
+	@GenericResources
+	public static class NestedResources
+	{
+		public String label;
+	}
+
+	@StringResources(packagename = ".concurrency.a", basename = "strings")
+	@BinaryResources(packagename = ".concurrency.a", defaultExtension = ".bin")
+	public static class ResourcesA extends ResourceHolder
+	{
+		public String title;
+		public String label;
+		@EnumType(Choice.class)
+		public EnumStringMap<Choice> choices;
+		public final OptionalBinaryObject icon = new OptionalBinaryObject();
+		public NestedResources nested;
+	}
+
+	@StringResources(packagename = ".concurrency.b", basename = "strings")
+	@BinaryResources(packagename = ".concurrency.b", defaultExtension = ".bin")
+	public static class ResourcesB extends ResourceHolder
+	{
+		public String title;
+		public String label;
+		@EnumType(Choice.class)
+		public EnumStringMap<Choice> choices;
+		public final OptionalBinaryObject icon = new OptionalBinaryObject();
+		public NestedResources nested;
+	}
+
+	/**
+	 * ResourceHolder with missing resources, which are replaced by fallback
+	 * values.
+	 */
+	@StringResources(packagename = ".concurrency.c", basename = "strings")
+	@BinaryResources(packagename = ".concurrency.c", defaultExtension = ".bin")
+	public static class ResourcesC extends ResourceHolder
+	{
+		public String title;
+		public String label;
+		@EnumType(Choice.class)
+		public EnumStringMap<Choice> choices;
+		public final OptionalBinaryObject icon = new OptionalBinaryObject();
+		public NestedResources nested;
+	}
+
+	/**
+	 * Uniform view of the injected values of the test ResourceHolders.
+	 */
+	private record Values(Class<?> type, Locale locale, String title, String label,
+		EnumStringMap<Choice> choices, byte @Nullable [] icon, String nestedLabel)
+	{
+		private static byte @Nullable [] getData(OptionalBinaryObject binaryObject)
+		{
+			return binaryObject.isPresent() ? binaryObject.get() : null;
+		}
+
+		private static Values of(ResourceHolder resourceHolder)
+		{
+			if (resourceHolder instanceof ResourcesA r)
+			{
+				return new Values(r.getClass(), r.getLocale(), r.title, r.label, r.choices, getData(r.icon),
+					r.nested.label);
+			}
+			else if (resourceHolder instanceof ResourcesB r)
+			{
+				return new Values(r.getClass(), r.getLocale(), r.title, r.label, r.choices, getData(r.icon),
+					r.nested.label);
+			}
+			else if (resourceHolder instanceof ResourcesC r)
+			{
+				return new Values(r.getClass(), r.getLocale(), r.title, r.label, r.choices, getData(r.icon),
+					r.nested.label);
+			}
+			else
+			{
+				throw new IllegalArgumentException("Unexpected type: " + resourceHolder.getClass());
+			}
+		}
+	}
+
+	private static final List<Class<? extends ResourceHolder>> TYPES =
+		List.of(ResourcesA.class, ResourcesB.class, ResourcesC.class);
+
+	private static Values inject(ResourceInjector resourceInjector, Class<? extends ResourceHolder> type)
+	{
+		final ResourceHolder resourceHolder = resourceInjector.injectResourcesInto(type);
+		assertNotNull(resourceHolder);
+		return Values.of(resourceHolder);
+	}
+
+	@Test
+	public void testReferenceValues()
+	{
+		final ResourceInjector resourceInjector = new ResourceInjector(Locale.ROOT);
+		final Values a = inject(resourceInjector, ResourcesA.class);
+		assertEquals("Title A", a.title());
+		assertEquals("Label A", a.label());
+		assertEquals("Two A", a.choices().get(Choice.TWO));
+		assertArrayEquals(new byte[]
+		{
+			'A'
+		}, a.icon());
+		assertEquals("Nested label A", a.nestedLabel());
+		final Values b = inject(resourceInjector, ResourcesB.class);
+		assertEquals("Title B", b.title());
+		assertEquals("Nested label B", b.nestedLabel());
+		assertArrayEquals(new byte[]
+		{
+			'B', 'B'
+		}, b.icon());
+		final Values c = inject(resourceInjector, ResourcesC.class);
+		assertEquals("One", c.choices().get(Choice.ONE));
+		assertNull(c.icon());
+	}
+
+	@Test
+	public void testConcurrentInjection() throws Exception
+	{
+		final List<ResourceInjector> resourceInjectors = new ArrayList<>();
+		for (InjectionBackend backend : InjectionBackend.values())
+		{
+			final ResourceInjector resourceInjector = new ResourceInjector(Locale.ROOT)
+				.withInjectionBackend(backend);
+			resourceInjectors.add(resourceInjector);
+			resourceInjectors.add(resourceInjector.withLocale(Locale.GERMAN));
+			resourceInjectors.add(resourceInjector.withBinaryLoading(BinaryLoading.LAZY_BUDGET));
+		}
+		// reference values of sequential injection:
+		final List<Values> expected = new ArrayList<>();
+		for (Class<? extends ResourceHolder> type : TYPES)
+		{
+			expected.add(inject(new ResourceInjector(Locale.ROOT), type));
+		}
+		final ExecutorService executorService = Executors.newFixedThreadPool(NUM_THREADS);
+		try
+		{
+			final CountDownLatch startSignal = new CountDownLatch(1);
+			final List<Future<Integer>> futures = new ArrayList<>();
+			for (int t = 0; t < NUM_THREADS; t++)
+			{
+				final int threadIndex = t;
+				futures.add(executorService.submit(() ->
+				{
+					startSignal.await();
+					int count = 0;
+					for (int i = 0; i < NUM_ITERATIONS; i++)
+					{
+						final int typeIndex = (threadIndex + i) % TYPES.size();
+						final Class<? extends ResourceHolder> type = TYPES.get(typeIndex);
+						if ((threadIndex + i) % 97 == 0)
+						{
+							// force concurrent re-creation of the plan:
+							InjectionPlan.invalidate(type);
+						}
+						final ResourceInjector resourceInjector =
+							resourceInjectors.get((threadIndex * 7 + i) % resourceInjectors.size());
+						final Values actual = inject(resourceInjector, type);
+						final Values reference = expected.get(typeIndex);
+						assertEquals(type, actual.type());
+						assertEquals(resourceInjector.getLocale(), actual.locale());
+						assertEquals(reference.title(), actual.title());
+						assertEquals(reference.label(), actual.label());
+						assertEquals(reference.choices(), actual.choices());
+						assertArrayEquals(reference.icon(), actual.icon());
+						assertEquals(reference.nestedLabel(), actual.nestedLabel());
+						count++;
+					}
+					return count;
+				}));
+			}
+			startSignal.countDown();
+			for (Future<Integer> future : futures)
+			{
+				try
+				{
+					assertEquals(NUM_ITERATIONS, future.get(60, TimeUnit.SECONDS).intValue());
+				}
+				catch (ExecutionException ex)
+				{
+					if (ex.getCause() instanceof AssertionError assertionError)
+					{
+						throw assertionError;
+					}
+					throw ex;
+				}
+			}
+		}
+		finally
+		{
+			executorService.shutdownNow();
+		}
+	}
+}
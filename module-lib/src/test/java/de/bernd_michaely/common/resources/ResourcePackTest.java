@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for classes ResourcePack and ResourcePackWriter.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class ResourcePackTest
+{
+	public enum ButtonType
+	{
+		ONE, TWO, THREE
+	}
+
+	@BinaryResources(packagename = ".pack", defaultExtension = ".bin")
+	public static class PackedResources extends ResourceHolder
+	{
+		public final OptionalBinaryObject icon = new OptionalBinaryObject();
+		public final OptionalBinaryObject loose = new OptionalBinaryObject();
+		public final OptionalBinaryObject missing = new OptionalBinaryObject();
+		@EnumType(ButtonType.class)
+		public EnumByteArrayMap<ButtonType> buttonIcons;
+	}
+
+	private static byte[] write(ResourcePackWriter writer) throws IOException
+	{
+		final var outputStream = new ByteArrayOutputStream();
+		writer.write(outputStream);
+		return outputStream.toByteArray();
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		final byte[] pack = write(new ResourcePackWriter()
+			.add("a.bin", "first".getBytes(US_ASCII))
+			.add("b.bin", new byte[0])
+			.add("c.bin", "first".getBytes(US_ASCII))
+			.add("d.bin", "second".getBytes(US_ASCII)));
+		final ResourcePack resourcePack = ResourcePack.read(pack);
+		assertEquals(4, resourcePack.size());
+		assertArrayEquals("first".getBytes(US_ASCII), resourcePack.getData("/x/y/a.bin"));
+		assertArrayEquals(new byte[0], resourcePack.getData("/x/y/b.bin"));
+		assertArrayEquals("first".getBytes(US_ASCII), resourcePack.getData("/x/y/c.bin"));
+		assertArrayEquals("second".getBytes(US_ASCII), resourcePack.getData("/x/y/d.bin"));
+		assertNull(resourcePack.getData("/x/y/e.bin"));
+		final byte[] unique = write(new ResourcePackWriter()
+			.add("a.bin", "first".getBytes(US_ASCII))
+			.add("b.bin", new byte[0])
+			.add("c.bin", "FIRST".getBytes(US_ASCII))
+			.add("d.bin", "second".getBytes(US_ASCII)));
+		assertEquals(unique.length - "first".length(), pack.length,
+			"identical entries must share their data");
+	}
+
+	@Test
+	public void testWriterArguments()
+	{
+		final var writer = new ResourcePackWriter();
+		assertThrows(NullPointerException.class, () -> writer.add(null, new byte[0]));
+		assertThrows(NullPointerException.class, () -> writer.add("a.bin", null));
+		assertThrows(IllegalArgumentException.class, () -> writer.add("x/a.bin", new byte[0]));
+		final byte[] data = "data".getBytes(US_ASCII);
+		writer.add("a.bin", data).add("a.bin", data);
+		assertEquals(1, writer.size());
+	}
+
+	@Test
+	public void testInvalidPacks() throws IOException
+	{
+		assertThrows(IOException.class, () -> ResourcePack.read(new byte[0]));
+		assertThrows(IOException.class, () -> ResourcePack.read("not a pack".getBytes(US_ASCII)));
+		final byte[] pack = write(new ResourcePackWriter().add("a.bin", "content".getBytes(US_ASCII)));
+		assertThrows(IOException.class, () -> ResourcePack.read(Arrays.copyOf(pack, pack.length - 1)));
+	}
+
+	@Test
+	public void testInjectionFromPack()
+	{
+		ResourceCaches.invalidateBinaryResources();
+		final long packedResourceReads = InjectionStatistics.getPackedResourceReads();
+		final var resources = new PackedResources();
+		final var resourceInjector = new ResourceInjector(Locale.ROOT).withResourcePacks(true);
+		assertTrue(resourceInjector.isReadingResourcePacks());
+		resourceInjector.injectResourcesInto(resources);
+		assertArrayEquals("packed icon".getBytes(US_ASCII), resources.icon.get());
+		assertArrayEquals("loose".getBytes(US_ASCII), resources.loose.get(),
+			"resources missing in the pack are read from separate files");
+		assertFalse(resources.missing.isPresent());
+		assertArrayEquals("packed".getBytes(US_ASCII), resources.buttonIcons.get(ButtonType.ONE));
+		assertArrayEquals("packed".getBytes(US_ASCII), resources.buttonIcons.get(ButtonType.TWO));
+		assertFalse(resources.buttonIcons.containsKey(ButtonType.THREE));
+		assertEquals(packedResourceReads + 3, InjectionStatistics.getPackedResourceReads());
+	}
+
+	@Test
+	public void testPacksDisabledByDefault()
+	{
+		ResourceCaches.invalidateBinaryResources();
+		final long packedResourceReads = InjectionStatistics.getPackedResourceReads();
+		final var resources = new PackedResources();
+		final var resourceInjector = new ResourceInjector(Locale.ROOT);
+		assertFalse(resourceInjector.isReadingResourcePacks());
+		resourceInjector.injectResourcesInto(resources);
+		assertFalse(resources.icon.isPresent(), "the pack is ignored");
+		assertArrayEquals("loose".getBytes(US_ASCII), resources.loose.get());
+		assertEquals(packedResourceReads, InjectionStatistics.getPackedResourceReads());
+		ResourceCaches.invalidateBinaryResources();
+	}
+}
@@ -87,6 +87,8 @@ public class ResourceParametersTest
 		assertEquals("str", params.getBasename());
 		assertEquals("b.d", params.getBinaryResourcePackageName());
 		assertEquals(".bin", params.getDefaultExtension());
+		assertEquals("a.c.str", params.getBundleBaseName());
+		assertEquals("/b/d/", params.getBinaryPathPrefix());
 		final Module module = Void.class.getModule();
 		assertEquals(module, params.getStringResourcesModule(null));
 		assertEquals(module, params.getBinaryResourcesModule(null));
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024 Bernd Michaely (info@bernd-michaely.de).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bernd_michaely.common.resources;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the injection of {@link BinaryResourceBuffer} fields.
+ *
+ * @author Bernd Michaely (info@bernd-michaely.de)
+ */
+public class SharedBinaryBufferTest
+{
+	private static final BinaryResourceBuffer PRESET = () -> ByteBuffer.allocate(0);
+
+	@StringResources(packagename = ".dedup", basename = "strings")
+	@BinaryResources(packagename = ".dedup", defaultExtension = ".bin")
+	public static class BufferResources extends ResourceHolder
+	{
+		public BinaryResourceBuffer icon;
+		public BinaryResourceBuffer copy;
+		public BinaryResourceBuffer missing;
+		@ResourceKey("missing")
+		public BinaryResourceBuffer missingPreset = PRESET;
+	}
+
+	@Test
+	public void testReadOnlyViews()
+	{
+		final byte[] data = "shared".getBytes(US_ASCII);
+		final var buffer = new SharedBinaryBuffer(data);
+		assertEquals(6, buffer.size());
+		final ByteBuffer view = buffer.getByteBuffer();
+		assertTrue(view.isReadOnly());
+		assertThrows(ReadOnlyBufferException.class, () -> view.put(0, (byte) 0));
+		view.position(3);
+		assertEquals(0, buffer.getByteBuffer().position(), "independent positions");
+		assertEquals(ByteBuffer.wrap(data), buffer.getByteBuffer());
+		assertEquals(buffer, new SharedBinaryBuffer("shared".getBytes(US_ASCII)));
+		assertEquals(buffer.hashCode(), new SharedBinaryBuffer(ByteBuffer.wrap(data)).hashCode());
+		assertNotEquals(buffer, new SharedBinaryBuffer(new byte[6]));
+		assertTrue(buffer.sharesStorageWith(new SharedBinaryBuffer(ByteBuffer.wrap(data))));
+		assertFalse(buffer.sharesStorageWith(new SharedBinaryBuffer(data.clone())));
+		final ByteBuffer sliced = ByteBuffer.wrap(data).position(2);
+		assertEquals(4, new SharedBinaryBuffer(sliced).size());
+		assertEquals(0, new SharedBinaryBuffer(sliced).getByteBuffer().position());
+	}
+
+	@Test
+	public void testInjection()
+	{
+		for (InjectionBackend backend : InjectionBackend.values())
+		{
+			final var injector = new ResourceInjector(Locale.ROOT).withInjectionBackend(backend);
+			final BufferResources first = injector.injectResourcesInto(BufferResources.class);
+			final BufferResources second = new ResourceInjector(Locale.GERMAN)
+				.withInjectionBackend(backend).injectResourcesInto(BufferResources.class);
+			assertNotNull(first);
+			assertNotNull(second);
+			assertNotNull(first.icon, backend.name());
+			assertEquals(ByteBuffer.wrap("placeholder".getBytes(US_ASCII)), first.icon.getByteBuffer());
+			assertTrue(first.icon.getByteBuffer().isReadOnly());
+			// one backing store for all holders and identical resources:
+			final var icon = (SharedBinaryBuffer) first.icon;
+			assertTrue(icon.sharesStorageWith((SharedBinaryBuffer) second.icon));
+			assertTrue(icon.sharesStorageWith((SharedBinaryBuffer) first.copy));
+			assertNull(first.missing);
+			assertSame(PRESET, first.missingPreset, "field kept, if resource is missing");
+		}
+	}
+
+	@Test
+	public void testGetBinaryResources()
+	{
+		final Map<String, BinaryResourceBuffer> binaryResources = new ResourceInjector(Locale.ROOT)
+			.getBinaryResources(BinaryInternerTest.DedupResources.class);
+		final String prefix = "/" + getClass().getPackageName().replace('.', '/') + "/dedup/";
+		assertEquals(List.of(prefix + "icon.bin", prefix + "copy.bin", prefix + "other.bin",
+			prefix + "buttonIcons.ONE.bin", prefix + "buttonIcons.TWO.bin", prefix + "buttonIcons.THREE.bin"),
+			List.copyOf(binaryResources.keySet()));
+		assertEquals(ByteBuffer.wrap("three".getBytes(US_ASCII)),
+			binaryResources.get(prefix + "buttonIcons.THREE.bin").getByteBuffer());
+		assertThrows(UnsupportedOperationException.class, () -> binaryResources.clear());
+		final var injected = new ResourceInjector(Locale.ROOT)
+			.injectResourcesInto(BufferResources.class);
+		assertNotNull(injected);
+		assertTrue(((SharedBinaryBuffer) injected.icon).sharesStorageWith(
+			(SharedBinaryBuffer) binaryResources.get(prefix + "icon.bin")));
+		assertTrue(new ResourceInjector(Locale.ROOT).getBinaryResources(BufferResources.class)
+			.containsKey(prefix + "copy.bin"), "missing resources omitted");
+		assertEquals(2, new ResourceInjector(Locale.ROOT).getBinaryResources(BufferResources.class).size());
+	}
+}